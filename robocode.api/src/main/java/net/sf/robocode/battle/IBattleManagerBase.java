@@ -9,7 +9,11 @@ package net.sf.robocode.battle;
 
 
 import robocode.control.BattleSpecification;
+import robocode.control.events.BattleCompletedEvent;
 import robocode.control.events.IBattleListener;
+import robocode.control.metrics.IBattleMetrics;
+
+import java.util.concurrent.RunnableFuture;
 
 
 /**
@@ -25,4 +29,32 @@ public interface IBattleManagerBase {
 	void stop(boolean waitTillEnd);
 
 	void startNewBattle(BattleSpecification spec, String initialPositions, boolean waitTillOver, boolean enableCLIRecording);
+
+	/**
+	 * Creates a task running a battle that is independent of the battle controlled by this manager.
+	 * The battle gets its own event dispatcher and robot peers, and is run on the thread executing the task,
+	 * so several of these tasks can run concurrently.
+	 *
+	 * @param spec             the specification of the battle to run.
+	 * @param initialPositions the initial positions of the robots, or {@code null}.
+	 * @param listener         a listener receiving the events of this battle only, or {@code null}.
+	 * @return a task whose result is the completed event of the battle, or {@code null} if the battle was aborted.
+	 *         Cancelling the task aborts the battle.
+	 */
+	RunnableFuture<BattleCompletedEvent> createBattleTask(BattleSpecification spec, String initialPositions, IBattleListener listener);
+
+	/**
+	 * Returns a snapshot of the performance metrics of the current battle, or of the last battle if it is over.
+	 *
+	 * @return the metrics, or {@code null} if no battle has been run, or the last battle was a replay.
+	 */
+	IBattleMetrics getBattleMetrics();
+
+	/**
+	 * Checks if the CPU time of the robot threads can be measured, which is needed for giving the robots
+	 * running in parallel (-DPARALLEL=true) a fair share of CPU time.
+	 *
+	 * @return true if the CPU time of the robot threads is measured in parallel battles; false otherwise.
+	 */
+	boolean isRobotCpuTimeSupported();
 }
@@ -29,6 +29,9 @@ public class Logger {
 	public static final PrintStream realErr = System.err;
 
 	private static IBattleListener logListener;
+
+	// Listener overriding the global log listener for the current thread, e.g. a battle thread of a battle farm
+	private static final ThreadLocal<IBattleListener> threadLogListener = new ThreadLocal<IBattleListener>();
 	
 	private final static StringBuffer logBuffer = new StringBuffer();
 
@@ -36,12 +39,33 @@ public class Logger {
 		Logger.logListener = logListener;
 	}
 
+	/**
+	 * Sets the log listener for the current thread only, overriding the global log listener.
+	 *
+	 * @param logListener the listener to use for the current thread, or {@code null} to use the global one again.
+	 */
+	public static void setThreadLogListener(IBattleListener logListener) {
+		if (logListener == null) {
+			threadLogListener.remove();
+		} else {
+			threadLogListener.set(logListener);
+		}
+	}
+
+	private static IBattleListener getLogListener() {
+		IBattleListener listener = threadLogListener.get();
+
+		return (listener != null) ? listener : logListener;
+	}
+
 	public static void logMessage(String s) {
 		logMessage(s, true);
 	}
 
 	public static void logMessage(String s, boolean newline) {
-		if (logListener == null) {
+		final IBattleListener listener = getLogListener();
+
+		if (listener == null) {
 			if (System.getProperty("logMessages", "true").equalsIgnoreCase("true")) {
 				s = StringUtil.toBasicLatin(s);
 				if (newline) {
@@ -58,7 +82,7 @@ public class Logger {
 					logBuffer.append(s);
 					logBuffer.append("\n");
 				} else if (newline) {
-					logListener.onBattleMessage(new BattleMessageEvent(logBuffer + s));
+					listener.onBattleMessage(new BattleMessageEvent(logBuffer + s));
 					logBuffer.setLength(0);
 				} else {
 					logBuffer.append(s);
@@ -80,13 +104,15 @@ public class Logger {
 	}
 
 	public static void logError(String s) {
-		if (logListener == null) {
+		final IBattleListener listener = getLogListener();
+
+		if (listener == null) {
 			if (System.getProperty("logErrors", "true").equalsIgnoreCase("true")) {
 				s = StringUtil.toBasicLatin(s);
 				realErr.println(s);
 			}
 		} else {
-			logListener.onBattleError(new BattleErrorEvent(s));
+			listener.onBattleError(new BattleErrorEvent(s));
 		}
 	}
 
@@ -17,14 +17,23 @@ import robocode.Event;
 import java.io.*;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.*;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 
 /**
+ * Serializes the objects exchanged between the battle and the robots into a compact binary format.
+ * <p/>
+ * A serializer is not thread-safe, but it can be reused, and it reuses its own buffers and the encoding
+ * of strings that repeat, e.g. robot names, so serializing a turn does not create garbage. An object can
+ * be serialized without computing its size first with {@link #serializeToReusedBuffer(byte, Object)} or
+ * {@link #serializeStreaming(ByteBuffer, byte, Object)}.
+ *
  * @author Pavel Savara (original)
  */
 public final class RbSerializer {
@@ -82,6 +91,39 @@ public final class RbSerializer {
 	private static final int BYTE_ORDER = 0xC0DEDEA1;
 	private final int currentVersion;
 
+	private static final int HEADER_SIZE = SIZEOF_INT + SIZEOF_INT + SIZEOF_INT;
+
+	// The reused buffer starts small, and is replaced by a small one again after it has been grown too much
+	private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+	private static final int MAX_REUSED_BUFFER_SIZE = 1024 * 1024;
+
+	// Non-ASCII strings are encoded once and cached, as most strings are names that repeat every turn
+	private static final int MAX_CACHED_STRINGS = 256;
+	private static final int MAX_CACHED_STRING_LENGTH = 256;
+
+	// ASCII strings up to this length are decoded without the decoder
+	private static final int MAX_FAST_DECODED_LENGTH = 1024;
+
+	// The serializer used by the static methods on each thread
+	private static final ThreadLocal<RbSerializer> threadSerializer = new ThreadLocal<RbSerializer>() {
+		@Override
+		protected RbSerializer initialValue() {
+			return new RbSerializer();
+		}
+	};
+
+	private ByteBuffer reusedBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+	private final ByteBuffer headerBuffer = ByteBuffer.allocate(HEADER_SIZE);
+	private final char[] decodedChars = new char[MAX_FAST_DECODED_LENGTH];
+
+	@SuppressWarnings("serial")
+	private final Map<String, byte[]> encodedStrings = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+			return size() > MAX_CACHED_STRINGS;
+		}
+	};
+
 	static {
 		charset = Charset.forName("UTF8"); // we will use it as UCS-2
 		register(null, TERMINATOR_TYPE); // reserved for end of (list) element
@@ -103,40 +145,80 @@ public final class RbSerializer {
 	}
 
 	public void serialize(OutputStream target, byte type, Object object) throws IOException {
+		final ByteBuffer buffer = serializeToReusedBuffer(type, object);
+
+		target.write(buffer.array(), 0, buffer.limit());
+	}
+
+	public ByteBuffer serialize(byte type, Object object) throws IOException {
 		int length = sizeOf(type, object);
 
 		// header
-		ByteBuffer buffer = ByteBuffer.allocate(SIZEOF_INT + SIZEOF_INT + SIZEOF_INT);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(SIZEOF_INT + SIZEOF_INT + SIZEOF_INT + length);
 
 		buffer.putInt(BYTE_ORDER);
 		buffer.putInt(currentVersion);
 		buffer.putInt(length);
-		target.write(buffer.array());
 
 		// body
-		buffer = ByteBuffer.allocate(length);
 		serialize(buffer, type, object);
 		if (buffer.remaining() != 0) {
-			throw new IOException("Serialization failed: bad size"); 
+			throw new IOException("Serialization failed: bad size");
 		}
-		target.write(buffer.array());
+		return buffer;
 	}
 
-	public ByteBuffer serialize(byte type, Object object) throws IOException {
-		int length = sizeOf(type, object);
+	/**
+	 * Serializes an object with its header into a buffer owned by this serializer, without computing the
+	 * size of the object first. The buffer grows when the object does not fit, and is reused by the next call,
+	 * so the returned buffer is only valid until then.
+	 *
+	 * @param type   the serialization type of the object.
+	 * @param object the object to serialize.
+	 * @return the buffer holding the header and the object from position 0 to its limit.
+	 * @since 1.8.3.0
+	 */
+	public ByteBuffer serializeToReusedBuffer(byte type, Object object) {
+		if (reusedBuffer.capacity() > MAX_REUSED_BUFFER_SIZE) {
+			reusedBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+		}
+		while (true) {
+			final ByteBuffer buffer = reusedBuffer;
+
+			buffer.clear();
+			try {
+				serializeStreaming(buffer, type, object);
+				buffer.flip();
+				return buffer;
+			} catch (BufferOverflowException e) {
+				reusedBuffer = ByteBuffer.allocate(buffer.capacity() * 2);
+			}
+		}
+	}
 
-		// header
-		ByteBuffer buffer = ByteBuffer.allocateDirect(SIZEOF_INT + SIZEOF_INT + SIZEOF_INT + length);
+	/**
+	 * Serializes an object with its header into the given buffer from its position, without computing the
+	 * size of the object first. The length in the header is written when the object has been serialized.
+	 * The limit of the buffer is set to the end of the object.
+	 *
+	 * @param buffer the buffer owned by the caller.
+	 * @param type   the serialization type of the object.
+	 * @param object the object to serialize.
+	 * @return the given buffer.
+	 * @throws BufferOverflowException if the object does not fit into the buffer.
+	 * @since 1.8.3.0
+	 */
+	public ByteBuffer serializeStreaming(ByteBuffer buffer, byte type, Object object) {
+		final int start = buffer.position();
 
 		buffer.putInt(BYTE_ORDER);
 		buffer.putInt(currentVersion);
-		buffer.putInt(length);
+		buffer.putInt(0); // length, which is not known yet
 
-		// body
 		serialize(buffer, type, object);
-		if (buffer.remaining() != 0) {
-			throw new IOException("Serialization failed: bad size");
-		}
+
+		buffer.putInt(start + SIZEOF_INT + SIZEOF_INT, buffer.position() - start - HEADER_SIZE);
+		buffer.limit(buffer.position());
 		return buffer;
 	}
 
@@ -159,8 +241,9 @@ public final class RbSerializer {
 
 	public Object deserialize(InputStream source) throws IOException {
 		// header
-		ByteBuffer buffer = ByteBuffer.allocate(SIZEOF_INT + SIZEOF_INT + SIZEOF_INT);
+		ByteBuffer buffer = headerBuffer;
 
+		buffer.clear();
 		fillBuffer(source, buffer);
 		buffer.flip();
 		int bo = buffer.getInt();
@@ -176,7 +259,12 @@ public final class RbSerializer {
 		int length = buffer.getInt();
 
 		// body
-		buffer = ByteBuffer.allocate(length);
+		if (reusedBuffer.capacity() < length || reusedBuffer.capacity() > MAX_REUSED_BUFFER_SIZE) {
+			reusedBuffer = ByteBuffer.allocate(Math.max(length, INITIAL_BUFFER_SIZE));
+		}
+		buffer = reusedBuffer;
+		buffer.clear();
+		buffer.limit(length);
 		fillBuffer(source, buffer);
 		buffer.flip();
 		final Object res = deserializeAny(buffer);
@@ -233,11 +321,19 @@ public final class RbSerializer {
 	public void serialize(ByteBuffer buffer, String data) {
 		if (data == null) {
 			buffer.putInt(-1);
+		} else if (isAscii(data)) {
+			// UTF-8 of ASCII is the characters as bytes
+			final int length = data.length();
+
+			buffer.putInt(length);
+			for (int i = 0; i < length; i++) {
+				buffer.put((byte) data.charAt(i));
+			}
 		} else {
-			ByteBuffer slice = encode(data);
+			final byte[] bytes = encode(data);
 
-			buffer.putInt(slice.limit());
-			buffer.put(slice);
+			buffer.putInt(bytes.length);
+			buffer.put(bytes);
 		}
 	}
 
@@ -335,6 +431,13 @@ public final class RbSerializer {
 		if (bytes == -1) {
 			return null;
 		}
+		if (bytes <= MAX_FAST_DECODED_LENGTH) {
+			final String ascii = decodeAscii(buffer, bytes);
+
+			if (ascii != null) {
+				return ascii;
+			}
+		}
 		final ByteBuffer slice = buffer.slice();
 
 		slice.limit(bytes);
@@ -442,7 +545,10 @@ public final class RbSerializer {
 	}
 
 	public int sizeOf(String data) {
-		return (data == null) ? SIZEOF_INT : SIZEOF_INT + encode(data).limit();
+		if (data == null) {
+			return SIZEOF_INT;
+		}
+		return SIZEOF_INT + (isAscii(data) ? data.length() : encode(data).length);
 	}
 
 	public int sizeOf(byte[] data) {
@@ -466,12 +572,47 @@ public final class RbSerializer {
 		return helper;
 	}
 
-	private ByteBuffer encode(String data) {
-		final ByteBuffer slice = ByteBuffer.allocate(data.length() * 3);
+	private byte[] encode(String data) {
+		byte[] bytes = encodedStrings.get(data);
+
+		if (bytes == null) {
+			final ByteBuffer slice = ByteBuffer.allocate(data.length() * 3);
+
+			encoder.encode(CharBuffer.wrap(data), slice, false);
+			slice.flip();
+			bytes = new byte[slice.limit()];
+			slice.get(bytes);
 
-		encoder.encode(CharBuffer.wrap(data), slice, false);
-		slice.flip();
-		return slice;
+			if (data.length() <= MAX_CACHED_STRING_LENGTH) {
+				encodedStrings.put(data, bytes);
+			}
+		}
+		return bytes;
+	}
+
+	private static boolean isAscii(String data) {
+		for (int i = data.length() - 1; i >= 0; i--) {
+			if (data.charAt(i) >= 0x80) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Returns the string if all its bytes are ASCII, and moves the position past them; otherwise returns null
+	private String decodeAscii(ByteBuffer buffer, int bytes) {
+		final int start = buffer.position();
+
+		for (int i = 0; i < bytes; i++) {
+			final byte b = buffer.get(start + i);
+
+			if (b < 0) {
+				return null;
+			}
+			decodedChars[i] = (char) b;
+		}
+		buffer.position(start + bytes);
+		return new String(decodedChars, 0, bytes);
 	}
 
 	private void fillBuffer(InputStream source, ByteBuffer buffer) throws IOException {
@@ -507,8 +648,22 @@ public final class RbSerializer {
 		}
 	}
 
+	/**
+	 * Returns the type used for serializing objects of the given class.
+	 * Subclasses of a registered class are not supported, as their additional state would be lost.
+	 *
+	 * @param objectClass the class of the objects.
+	 * @return the type of the class, or {@link #TERMINATOR_TYPE} if the class has not been registered.
+	 * @since 1.8.3.0
+	 */
+	public static byte getSerializationType(Class<?> objectClass) {
+		final Byte type = classToType.get(objectClass);
+
+		return type == null ? TERMINATOR_TYPE : type;
+	}
+
 	public static ByteBuffer serializeToBuffer(Object src) throws IOException {
-		RbSerializer rbs = new RbSerializer();
+		RbSerializer rbs = threadSerializer.get();
 		final Byte type = classToType.get(src.getClass());
 
 		return rbs.serialize(type, src);
@@ -516,21 +671,17 @@ public final class RbSerializer {
 
 	@SuppressWarnings({ "unchecked"})
 	public static <T> T deserializeFromBuffer(ByteBuffer buffer) throws IOException {
-		RbSerializer rbs = new RbSerializer();
+		RbSerializer rbs = threadSerializer.get();
 		final Object res = rbs.deserialize(buffer);
 
 		return (T) res;
 	}
 
 	public static Object deepCopy(byte type, Object src) {
-		ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
-		RbSerializer rbs = new RbSerializer();
+		RbSerializer rbs = threadSerializer.get();
 
 		try {
-			rbs.serialize(out, type, src);
-			ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
-
-			return rbs.deserialize(in);
+			return rbs.deserialize(rbs.serializeToReusedBuffer(type, src));
 		} catch (IOException e) {
 			Logger.logError(e);
 			return null;
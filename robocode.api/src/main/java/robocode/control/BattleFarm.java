@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package robocode.control;
+
+
+import net.sf.robocode.battle.IBattleManagerBase;
+import net.sf.robocode.core.ContainerBase;
+import robocode.control.events.BattleCompletedEvent;
+import robocode.control.events.IBattleListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * A battle farm runs several battles at the same time within the same JVM.
+ * <p/>
+ * Battles are queued with {@link #submit(BattleSpecification)} and run by a fixed
+ * number of worker threads. Each battle has its own battle events and robot statistics,
+ * and is independent of the battle started with {@link RobocodeEngine#runBattle(BattleSpecification)}.
+ * The result of each battle is returned as a {@link Future}.
+ * <p/>
+ * A {@link RobocodeEngine} must have been created before a battle farm can be used.
+ * Example:
+ * <pre>
+ * RobocodeEngine engine = new RobocodeEngine(new File("C:/Robocode"));
+ * BattleFarm farm = new BattleFarm(Runtime.getRuntime().availableProcessors());
+ *
+ * List&lt;Future&lt;BattleCompletedEvent&gt;&gt; results = farm.submitAll(battles);
+ * for (Future&lt;BattleCompletedEvent&gt; result : results) {
+ *     BattleCompletedEvent event = result.get();
+ *     ...
+ * }
+ * farm.shutdown();
+ * engine.close();
+ * </pre>
+ *
+ * @since 1.8.3.0
+ */
+public class BattleFarm {
+
+	private static final AtomicInteger farmCount = new AtomicInteger();
+
+	private final int workerCount;
+	private final ThreadPoolExecutor executor;
+
+	// Tasks currently executed by the worker threads
+	private final Set<Future<?>> runningTasks = Collections.newSetFromMap(
+			new ConcurrentHashMap<Future<?>, Boolean>());
+
+	/**
+	 * Creates a new battle farm.
+	 *
+	 * @param workerCount the number of battles that are allowed to run at the same time.
+	 * @throws IllegalArgumentException if the worker count is less than 1.
+	 * @throws IllegalStateException if no RobocodeEngine has been created.
+	 */
+	public BattleFarm(int workerCount) {
+		if (workerCount < 1) {
+			throw new IllegalArgumentException("workerCount must be at least 1");
+		}
+		if (getBattleManager() == null) {
+			throw new IllegalStateException("A RobocodeEngine must be created before creating a BattleFarm");
+		}
+		this.workerCount = workerCount;
+
+		executor = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>(), new BattleThreadFactory(farmCount.incrementAndGet())) {
+			@Override
+			protected void beforeExecute(Thread t, Runnable r) {
+				runningTasks.add((Future<?>) r);
+			}
+
+			@Override
+			protected void afterExecute(Runnable r, Throwable t) {
+				runningTasks.remove(r);
+			}
+		};
+	}
+
+	/**
+	 * Returns the number of battles that are allowed to run at the same time.
+	 *
+	 * @return the number of worker threads of this farm.
+	 */
+	public int getWorkerCount() {
+		return workerCount;
+	}
+
+	/**
+	 * Queues a battle.
+	 *
+	 * @param battleSpecification the specification of the battle to run.
+	 * @return the result of the battle, which is {@code null} if the battle was aborted.
+	 *         Cancelling the returned future aborts the battle.
+	 */
+	public Future<BattleCompletedEvent> submit(BattleSpecification battleSpecification) {
+		return submit(battleSpecification, null, null);
+	}
+
+	/**
+	 * Queues a battle.
+	 *
+	 * @param battleSpecification the specification of the battle to run.
+	 * @param initialPositions    the initial positions of the robots as described in
+	 *                            {@link RobocodeEngine#runBattle(BattleSpecification, String, boolean)}, or {@code null}.
+	 * @param listener            a listener that receives the events of this battle only, or {@code null}.
+	 *                            Notice that the listener is called from the worker thread running the battle.
+	 * @return the result of the battle, which is {@code null} if the battle was aborted.
+	 *         Cancelling the returned future aborts the battle.
+	 */
+	public Future<BattleCompletedEvent> submit(BattleSpecification battleSpecification, String initialPositions, IBattleListener listener) {
+		if (battleSpecification == null) {
+			throw new NullPointerException("battleSpecification cannot be null");
+		}
+		RunnableFuture<BattleCompletedEvent> task = getBattleManager().createBattleTask(battleSpecification,
+				initialPositions, listener);
+
+		executor.execute(task);
+		return task;
+	}
+
+	/**
+	 * Queues battles in the given order.
+	 *
+	 * @param battleSpecifications the specifications of the battles to run.
+	 * @return the results of the battles in the same order as the specifications.
+	 */
+	public List<Future<BattleCompletedEvent>> submitAll(Collection<BattleSpecification> battleSpecifications) {
+		List<Future<BattleCompletedEvent>> results = new ArrayList<Future<BattleCompletedEvent>>(
+				battleSpecifications.size());
+
+		for (BattleSpecification battleSpecification : battleSpecifications) {
+			results.add(submit(battleSpecification));
+		}
+		return results;
+	}
+
+	/**
+	 * Stops accepting new battles. Battles that have been queued already are still run.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Stops accepting new battles, removes all queued battles and aborts the running ones.
+	 */
+	public void shutdownNow() {
+		executor.shutdown();
+
+		// The worker threads are not interrupted, as the battles handle interrupts as errors
+		List<Runnable> queuedTasks = new ArrayList<Runnable>();
+
+		executor.getQueue().drainTo(queuedTasks);
+		for (Runnable task : queuedTasks) {
+			((Future<?>) task).cancel(false);
+		}
+		for (Future<?> task : runningTasks) {
+			task.cancel(false);
+		}
+	}
+
+	/**
+	 * Waits until all battles have ended after a shutdown, or until the timeout occurs.
+	 *
+	 * @param timeout the maximum time to wait.
+	 * @param unit    the time unit of the timeout.
+	 * @return true if all battles have ended; false if the timeout occurred.
+	 * @throws InterruptedException if the current thread is interrupted while waiting.
+	 */
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+		return executor.awaitTermination(timeout, unit);
+	}
+
+	private static IBattleManagerBase getBattleManager() {
+		return ContainerBase.getComponent(IBattleManagerBase.class);
+	}
+
+	private static class BattleThreadFactory implements ThreadFactory {
+		private final int farmNumber;
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		BattleThreadFactory(int farmNumber) {
+			this.farmNumber = farmNumber;
+		}
+
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(Thread.currentThread().getThreadGroup(), r,
+					"Battle Farm " + farmNumber + " Thread " + threadCount.incrementAndGet());
+
+			thread.setPriority(Thread.NORM_PRIORITY);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -9,6 +9,7 @@ package robocode.control;
 
 
 import robocode.control.events.IBattleListener;
+import robocode.control.metrics.IBattleMetrics;
 
 
 /**
@@ -147,4 +148,16 @@ public interface IRobocodeEngine {
 	 * @see #runBattle(robocode.control.BattleSpecification)
 	 */
 	void abortCurrentBattle();
+
+	/**
+	 * Returns the performance metrics of the current battle, or of the last battle if it is over.
+	 * The metrics tell where the time of the turns goes, e.g. to moving the robots or to waiting for them.
+	 * <p/>
+	 * The metrics can also be read with JMX when Robocode is started with -DMETRICSJMX=true, and they are
+	 * logged periodically when started with -DMETRICSDUMP=&lt;seconds&gt;.
+	 *
+	 * @return a snapshot of the metrics, or {@code null} if no battle has been run.
+	 * @since 1.8.3.0
+	 */
+	IBattleMetrics getBattleMetrics();
 }
@@ -27,6 +27,11 @@ import java.util.Random;
 public class RandomFactory {
 	private static Random randomNumberGenerator;
 
+	// Random number generator of the current thread, which overrides the shared one for robot threads
+	private static final InheritableThreadLocal<Random> threadRandomNumberGenerator = new InheritableThreadLocal<Random>();
+
+	private static long seed;
+
 	private static boolean warningNotSupportedLogged;
 	private static boolean isDeterministic;
 
@@ -41,11 +46,20 @@ public class RandomFactory {
 	/**
 	 * Returns the random number generator used for generating a stream of
 	 * random numbers.
+	 * <p/>
+	 * When called from a robot thread, the random number generator of that
+	 * robot is returned instead of the shared one.
 	 *
 	 * @return a {@link java.util.Random} instance.
 	 * @see java.util.Random
+	 * @see #setThreadRandom(Random)
 	 */
 	public static Random getRandom() {
+		final Random threadRandom = threadRandomNumberGenerator.get();
+
+		if (threadRandom != null) {
+			return threadRandom;
+		}
 		if (randomNumberGenerator == null) {
 			try {
 				Math.random();
@@ -75,6 +89,7 @@ public class RandomFactory {
 	 */
 	public static void setRandom(Random random) {
 		randomNumberGenerator = random;
+		isDeterministic = false;
 		try {
 			Math.random();
 			final Field field = Math.class.getDeclaredField("randomNumberGenerator");
@@ -100,9 +115,43 @@ public class RandomFactory {
 	 */
 	public static void resetDeterministic(long seed) {
 		setRandom(new Random(seed));
+		RandomFactory.seed = seed;
 		isDeterministic = true;
 	}
 
+	/**
+	 * Sets the random number generator returned by {@link #getRandom()} to
+	 * the current thread and the threads it creates. This way each robot
+	 * gets its own stream of random numbers, which does not depend on the
+	 * other robots or other battles running at the same time.
+	 *
+	 * @param random a {@link java.util.Random} instance, or {@code null} to
+	 *               use the shared random number generator again.
+	 * @since 1.8.3.0
+	 */
+	public static void setThreadRandom(Random random) {
+		if (random == null) {
+			threadRandomNumberGenerator.remove();
+		} else {
+			threadRandomNumberGenerator.set(random);
+		}
+	}
+
+	/**
+	 * Returns the seed for the random number generators of a new battle.
+	 * <p/>
+	 * When deterministic, this is the seed given to the last call of
+	 * {@link #resetDeterministic(long)}, so every battle started afterwards
+	 * is repeatable, even when several battles are running at the same time.
+	 * Otherwise the seed is taken from the shared random number generator.
+	 *
+	 * @return the seed for a new battle.
+	 * @since 1.8.3.0
+	 */
+	public static long nextBattleSeed() {
+		return isDeterministic ? seed : getRandom().nextLong();
+	}
+
 	/**
 	 * Logs a warning that the deterministic random feature is not supported by the JVM.
 	 */
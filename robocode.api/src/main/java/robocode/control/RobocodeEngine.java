@@ -17,6 +17,7 @@ import net.sf.robocode.manager.IVersionManagerBase;
 import net.sf.robocode.repository.IRepositoryManagerBase;
 import net.sf.robocode.security.HiddenAccess;
 import robocode.control.events.*;
+import robocode.control.metrics.IBattleMetrics;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -269,6 +270,13 @@ public class RobocodeEngine implements IRobocodeEngine {
 		ContainerBase.getComponent(IBattleManagerBase.class).stop(true);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	public IBattleMetrics getBattleMetrics() {
+		return ContainerBase.getComponent(IBattleManagerBase.class).getBattleMetrics();
+	}
+
 	/**
 	 * Prints out all running threads to standard system out.
 	 *
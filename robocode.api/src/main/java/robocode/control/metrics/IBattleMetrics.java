@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package robocode.control.metrics;
+
+
+/**
+ * Interface of the performance metrics of a battle, which is a snapshot of the metrics at a specific time.
+ * <p/>
+ * The time of each turn is split into the {@link TurnPhase phases} of the turn, so it can be seen where the
+ * time goes when a battle is slow.
+ *
+ * @see robocode.control.IRobocodeEngine#getBattleMetrics()
+ * @since 1.8.3.0
+ */
+public interface IBattleMetrics {
+
+	/**
+	 * Returns the number of turns measured in all rounds of the battle.
+	 *
+	 * @return the number of turns.
+	 */
+	long getTurns();
+
+	/**
+	 * Returns the number of turns per second when the snapshot was taken.
+	 *
+	 * @return the turns per second.
+	 */
+	int getTPS();
+
+	/**
+	 * Returns the histogram of the time of the whole turns.
+	 *
+	 * @return the times of the turns in nanoseconds.
+	 */
+	IHistogram getTurnNanos();
+
+	/**
+	 * Returns the histogram of the time of a phase in the turns.
+	 *
+	 * @param phase the phase of the turns.
+	 * @return the times of the phase in nanoseconds.
+	 */
+	IHistogram getPhaseNanos(TurnPhase phase);
+
+	/**
+	 * Returns the metrics of the robots, in the order of the robots in the battle.
+	 *
+	 * @return the metrics of the robots.
+	 */
+	IRobotMetrics[] getRobotMetrics();
+}
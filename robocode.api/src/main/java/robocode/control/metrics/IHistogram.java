@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package robocode.control.metrics;
+
+
+/**
+ * Interface of a histogram of values measured in the turns of a battle, e.g. times in nanoseconds.
+ * <p/>
+ * The values are counted in buckets of powers of two, so percentiles are given as the upper bound of the
+ * bucket they fall into.
+ *
+ * @since 1.8.3.0
+ */
+public interface IHistogram {
+
+	/**
+	 * Returns the number of values.
+	 *
+	 * @return the number of values.
+	 */
+	long getCount();
+
+	/**
+	 * Returns the sum of the values.
+	 *
+	 * @return the sum of the values.
+	 */
+	long getTotal();
+
+	/**
+	 * Returns the average of the values.
+	 *
+	 * @return the average of the values, or 0 if there are no values.
+	 */
+	double getMean();
+
+	/**
+	 * Returns the highest value.
+	 *
+	 * @return the highest value, or 0 if there are no values.
+	 */
+	long getMax();
+
+	/**
+	 * Returns the value that a given share of the values is below.
+	 *
+	 * @param percentile the share of the values between 0 and 100.
+	 * @return the upper bound of the bucket containing the percentile.
+	 */
+	long getPercentile(double percentile);
+
+	/**
+	 * Returns the number of values in each bucket. Bucket 0 counts the values that are 0, and bucket i
+	 * counts the values that are less than 2^i and at least 2^(i-1).
+	 *
+	 * @return the number of values in each bucket.
+	 */
+	long[] getBuckets();
+}
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package robocode.control.metrics;
+
+
+/**
+ * Interface of the metrics of a robot in a battle.
+ *
+ * @since 1.8.3.0
+ */
+public interface IRobotMetrics {
+
+	/**
+	 * Returns the name of the robot.
+	 *
+	 * @return the name of the robot.
+	 */
+	String getName();
+
+	/**
+	 * Returns the histogram of the time the battle waited for the robot to wake up and take its turn.
+	 *
+	 * @return the waiting times in nanoseconds.
+	 */
+	IHistogram getWaitNanos();
+
+	/**
+	 * Returns the histogram of the number of events in the event queue of the robot when it was woken up.
+	 *
+	 * @return the sizes of the event queue.
+	 */
+	IHistogram getEventQueueSizes();
+}
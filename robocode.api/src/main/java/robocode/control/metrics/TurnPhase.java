@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package robocode.control.metrics;
+
+
+/**
+ * Defines the phases of a battle turn, whose time is measured in the {@link IBattleMetrics}.
+ *
+ * @since 1.8.3.0
+ */
+public enum TurnPhase {
+
+	/** Loading the commands the robots have sent in their last turn, and firing their bullets. */
+	LOAD_COMMANDS,
+
+	/** Moving the bullets and checking if they hit a robot, another bullet, or a wall. */
+	UPDATE_BULLETS,
+
+	/** Moving the robots, checking their collisions, and scanning. */
+	UPDATE_ROBOTS,
+
+	/** Handling the robots that have died in this turn, and ending the round if it is over. */
+	HANDLE_DEAD_ROBOTS,
+
+	/** Publishing the status of the robots to their threads. */
+	PUBLISH_STATUSES,
+
+	/** Waking up the robots and waiting for them to take their turn. */
+	WAKEUP_ROBOTS,
+
+	/** Creating the snapshot of the turn for the battle listeners. */
+	TURN_SNAPSHOT,
+
+	/** Calling the battle listeners when the turn starts and ends. */
+	DISPATCH_EVENTS,
+
+	/** Sleeping to keep the desired number of turns per second. */
+	TPS_DELAY
+}
@@ -0,0 +1,6 @@
+/**
+ * Performance metrics of a battle, e.g. the time spent in each phase of the turns.
+ *
+ * @since 1.8.3.0
+ */
+package robocode.control.metrics;
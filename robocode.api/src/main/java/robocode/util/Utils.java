@@ -169,6 +169,7 @@ public class Utils {
 
 	/**
 	 * Returns random number generator. It might be configured for repeatable behavior by setting -DRANDOMSEED option.
+	 * Each robot gets its own random number generator, so its random numbers do not depend on the other robots.
 	 *
 	 * @return random number generator
 	 */
@@ -17,6 +17,7 @@ import net.sf.robocode.settings.ISettingsManager;
 import robocode.BattleRules;
 import robocode.control.events.BattlePausedEvent;
 import robocode.control.events.BattleResumedEvent;
+import robocode.control.metrics.IBattleMetrics;
 
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -58,6 +59,7 @@ public abstract class BaseBattle implements IBattle, Runnable {
 	// Battle state
 	private final AtomicBoolean isRunning = new AtomicBoolean(false);
 	protected boolean isAborted;
+	private boolean isJarGcSuspended;
 
 	// Battle control
 	protected boolean isPaused;
@@ -121,6 +123,10 @@ public abstract class BaseBattle implements IBattle, Runnable {
 		return tps;
 	}
 
+	public IBattleMetrics getMetrics() {
+		return null; // Only battles running robots have metrics
+	}
+
 	/**
 	 * Informs on whether the battle is running or not.
 	 *
@@ -145,7 +151,10 @@ public abstract class BaseBattle implements IBattle, Runnable {
 			pendingCommands.clear();
 			// don't pendingCommands = null;
 		}
-		URLJarCollector.enableGc(true);
+		if (isJarGcSuspended) {
+			isJarGcSuspended = false;
+			URLJarCollector.resumeGc();
+		}
 		URLJarCollector.gc();
 	}
 
@@ -215,7 +224,8 @@ public abstract class BaseBattle implements IBattle, Runnable {
 	}
 
 	protected void initializeBattle() {
-		URLJarCollector.enableGc(false);
+		URLJarCollector.suspendGc();
+		isJarGcSuspended = true;
 		roundNum = 0;
 		totalTurns = 0;
 
@@ -308,7 +318,7 @@ public abstract class BaseBattle implements IBattle, Runnable {
 		// Let the battle sleep is the GUI is enabled and is not minimized
 		// in order to keep the desired TPS
 
-		if (battleManager.isManagedTPS()) {
+		if (battleManager != null && battleManager.isManagedTPS()) {
 			long delay = 0;
 
 			if (!isAborted() && endTimer < TURNS_DISPLAYED_AFTER_ENDING) {
@@ -9,8 +9,13 @@ package net.sf.robocode.battle;
 
 
 import net.sf.robocode.battle.events.BattleEventDispatcher;
+import net.sf.robocode.battle.metrics.BattleMetrics;
+import net.sf.robocode.battle.peer.BroadPhase;
 import net.sf.robocode.battle.peer.BulletPeer;
 import net.sf.robocode.battle.peer.ContestantPeer;
+import net.sf.robocode.battle.peer.ITurnSync;
+import net.sf.robocode.battle.peer.MonitorTurnSync;
+import net.sf.robocode.battle.peer.ParkingTurnSync;
 import net.sf.robocode.battle.peer.RobotPeer;
 import net.sf.robocode.battle.peer.TeamPeer;
 import net.sf.robocode.battle.snapshot.TurnSnapshot;
@@ -26,11 +31,15 @@ import robocode.control.RobotResults;
 import robocode.control.RobotSpecification;
 import robocode.control.events.*;
 import robocode.control.events.RoundEndedEvent;
+import robocode.control.metrics.IBattleMetrics;
+import robocode.control.metrics.TurnPhase;
 import robocode.control.snapshot.BulletState;
 import robocode.control.snapshot.ITurnSnapshot;
 
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -63,6 +72,13 @@ public final class Battle extends BaseBattle {
 	private long millisWait;
 	private int nanoWait;
 
+	// Turn skip related items, when the CPU time of the robot threads is measured
+	private boolean isCpuTimed;
+	private boolean isCpuHistograms;
+	private boolean isTeamMessageStatistics;
+	private long cpuTimeWait;
+	private long maxCpuTimeWait;
+
 	// Objects in the battle
 	private int robotsCount;
 	private List<RobotPeer> robots = new ArrayList<RobotPeer>();
@@ -73,15 +89,47 @@ public final class Battle extends BaseBattle {
 	// Death events
 	private final List<RobotPeer> deathRobots = new CopyOnWriteArrayList<RobotPeer>();
 
+	// Peers in random order. These lists are reshuffled in place in order to avoid garbage each turn
+	private final ShuffledList<RobotPeer> robotOrder = new ShuffledList<RobotPeer>();
+	private final ShuffledList<RobotPeer> robotTargets = new ShuffledList<RobotPeer>();
+	private final ShuffledList<BulletPeer> bulletOrder = new ShuffledList<BulletPeer>();
+	private final ShuffledList<BulletPeer> bulletTargets = new ShuffledList<BulletPeer>();
+	private final ShuffledList<RobotPeer> deathOrder = new ShuffledList<RobotPeer>();
+
+	// Random number generator of this battle for start positions and shuffling, and the seed it was created with.
+	// The random number generators of the robots are split from the same seed.
+	private long randomSeed;
+	private Random random;
+
+	// Fast shuffling does not use the same random sequence as older Robocode versions
+	private boolean fastShuffleOn;
+	private final Random fastShuffleRandom = new XorShiftRandom(0);
+
+	// Finds the robots and bullets near each other before the exact collision and scan tests
+	private BroadPhase broadPhase;
+
 	// Flag specifying if debugging is enabled thru the debug command line option
 	private final boolean isDebugging;
 
+	// Synchronization of the battle thread with the robot threads, and spin time in nanoseconds when parking
+	private final boolean isParkingTurnSync;
+	private final long turnSyncSpinNanos;
+
+	// Metrics of the turns, and the interval in nanoseconds between logging them, or 0 for no logging
+	private volatile BattleMetrics metrics;
+	private final long metricsDumpNanos;
+	private long nextMetricsDumpTime;
+	private long turnStartNanos;
+
 	// Initial robot start positions (if any)
 	private double[][] initialRobotPositions;
 
 	public Battle(ISettingsManager properties, IBattleManager battleManager, IHostManager hostManager, ICpuManager cpuManager, BattleEventDispatcher eventDispatcher) {
 		super(properties, battleManager, eventDispatcher);
 		isDebugging = System.getProperty("debug", "false").equals("true");
+		isParkingTurnSync = System.getProperty("TURNSYNC", "monitor").equals("park");
+		turnSyncSpinNanos = TimeUnit.MICROSECONDS.toNanos(Long.getLong("TURNSYNCSPIN", 0));
+		metricsDumpNanos = TimeUnit.SECONDS.toNanos(Long.getLong("METRICSDUMP", 0));
 		this.hostManager = hostManager;
 		this.cpuConstant = cpuManager.getCpuConstant();
 	}
@@ -92,8 +140,11 @@ public final class Battle extends BaseBattle {
 				battleProperties.getBattlefieldHeight(), battleProperties.getNumRounds(), battleProperties.getGunCoolingRate(),
 				battleProperties.getInactivityTime(), battleProperties.getHideEnemyNames());
 		robotsCount = battlingRobotsList.length;
+		randomSeed = RandomFactory.nextBattleSeed();
+		random = new Random(randomSeed);
 		computeInitialPositions(battleProperties.getInitialPositions());
 		createPeers(battlingRobotsList);
+		broadPhase = new BroadPhase(battleRules, robotsCount);
 	}
 
 	private void createPeers(RobotSpecification[] battlingRobotsList) {
@@ -231,8 +282,51 @@ public final class Battle extends BaseBattle {
 		return isDebugging;
 	}
 
+	/**
+	 * Returns the random number generator of this battle, which is only used by the battle thread.
+	 *
+	 * @return the random number generator of this battle.
+	 */
+	public Random getRandom() {
+		return random;
+	}
+
+	/**
+	 * Creates the random number generator of a robot, which is split from the seed of this battle.
+	 * The random numbers of a robot do not depend on the other robots or on the random numbers used by the battle.
+	 *
+	 * @param robotIndex the index of the robot.
+	 * @return a new random number generator for the robot.
+	 */
+	public Random createRobotRandom(int robotIndex) {
+		// The SplitMix64 finalizer gives unrelated seeds for neighbouring robot indexes
+		long z = randomSeed + (robotIndex + 1) * 0x9E3779B97F4A7C15L;
+
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return new Random(z ^ (z >>> 31));
+	}
+
 	public void addBullet(BulletPeer bullet) {
 		bullets.add(bullet);
+		broadPhase.updateBullet(bullet);
+	}
+
+	public BroadPhase getBroadPhase() {
+		return broadPhase;
+	}
+
+	/**
+	 * Creates the synchronization of the battle thread with a robot thread, which is used when waking up the robots.
+	 *
+	 * @param isRunning the flag telling if the robot thread is running.
+	 * @return a new turn synchronization.
+	 */
+	public ITurnSync createTurnSync(AtomicBoolean isRunning) {
+		if (isParkingTurnSync) {
+			return new ParkingTurnSync(isRunning, turnSyncSpinNanos);
+		}
+		return new MonitorTurnSync(isRunning);
 	}
 
 	public void resetInactiveTurnCount(double energyLoss) {
@@ -268,13 +362,23 @@ public final class Battle extends BaseBattle {
 			robots = null;
 		}
 
+		robotOrder.clear();
+		robotTargets.clear();
+		bulletOrder.clear();
+		bulletTargets.clear();
+		deathOrder.clear();
+
 		super.cleanup();
 
-		battleManager = null;
+		// Isolated battles have no battle manager. These are run concurrently with other battles,
+		// which must not be stalled by forced garbage collections
+		if (battleManager != null) {
+			battleManager = null;
 
-		// Request garbage collecting
-		for (int i = 4; i >= 0; i--) { // Make sure it is run
-			System.gc();
+			// Request garbage collecting
+			for (int i = 4; i >= 0; i--) { // Make sure it is run
+				System.gc();
+			}
 		}
 	}
 
@@ -283,6 +387,7 @@ public final class Battle extends BaseBattle {
 		super.initializeBattle();
 
 		parallelOn = System.getProperty("PARALLEL", "false").equals("true");
+		fastShuffleOn = System.getProperty("FASTSHUFFLE", "false").equals("true");
 		if (parallelOn) {
 			// how could robots share CPUs ?
 			double parallelConstant = robots.size() / Runtime.getRuntime().availableProcessors();
@@ -302,6 +407,27 @@ public final class Battle extends BaseBattle {
 		if (nanoWait == 0) {
 			nanoWait = 1;
 		}
+
+		// Robots running in parallel get the CPU constant as CPU time instead of wall-clock time
+		isCpuTimed = parallelOn && RobotPeer.isCpuTimerSupported();
+		isCpuHistograms = System.getProperty("CPUHISTOGRAMS", "false").equals("true") && RobotPeer.isCpuTimerSupported();
+		isTeamMessageStatistics = System.getProperty("TEAMMESSAGESTATS", "false").equals("true");
+		cpuTimeWait = cpuConstant;
+		maxCpuTimeWait = 2 * (millisWait * 1000000 + nanoWait);
+
+		if (isCpuTimed || isCpuHistograms) {
+			for (RobotPeer robotPeer : robots) {
+				robotPeer.enableCpuTimer();
+			}
+		}
+
+		final String[] robotNames = new String[robots.size()];
+
+		for (int i = 0; i < robotNames.length; i++) {
+			robotNames[i] = robots.get(i).getName();
+		}
+		metrics = new BattleMetrics(robotNames);
+		nextMetricsDumpTime = System.nanoTime() + metricsDumpNanos;
 	}
 
 	@Override
@@ -312,10 +438,24 @@ public final class Battle extends BaseBattle {
 			eventDispatcher.onBattleCompleted(new BattleCompletedEvent(battleRules, computeBattleResults()));
 		}
 
+		if (isCpuHistograms) {
+			for (RobotPeer robotPeer : robots) {
+				Logger.logMessage("CPU time of " + robotPeer.getName() + " - " + robotPeer.getCpuTimeHistogram());
+			}
+		}
+		if (metricsDumpNanos > 0) {
+			Logger.logMessage(metrics.copy().toString());
+		}
+		if (isTeamMessageStatistics) {
+			for (RobotPeer robotPeer : robots) {
+				if (robotPeer.getTeamPeer() != null) {
+					Logger.logMessage("Team messages of " + robotPeer.getName() + " - " + robotPeer.getTeamMessageStatistics());
+				}
+			}
+		}
 		for (RobotPeer robotPeer : robots) {
 			robotPeer.cleanup();
 		}
-		hostManager.resetThreadManager();
 
 		super.finalizeBattle();
 	}
@@ -341,8 +481,6 @@ public final class Battle extends BaseBattle {
 		}
 
 		computeActiveRobots();
-
-		hostManager.resetThreadManager();
 	}
 
 	@Override
@@ -351,6 +489,11 @@ public final class Battle extends BaseBattle {
 
 		inactiveTurnCount = 0;
 
+		if (fastShuffleOn) {
+			// Seeded from the battle random generator, so battles are still deterministic when it is
+			fastShuffleRandom.setSeed(random.nextLong());
+		}
+
 		// Start robots
 
 		long waitMillis;
@@ -366,7 +509,7 @@ public final class Battle extends BaseBattle {
 			waitNanos = (int) (waitTime % 1000000);
 		}
 
-		for (RobotPeer robotPeer : getRobotsAtRandom()) {
+		for (RobotPeer robotPeer : getRobotsAtRandom(robotOrder)) {
 			robotPeer.startRound(waitMillis, waitNanos);
 		}
 
@@ -385,6 +528,7 @@ public final class Battle extends BaseBattle {
 			robotPeer.waitForStop();
 		}
 		bullets.clear();
+		broadPhase.clear();
 
 		eventDispatcher.onRoundEnded(new RoundEndedEvent(getRoundNum(), currentTime, totalTurns));
 	}
@@ -393,18 +537,25 @@ public final class Battle extends BaseBattle {
 	protected void initializeTurn() {
 		super.initializeTurn();
 
+		turnStartNanos = System.nanoTime();
 		eventDispatcher.onTurnStarted(new TurnStartedEvent());
+		metrics.endPhase(TurnPhase.DISPATCH_EVENTS, turnStartNanos);
 	}
 
 	@Override
 	protected void runTurn() {
 		super.runTurn();
 
+		long time = System.nanoTime();
+
 		loadCommands();
+		time = metrics.endPhase(TurnPhase.LOAD_COMMANDS, time);
 
 		updateBullets();
+		time = metrics.endPhase(TurnPhase.UPDATE_BULLETS, time);
 
 		updateRobots();
+		time = metrics.endPhase(TurnPhase.UPDATE_ROBOTS, time);
 
 		handleDeadRobots();
 
@@ -415,18 +566,21 @@ public final class Battle extends BaseBattle {
 		inactiveTurnCount++;
 
 		computeActiveRobots();
+		time = metrics.endPhase(TurnPhase.HANDLE_DEAD_ROBOTS, time);
 
 		publishStatuses();
+		time = metrics.endPhase(TurnPhase.PUBLISH_STATUSES, time);
 
 		// Robot time!
 		wakeupRobots();
+		metrics.endPhase(TurnPhase.WAKEUP_ROBOTS, time);
 	}
 
 	@Override
 	protected void shutdownTurn() {
 		if (endTimer == 0) {
 			if (isAborted()) {
-				for (RobotPeer robotPeer : getRobotsAtRandom()) {
+				for (RobotPeer robotPeer : getRobotsAtRandom(robotOrder)) {
 					if (robotPeer.isAlive()) {
 						robotPeer.println("SYSTEM: game aborted.");
 					}
@@ -438,7 +592,7 @@ public final class Battle extends BaseBattle {
 				robocode.RoundEndedEvent roundEndedEvent = new robocode.RoundEndedEvent(getRoundNum(), currentTime,
 						totalTurns); 
 
-				for (RobotPeer robotPeer : getRobotsAtRandom()) {
+				for (RobotPeer robotPeer : getRobotsAtRandom(robotOrder)) {
 					robotPeer.getRobotStatistics().generateTotals(); // Generate totals when round is ended
 
 					robotPeer.addEvent(roundEndedEvent);
@@ -487,9 +641,52 @@ public final class Battle extends BaseBattle {
 
 	@Override
 	protected void finalizeTurn() {
-		eventDispatcher.onTurnEnded(new TurnEndedEvent(new TurnSnapshot(this, robots, bullets, true)));
+		long time = System.nanoTime();
+
+		switch (eventDispatcher.getTurnSnapshotUsage()) {
+		case FULL:
+			final TurnSnapshot snapshot = new TurnSnapshot(this, robots, bullets, true);
+
+			time = metrics.endPhase(TurnPhase.TURN_SNAPSHOT, time);
+			eventDispatcher.onTurnEnded(new TurnEndedEvent(snapshot));
+			break;
+
+		case SUMMARY:
+			discardOutText();
+			final TurnSnapshot summary = new TurnSnapshot(this);
+
+			time = metrics.endPhase(TurnPhase.TURN_SNAPSHOT, time);
+			eventDispatcher.onTurnEnded(new TurnEndedEvent(summary));
+			break;
+
+		default:
+			discardOutText();
+			time = metrics.endPhase(TurnPhase.TURN_SNAPSHOT, time);
+		}
+		time = metrics.endPhase(TurnPhase.DISPATCH_EVENTS, time);
 
 		super.finalizeTurn();
+		time = metrics.endPhase(TurnPhase.TPS_DELAY, time);
+
+		metrics.endTurn(turnStartNanos, getTPS());
+		if (metricsDumpNanos > 0 && time - nextMetricsDumpTime >= 0) {
+			nextMetricsDumpTime = time + metricsDumpNanos;
+			Logger.logMessage(metrics.copy().toString());
+		}
+	}
+
+	@Override
+	public IBattleMetrics getMetrics() {
+		final BattleMetrics metrics = this.metrics;
+
+		return metrics != null ? metrics.copy() : null;
+	}
+
+	// Discards the output text from the robots, when it is not included in any turn snapshot
+	private void discardOutText() {
+		for (RobotPeer robotPeer : robots) {
+			robotPeer.discardOutText();
+		}
 	}
 
 	private BattleResults[] computeBattleResults() {
@@ -519,38 +716,41 @@ public final class Battle extends BaseBattle {
 	 * checks if a robot has won, is dead, etc.
 	 * This method was introduced as two equal robots like sample.RamFire got different scores even
 	 * though the code was exactly the same.
+	 * <p/>
+	 * The returned list is reused, and is only valid until the given list is reshuffled.
 	 *
+	 * @param shuffledList the reusable list to put the robots into.
 	 * @return a list of robot peers.
 	 */
-	private List<RobotPeer> getRobotsAtRandom() {
-		List<RobotPeer> shuffledList = new ArrayList<RobotPeer>(robots);
-
-		Collections.shuffle(shuffledList, RandomFactory.getRandom());
-		return shuffledList;
+	private List<RobotPeer> getRobotsAtRandom(ShuffledList<RobotPeer> shuffledList) {
+		return shuffledList.shuffle(robots, getShuffleRandom());
 	}
 
 	/**
 	 * Returns a list of all bullets in random order. This method is used to gain fair play in Robocode.
+	 * <p/>
+	 * The returned list is reused, and is only valid until the given list is reshuffled.
 	 *
+	 * @param shuffledList the reusable list to put the bullets into.
 	 * @return a list of bullet peers.
 	 */
-	private List<BulletPeer> getBulletsAtRandom() {
-		List<BulletPeer> shuffledList = new ArrayList<BulletPeer>(bullets);
-
-		Collections.shuffle(shuffledList, RandomFactory.getRandom());
-		return shuffledList;
+	private List<BulletPeer> getBulletsAtRandom(ShuffledList<BulletPeer> shuffledList) {
+		return shuffledList.shuffle(bullets, getShuffleRandom());
 	}
 
 	/**
 	 * Returns a list of all death robots in random order. This method is used to gain fair play in Robocode.
+	 * <p/>
+	 * The returned list is reused, and is only valid until it is reshuffled.
 	 *
 	 * @return a list of robot peers.
 	 */
 	private List<RobotPeer> getDeathRobotsAtRandom() {
-		List<RobotPeer> shuffledList = new ArrayList<RobotPeer>(deathRobots);
+		return deathOrder.shuffle(deathRobots, getShuffleRandom());
+	}
 
-		Collections.shuffle(shuffledList, RandomFactory.getRandom());
-		return shuffledList;
+	private Random getShuffleRandom() {
+		return fastShuffleOn ? fastShuffleRandom : random;
 	}
 
 	private void loadCommands() {
@@ -560,11 +760,26 @@ public final class Battle extends BaseBattle {
 		}
 	}
 
+	private void updateBroadPhase() {
+		broadPhase.clear();
+		for (RobotPeer robotPeer : robots) {
+			broadPhase.updateRobot(robotPeer);
+		}
+		for (BulletPeer bullet : bullets) {
+			broadPhase.updateBullet(bullet);
+		}
+	}
+
 	private void updateBullets() {
-		for (BulletPeer bullet : getBulletsAtRandom()) {
-			bullet.update(getRobotsAtRandom(), getBulletsAtRandom());
+		updateBroadPhase();
+
+		for (BulletPeer bullet : getBulletsAtRandom(bulletOrder)) {
+			bullet.update(getRobotsAtRandom(robotTargets), getBulletsAtRandom(bulletTargets));
 			if (bullet.getState() == BulletState.INACTIVE) {
 				bullets.remove(bullet);
+				broadPhase.removeBullet(bullet);
+			} else {
+				broadPhase.updateBullet(bullet);
 			}
 		}
 	}
@@ -575,13 +790,14 @@ public final class Battle extends BaseBattle {
 		final double zapEnergy = isAborted() ? 5 : zap ? .1 : 0;
 
 		// Move all bots
-		for (RobotPeer robotPeer : getRobotsAtRandom()) {
-			robotPeer.performMove(getRobotsAtRandom(), zapEnergy);
+		for (RobotPeer robotPeer : getRobotsAtRandom(robotOrder)) {
+			robotPeer.performMove(getRobotsAtRandom(robotTargets), zapEnergy);
+			broadPhase.updateRobot(robotPeer);
 		}
 
 		// Scan after moved all
-		for (RobotPeer robotPeer : getRobotsAtRandom()) {
-			robotPeer.performScan(getRobotsAtRandom());
+		for (RobotPeer robotPeer : getRobotsAtRandom(robotOrder)) {
+			robotPeer.performScan(getRobotsAtRandom(robotTargets));
 		}
 	}
 
@@ -606,7 +822,7 @@ public final class Battle extends BaseBattle {
 			}
 
 			// Publish death to live robots
-			for (RobotPeer robotPeer : getRobotsAtRandom()) {
+			for (RobotPeer robotPeer : getRobotsAtRandom(robotOrder)) {
 				if (robotPeer.isAlive()) {
 					robotPeer.addEvent(new RobotDeathEvent(robotPeer.getNameForEvent(deadRobot)));
 
@@ -640,7 +856,7 @@ public final class Battle extends BaseBattle {
 
 	private void wakeupRobots() {
 		// Wake up all robot threads
-		final List<RobotPeer> robotsAtRandom = getRobotsAtRandom();
+		final List<RobotPeer> robotsAtRandom = getRobotsAtRandom(robotOrder);
 
 		if (parallelOn) {
 			wakeupParallel(robotsAtRandom);
@@ -652,6 +868,10 @@ public final class Battle extends BaseBattle {
 	private void wakeupSerial(List<RobotPeer> robotsAtRandom) {
 		for (RobotPeer robotPeer : robotsAtRandom) {
 			if (robotPeer.isRunning()) {
+				final long waitStart = System.nanoTime();
+
+				metrics.setEventQueueSize(robotPeer.getRobotIndex(), robotPeer.getEventQueueSize());
+
 				// This call blocks until the robot's thread actually wakes up.
 				robotPeer.waitWakeup();
 
@@ -664,6 +884,7 @@ public final class Battle extends BaseBattle {
 						robotPeer.waitSleeping(millisWait, nanoWait);
 					}
 				}
+				metrics.addRobotWait(robotPeer.getRobotIndex(), System.nanoTime() - waitStart);
 			}
 		}
 	}
@@ -671,19 +892,29 @@ public final class Battle extends BaseBattle {
 	private void wakeupParallel(List<RobotPeer> robotsAtRandom) {
 		for (RobotPeer robotPeer : robotsAtRandom) {
 			if (robotPeer.isRunning()) {
+				final long waitStart = System.nanoTime();
+
+				metrics.setEventQueueSize(robotPeer.getRobotIndex(), robotPeer.getEventQueueSize());
+
 				// This call blocks until the robot's thread actually wakes up.
 				robotPeer.waitWakeup();
+				metrics.addRobotWait(robotPeer.getRobotIndex(), System.nanoTime() - waitStart);
 			}
 		}
 		for (RobotPeer robotPeer : robotsAtRandom) {
 			if (robotPeer.isRunning() && robotPeer.isAlive()) {
+				final long waitStart = System.nanoTime();
+
 				if (isDebugging || robotPeer.isPaintEnabled()) {
 					robotPeer.waitSleeping(DEBUG_TURN_WAIT_MILLIS, 1);
 				} else if (currentTime == 1) {
 					robotPeer.waitSleeping(millisWait * 10, 1);
+				} else if (isCpuTimed) {
+					robotPeer.waitSleepingCpuTime(cpuTimeWait, maxCpuTimeWait);
 				} else {
 					robotPeer.waitSleeping(millisWait, nanoWait);
 				}
+				metrics.addRobotWait(robotPeer.getRobotIndex(), System.nanoTime() - waitStart);
 			}
 		}
 	}
@@ -738,8 +969,6 @@ public final class Battle extends BaseBattle {
 		for (int i = 0; i < positions.size(); i++) {
 			coords = positions.get(i).split(",");
 
-			final Random random = RandomFactory.getRandom();
-
 			x = RobotPeer.WIDTH + random.nextDouble() * (battleRules.getBattlefieldWidth() - 2 * RobotPeer.WIDTH);
 			y = RobotPeer.HEIGHT + random.nextDouble() * (battleRules.getBattlefieldHeight() - 2 * RobotPeer.HEIGHT);
 			heading = 2 * Math.PI * random.nextDouble();
@@ -9,6 +9,8 @@ package net.sf.robocode.battle;
 
 
 import net.sf.robocode.battle.events.BattleEventDispatcher;
+import net.sf.robocode.battle.metrics.BattleMetricsBean;
+import net.sf.robocode.battle.peer.RobotPeer;
 import net.sf.robocode.core.Container;
 import net.sf.robocode.host.ICpuManager;
 import net.sf.robocode.host.IHostManager;
@@ -24,11 +26,17 @@ import robocode.Event;
 import robocode.control.BattleSpecification;
 import robocode.control.RandomFactory;
 import robocode.control.RobotSpecification;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.BattleCompletedEvent;
 import robocode.control.events.BattlePausedEvent;
 import robocode.control.events.BattleResumedEvent;
 import robocode.control.events.IBattleListener;
+import robocode.control.metrics.IBattleMetrics;
 
 import java.io.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 
@@ -66,6 +74,10 @@ public class BattleManager implements IBattleManager {
 		this.hostManager = hostManager;
 		this.battleEventDispatcher = battleEventDispatcher;
 		Logger.setLogListener(battleEventDispatcher);
+
+		if (System.getProperty("METRICSJMX", "false").equals("true")) {
+			BattleMetricsBean.register(this);
+		}
 	}
 
 	public synchronized void cleanup() {
@@ -86,7 +98,23 @@ public class BattleManager implements IBattleManager {
 
 	// Called from the RobocodeEngine
 	public void startNewBattle(BattleSpecification spec, String initialPositions, boolean waitTillOver, boolean enableCLIRecording) {
-		battleProperties = new BattleProperties();
+		battleProperties = createBattleProperties(spec, initialPositions);
+
+		final RobotSpecification[] robots = repositoryManager.loadSelectedRobots(spec.getRobots());
+
+		startNewBattleImpl(robots, waitTillOver, enableCLIRecording);
+	}
+
+	// Called from the BattleFarm
+	public RunnableFuture<BattleCompletedEvent> createBattleTask(BattleSpecification spec, String initialPositions, IBattleListener listener) {
+		final RobotSpecification[] robots = repositoryManager.loadSelectedRobots(spec.getRobots());
+
+		return new BattleTask(new IsolatedBattleRunner(robots, createBattleProperties(spec, initialPositions), listener));
+	}
+
+	private static BattleProperties createBattleProperties(BattleSpecification spec, String initialPositions) {
+		BattleProperties battleProperties = new BattleProperties();
+
 		battleProperties.setBattlefieldWidth(spec.getBattlefield().getWidth());
 		battleProperties.setBattlefieldHeight(spec.getBattlefield().getHeight());
 		battleProperties.setGunCoolingRate(spec.getGunCoolingRate());
@@ -95,10 +123,7 @@ public class BattleManager implements IBattleManager {
 		battleProperties.setHideEnemyNames(spec.getHideEnemyNames());
 		battleProperties.setSelectedRobots(spec.getRobots());
 		battleProperties.setInitialPositions(initialPositions);
-
-		final RobotSpecification[] robots = repositoryManager.loadSelectedRobots(spec.getRobots());
-
-		startNewBattleImpl(robots, waitTillOver, enableCLIRecording);
+		return battleProperties;
 	}
 
 	private void startNewBattleImpl(RobotSpecification[] battlingRobotsList, boolean waitTillOver, boolean enableCLIRecording) {
@@ -250,6 +275,16 @@ public class BattleManager implements IBattleManager {
 		return res;
 	}
 
+	public IBattleMetrics getBattleMetrics() {
+		final IBattle battle = this.battle;
+
+		return battle != null ? battle.getMetrics() : null;
+	}
+
+	public boolean isRobotCpuTimeSupported() {
+		return RobotPeer.isCpuTimerSupported();
+	}
+
 	public BattleProperties getBattleProperties() {
 		if (battleProperties == null) {
 			battleProperties = new BattleProperties();
@@ -364,6 +399,15 @@ public class BattleManager implements IBattleManager {
 		}
 	}
 
+	/**
+	 * Jumps to a turn in the current round of a replayed battle
+	 */
+	public synchronized void seekTurn(int turn) {
+		if (battle != null && battle.isRunning() && battle instanceof BattlePlayer) {
+			((BattlePlayer) battle).seek(turn);
+		}
+	}
+
 	public synchronized void killRobot(int robotIndex) {
 		if (battle != null && battle.isRunning() && battle instanceof Battle) {
 			((Battle) battle).killRobot(robotIndex);
@@ -387,4 +431,97 @@ public class BattleManager implements IBattleManager {
 			((Battle) battle).sendInteractiveEvent(event);
 		}
 	}
+
+	/**
+	 * Runs a battle isolated from the battle controlled by this manager on the thread calling it.
+	 * The battle has its own event dispatcher, and is neither recorded nor slowed down to the desired TPS.
+	 */
+	private class IsolatedBattleRunner implements Callable<BattleCompletedEvent> {
+		private final RobotSpecification[] robots;
+		private final BattleProperties battleProperties;
+		private final IBattleListener listener;
+
+		private volatile Battle battle;
+		private volatile boolean isAborted;
+		private BattleCompletedEvent completedEvent;
+
+		IsolatedBattleRunner(RobotSpecification[] robots, BattleProperties battleProperties, IBattleListener listener) {
+			this.robots = robots;
+			this.battleProperties = battleProperties;
+			this.listener = listener;
+		}
+
+		public BattleCompletedEvent call() {
+			final BattleEventDispatcher eventDispatcher = new BattleEventDispatcher();
+
+			eventDispatcher.addListener(new BattleAdaptor() {
+				@Override
+				public void onBattleCompleted(BattleCompletedEvent event) {
+					completedEvent = event;
+				}
+			});
+			if (listener != null) {
+				eventDispatcher.addListener(listener);
+			}
+
+			final Thread battleThread = Thread.currentThread();
+			final boolean isSecure = !System.getProperty("NOSECURITY", "false").equals("true");
+
+			if (isSecure) {
+				hostManager.addSafeThread(battleThread);
+			}
+			Logger.setThreadLogListener(eventDispatcher);
+			try {
+				// No battle manager is given, as the battle is not controlled by this manager
+				Battle realBattle = new Battle(properties, null, hostManager, cpuManager, eventDispatcher);
+
+				realBattle.setup(robots, battleProperties, false);
+				realBattle.setBattleThread(battleThread);
+
+				battle = realBattle;
+				if (isAborted) {
+					return null;
+				}
+				realBattle.run();
+			} finally {
+				battle = null;
+				Logger.setThreadLogListener(null);
+				if (isSecure) {
+					hostManager.removeSafeThread(battleThread);
+				}
+			}
+			return completedEvent;
+		}
+
+		void abort() {
+			isAborted = true;
+
+			final Battle realBattle = battle;
+
+			if (realBattle != null) {
+				realBattle.stop(false);
+			}
+		}
+	}
+
+
+	private static class BattleTask extends FutureTask<BattleCompletedEvent> {
+		private final IsolatedBattleRunner runner;
+
+		BattleTask(IsolatedBattleRunner runner) {
+			super(runner);
+			this.runner = runner;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			// The battle thread is never interrupted, as the battle would take the interrupt as an error
+			boolean isCancelled = super.cancel(false);
+
+			if (isCancelled) {
+				runner.abort();
+			}
+			return isCancelled;
+		}
+	}
 }
@@ -8,6 +8,9 @@
 package net.sf.robocode.battle;
 
 
+import robocode.control.metrics.IBattleMetrics;
+
+
 /**
  * @author Pavel Savara (original)
  */
@@ -29,4 +32,6 @@ public interface IBattle extends Runnable {
 	void waitTillOver();
 
 	void setPaintEnabled(int robotIndex, boolean enable);
+
+	IBattleMetrics getMetrics();
 }
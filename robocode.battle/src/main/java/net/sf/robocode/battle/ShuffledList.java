@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle;
+
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Random;
+import java.util.RandomAccess;
+
+
+/**
+ * A reusable list containing the elements of another list in random order.
+ * <p/>
+ * The elements are reshuffled in place every time {@link #shuffle(List, Random)} is called,
+ * so no garbage is produced when the list is reused each turn. The shuffling draws the exact same
+ * random numbers and gives the exact same order as {@link java.util.Collections#shuffle(List, Random)}
+ * on a copy of the source list.
+ * <p/>
+ * The list is only valid until it is shuffled again, and must only be used by one thread.
+ *
+ * @param <T> the type of the elements.
+ */
+final class ShuffledList<T> extends AbstractList<T> implements RandomAccess {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private Object[] elements = new Object[INITIAL_CAPACITY];
+	private int size;
+
+	/**
+	 * Replaces the elements of this list with the elements of the source list in random order.
+	 *
+	 * @param source the list containing the elements to shuffle.
+	 * @param random the random generator to shuffle with.
+	 * @return this list.
+	 */
+	ShuffledList<T> shuffle(List<? extends T> source, Random random) {
+		final int newSize = source.size();
+
+		if (newSize > elements.length) {
+			elements = new Object[Math.max(newSize, elements.length * 2)];
+		}
+		for (int i = 0; i < newSize; i++) {
+			elements[i] = source.get(i);
+		}
+		// Release references to peers that are not in the source list anymore
+		for (int i = newSize; i < size; i++) {
+			elements[i] = null;
+		}
+		size = newSize;
+
+		// Same algorithm as Collections.shuffle(), which must be kept for deterministic battles
+		for (int i = newSize; i > 1; i--) {
+			final int j = random.nextInt(i);
+			final Object tmp = elements[i - 1];
+
+			elements[i - 1] = elements[j];
+			elements[j] = tmp;
+		}
+		return this;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			elements[i] = null;
+		}
+		size = 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T get(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return (T) elements[index];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+}
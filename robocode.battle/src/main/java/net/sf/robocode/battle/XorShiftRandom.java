@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle;
+
+
+import java.util.Random;
+
+
+/**
+ * A fast xorshift random generator, which is not thread-safe.
+ * <p/>
+ * {@link java.util.Random} updates its seed atomically for every random number, which is costly when
+ * shuffling peers many times each turn. This generator is used for shuffling instead when the exact
+ * same random sequence as older Robocode versions is not required.
+ */
+final class XorShiftRandom extends Random {
+
+	private static final long serialVersionUID = 1L;
+
+	// Must never become 0, as xorshift would then only produce zeros
+	private long state;
+
+	XorShiftRandom(long seed) {
+		super(seed);
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		// Scramble the seed, as small seeds would give poor first numbers
+		state = seed ^ 0x9E3779B97F4A7C15L;
+		if (state == 0) {
+			state = 0x9E3779B97F4A7C15L;
+		}
+	}
+
+	@Override
+	protected int next(int bits) {
+		long x = state;
+
+		x ^= x << 13;
+		x ^= x >>> 7;
+		x ^= x << 17;
+		state = x;
+
+		return (int) (x >>> (64 - bits));
+	}
+}
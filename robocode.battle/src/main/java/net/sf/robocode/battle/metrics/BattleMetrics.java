@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.metrics;
+
+
+import robocode.control.metrics.IBattleMetrics;
+import robocode.control.metrics.IHistogram;
+import robocode.control.metrics.IRobotMetrics;
+import robocode.control.metrics.TurnPhase;
+
+import java.util.Arrays;
+
+
+/**
+ * Records the time spent in each phase of the turns of a battle, and the time the battle waits for each robot.
+ * <p/>
+ * The times of a turn are summed up by the battle thread, and added to the histograms when the turn ends.
+ * Other threads read the metrics from a {@link #copy() copy}.
+ */
+public final class BattleMetrics implements IBattleMetrics {
+
+	private static final TurnPhase[] PHASES = TurnPhase.values();
+
+	private final Histogram turnNanos;
+	private final Histogram[] phaseNanos;
+	private final RobotMetrics[] robotMetrics;
+	private int tps;
+
+	// Sums of the current turn, which are only used by the battle thread
+	private final long[] turnPhaseNanos;
+	private final long[] turnWaitNanos;
+	private final int[] turnEventQueueSizes;
+	private final boolean[] turnWoken;
+
+	public BattleMetrics(String[] robotNames) {
+		turnNanos = new Histogram();
+		phaseNanos = new Histogram[PHASES.length];
+		for (int i = 0; i < PHASES.length; i++) {
+			phaseNanos[i] = new Histogram();
+		}
+		robotMetrics = new RobotMetrics[robotNames.length];
+		for (int i = 0; i < robotNames.length; i++) {
+			robotMetrics[i] = new RobotMetrics(robotNames[i]);
+		}
+		turnPhaseNanos = new long[PHASES.length];
+		turnWaitNanos = new long[robotNames.length];
+		turnEventQueueSizes = new int[robotNames.length];
+		turnWoken = new boolean[robotNames.length];
+	}
+
+	private BattleMetrics(BattleMetrics origin) {
+		turnNanos = origin.turnNanos.copy();
+		phaseNanos = new Histogram[PHASES.length];
+		for (int i = 0; i < PHASES.length; i++) {
+			phaseNanos[i] = origin.phaseNanos[i].copy();
+		}
+		robotMetrics = new RobotMetrics[origin.robotMetrics.length];
+		for (int i = 0; i < robotMetrics.length; i++) {
+			robotMetrics[i] = origin.robotMetrics[i].copy();
+		}
+		tps = origin.tps;
+		turnPhaseNanos = null;
+		turnWaitNanos = null;
+		turnEventQueueSizes = null;
+		turnWoken = null;
+	}
+
+	/**
+	 * Adds the time since a phase started to the phase of the current turn.
+	 * A phase can be measured several times during a turn.
+	 *
+	 * @param phase the phase.
+	 * @param startNanos the {@link System#nanoTime()} when the phase started.
+	 * @return the {@link System#nanoTime()} when the phase ended, which can be used as the start of the next phase.
+	 */
+	public long endPhase(TurnPhase phase, long startNanos) {
+		final long now = System.nanoTime();
+
+		turnPhaseNanos[phase.ordinal()] += now - startNanos;
+		return now;
+	}
+
+	/**
+	 * Adds the time the battle has waited for a robot in the current turn.
+	 *
+	 * @param robotIndex the index of the robot.
+	 * @param nanos the time in nanoseconds.
+	 */
+	public void addRobotWait(int robotIndex, long nanos) {
+		turnWaitNanos[robotIndex] += nanos;
+		turnWoken[robotIndex] = true;
+	}
+
+	/**
+	 * Sets the number of events waiting for a robot, when it is woken up in the current turn.
+	 *
+	 * @param robotIndex the index of the robot.
+	 * @param size the number of events.
+	 */
+	public void setEventQueueSize(int robotIndex, int size) {
+		turnEventQueueSizes[robotIndex] = size;
+	}
+
+	/**
+	 * Ends the current turn by adding its times to the histograms.
+	 *
+	 * @param turnStartNanos the {@link System#nanoTime()} when the turn started.
+	 * @param tps the current turns per second.
+	 */
+	public synchronized void endTurn(long turnStartNanos, int tps) {
+		turnNanos.add(System.nanoTime() - turnStartNanos);
+		for (int i = 0; i < PHASES.length; i++) {
+			phaseNanos[i].add(turnPhaseNanos[i]);
+		}
+		for (int i = 0; i < robotMetrics.length; i++) {
+			if (turnWoken[i]) {
+				robotMetrics[i].add(turnWaitNanos[i], turnEventQueueSizes[i]);
+			}
+		}
+		this.tps = tps;
+
+		Arrays.fill(turnPhaseNanos, 0);
+		Arrays.fill(turnWaitNanos, 0);
+		Arrays.fill(turnEventQueueSizes, 0);
+		Arrays.fill(turnWoken, false);
+	}
+
+	/**
+	 * Returns a copy of the metrics of the turns that have ended.
+	 *
+	 * @return the copy.
+	 */
+	public synchronized BattleMetrics copy() {
+		return new BattleMetrics(this);
+	}
+
+	public long getTurns() {
+		return turnNanos.getCount();
+	}
+
+	public int getTPS() {
+		return tps;
+	}
+
+	public IHistogram getTurnNanos() {
+		return turnNanos;
+	}
+
+	public IHistogram getPhaseNanos(TurnPhase phase) {
+		return phaseNanos[phase.ordinal()];
+	}
+
+	public IRobotMetrics[] getRobotMetrics() {
+		return robotMetrics.clone();
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+
+		sb.append("Battle metrics after ").append(getTurns()).append(" turns, ").append(tps).append(" TPS\n");
+		sb.append("  turn (us): ").append(toMicros(turnNanos)).append('\n');
+		for (TurnPhase phase : PHASES) {
+			sb.append("  ").append(phase).append(" (us): ").append(toMicros(phaseNanos[phase.ordinal()])).append('\n');
+		}
+		for (RobotMetrics robot : robotMetrics) {
+			sb.append("  ").append(robot.getName()).append(" wait (us): ").append(toMicros(robot.getWaitNanos()));
+			sb.append(", events: ").append(robot.getEventQueueSizes()).append('\n');
+		}
+		return sb.toString();
+	}
+
+	private static String toMicros(IHistogram nanos) {
+		return "mean: " + Math.round(nanos.getMean() / 1000) + ", 50%: " + nanos.getPercentile(50) / 1000 + ", 99%: "
+				+ nanos.getPercentile(99) / 1000 + ", max: " + nanos.getMax() / 1000;
+	}
+}
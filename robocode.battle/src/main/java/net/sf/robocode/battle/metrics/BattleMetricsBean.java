@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.metrics;
+
+
+import net.sf.robocode.battle.IBattleManagerBase;
+import static net.sf.robocode.io.Logger.logError;
+import robocode.control.metrics.IBattleMetrics;
+import robocode.control.metrics.IRobotMetrics;
+import robocode.control.metrics.TurnPhase;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Publishes the metrics of the current battle of a battle manager with JMX.
+ */
+public final class BattleMetricsBean implements BattleMetricsMXBean {
+
+	public static final String OBJECT_NAME = "net.sf.robocode:type=BattleMetrics";
+
+	private final IBattleManagerBase battleManager;
+
+	private BattleMetricsBean(IBattleManagerBase battleManager) {
+		this.battleManager = battleManager;
+	}
+
+	/**
+	 * Registers the metrics of a battle manager on the platform MBean server,
+	 * replacing the metrics of any battle manager registered before.
+	 *
+	 * @param battleManager the battle manager.
+	 */
+	public static void register(IBattleManagerBase battleManager) {
+		try {
+			final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			final ObjectName name = new ObjectName(OBJECT_NAME);
+
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(new BattleMetricsBean(battleManager), name);
+		} catch (JMException e) {
+			logError("Could not register the battle metrics: ", e);
+		}
+	}
+
+	public long getTurns() {
+		final IBattleMetrics metrics = battleManager.getBattleMetrics();
+
+		return metrics == null ? 0 : metrics.getTurns();
+	}
+
+	public int getTPS() {
+		final IBattleMetrics metrics = battleManager.getBattleMetrics();
+
+		return metrics == null ? 0 : metrics.getTPS();
+	}
+
+	public double getMeanTurnNanos() {
+		final IBattleMetrics metrics = battleManager.getBattleMetrics();
+
+		return metrics == null ? 0 : metrics.getTurnNanos().getMean();
+	}
+
+	public long getPercentile99TurnNanos() {
+		final IBattleMetrics metrics = battleManager.getBattleMetrics();
+
+		return metrics == null ? 0 : metrics.getTurnNanos().getPercentile(99);
+	}
+
+	public long getMaxTurnNanos() {
+		final IBattleMetrics metrics = battleManager.getBattleMetrics();
+
+		return metrics == null ? 0 : metrics.getTurnNanos().getMax();
+	}
+
+	public Map<String, Double> getMeanPhaseNanos() {
+		final IBattleMetrics metrics = battleManager.getBattleMetrics();
+		final Map<String, Double> result = new LinkedHashMap<String, Double>();
+
+		if (metrics != null) {
+			for (TurnPhase phase : TurnPhase.values()) {
+				result.put(phase.name(), metrics.getPhaseNanos(phase).getMean());
+			}
+		}
+		return result;
+	}
+
+	public Map<String, Long> getMaxPhaseNanos() {
+		final IBattleMetrics metrics = battleManager.getBattleMetrics();
+		final Map<String, Long> result = new LinkedHashMap<String, Long>();
+
+		if (metrics != null) {
+			for (TurnPhase phase : TurnPhase.values()) {
+				result.put(phase.name(), metrics.getPhaseNanos(phase).getMax());
+			}
+		}
+		return result;
+	}
+
+	public Map<String, Double> getMeanRobotWaitNanos() {
+		final IBattleMetrics metrics = battleManager.getBattleMetrics();
+		final Map<String, Double> result = new LinkedHashMap<String, Double>();
+
+		if (metrics != null) {
+			for (IRobotMetrics robot : metrics.getRobotMetrics()) {
+				result.put(robot.getName(), robot.getWaitNanos().getMean());
+			}
+		}
+		return result;
+	}
+
+	public Map<String, Double> getMeanRobotEventQueueSizes() {
+		final IBattleMetrics metrics = battleManager.getBattleMetrics();
+		final Map<String, Double> result = new LinkedHashMap<String, Double>();
+
+		if (metrics != null) {
+			for (IRobotMetrics robot : metrics.getRobotMetrics()) {
+				result.put(robot.getName(), robot.getEventQueueSizes().getMean());
+			}
+		}
+		return result;
+	}
+
+	public String getSummary() {
+		final IBattleMetrics metrics = battleManager.getBattleMetrics();
+
+		return metrics == null ? "No battle" : metrics.toString();
+	}
+}
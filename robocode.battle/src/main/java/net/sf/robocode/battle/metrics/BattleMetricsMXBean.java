@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.metrics;
+
+
+import java.util.Map;
+
+
+/**
+ * The battle metrics published with JMX as {@value BattleMetricsBean#OBJECT_NAME}, when Robocode is
+ * started with -DMETRICSJMX=true. The times are in nanoseconds.
+ */
+public interface BattleMetricsMXBean {
+
+	long getTurns();
+
+	int getTPS();
+
+	double getMeanTurnNanos();
+
+	long getPercentile99TurnNanos();
+
+	long getMaxTurnNanos();
+
+	Map<String, Double> getMeanPhaseNanos();
+
+	Map<String, Long> getMaxPhaseNanos();
+
+	Map<String, Double> getMeanRobotWaitNanos();
+
+	Map<String, Double> getMeanRobotEventQueueSizes();
+
+	String getSummary();
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.metrics;
+
+
+import robocode.control.metrics.IHistogram;
+
+
+/**
+ * Histogram of values counted in buckets of powers of two. It is written by one thread at a time.
+ */
+public final class Histogram implements IHistogram {
+
+	// Bucket 0 counts the values that are 0, and bucket i the values below 2^i, but at least 2^(i-1)
+	private static final int BUCKET_COUNT = 64;
+
+	private final long[] buckets = new long[BUCKET_COUNT];
+	private long count;
+	private long total;
+	private long max;
+
+	public Histogram() {}
+
+	private Histogram(Histogram origin) {
+		System.arraycopy(origin.buckets, 0, buckets, 0, BUCKET_COUNT);
+		count = origin.count;
+		total = origin.total;
+		max = origin.max;
+	}
+
+	/**
+	 * Adds a value, where negative values count as 0.
+	 *
+	 * @param value the value.
+	 */
+	public void add(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		buckets[64 - Long.numberOfLeadingZeros(value)]++;
+		count++;
+		total += value;
+		if (value > max) {
+			max = value;
+		}
+	}
+
+	/**
+	 * Returns a copy of this histogram.
+	 *
+	 * @return the copy.
+	 */
+	public Histogram copy() {
+		return new Histogram(this);
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public double getMean() {
+		return count == 0 ? 0 : (double) total / count;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public long getPercentile(double percentile) {
+		final long rank = (long) Math.ceil(count * percentile / 100);
+		long seen = 0;
+
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += buckets[i];
+			if (seen >= rank && seen > 0) {
+				return (i == 0) ? 0 : Math.min((1L << i) - 1, max);
+			}
+		}
+		return 0;
+	}
+
+	public long[] getBuckets() {
+		return buckets.clone();
+	}
+
+	@Override
+	public String toString() {
+		return "count: " + count + ", mean: " + Math.round(getMean()) + ", 50%: " + getPercentile(50) + ", 99%: "
+				+ getPercentile(99) + ", max: " + max;
+	}
+}
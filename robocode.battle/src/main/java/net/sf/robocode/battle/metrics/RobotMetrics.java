@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.metrics;
+
+
+import robocode.control.metrics.IHistogram;
+import robocode.control.metrics.IRobotMetrics;
+
+
+/**
+ * The metrics of a robot in a battle.
+ */
+public final class RobotMetrics implements IRobotMetrics {
+
+	private final String name;
+	private final Histogram waitNanos;
+	private final Histogram eventQueueSizes;
+
+	public RobotMetrics(String name) {
+		this(name, new Histogram(), new Histogram());
+	}
+
+	private RobotMetrics(String name, Histogram waitNanos, Histogram eventQueueSizes) {
+		this.name = name;
+		this.waitNanos = waitNanos;
+		this.eventQueueSizes = eventQueueSizes;
+	}
+
+	void add(long waitNanos, int eventQueueSize) {
+		this.waitNanos.add(waitNanos);
+		this.eventQueueSizes.add(eventQueueSize);
+	}
+
+	RobotMetrics copy() {
+		return new RobotMetrics(name, waitNanos.copy(), eventQueueSizes.copy());
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public IHistogram getWaitNanos() {
+		return waitNanos;
+	}
+
+	public IHistogram getEventQueueSizes() {
+		return eventQueueSizes;
+	}
+}
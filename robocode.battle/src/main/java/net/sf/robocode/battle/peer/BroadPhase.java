@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.peer;
+
+
+import robocode.BattleRules;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+
+
+/**
+ * Broad phase of the collision detection and scanning, which finds the robots and bullets that are
+ * near a bounding box using uniform grids over the battlefield.
+ * <p/>
+ * A query marks the peers that might overlap the bounding box with a new stamp. The peers still check
+ * their candidates with the exact geometric tests in the same order as before, but skip peers that
+ * are not marked, so the results are exactly the same as without the broad phase.
+ * <p/>
+ * The battle must keep the grids up to date every time a robot or bullet moves.
+ */
+public final class BroadPhase {
+
+	// Cells must be larger than robots and the distance moved by bullets in one turn
+	private static final double MIN_CELL_SIZE = 64;
+
+	// Widens the queried boxes, so rounding errors in the exact tests can never exclude a candidate
+	private static final double MARGIN = 1;
+
+	private final UniformGrid<RobotPeer> robotGrid;
+	private final UniformGrid<BulletPeer> bulletGrid;
+
+	private int stamp;
+
+	public BroadPhase(BattleRules battleRules, int robotCount) {
+		final double width = battleRules.getBattlefieldWidth();
+		final double height = battleRules.getBattlefieldHeight();
+
+		// About one robot per cell
+		final double cellSize = Math.max(MIN_CELL_SIZE, Math.sqrt(width * height / Math.max(1, robotCount)));
+
+		robotGrid = new UniformGrid<RobotPeer>(width, height, cellSize) {
+			@Override
+			protected GridEntry getEntry(RobotPeer robot) {
+				return robot.gridEntry;
+			}
+		};
+		bulletGrid = new UniformGrid<BulletPeer>(width, height, cellSize) {
+			@Override
+			protected GridEntry getEntry(BulletPeer bullet) {
+				return bullet.gridEntry;
+			}
+		};
+	}
+
+	/**
+	 * Removes all robots and bullets.
+	 */
+	public void clear() {
+		robotGrid.clear();
+		bulletGrid.clear();
+	}
+
+	/**
+	 * Adds a robot, or updates its position after it has moved.
+	 *
+	 * @param robot the robot.
+	 */
+	public void updateRobot(RobotPeer robot) {
+		final Rectangle2D box = robot.getBoundingBox();
+
+		robotGrid.update(robot, box.getMinX(), box.getMinY(), box.getMaxX(), box.getMaxY());
+	}
+
+	/**
+	 * Adds a bullet, or updates its position after it has moved.
+	 *
+	 * @param bullet the bullet.
+	 */
+	public void updateBullet(BulletPeer bullet) {
+		final Line2D line = bullet.getBoundingLine();
+
+		bulletGrid.update(bullet, Math.min(line.getX1(), line.getX2()), Math.min(line.getY1(), line.getY2()),
+				Math.max(line.getX1(), line.getX2()), Math.max(line.getY1(), line.getY2()));
+	}
+
+	/**
+	 * Removes a bullet.
+	 *
+	 * @param bullet the bullet.
+	 */
+	public void removeBullet(BulletPeer bullet) {
+		bulletGrid.remove(bullet);
+	}
+
+	/**
+	 * Marks the robots near a bounding box.
+	 *
+	 * @return the stamp of the marked robots.
+	 */
+	int markRobots(Rectangle2D box) {
+		return markRobots(box.getMinX(), box.getMinY(), box.getMaxX(), box.getMaxY());
+	}
+
+	/**
+	 * Marks the robots near a line.
+	 *
+	 * @return the stamp of the marked robots.
+	 */
+	int markRobots(Line2D line) {
+		return markRobots(Math.min(line.getX1(), line.getX2()), Math.min(line.getY1(), line.getY2()),
+				Math.max(line.getX1(), line.getX2()), Math.max(line.getY1(), line.getY2()));
+	}
+
+	/**
+	 * Marks the bullets near a line.
+	 *
+	 * @return the stamp of the marked bullets.
+	 */
+	int markBullets(Line2D line) {
+		bulletGrid.mark(Math.min(line.getX1(), line.getX2()) - MARGIN, Math.min(line.getY1(), line.getY2()) - MARGIN,
+				Math.max(line.getX1(), line.getX2()) + MARGIN, Math.max(line.getY1(), line.getY2()) + MARGIN, ++stamp);
+		return stamp;
+	}
+
+	private int markRobots(double minX, double minY, double maxX, double maxY) {
+		robotGrid.mark(minX - MARGIN, minY - MARGIN, maxX + MARGIN, maxY + MARGIN, ++stamp);
+		return stamp;
+	}
+}
@@ -56,6 +56,8 @@ public class BulletPeer {
 
 	private final Line2D.Double boundingLine = new Line2D.Double();
 
+	final GridEntry gridEntry = new GridEntry();
+
 	protected int frame; // Do not set to -1
 
 	private final int color;
@@ -72,8 +74,10 @@ public class BulletPeer {
 	}
 
 	private void checkBulletCollision(List<BulletPeer> bullets) {
+		final int near = owner.getBroadPhase().markBullets(boundingLine);
+
 		for (BulletPeer b : bullets) {
-			if (b != null && b != this && b.isActive() && intersect(b.boundingLine)) {
+			if (b != null && b.gridEntry.stamp == near && b != this && b.isActive() && intersect(b.boundingLine)) {
 				state = BulletState.HIT_BULLET;
 				frame = 0;
 				x = lastX;
@@ -126,8 +130,10 @@ public class BulletPeer {
 	}
 
 	private void checkRobotCollision(List<RobotPeer> robots) {
+		final int near = owner.getBroadPhase().markRobots(boundingLine);
+
 		for (RobotPeer otherRobot : robots) {
-			if (!(otherRobot == null || otherRobot == owner || otherRobot.isDead())
+			if (!(otherRobot == null || otherRobot.gridEntry.stamp != near || otherRobot == owner || otherRobot.isDead())
 					&& otherRobot.getBoundingBox().intersectsLine(boundingLine)) {
 
 				state = BulletState.HIT_VICTIM;
@@ -258,6 +264,10 @@ public class BulletPeer {
 		return color;
 	}
 
+	Line2D getBoundingLine() {
+		return boundingLine;
+	}
+
 	public void setHeading(double newHeading) {
 		heading = newHeading;
 	}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.peer;
+
+
+/**
+ * Histogram of the CPU time used by a robot in its turns.
+ * <p/>
+ * The turns are counted in buckets of powers of two microseconds, so percentiles are given as the upper
+ * bound of the bucket they fall into. The histogram is written by one thread at a time.
+ */
+public final class CpuTimeHistogram {
+
+	// Bucket i counts the turns using less than 2^i microseconds, but at least 2^(i-1) microseconds
+	private static final int BUCKET_COUNT = 32;
+
+	private final long[] buckets = new long[BUCKET_COUNT];
+	private long count;
+	private long totalNanos;
+	private long maxNanos;
+
+	/**
+	 * Adds the CPU time of a turn.
+	 *
+	 * @param nanos the CPU time in nanoseconds.
+	 */
+	public void add(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		final long micros = nanos / 1000;
+		final int bucket = Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(micros));
+
+		buckets[bucket]++;
+		count++;
+		totalNanos += nanos;
+		if (nanos > maxNanos) {
+			maxNanos = nanos;
+		}
+	}
+
+	/**
+	 * Returns the number of turns.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the average CPU time of the turns in nanoseconds.
+	 */
+	public long getMeanNanos() {
+		return count == 0 ? 0 : totalNanos / count;
+	}
+
+	/**
+	 * Returns the highest CPU time of a turn in nanoseconds.
+	 */
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+
+	/**
+	 * Returns the CPU time that a given share of the turns is below.
+	 *
+	 * @param percentile the share of turns between 0 and 100.
+	 * @return the upper bound of the bucket containing the percentile in nanoseconds.
+	 */
+	public long getPercentileNanos(double percentile) {
+		final long rank = (long) Math.ceil(count * percentile / 100);
+		long seen = 0;
+
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += buckets[i];
+			if (seen >= rank && seen > 0) {
+				return Math.min((1L << i) * 1000, Math.max(maxNanos, 1000));
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns the number of turns in each bucket, where bucket i counts the turns using less than 2^i
+	 * microseconds and at least 2^(i-1) microseconds.
+	 */
+	public long[] getBuckets() {
+		return buckets.clone();
+	}
+
+	@Override
+	public String toString() {
+		return "turns: " + count + ", mean: " + getMeanNanos() / 1000 + " us, 50%: " + getPercentileNanos(50) / 1000
+				+ " us, 99%: " + getPercentileNanos(99) / 1000 + " us, max: " + maxNanos / 1000 + " us";
+	}
+}
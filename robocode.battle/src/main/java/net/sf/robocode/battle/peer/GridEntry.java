@@ -0,0 +1,21 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.peer;
+
+
+/**
+ * The cells of a {@link UniformGrid} containing a peer, and the last stamp the peer was marked with.
+ */
+final class GridEntry {
+	boolean inGrid;
+	int minCol;
+	int minRow;
+	int maxCol;
+	int maxRow;
+	int stamp;
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.peer;
+
+
+/**
+ * Synchronizes the battle thread with the thread of one robot each turn.
+ * <p/>
+ * The robot thread goes to sleep when it has taken its turn, and the battle thread wakes it up when
+ * the next turn starts. The battle thread waits a limited time for the robot to go to sleep, which
+ * is based on the CPU constant.
+ *
+ * @see MonitorTurnSync
+ * @see ParkingTurnSync
+ */
+public interface ITurnSync {
+
+	/**
+	 * Checks if the robot is sleeping, i.e. it has taken its turn and has not woken up yet.
+	 *
+	 * @return true if the robot is sleeping; false otherwise.
+	 */
+	boolean isSleeping();
+
+	/**
+	 * Called by the robot thread: Tells the battle that the robot is sleeping, and waits until the battle wakes it up.
+	 * If the robot thread is interrupted, this method returns with the interrupt status set.
+	 */
+	void sleep();
+
+	/**
+	 * Called by the battle thread: Wakes up the robot if it is sleeping, and waits until it has woken up.
+	 *
+	 * @param timeoutMillis the maximum time to wait for the robot to wake up.
+	 * @throws InterruptedException if the battle thread is interrupted while waiting.
+	 */
+	void wakeup(long timeoutMillis) throws InterruptedException;
+
+	/**
+	 * Wakes up the robot if it is sleeping without waiting for it.
+	 */
+	void wakeupNoWait();
+
+	/**
+	 * Called by the battle thread: Waits until the robot is sleeping, or has stopped running, or the time is up.
+	 *
+	 * @param millisWait the milliseconds of the time to wait.
+	 * @param nanosWait  the additional nanoseconds of the time to wait.
+	 * @throws InterruptedException if the battle thread is interrupted while waiting.
+	 */
+	void waitSleeping(long millisWait, int nanosWait) throws InterruptedException;
+
+	/**
+	 * Called by the battle thread when a round is started: Waits until the robot has taken its first turn,
+	 * or the time is up.
+	 *
+	 * @param millisWait the milliseconds of the time to wait.
+	 * @param nanosWait  the additional nanoseconds of the time to wait.
+	 * @throws InterruptedException if the battle thread is interrupted while waiting.
+	 */
+	void waitStarted(long millisWait, int nanosWait) throws InterruptedException;
+}
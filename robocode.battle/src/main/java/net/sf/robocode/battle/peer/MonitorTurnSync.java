@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.peer;
+
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Turn synchronization using wait() and notifyAll() on a monitor shared by the battle and robot thread.
+ * This is the default synchronization.
+ */
+public final class MonitorTurnSync implements ITurnSync {
+
+	private final AtomicBoolean isSleeping = new AtomicBoolean(false);
+	private final AtomicBoolean isRunning;
+
+	/**
+	 * Creates a new turn synchronization.
+	 *
+	 * @param isRunning the flag telling if the robot thread is running.
+	 */
+	public MonitorTurnSync(AtomicBoolean isRunning) {
+		this.isRunning = isRunning;
+	}
+
+	public boolean isSleeping() {
+		return isSleeping.get();
+	}
+
+	public void sleep() {
+		synchronized (isSleeping) {
+			// Notify the battle that we are now asleep.
+			// This ends any pending wait() call in battle.runRound().
+			// Should not actually take place until we release the lock in wait(), below.
+			isSleeping.set(true);
+			isSleeping.notifyAll();
+			// Notifying battle that we're asleep
+			// Sleeping and waiting for battle to wake us up.
+			try {
+				isSleeping.wait();
+			} catch (InterruptedException e) {
+				// We are expecting this to happen when a round is ended!
+
+				// Immediately reasserts the exception by interrupting the caller thread itself
+				Thread.currentThread().interrupt();
+			}
+			isSleeping.set(false);
+			// Notify battle thread, which is waiting in
+			// our wakeup() call, to return.
+			// It's quite possible, by the way, that we'll be back in sleep (above)
+			// before the battle thread actually wakes up
+			isSleeping.notifyAll();
+		}
+	}
+
+	public void wakeup(long timeoutMillis) throws InterruptedException {
+		synchronized (isSleeping) {
+			if (isSleeping()) {
+				// Wake up the thread
+				isSleeping.notifyAll();
+				isSleeping.wait(timeoutMillis);
+			}
+		}
+	}
+
+	public void wakeupNoWait() {
+		synchronized (isSleeping) {
+			if (isSleeping()) {
+				// Wake up the thread
+				isSleeping.notifyAll();
+			}
+		}
+	}
+
+	public void waitSleeping(long millisWait, int nanosWait) throws InterruptedException {
+		synchronized (isSleeping) {
+			// It's quite possible for simple robots to
+			// complete their processing before we get here,
+			// so we test if the robot is already asleep.
+
+			if (!isSleeping()) {
+				for (long i = millisWait; i > 0 && !isSleeping() && isRunning.get(); i--) {
+					isSleeping.wait(0, 999999);
+				}
+				if (!isSleeping() && isRunning.get()) {
+					isSleeping.wait(0, nanosWait);
+				}
+			}
+		}
+	}
+
+	public void waitStarted(long millisWait, int nanosWait) throws InterruptedException {
+		synchronized (isSleeping) {
+			// Wait for the robot to go to sleep (take action)
+			isSleeping.wait(millisWait, nanosWait);
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.peer;
+
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * Lock-free turn synchronization, where the battle and robot thread park and unpark each other.
+ * <p/>
+ * A waiting thread can spin for a short time before it parks, which avoids the context switches
+ * when the other thread answers quickly, but burns CPU time. Spinning should only be enabled when
+ * there are more CPU cores than running robots.
+ * <p/>
+ * Unlike {@link MonitorTurnSync}, the battle thread waits exactly the given time for a robot to go to
+ * sleep, as the time is not split into slices that end early when the robot thread wakes up.
+ */
+public final class ParkingTurnSync implements ITurnSync {
+
+	private static final int AWAKE = 0;
+	private static final int SLEEPING = 1;
+	private static final int WAKING = 2;
+
+	// Longest time to park before checking if the robot is still running
+	private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final AtomicInteger state = new AtomicInteger(AWAKE);
+	private final AtomicBoolean isRunning;
+	private final long spinNanos;
+
+	private volatile Thread robotThread;
+	private volatile Thread battleThread;
+
+	/**
+	 * Creates a new turn synchronization.
+	 *
+	 * @param isRunning the flag telling if the robot thread is running.
+	 * @param spinNanos the time a waiting thread spins before it parks, or 0 for no spinning.
+	 */
+	public ParkingTurnSync(AtomicBoolean isRunning, long spinNanos) {
+		this.isRunning = isRunning;
+		this.spinNanos = spinNanos;
+	}
+
+	public boolean isSleeping() {
+		// The robot is still sleeping until it has noticed that it has been woken up
+		return state.get() != AWAKE;
+	}
+
+	public void sleep() {
+		robotThread = Thread.currentThread();
+
+		state.set(SLEEPING);
+		unpark(battleThread);
+
+		spin(SLEEPING, spinNanos);
+		while (state.get() == SLEEPING && !Thread.currentThread().isInterrupted()) {
+			// An interrupt ends the sleep, which is expected to happen when a round is ended
+			LockSupport.park(this);
+		}
+
+		state.set(AWAKE);
+		unpark(battleThread);
+	}
+
+	public void wakeup(long timeoutMillis) throws InterruptedException {
+		battleThread = Thread.currentThread();
+
+		if (state.compareAndSet(SLEEPING, WAKING)) {
+			unpark(robotThread);
+			waitWhile(WAKING, TimeUnit.MILLISECONDS.toNanos(timeoutMillis), false);
+		}
+	}
+
+	public void wakeupNoWait() {
+		if (state.compareAndSet(SLEEPING, WAKING)) {
+			unpark(robotThread);
+		}
+	}
+
+	public void waitSleeping(long millisWait, int nanosWait) throws InterruptedException {
+		battleThread = Thread.currentThread();
+
+		waitWhile(AWAKE, TimeUnit.MILLISECONDS.toNanos(millisWait) + nanosWait, true);
+	}
+
+	public void waitStarted(long millisWait, int nanosWait) throws InterruptedException {
+		battleThread = Thread.currentThread();
+
+		waitWhile(AWAKE, TimeUnit.MILLISECONDS.toNanos(millisWait) + nanosWait, false);
+	}
+
+	private void waitWhile(int waitState, long timeoutNanos, boolean onlyWhileRunning) throws InterruptedException {
+		final long deadline = System.nanoTime() + timeoutNanos;
+
+		spin(waitState, Math.min(spinNanos, timeoutNanos));
+
+		while (state.get() == waitState && (!onlyWhileRunning || isRunning.get())) {
+			final long remaining = deadline - System.nanoTime();
+
+			if (remaining <= 0) {
+				return;
+			}
+			LockSupport.parkNanos(this, Math.min(remaining, MAX_PARK_NANOS));
+
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+	}
+
+	private void spin(int waitState, long nanos) {
+		if (nanos > 0) {
+			final long deadline = System.nanoTime() + nanos;
+
+			while (state.get() == waitState && System.nanoTime() < deadline) {
+				// Busy wait
+			}
+		}
+	}
+
+	private static void unpark(Thread thread) {
+		if (thread != null) {
+			LockSupport.unpark(thread);
+		}
+	}
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.peer;
+
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+
+/**
+ * Measures the CPU time used by the thread of a robot in its turns.
+ * <p/>
+ * The battle thread takes the CPU time of the robot thread when it wakes up the robot, and the robot thread
+ * takes its own CPU time when it goes to sleep again. Threads created by the robot itself are not measured.
+ */
+final class RobotCpuTimer {
+	private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+	private static final boolean isSupported = enableThreadCpuTime();
+
+	private final CpuTimeHistogram histogram = new CpuTimeHistogram();
+
+	// The robot thread, which is a new one for each round
+	private volatile Thread robotThread;
+
+	// CPU time of the robot thread when the current turn was started, or -1 if unknown
+	private volatile long turnStartCpuTime = -1;
+
+	/**
+	 * Checks if the CPU time of threads can be measured by this JVM.
+	 */
+	static boolean isSupported() {
+		return isSupported;
+	}
+
+	CpuTimeHistogram getHistogram() {
+		return histogram;
+	}
+
+	/**
+	 * Called by the battle thread when a round is started, before the robot thread is started.
+	 */
+	void reset() {
+		robotThread = null;
+		turnStartCpuTime = -1;
+	}
+
+	/**
+	 * Called by the battle thread before it wakes up the sleeping robot.
+	 */
+	void turnStarted() {
+		final Thread thread = robotThread;
+
+		turnStartCpuTime = thread != null ? threadMXBean.getThreadCpuTime(thread.getId()) : -1;
+	}
+
+	/**
+	 * Called by the robot thread when it goes to sleep after its turn.
+	 */
+	void turnEnded() {
+		robotThread = Thread.currentThread();
+
+		final long start = turnStartCpuTime;
+
+		if (start >= 0) {
+			histogram.add(threadMXBean.getCurrentThreadCpuTime() - start);
+			turnStartCpuTime = -1;
+		}
+	}
+
+	/**
+	 * Called by the battle thread: Returns the CPU time the robot has used since it was woken up.
+	 *
+	 * @return the CPU time in nanoseconds, or 0 if it is unknown.
+	 */
+	long getTurnCpuTime() {
+		final Thread thread = robotThread;
+		final long start = turnStartCpuTime;
+
+		if (thread == null || start < 0) {
+			return 0;
+		}
+		final long now = threadMXBean.getThreadCpuTime(thread.getId());
+
+		return now < 0 ? 0 : now - start;
+	}
+
+	private static boolean enableThreadCpuTime() {
+		try {
+			if (!threadMXBean.isThreadCpuTimeSupported()) {
+				return false;
+			}
+			if (!threadMXBean.isThreadCpuTimeEnabled()) {
+				threadMXBean.setThreadCpuTimeEnabled(true);
+			}
+			return true;
+		} catch (SecurityException e) {
+			return false;
+		} catch (UnsupportedOperationException e) {
+			return false;
+		}
+	}
+}
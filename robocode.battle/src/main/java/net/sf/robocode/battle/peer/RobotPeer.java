@@ -19,6 +19,7 @@ import net.sf.robocode.host.proxies.IHostingRobotProxy;
 import net.sf.robocode.io.Logger;
 import net.sf.robocode.peer.*;
 import net.sf.robocode.repository.IRobotItem;
+import net.sf.robocode.robotpaint.PaintBuffer;
 import net.sf.robocode.security.HiddenAccess;
 import net.sf.robocode.serialization.RbSerializer;
 import robocode.*;
@@ -37,6 +38,7 @@ import java.io.IOException;
 import static java.lang.Math.*;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -74,17 +76,25 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	private Battle battle;
 	private RobotStatistics statistics;
 	private final TeamPeer teamPeer;
+	private final int teamMemberIndex;
 	private final RobotSpecification robotSpecification;
 
 	private IHostingRobotProxy robotProxy;
 	private AtomicReference<RobotStatus> status = new AtomicReference<RobotStatus>();
 	private AtomicReference<ExecCommands> commands = new AtomicReference<ExecCommands>();
 	private AtomicReference<EventQueue> events = new AtomicReference<EventQueue>(new EventQueue());
-	private AtomicReference<List<TeamMessage>> teamMessages = new AtomicReference<List<TeamMessage>>(
-			new ArrayList<TeamMessage>());
 	private AtomicReference<List<BulletStatus>> bulletUpdates = new AtomicReference<List<BulletStatus>>(
 			new ArrayList<BulletStatus>());
 
+	// The commands, which the battle has finished with, so the robot can reuse them for its next commands
+	private final AtomicReference<ExecCommands> freeCommands = new AtomicReference<ExecCommands>();
+
+	// for robot thread, the results and the lists given to the robot in its last turn, which are reused in the next turn
+	private final ExecResults results = new ExecResults(null, null, null, null, null, false, false, false);
+	private EventQueue readEvents = new EventQueue();
+	private List<BulletStatus> readBullets = new ArrayList<BulletStatus>();
+	private final List<TeamMessage> readTeamMessages = new ArrayList<TeamMessage>();
+
 	// thread is running
 	private final AtomicBoolean isRunning = new AtomicBoolean(false);
 
@@ -95,6 +105,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 
 	// for battle thread, during robots processing
 	private ExecCommands currentCommands;
+	private ExecCommands loadedCommands;
 	private double lastHeading;
 	private double lastGunHeading;
 	private double lastRadarHeading;
@@ -116,7 +127,8 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	private boolean sgPaintEnabled;
 
 	// waiting for next tick
-	private final AtomicBoolean isSleeping = new AtomicBoolean(false);
+	private final ITurnSync turnSync;
+	private volatile RobotCpuTimer cpuTimer;
 	private final AtomicBoolean halt = new AtomicBoolean(false);
 
 	// last and current execution time and detecting skipped turns
@@ -132,8 +144,12 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	private RobotState state;
 	private final Arc2D scanArc;
 	private final BoundingRectangle boundingBox;
+	final GridEntry gridEntry = new GridEntry();
 	private final RbSerializer rbSerializer;
 
+	// random number generator used by the robot code, which is split from the battle
+	private final Random random;
+
 	public RobotPeer(Battle battle, IHostManager hostManager, RobotSpecification robotSpecification, int duplicate, TeamPeer team, int robotIndex) {
 		super();
 
@@ -147,9 +163,13 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		this.teamPeer = team;
 		this.state = RobotState.ACTIVE;
 		this.battleRules = battle.getBattleRules();
+		this.turnSync = battle.createTurnSync(isRunning);
 
 		if (team != null) {
 			team.add(this);
+			teamMemberIndex = team.size() - 1;
+		} else {
+			teamMemberIndex = -1;
 		}
 		String teamName;
 		List<String> teamMembers; 
@@ -171,6 +191,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		this.statics = new RobotStatics(robotSpecification, duplicate, isTeamLeader, battleRules, teamName, teamMembers,
 				robotIndex, teamIndex);
 		this.statistics = new RobotStatistics(this, battle.getRobotsCount());
+		this.random = battle.createRobotRandom(robotIndex);
 
 		this.robotProxy = (IHostingRobotProxy) hostManager.createRobotProxy(robotSpecification, statics, this);
 	}
@@ -205,14 +226,27 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 
 	public String readOutText() {
 		synchronized (proxyText) {
-			final String robotText = battleText.toString() + proxyText.toString();
+			// Most turns have no text, or only text from one of the two, which is copied once
+			final String robotText;
 
+			if (battleText.length() == 0) {
+				robotText = proxyText.length() == 0 ? "" : proxyText.toString();
+			} else {
+				robotText = battleText.append(proxyText).toString();
+			}
 			battleText.setLength(0);
 			proxyText.setLength(0);
 			return robotText;
 		}
 	}
 
+	public void discardOutText() {
+		synchronized (proxyText) {
+			battleText.setLength(0);
+			proxyText.setLength(0);
+		}
+	}
+
 	public RobotStatistics getRobotStatistics() {
 		return statistics;
 	}
@@ -326,7 +360,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	}
 
 	public boolean isSleeping() {
-		return isSleeping.get();
+		return turnSync.isSleeping();
 	}
 
 	public boolean isHalt() {
@@ -337,6 +371,10 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		halt.set(value);
 	}
 
+	BroadPhase getBroadPhase() {
+		return battle.getBroadPhase();
+	}
+
 	public BoundingRectangle getBoundingBox() {
 		return boundingBox;
 	}
@@ -440,6 +478,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 
 	public void setupThread() {
 		Thread.currentThread().setName(getName());
+		RandomFactory.setThreadRandom(random);
 	}
 
 	public void executeImplSerial() throws IOException {
@@ -448,7 +487,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		final ExecResults results = executeImpl(commands);
 
 		bidirectionalBuffer.clear();
-		rbSerializer.serializeToBuffer(bidirectionalBuffer, RbSerializer.ExecResults_TYPE, results);
+		rbSerializer.serializeStreaming(bidirectionalBuffer, RbSerializer.ExecResults_TYPE, results);
 	}
 
 	public void waitForBattleEndImplSerial() throws IOException {
@@ -457,7 +496,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		final ExecResults results = waitForBattleEndImpl(commands);
 
 		bidirectionalBuffer.clear();
-		rbSerializer.serializeToBuffer(bidirectionalBuffer, RbSerializer.ExecResults_TYPE, results);
+		rbSerializer.serializeStreaming(bidirectionalBuffer, RbSerializer.ExecResults_TYPE, results);
 	}
 
 	public final ExecResults executeImpl(ExecCommands newCommands) {
@@ -465,9 +504,12 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 
 		if (!isExecFinishedAndDisabled) {
 			// from robot to battle
-			commands.set(new ExecCommands(newCommands, true));
+			commands.set(takeCommands(newCommands));
 			print(newCommands.getOutputText());
 		} else {
+			// The commands are dropped, so their paint buffer goes back to the robot
+			releaseGraphicsCalls(newCommands);
+
 			// slow down spammer
 			try {
 				Thread.sleep(100);
@@ -499,33 +541,54 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		checkSkippedTurn();
 
 		// from battle to robot
-		final ExecCommands resCommands = new ExecCommands(this.commands.get(), false);
+		newCommands.resetFromBattle(this.commands.get());
 		final RobotStatus resStatus = status.get();
 
 		final boolean shouldWait = battle.isAborted() || (battle.isLastRound() && isWinner());
 
-		return new ExecResults(resCommands, resStatus, readoutEvents(), readoutTeamMessages(), readoutBullets(),
-				isHalt(), shouldWait, isPaintEnabled());
+		results.set(newCommands, resStatus, readoutEvents(), readoutTeamMessages(), readoutBullets(), isHalt(),
+				shouldWait, isPaintEnabled());
+		return results;
 	}
 
 	public final ExecResults waitForBattleEndImpl(ExecCommands newCommands) {
 		if (!isHalt()) {
 			// from robot to battle
-			commands.set(new ExecCommands(newCommands, true));
+			commands.set(takeCommands(newCommands));
 			print(newCommands.getOutputText());
 
 			waitForNextTurn();
+		} else {
+			// The commands are dropped, so their paint buffer goes back to the robot
+			releaseGraphicsCalls(newCommands);
 		}
 		// from battle to robot
-		final ExecCommands resCommands = new ExecCommands(this.commands.get(), false);
+		newCommands.resetFromBattle(this.commands.get());
 		final RobotStatus resStatus = status.get();
 
 		final boolean shouldWait = battle.isAborted() || (battle.isLastRound() && !isWinner());
 
-		readoutTeamMessages(); // throw away
+		discardTeamMessages();
 		
-		return new ExecResults(resCommands, resStatus, readoutEvents(), new ArrayList<TeamMessage>(), readoutBullets(),
+		results.set(newCommands, resStatus, readoutEvents(), Collections.<TeamMessage>emptyList(), readoutBullets(),
 				isHalt(), shouldWait, false);
+		return results;
+	}
+
+	private static void releaseGraphicsCalls(ExecCommands commands) {
+		PaintBuffer.releaseCalls(commands.getGraphicsCalls());
+		commands.setGraphicsCalls(null);
+	}
+
+	// Moves the new commands of the robot into commands, which the battle has finished with, or new commands
+	private ExecCommands takeCommands(ExecCommands newCommands) {
+		ExecCommands battleCommands = freeCommands.getAndSet(null);
+
+		if (battleCommands == null) {
+			battleCommands = new ExecCommands();
+		}
+		battleCommands.takeFromRobot(newCommands);
+		return battleCommands;
 	}
 
 	private void validateCommands(ExecCommands newCommands) {
@@ -540,42 +603,55 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		newCommands.setMaxVelocity(Math.min(abs(newCommands.getMaxVelocity()), Rules.MAX_VELOCITY));
 	}
 
+	/**
+	 * Returns the number of events waiting to be read by the robot.
+	 *
+	 * @return the number of events.
+	 */
+	public int getEventQueueSize() {
+		return events.get().size();
+	}
+
+	// The events given to the robot in its last turn have been handled, so they are reused for the next turn
 	private List<Event> readoutEvents() {
-		return events.getAndSet(new EventQueue());
+		final EventQueue free = readEvents;
+
+		free.clear();
+		readEvents = events.getAndSet(free);
+		return readEvents;
 	}
 
 	private List<TeamMessage> readoutTeamMessages() {
-		return teamMessages.getAndSet(new ArrayList<TeamMessage>());
+		if (teamPeer == null) {
+			return Collections.emptyList();
+		}
+		readTeamMessages.clear();
+		teamPeer.getMessageBus().readout(teamMemberIndex, readTeamMessages);
+		return readTeamMessages;
+	}
+
+	private void discardTeamMessages() {
+		if (teamPeer != null) {
+			teamPeer.getMessageBus().discard(teamMemberIndex);
+		}
 	}
 
 	private List<BulletStatus> readoutBullets() {
-		return bulletUpdates.getAndSet(new ArrayList<BulletStatus>());
+		final List<BulletStatus> free = readBullets;
+
+		free.clear();
+		readBullets = bulletUpdates.getAndSet(free);
+		return readBullets;
 	}
 
 	private void waitForNextTurn() {
-		synchronized (isSleeping) {
-			// Notify the battle that we are now asleep.
-			// This ends any pending wait() call in battle.runRound().
-			// Should not actually take place until we release the lock in wait(), below.
-			isSleeping.set(true);
-			isSleeping.notifyAll();
-			// Notifying battle that we're asleep
-			// Sleeping and waiting for battle to wake us up.
-			try {
-				isSleeping.wait();
-			} catch (InterruptedException e) {
-				// We are expecting this to happen when a round is ended!
+		final RobotCpuTimer timer = cpuTimer;
 
-				// Immediately reasserts the exception by interrupting the caller thread itself
-				Thread.currentThread().interrupt();
-			}
-			isSleeping.set(false);
-			// Notify battle thread, which is waiting in
-			// our wakeup() call, to return.
-			// It's quite possible, by the way, that we'll be back in sleep (above)
-			// before the battle thread actually wakes up
-			isSleeping.notifyAll();
+		if (timer != null) {
+			timer.turnEnded();
 		}
+		// Sleeping and waiting for battle to wake us up.
+		turnSync.sleep();
 	}
 
 	// -----------
@@ -583,53 +659,99 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	// -----------
 
 	public void waitWakeup() {
-		synchronized (isSleeping) {
-			if (isSleeping()) {
-				// Wake up the thread
-				isSleeping.notifyAll();
-				try {
-					isSleeping.wait(10000);
-				} catch (InterruptedException e) {
-					// Immediately reasserts the exception by interrupting the caller thread itself
-					Thread.currentThread().interrupt();
-				}
-			}
+		final RobotCpuTimer timer = cpuTimer;
+
+		if (timer != null && turnSync.isSleeping()) {
+			timer.turnStarted();
+		}
+		try {
+			turnSync.wakeup(10000);
+		} catch (InterruptedException e) {
+			// Immediately reasserts the exception by interrupting the caller thread itself
+			Thread.currentThread().interrupt();
 		}
 	}
 
 	public void waitWakeupNoWait() {
-		synchronized (isSleeping) {
-			if (isSleeping()) {
-				// Wake up the thread
-				isSleeping.notifyAll();
-			}
-		}
+		turnSync.wakeupNoWait();
 	}
 
 	public void waitSleeping(long millisWait, int nanosWait) {
-		synchronized (isSleeping) {
-			// It's quite possible for simple robots to
-			// complete their processing before we get here,
-			// so we test if the robot is already asleep.
-
-			if (!isSleeping()) {
-				try {
-					for (long i = millisWait; i > 0 && !isSleeping() && isRunning(); i--) {
-						isSleeping.wait(0, 999999);
-					}
-					if (!isSleeping() && isRunning()) {
-						isSleeping.wait(0, nanosWait);
-					}
-				} catch (InterruptedException e) {
-					// Immediately reasserts the exception by interrupting the caller thread itself
-					Thread.currentThread().interrupt();
+		try {
+			turnSync.waitSleeping(millisWait, nanosWait);
+		} catch (InterruptedException e) {
+			// Immediately reasserts the exception by interrupting the caller thread itself
+			Thread.currentThread().interrupt();
 
-					logMessage("Wait for " + getName() + " interrupted.");
-				}
+			logMessage("Wait for " + getName() + " interrupted.");
+		}
+	}
+
+	/**
+	 * Waits until the robot is sleeping, or has stopped running, or has used a given CPU time in this turn.
+	 * The CPU timer must be enabled.
+	 * <p/>
+	 * The robot thread might not get a CPU all the time when the robots run in parallel, so the wait is
+	 * continued as long as the robot has CPU time left, but never longer than a maximum wall-clock time.
+	 *
+	 * @param cpuTimeNanos the CPU time the robot may use in nanoseconds.
+	 * @param maxWaitNanos the maximum time to wait in nanoseconds.
+	 */
+	public void waitSleepingCpuTime(long cpuTimeNanos, long maxWaitNanos) {
+		final long deadline = System.nanoTime() + maxWaitNanos;
+		long waitNanos = cpuTimeNanos;
+
+		while (true) {
+			waitSleeping(waitNanos / 1000000, (int) max(1, waitNanos % 1000000));
+
+			if (isSleeping() || !isRunning() || Thread.currentThread().isInterrupted()) {
+				return;
 			}
+			final long cpuTimeLeft = cpuTimeNanos - cpuTimer.getTurnCpuTime();
+			final long timeLeft = deadline - System.nanoTime();
+
+			if (cpuTimeLeft <= 0 || timeLeft <= 0) {
+				return;
+			}
+			waitNanos = min(cpuTimeLeft, timeLeft);
 		}
 	}
 
+	/**
+	 * Checks if the CPU time of the robot threads can be measured by this JVM.
+	 */
+	public static boolean isCpuTimerSupported() {
+		return RobotCpuTimer.isSupported();
+	}
+
+	/**
+	 * Enables measuring the CPU time of the robot thread in each turn.
+	 * Must be called before the battle is started.
+	 */
+	public void enableCpuTimer() {
+		cpuTimer = new RobotCpuTimer();
+	}
+
+	/**
+	 * Returns the histogram of the CPU time used by the robot thread in its turns.
+	 *
+	 * @return the histogram, or null if the CPU timer is not enabled.
+	 */
+	public CpuTimeHistogram getCpuTimeHistogram() {
+		final RobotCpuTimer timer = cpuTimer;
+
+		return timer != null ? timer.getHistogram() : null;
+	}
+
+	/**
+	 * Returns the statistics of the messages sent and received by the robot for logging.
+	 *
+	 * @return the statistics, or null if the robot is not in a team.
+	 */
+	public String getTeamMessageStatistics() {
+		return teamPeer != null ? teamPeer.getMessageBus().getStatistics(teamMemberIndex) : null;
+	}
+
 	public void checkSkippedTurn() {
 		// Store last and current execution time for detecting skipped turns
 		lastExecutionTime = currentExecutionTime;
@@ -677,7 +799,7 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		}
 
 		if (!valid) {
-			final Random random = RandomFactory.getRandom();
+			final Random random = battle.getRandom();
 
 			for (int j = 0; j < 1000; j++) {
 				x = RobotPeer.WIDTH + random.nextDouble() * (battleRules.getBattlefieldWidth() - 2 * RobotPeer.WIDTH);
@@ -725,7 +847,9 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		status = new AtomicReference<RobotStatus>();
 
 		readoutEvents();
-		readoutTeamMessages();
+		if (teamPeer != null) {
+			teamPeer.getMessageBus().join(teamMemberIndex);
+		}
 		readoutBullets();
 
 		battleText.setLength(0);
@@ -734,9 +858,19 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		// Prepare new execution commands, but copy the colors from the last commands.
 		// Bugfix [2628217] - Robot Colors don't stick between rounds.
 		ExecCommands newExecCommands = new ExecCommands();
+		final ExecCommands lastCommands = commands.get();
 
-		newExecCommands.copyColors(commands.get());
+		newExecCommands.copyColors(lastCommands);
 		commands = new AtomicReference<ExecCommands>(newExecCommands);
+
+		// The paint buffers of the last round go back to the robot
+		if (loadedCommands != null) {
+			releaseGraphicsCalls(loadedCommands);
+			loadedCommands = null;
+		}
+		if (lastCommands != null) {
+			releaseGraphicsCalls(lastCommands);
+		}
 	}
 
 	private boolean validSpot(List<RobotPeer> robots) {
@@ -755,6 +889,12 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 
 		statistics.initialize();
 
+		final RobotCpuTimer timer = cpuTimer;
+
+		if (timer != null) {
+			timer.reset();
+		}
+
 		ExecCommands newExecCommands = new ExecCommands();
 
 		// Copy the colors from the last commands.
@@ -771,16 +911,14 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		status.set(stat);
 		robotProxy.startRound(currentCommands, stat);
 
-		synchronized (isSleeping) {
-			try {
-				// Wait for the robot to go to sleep (take action)
-				isSleeping.wait(waitMillis, waitNanos);
-			} catch (InterruptedException e) {
-				logMessage("Wait for " + getName() + " interrupted.");
+		try {
+			// Wait for the robot to go to sleep (take action)
+			turnSync.waitStarted(waitMillis, waitNanos);
+		} catch (InterruptedException e) {
+			logMessage("Wait for " + getName() + " interrupted.");
 
-				// Immediately reasserts the exception by interrupting the caller thread itself
-				Thread.currentThread().interrupt();
-			}
+			// Immediately reasserts the exception by interrupting the caller thread itself
+			Thread.currentThread().interrupt();
 		}
 		if (!isSleeping() && !battle.isDebugging()) {
 			logMessage("\n" + getName() + " still has not started after " + waitMillis + " ms... giving up.");
@@ -790,6 +928,16 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	public void performLoadCommands() {
 		currentCommands = commands.get();
 
+		// The robot has sent new commands, so the battle is finished with the commands of the last turn
+		if (currentCommands != loadedCommands) {
+			if (loadedCommands != null) {
+				// The paint buffer goes back to the robot, when no view or recorder holds on to it anymore
+				releaseGraphicsCalls(loadedCommands);
+				freeCommands.set(loadedCommands);
+			}
+			loadedCommands = currentCommands;
+		}
+
 		fireBullets(currentCommands.getBullets());
 
 		if (currentCommands.isScan()) {
@@ -908,11 +1056,18 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 
 		// dispatch messages
 		if (statics.isTeamRobot() && teamPeer != null) {
+			final TeamMessageBus messageBus = teamPeer.getMessageBus();
+
 			for (TeamMessage teamMessage : currentCommands.getTeamMessages()) {
-				for (RobotPeer member : teamPeer) {
-					if (checkDispatchToMember(member, teamMessage.recipient)) {
-						member.addTeamMessage(teamMessage);
+				if (messageBus.post(teamMemberIndex, teamMessage, battle.getTime())) {
+					for (int i = 0; i < teamPeer.size(); i++) {
+						if (checkDispatchToMember(teamPeer.get(i), teamMessage.recipient)) {
+							messageBus.addRecipient(i);
+						}
 					}
+				} else {
+					println("SYSTEM: Team message dropped, as more than " + messageBus.getQuotaPerTurn()
+							+ " bytes have been sent in this turn");
 				}
 			}
 		}
@@ -922,12 +1077,6 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		lastRadarHeading = -1;
 	}
 
-	private void addTeamMessage(TeamMessage message) {
-		final List<TeamMessage> queue = teamMessages.get();
-
-		queue.add(message);
-	}
-
 	private boolean checkDispatchToMember(RobotPeer member, String recipient) {
 		if (member.isAlive()) {
 			if (recipient == null) {
@@ -963,8 +1112,10 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 	private void checkRobotCollision(List<RobotPeer> robots) {
 		inCollision = false;
 
+		final int near = getBroadPhase().markRobots(boundingBox);
+
 		for (RobotPeer otherRobot : robots) {
-			if (!(otherRobot == null || otherRobot == this || otherRobot.isDead())
+			if (!(otherRobot == null || otherRobot.gridEntry.stamp != near || otherRobot == this || otherRobot.isDead())
 					&& boundingBox.intersects(otherRobot.boundingBox)) {
 				// Bounce back
 				double angle = atan2(otherRobot.x - x, otherRobot.y - y);
@@ -1402,8 +1553,10 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		scanArc.setArc(x - Rules.RADAR_SCAN_RADIUS, y - Rules.RADAR_SCAN_RADIUS, 2 * Rules.RADAR_SCAN_RADIUS,
 				2 * Rules.RADAR_SCAN_RADIUS, 180.0 * startAngle / PI, 180.0 * scanRadians / PI, Arc2D.PIE);
 
+		final int near = getBroadPhase().markRobots(scanArc.getBounds2D());
+
 		for (RobotPeer otherRobot : robots) {
-			if (!(otherRobot == null || otherRobot == this || otherRobot.isDead())
+			if (!(otherRobot == null || otherRobot.gridEntry.stamp != near || otherRobot == this || otherRobot.isDead())
 					&& intersects(scanArc, otherRobot.boundingBox)) {
 				double dx = otherRobot.x - x;
 				double dy = otherRobot.y - y;
@@ -1540,6 +1693,11 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		updateEnergy(-energy);
 
 		setState(RobotState.DEAD);
+
+		// The robot will not read its team messages anymore, so they must not be kept for it
+		if (teamPeer != null) {
+			teamPeer.getMessageBus().leave(teamMemberIndex);
+		}
 	}
 
 	public void waitForStop() {
@@ -1565,7 +1723,6 @@ public final class RobotPeer implements IRobotPeerBattle, IRobotPeer {
 		status = null;
 		commands = null;
 		events = null;
-		teamMessages = null;
 		bulletUpdates = null;
 		battleText.setLength(0);
 		proxyText.setLength(0);
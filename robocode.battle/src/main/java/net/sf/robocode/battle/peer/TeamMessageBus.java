@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.peer;
+
+
+import net.sf.robocode.peer.TeamMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Delivers the messages sent between the members of a team.
+ * <p/>
+ * The messages are kept in a single log with the set of recipients of each message, so a message
+ * sent to the whole team is stored once. Each member reads the messages for it from the position
+ * where it stopped reading the last time, and the messages are removed from the log when all members
+ * have read past them. A member that has died has left the bus, so it no longer keeps messages in the log.
+ * <p/>
+ * The bytes a member can send in a turn are limited by a quota, and messages above the quota are dropped.
+ * The bus counts the messages and bytes sent, received and dropped by each member.
+ * <p/>
+ * The messages are posted by the battle thread and read by the robot threads.
+ */
+public final class TeamMessageBus {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final int quotaPerTurn;
+	private final List<Member> members = new ArrayList<Member>();
+
+	// Number of longs in the recipient bit set of each message
+	private int words = 1;
+
+	private TeamMessage[] messages = new TeamMessage[INITIAL_CAPACITY];
+	private long[] recipients = new long[INITIAL_CAPACITY];
+	private int count;
+
+	// Sequence number of the first message in the log
+	private long first;
+
+	/**
+	 * Creates a new bus.
+	 *
+	 * @param quotaPerTurn the number of message bytes a member can send in a turn, or 0 for no limit.
+	 */
+	public TeamMessageBus(int quotaPerTurn) {
+		this.quotaPerTurn = quotaPerTurn;
+	}
+
+	/**
+	 * Adds a member to the team. All members must be added before the first message is posted.
+	 *
+	 * @return the index of the new member.
+	 */
+	public synchronized int addMember() {
+		if (count > 0) {
+			throw new IllegalStateException("Members must be added before messages are posted");
+		}
+		final Member member = new Member();
+
+		member.position = first;
+		members.add(member);
+		words = (members.size() + 63) >>> 6;
+		recipients = new long[messages.length * words];
+		return members.size() - 1;
+	}
+
+	/**
+	 * Returns the number of message bytes a member can send in a turn.
+	 *
+	 * @return the number of bytes, or 0 if there is no limit.
+	 */
+	public int getQuotaPerTurn() {
+		return quotaPerTurn;
+	}
+
+	/**
+	 * Posts a message without any recipients, which are added afterwards with {@link #addRecipient(int)}.
+	 *
+	 * @param sender the index of the sending member.
+	 * @param message the message.
+	 * @param time the current turn.
+	 * @return true if the message was posted; false if it was dropped, as the sender has used its quota for the turn.
+	 */
+	public synchronized boolean post(int sender, TeamMessage message, long time) {
+		final Member member = members.get(sender);
+		final int size = sizeOf(message);
+
+		if (member.quotaTime != time) {
+			member.quotaTime = time;
+			member.quotaBytes = 0;
+		}
+		if (quotaPerTurn > 0 && member.quotaBytes + size > quotaPerTurn) {
+			member.messagesDropped++;
+			return false;
+		}
+		member.quotaBytes += size;
+		member.messagesSent++;
+		member.bytesSent += size;
+
+		if (count == messages.length) {
+			grow();
+		}
+		messages[count] = message;
+		Arrays.fill(recipients, count * words, (count + 1) * words, 0);
+		count++;
+		return true;
+	}
+
+	/**
+	 * Adds a recipient to the last posted message.
+	 *
+	 * @param recipient the index of the receiving member.
+	 */
+	public synchronized void addRecipient(int recipient) {
+		recipients[(count - 1) * words + (recipient >>> 6)] |= 1L << recipient;
+	}
+
+	/**
+	 * Takes a member out of the team, when it has died, so the messages it will never read are not kept
+	 * for it. The member is taken back into the team with {@link #join(int)}.
+	 *
+	 * @param member the index of the member.
+	 */
+	public synchronized void leave(int member) {
+		members.get(member).hasLeft = true;
+		compact();
+	}
+
+	/**
+	 * Takes a member into the team again, when a new round starts. The member only reads the messages
+	 * posted after it has joined.
+	 *
+	 * @param member the index of the member.
+	 */
+	public synchronized void join(int member) {
+		final Member m = members.get(member);
+
+		m.hasLeft = false;
+		m.position = first + count;
+	}
+
+	/**
+	 * Reads the messages for a member, which have been posted since it read the last time.
+	 *
+	 * @param recipient the index of the receiving member.
+	 * @param result the list the messages are added to.
+	 */
+	public synchronized void readout(int recipient, List<TeamMessage> result) {
+		final Member member = members.get(recipient);
+		final int word = recipient >>> 6;
+		final long bit = 1L << recipient;
+
+		// A member that has left might have fallen behind the start of the log
+		for (int i = (int) (Math.max(member.position, first) - first); i < count; i++) {
+			if ((recipients[i * words + word] & bit) != 0) {
+				result.add(messages[i]);
+				member.messagesReceived++;
+				member.bytesReceived += sizeOf(messages[i]);
+			}
+		}
+		member.position = first + count;
+		compact();
+	}
+
+	/**
+	 * Throws away the messages for a member, which have been posted since it read the last time.
+	 *
+	 * @param recipient the index of the receiving member.
+	 */
+	public synchronized void discard(int recipient) {
+		members.get(recipient).position = first + count;
+		compact();
+	}
+
+	/**
+	 * Returns the number of messages in the log, which have not been read by all members.
+	 *
+	 * @return the number of messages.
+	 */
+	public synchronized int getPendingCount() {
+		return count;
+	}
+
+	public synchronized int getMessagesSent(int member) {
+		return members.get(member).messagesSent;
+	}
+
+	public synchronized long getBytesSent(int member) {
+		return members.get(member).bytesSent;
+	}
+
+	public synchronized int getMessagesReceived(int member) {
+		return members.get(member).messagesReceived;
+	}
+
+	public synchronized long getBytesReceived(int member) {
+		return members.get(member).bytesReceived;
+	}
+
+	public synchronized int getMessagesDropped(int member) {
+		return members.get(member).messagesDropped;
+	}
+
+	/**
+	 * Returns the message statistics of a member for logging.
+	 *
+	 * @param member the index of the member.
+	 * @return the statistics.
+	 */
+	public synchronized String getStatistics(int member) {
+		final Member m = members.get(member);
+
+		return "sent: " + m.messagesSent + " (" + m.bytesSent + " bytes), received: " + m.messagesReceived + " ("
+				+ m.bytesReceived + " bytes), dropped: " + m.messagesDropped;
+	}
+
+	// Removes the messages that all members, which have not left, have read
+	private void compact() {
+		long position = first + count;
+
+		for (Member member : members) {
+			if (!member.hasLeft) {
+				position = Math.min(position, member.position);
+			}
+		}
+		final int read = (int) (position - first);
+
+		if (read == count) {
+			Arrays.fill(messages, 0, count, null);
+			count = 0;
+			first = position;
+		} else if (read > 0 && read >= count / 2) {
+			// Only moves the rest of the log when at least half of it has been read
+			final int rest = count - read;
+
+			System.arraycopy(messages, read, messages, 0, rest);
+			System.arraycopy(recipients, read * words, recipients, 0, rest * words);
+			Arrays.fill(messages, rest, count, null);
+			count = rest;
+			first = position;
+		}
+	}
+
+	private void grow() {
+		messages = Arrays.copyOf(messages, messages.length * 2);
+		recipients = Arrays.copyOf(recipients, messages.length * words);
+	}
+
+	private static int sizeOf(TeamMessage message) {
+		return message.message == null ? 0 : message.message.length;
+	}
+
+	private static class Member {
+		// Sequence number of the next message to read
+		long position;
+
+		// The member has died, so it is not waited for
+		boolean hasLeft;
+
+		long quotaTime = -1;
+		int quotaBytes;
+
+		int messagesSent;
+		long bytesSent;
+		int messagesReceived;
+		long bytesReceived;
+		int messagesDropped;
+	}
+}
@@ -8,6 +8,8 @@
 package net.sf.robocode.battle.peer;
 
 
+import net.sf.robocode.peer.TeamMessage;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -26,12 +28,14 @@ public class TeamPeer extends ArrayList<RobotPeer> implements ContestantPeer {
 	private final int teamIndex;
 	private RobotPeer teamLeader;
 	private final TeamStatistics teamStatistics;
+	private final TeamMessageBus messageBus;
 
 	public TeamPeer(String name, List<String> memberNames, int teamIndex) {
 		this.name = name;
 		this.teamIndex = teamIndex;
 		this.memberNames = memberNames;
 		this.teamStatistics = new TeamStatistics(this);
+		this.messageBus = new TeamMessageBus(TeamMessage.getQuotaPerTurn());
 	}
 
 	public int compareTo(ContestantPeer cp) {
@@ -79,11 +83,22 @@ public class TeamPeer extends ArrayList<RobotPeer> implements ContestantPeer {
 		return teamLeader;
 	}
 
+	/**
+	 * Returns the bus for the messages between the members, where the index of a member on the bus
+	 * is its index in this team.
+	 *
+	 * @return the message bus of this team.
+	 */
+	public TeamMessageBus getMessageBus() {
+		return messageBus;
+	}
+
 	@Override
 	public boolean add(RobotPeer r) {
 		if (teamLeader == null) {
 			teamLeader = r;
 		}
+		messageBus.addMember();
 		return super.add(r);
 	}
 
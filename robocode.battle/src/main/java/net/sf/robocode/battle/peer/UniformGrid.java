@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.peer;
+
+
+import java.util.Arrays;
+
+
+/**
+ * A uniform grid of square cells covering the battlefield, where each peer is put into the cells
+ * overlapped by its bounding box. Peers outside the battlefield are put into the nearest cells.
+ *
+ * @param <T> the type of the peers in the grid.
+ */
+abstract class UniformGrid<T> {
+
+	private static final int INITIAL_CELL_CAPACITY = 4;
+
+	private final double cellSize;
+	private final int cols;
+	private final int rows;
+
+	private final Object[][] cells;
+	private final int[] cellCounts;
+
+	UniformGrid(double width, double height, double cellSize) {
+		this.cellSize = cellSize;
+		cols = Math.max(1, (int) Math.ceil(width / cellSize));
+		rows = Math.max(1, (int) Math.ceil(height / cellSize));
+
+		cells = new Object[cols * rows][];
+		cellCounts = new int[cols * rows];
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = new Object[INITIAL_CELL_CAPACITY];
+		}
+	}
+
+	/**
+	 * Returns the grid entry of a peer, which records the cells containing the peer.
+	 */
+	protected abstract GridEntry getEntry(T peer);
+
+	/**
+	 * Removes all peers from the grid.
+	 */
+	@SuppressWarnings("unchecked")
+	void clear() {
+		for (int i = 0; i < cells.length; i++) {
+			final Object[] cell = cells[i];
+
+			for (int j = 0; j < cellCounts[i]; j++) {
+				getEntry((T) cell[j]).inGrid = false;
+				cell[j] = null;
+			}
+			cellCounts[i] = 0;
+		}
+	}
+
+	/**
+	 * Puts a peer into the cells overlapped by its bounding box, or moves it if it is in the grid already.
+	 */
+	void update(T peer, double minX, double minY, double maxX, double maxY) {
+		final GridEntry entry = getEntry(peer);
+		final int minCol = col(minX);
+		final int minRow = row(minY);
+		final int maxCol = col(maxX);
+		final int maxRow = row(maxY);
+
+		if (entry.inGrid) {
+			if (entry.minCol == minCol && entry.minRow == minRow && entry.maxCol == maxCol && entry.maxRow == maxRow) {
+				return;
+			}
+			removeFromCells(peer, entry);
+		}
+		entry.minCol = minCol;
+		entry.minRow = minRow;
+		entry.maxCol = maxCol;
+		entry.maxRow = maxRow;
+		entry.inGrid = true;
+
+		for (int r = minRow; r <= maxRow; r++) {
+			for (int c = minCol; c <= maxCol; c++) {
+				addToCell(r * cols + c, peer);
+			}
+		}
+	}
+
+	/**
+	 * Removes a peer from the grid.
+	 */
+	void remove(T peer) {
+		final GridEntry entry = getEntry(peer);
+
+		if (entry.inGrid) {
+			removeFromCells(peer, entry);
+			entry.inGrid = false;
+		}
+	}
+
+	/**
+	 * Marks all peers in the cells overlapped by the given bounding box with the given stamp.
+	 * Peers that are not marked cannot overlap the bounding box.
+	 */
+	@SuppressWarnings("unchecked")
+	void mark(double minX, double minY, double maxX, double maxY, int stamp) {
+		final int minCol = col(minX);
+		final int maxCol = col(maxX);
+		final int maxRow = row(maxY);
+
+		for (int r = row(minY); r <= maxRow; r++) {
+			for (int c = minCol; c <= maxCol; c++) {
+				final int index = r * cols + c;
+				final Object[] cell = cells[index];
+
+				for (int i = cellCounts[index] - 1; i >= 0; i--) {
+					getEntry((T) cell[i]).stamp = stamp;
+				}
+			}
+		}
+	}
+
+	private void addToCell(int index, T peer) {
+		Object[] cell = cells[index];
+		final int count = cellCounts[index];
+
+		if (count == cell.length) {
+			cell = Arrays.copyOf(cell, count * 2);
+			cells[index] = cell;
+		}
+		cell[count] = peer;
+		cellCounts[index] = count + 1;
+	}
+
+	private void removeFromCells(T peer, GridEntry entry) {
+		for (int r = entry.minRow; r <= entry.maxRow; r++) {
+			for (int c = entry.minCol; c <= entry.maxCol; c++) {
+				final int index = r * cols + c;
+				final Object[] cell = cells[index];
+				final int last = cellCounts[index] - 1;
+
+				for (int i = last; i >= 0; i--) {
+					if (cell[i] == peer) {
+						cell[i] = cell[last];
+						cell[last] = null;
+						cellCounts[index] = last;
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	private int col(double x) {
+		return clamp(x / cellSize, cols);
+	}
+
+	private int row(double y) {
+		return clamp(y / cellSize, rows);
+	}
+
+	private static int clamp(double cell, int count) {
+		if (cell < 0) {
+			return 0;
+		}
+		if (cell >= count) {
+			return count - 1;
+		}
+		return (int) cell;
+	}
+}
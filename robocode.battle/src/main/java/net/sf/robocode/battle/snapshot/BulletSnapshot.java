@@ -12,6 +12,8 @@ import net.sf.robocode.battle.peer.BulletPeer;
 import net.sf.robocode.battle.peer.ExplosionPeer;
 import net.sf.robocode.battle.peer.RobotPeer;
 import net.sf.robocode.peer.ExecCommands;
+import net.sf.robocode.serialization.BinaryReader;
+import net.sf.robocode.serialization.BinaryWriter;
 import net.sf.robocode.serialization.IXmlSerializable;
 import net.sf.robocode.serialization.XmlReader;
 import net.sf.robocode.serialization.SerializableOptions;
@@ -35,6 +37,22 @@ public final class BulletSnapshot implements java.io.Serializable, IXmlSerializa
 
 	private static final long serialVersionUID = 2L;
 
+	// Bits of the fields written by writeBinaryDelta()
+	private static final int DELTA_STATE = 1;
+	private static final int DELTA_POWER = 1 << 1;
+	private static final int DELTA_X = 1 << 2;
+	private static final int DELTA_Y = 1 << 3;
+	private static final int DELTA_PAINT_AT_POSITION = 1 << 4;
+	private static final int DELTA_PAINT = 1 << 5;
+	private static final int DELTA_COLOR = 1 << 6;
+	private static final int DELTA_FRAME = 1 << 7;
+	private static final int DELTA_EXPLOSION = 1 << 8;
+	private static final int DELTA_IDS = 1 << 9;
+	private static final int DELTA_HEADING = 1 << 10;
+
+	// Base of deltas written without a previous snapshot
+	private static final BulletSnapshot EMPTY = new BulletSnapshot();
+
 	/** The bullet state */
 	private BulletState state;
 
@@ -225,6 +243,190 @@ public final class BulletSnapshot implements java.io.Serializable, IXmlSerializa
 		return ownerIndex;
 	}
 
+	/**
+	 * Writes this snapshot in binary form.
+	 *
+	 * @param writer the writer to write to.
+	 * @since 1.8.3.0
+	 */
+	public void writeBinary(BinaryWriter writer) {
+		writer.writeByte(state.getValue());
+		writer.writeDouble(power);
+		writer.writeDouble(x);
+		writer.writeDouble(y);
+		writer.writeDouble(paintX);
+		writer.writeDouble(paintY);
+		writer.writeInt(color);
+		writer.writeInt(frame);
+		writer.writeBoolean(isExplosion);
+		writer.writeInt(explosionImageIndex);
+		writer.writeInt(bulletId);
+		writer.writeInt(victimIndex);
+		writer.writeInt(ownerIndex);
+		writer.writeDouble(heading);
+	}
+
+	/**
+	 * Reads a snapshot written by {@link #writeBinary(BinaryWriter)}.
+	 *
+	 * @param reader the reader to read from.
+	 * @return the snapshot.
+	 * @since 1.8.3.0
+	 */
+	public static BulletSnapshot readBinary(BinaryReader reader) {
+		final BulletSnapshot snapshot = new BulletSnapshot();
+
+		snapshot.state = BulletState.toState(reader.readByte());
+		snapshot.power = reader.readDouble();
+		snapshot.x = reader.readDouble();
+		snapshot.y = reader.readDouble();
+		snapshot.paintX = reader.readDouble();
+		snapshot.paintY = reader.readDouble();
+		snapshot.color = reader.readInt();
+		snapshot.frame = reader.readInt();
+		snapshot.isExplosion = reader.readBoolean();
+		snapshot.explosionImageIndex = reader.readInt();
+		snapshot.bulletId = reader.readInt();
+		snapshot.victimIndex = reader.readInt();
+		snapshot.ownerIndex = reader.readInt();
+		snapshot.heading = reader.readDouble();
+		return snapshot;
+	}
+
+	/**
+	 * Writes the fields of this snapshot that differ from the fields of another snapshot.
+	 *
+	 * @param writer the writer to write to.
+	 * @param base   the snapshot to compare with, or null if there is none.
+	 * @since 1.8.3.0
+	 */
+	public void writeBinaryDelta(BinaryWriter writer, BulletSnapshot base) {
+		if (base == null) {
+			base = EMPTY;
+		}
+		int mask = 0;
+
+		if (!SnapshotDeltas.isSame(state, base.state)) {
+			mask |= DELTA_STATE;
+		}
+		if (!SnapshotDeltas.isSame(power, base.power)) {
+			mask |= DELTA_POWER;
+		}
+		if (!SnapshotDeltas.isSame(x, base.x)) {
+			mask |= DELTA_X;
+		}
+		if (!SnapshotDeltas.isSame(y, base.y)) {
+			mask |= DELTA_Y;
+		}
+		if (SnapshotDeltas.isSame(paintX, x) && SnapshotDeltas.isSame(paintY, y)) {
+			mask |= DELTA_PAINT_AT_POSITION;
+		} else if (!SnapshotDeltas.isSame(paintX, base.paintX) || !SnapshotDeltas.isSame(paintY, base.paintY)) {
+			mask |= DELTA_PAINT;
+		}
+		if (color != base.color) {
+			mask |= DELTA_COLOR;
+		}
+		if (frame != base.frame) {
+			mask |= DELTA_FRAME;
+		}
+		if (isExplosion != base.isExplosion || explosionImageIndex != base.explosionImageIndex) {
+			mask |= DELTA_EXPLOSION;
+		}
+		if (bulletId != base.bulletId || ownerIndex != base.ownerIndex || victimIndex != base.victimIndex) {
+			mask |= DELTA_IDS;
+		}
+		if (!SnapshotDeltas.isSame(heading, base.heading)) {
+			mask |= DELTA_HEADING;
+		}
+
+		writer.writeVarInt(mask);
+		if ((mask & DELTA_STATE) != 0) {
+			writer.writeByte(state.getValue());
+		}
+		if ((mask & DELTA_POWER) != 0) {
+			writer.writeDoubleDelta(power, base.power);
+		}
+		if ((mask & DELTA_X) != 0) {
+			writer.writeDoubleDelta(x, base.x);
+		}
+		if ((mask & DELTA_Y) != 0) {
+			writer.writeDoubleDelta(y, base.y);
+		}
+		if ((mask & DELTA_PAINT) != 0) {
+			writer.writeDoubleDelta(paintX, base.paintX);
+			writer.writeDoubleDelta(paintY, base.paintY);
+		}
+		if ((mask & DELTA_COLOR) != 0) {
+			writer.writeInt(color);
+		}
+		if ((mask & DELTA_FRAME) != 0) {
+			writer.writeVarInt(frame);
+		}
+		if ((mask & DELTA_EXPLOSION) != 0) {
+			writer.writeBoolean(isExplosion);
+			writer.writeVarInt(explosionImageIndex);
+		}
+		if ((mask & DELTA_IDS) != 0) {
+			writer.writeVarInt(bulletId);
+			writer.writeVarInt(ownerIndex);
+			writer.writeVarInt(victimIndex);
+		}
+		if ((mask & DELTA_HEADING) != 0) {
+			writer.writeDoubleDelta(heading, base.heading);
+		}
+	}
+
+	/**
+	 * Reads a snapshot written by {@link #writeBinaryDelta(BinaryWriter, BulletSnapshot)}.
+	 *
+	 * @param reader the reader to read from.
+	 * @param base   the snapshot the delta was written against, or null if there was none.
+	 * @return the snapshot.
+	 * @since 1.8.3.0
+	 */
+	public static BulletSnapshot readBinaryDelta(BinaryReader reader, BulletSnapshot base) {
+		if (base == null) {
+			base = EMPTY;
+		}
+		final BulletSnapshot snapshot = new BulletSnapshot();
+		final int mask = reader.readVarInt();
+
+		snapshot.state = (mask & DELTA_STATE) != 0 ? BulletState.toState(reader.readByte()) : base.state;
+		snapshot.power = (mask & DELTA_POWER) != 0 ? reader.readDoubleDelta(base.power) : base.power;
+		snapshot.x = (mask & DELTA_X) != 0 ? reader.readDoubleDelta(base.x) : base.x;
+		snapshot.y = (mask & DELTA_Y) != 0 ? reader.readDoubleDelta(base.y) : base.y;
+		if ((mask & DELTA_PAINT_AT_POSITION) != 0) {
+			snapshot.paintX = snapshot.x;
+			snapshot.paintY = snapshot.y;
+		} else if ((mask & DELTA_PAINT) != 0) {
+			snapshot.paintX = reader.readDoubleDelta(base.paintX);
+			snapshot.paintY = reader.readDoubleDelta(base.paintY);
+		} else {
+			snapshot.paintX = base.paintX;
+			snapshot.paintY = base.paintY;
+		}
+		snapshot.color = (mask & DELTA_COLOR) != 0 ? reader.readInt() : base.color;
+		snapshot.frame = (mask & DELTA_FRAME) != 0 ? reader.readVarInt() : base.frame;
+		if ((mask & DELTA_EXPLOSION) != 0) {
+			snapshot.isExplosion = reader.readBoolean();
+			snapshot.explosionImageIndex = reader.readVarInt();
+		} else {
+			snapshot.isExplosion = base.isExplosion;
+			snapshot.explosionImageIndex = base.explosionImageIndex;
+		}
+		if ((mask & DELTA_IDS) != 0) {
+			snapshot.bulletId = reader.readVarInt();
+			snapshot.ownerIndex = reader.readVarInt();
+			snapshot.victimIndex = reader.readVarInt();
+		} else {
+			snapshot.bulletId = base.bulletId;
+			snapshot.ownerIndex = base.ownerIndex;
+			snapshot.victimIndex = base.victimIndex;
+		}
+		snapshot.heading = (mask & DELTA_HEADING) != 0 ? reader.readDoubleDelta(base.heading) : base.heading;
+		return snapshot;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -11,6 +11,9 @@ package net.sf.robocode.battle.snapshot;
 import net.sf.robocode.battle.peer.RobotPeer;
 import net.sf.robocode.peer.DebugProperty;
 import net.sf.robocode.peer.ExecCommands;
+import net.sf.robocode.robotpaint.PaintBuffer;
+import net.sf.robocode.serialization.BinaryReader;
+import net.sf.robocode.serialization.BinaryWriter;
 import net.sf.robocode.serialization.IXmlSerializable;
 import net.sf.robocode.serialization.XmlReader;
 import net.sf.robocode.serialization.SerializableOptions;
@@ -39,6 +42,32 @@ public final class RobotSnapshot implements Serializable, IXmlSerializable, IRob
 
 	private static final long serialVersionUID = 2L;
 
+	// Bits of the fields written by writeBinaryDelta()
+	private static final int DELTA_NAMES = 1;
+	private static final int DELTA_INDEXES = 1 << 1;
+	private static final int DELTA_STATE = 1 << 2;
+	private static final int DELTA_ENERGY = 1 << 3;
+	private static final int DELTA_VELOCITY = 1 << 4;
+	private static final int DELTA_GUN_HEAT = 1 << 5;
+	private static final int DELTA_BODY_HEADING = 1 << 6;
+	private static final int DELTA_GUN_HEADING = 1 << 7;
+	private static final int DELTA_RADAR_HEADING = 1 << 8;
+	private static final int DELTA_X = 1 << 9;
+	private static final int DELTA_Y = 1 << 10;
+	private static final int DELTA_COLORS = 1 << 11;
+	private static final int DELTA_FLAGS = 1 << 12;
+	private static final int DELTA_SCAN_ARC = 1 << 13;
+	private static final int DELTA_GRAPHICS_CALLS = 1 << 14;
+	private static final int DELTA_DEBUG_PROPERTIES = 1 << 15;
+	private static final int DELTA_OUTPUT = 1 << 16;
+	private static final int DELTA_SCORE = 1 << 17;
+
+	// Base of deltas written without a previous snapshot
+	private static final RobotSnapshot EMPTY = new RobotSnapshot();
+
+	// The base of a scan arc without a previous scan arc
+	private static final SerializableArc EMPTY_ARC = new SerializableArc(new Arc2D.Double());
+
 	/** The name of the robot */
 	private String name;
 
@@ -427,6 +456,9 @@ public final class RobotSnapshot implements Serializable, IXmlSerializable, IRob
 
 	/**
 	 * Returns the object with queued calls for Graphics object.
+	 * <p/>
+	 * The calls of a snapshot of the running battle are held by a {@link PaintBuffer}, which is only valid
+	 * while the turn ended event is dispatched, unless they are retained with {@link #retainGraphicsCalls()}.
 	 *
 	 * @return the object with queued calls for Graphics object.
 	 */
@@ -434,6 +466,423 @@ public final class RobotSnapshot implements Serializable, IXmlSerializable, IRob
 		return graphicsCalls;
 	}
 
+	/**
+	 * Holds on to the queued calls for Graphics object, so they are not reused by the robot before they
+	 * are released with {@link #releaseGraphicsCalls()}.
+	 *
+	 * @since 1.8.3.0
+	 */
+	public void retainGraphicsCalls() {
+		PaintBuffer.retainCalls(graphicsCalls);
+	}
+
+	/**
+	 * Releases the queued calls for Graphics object, which have been retained with {@link #retainGraphicsCalls()}.
+	 *
+	 * @since 1.8.3.0
+	 */
+	public void releaseGraphicsCalls() {
+		PaintBuffer.releaseCalls(graphicsCalls);
+	}
+
+	/**
+	 * Writes this snapshot in binary form.
+	 *
+	 * @param writer the writer to write to.
+	 * @since 1.8.3.0
+	 */
+	public void writeBinary(BinaryWriter writer) {
+		writer.writeSharedString(name);
+		writer.writeSharedString(shortName);
+		writer.writeSharedString(veryShortName);
+		writer.writeSharedString(teamName);
+		writer.writeInt(robotIndex);
+		writer.writeInt(teamIndex);
+		writer.writeByte(state.getValue());
+		writer.writeDouble(energy);
+		writer.writeDouble(velocity);
+		writer.writeDouble(gunHeat);
+		writer.writeDouble(bodyHeading);
+		writer.writeDouble(gunHeading);
+		writer.writeDouble(radarHeading);
+		writer.writeDouble(x);
+		writer.writeDouble(y);
+		writer.writeInt(bodyColor);
+		writer.writeInt(gunColor);
+		writer.writeInt(radarColor);
+		writer.writeInt(scanColor);
+		writer.writeByte(getFlags());
+		writeScanArc(writer);
+		writeGraphicsCalls(writer);
+		writeDebugProperties(writer);
+		writer.writeString(outputStreamSnapshot);
+		writer.writeBoolean(robotScoreSnapshot != null);
+		if (robotScoreSnapshot != null) {
+			((ScoreSnapshot) robotScoreSnapshot).writeBinary(writer);
+		}
+	}
+
+	/**
+	 * Reads a snapshot written by {@link #writeBinary(BinaryWriter)}.
+	 *
+	 * @param reader the reader to read from.
+	 * @return the snapshot.
+	 * @since 1.8.3.0
+	 */
+	public static RobotSnapshot readBinary(BinaryReader reader) {
+		final RobotSnapshot snapshot = new RobotSnapshot();
+
+		snapshot.name = reader.readSharedString();
+		snapshot.shortName = reader.readSharedString();
+		snapshot.veryShortName = reader.readSharedString();
+		snapshot.teamName = reader.readSharedString();
+		snapshot.robotIndex = reader.readInt();
+		snapshot.teamIndex = reader.readInt();
+		snapshot.state = RobotState.toState(reader.readByte());
+		snapshot.energy = reader.readDouble();
+		snapshot.velocity = reader.readDouble();
+		snapshot.gunHeat = reader.readDouble();
+		snapshot.bodyHeading = reader.readDouble();
+		snapshot.gunHeading = reader.readDouble();
+		snapshot.radarHeading = reader.readDouble();
+		snapshot.x = reader.readDouble();
+		snapshot.y = reader.readDouble();
+		snapshot.bodyColor = reader.readInt();
+		snapshot.gunColor = reader.readInt();
+		snapshot.radarColor = reader.readInt();
+		snapshot.scanColor = reader.readInt();
+		snapshot.setFlags(reader.readByte());
+		snapshot.scanArc = readScanArc(reader);
+		snapshot.graphicsCalls = reader.readBytes();
+		snapshot.debugProperties = readDebugProperties(reader);
+		snapshot.outputStreamSnapshot = reader.readString();
+		if (reader.readBoolean()) {
+			snapshot.robotScoreSnapshot = ScoreSnapshot.readBinary(reader);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Writes the fields of this snapshot that differ from the fields of another snapshot.
+	 * The graphics calls, debug properties and output text belong to a single turn, so they are always written
+	 * if present.
+	 *
+	 * @param writer the writer to write to.
+	 * @param base   the snapshot to compare with, or null if there is none.
+	 * @since 1.8.3.0
+	 */
+	public void writeBinaryDelta(BinaryWriter writer, RobotSnapshot base) {
+		if (base == null) {
+			base = EMPTY;
+		}
+		int mask = 0;
+
+		if (!SnapshotDeltas.isSame(name, base.name) || !SnapshotDeltas.isSame(shortName, base.shortName)
+				|| !SnapshotDeltas.isSame(veryShortName, base.veryShortName)
+				|| !SnapshotDeltas.isSame(teamName, base.teamName)) {
+			mask |= DELTA_NAMES;
+		}
+		if (robotIndex != base.robotIndex || teamIndex != base.teamIndex) {
+			mask |= DELTA_INDEXES;
+		}
+		if (!SnapshotDeltas.isSame(state, base.state)) {
+			mask |= DELTA_STATE;
+		}
+		if (!SnapshotDeltas.isSame(energy, base.energy)) {
+			mask |= DELTA_ENERGY;
+		}
+		if (!SnapshotDeltas.isSame(velocity, base.velocity)) {
+			mask |= DELTA_VELOCITY;
+		}
+		if (!SnapshotDeltas.isSame(gunHeat, base.gunHeat)) {
+			mask |= DELTA_GUN_HEAT;
+		}
+		if (!SnapshotDeltas.isSame(bodyHeading, base.bodyHeading)) {
+			mask |= DELTA_BODY_HEADING;
+		}
+		if (!SnapshotDeltas.isSame(gunHeading, base.gunHeading)) {
+			mask |= DELTA_GUN_HEADING;
+		}
+		if (!SnapshotDeltas.isSame(radarHeading, base.radarHeading)) {
+			mask |= DELTA_RADAR_HEADING;
+		}
+		if (!SnapshotDeltas.isSame(x, base.x)) {
+			mask |= DELTA_X;
+		}
+		if (!SnapshotDeltas.isSame(y, base.y)) {
+			mask |= DELTA_Y;
+		}
+		if (bodyColor != base.bodyColor || gunColor != base.gunColor || radarColor != base.radarColor
+				|| scanColor != base.scanColor) {
+			mask |= DELTA_COLORS;
+		}
+		if (getFlags() != base.getFlags()) {
+			mask |= DELTA_FLAGS;
+		}
+		if (!isSameArc(scanArc, base.scanArc)) {
+			mask |= DELTA_SCAN_ARC;
+		}
+		if (graphicsCalls != null) {
+			mask |= DELTA_GRAPHICS_CALLS;
+		}
+		if (debugProperties != null) {
+			mask |= DELTA_DEBUG_PROPERTIES;
+		}
+		if (outputStreamSnapshot != null) {
+			mask |= DELTA_OUTPUT;
+		}
+		if (robotScoreSnapshot != base.robotScoreSnapshot
+				&& (robotScoreSnapshot == null || base.robotScoreSnapshot == null
+				|| ((ScoreSnapshot) robotScoreSnapshot).getDeltaMask((ScoreSnapshot) base.robotScoreSnapshot) != 0)) {
+			mask |= DELTA_SCORE;
+		}
+
+		writer.writeVarInt(mask);
+		if ((mask & DELTA_NAMES) != 0) {
+			writer.writeSharedString(name);
+			writer.writeSharedString(shortName);
+			writer.writeSharedString(veryShortName);
+			writer.writeSharedString(teamName);
+		}
+		if ((mask & DELTA_INDEXES) != 0) {
+			writer.writeVarInt(robotIndex);
+			writer.writeVarInt(teamIndex);
+		}
+		if ((mask & DELTA_STATE) != 0) {
+			writer.writeByte(state.getValue());
+		}
+		if ((mask & DELTA_ENERGY) != 0) {
+			writer.writeDoubleDelta(energy, base.energy);
+		}
+		if ((mask & DELTA_VELOCITY) != 0) {
+			writer.writeDoubleDelta(velocity, base.velocity);
+		}
+		if ((mask & DELTA_GUN_HEAT) != 0) {
+			writer.writeDoubleDelta(gunHeat, base.gunHeat);
+		}
+		if ((mask & DELTA_BODY_HEADING) != 0) {
+			writer.writeDoubleDelta(bodyHeading, base.bodyHeading);
+		}
+		if ((mask & DELTA_GUN_HEADING) != 0) {
+			writer.writeDoubleDelta(gunHeading, base.gunHeading);
+		}
+		if ((mask & DELTA_RADAR_HEADING) != 0) {
+			writer.writeDoubleDelta(radarHeading, base.radarHeading);
+		}
+		if ((mask & DELTA_X) != 0) {
+			writer.writeDoubleDelta(x, base.x);
+		}
+		if ((mask & DELTA_Y) != 0) {
+			writer.writeDoubleDelta(y, base.y);
+		}
+		if ((mask & DELTA_COLORS) != 0) {
+			writer.writeInt(bodyColor);
+			writer.writeInt(gunColor);
+			writer.writeInt(radarColor);
+			writer.writeInt(scanColor);
+		}
+		if ((mask & DELTA_FLAGS) != 0) {
+			writer.writeByte(getFlags());
+		}
+		if ((mask & DELTA_SCAN_ARC) != 0) {
+			writeScanArcDelta(writer, base.scanArc);
+		}
+		if ((mask & DELTA_GRAPHICS_CALLS) != 0) {
+			writeGraphicsCalls(writer);
+		}
+		if ((mask & DELTA_DEBUG_PROPERTIES) != 0) {
+			writeDebugProperties(writer);
+		}
+		if ((mask & DELTA_OUTPUT) != 0) {
+			writer.writeString(outputStreamSnapshot);
+		}
+		if ((mask & DELTA_SCORE) != 0) {
+			writer.writeBoolean(robotScoreSnapshot != null);
+			if (robotScoreSnapshot != null) {
+				((ScoreSnapshot) robotScoreSnapshot).writeBinaryDelta(writer, (ScoreSnapshot) base.robotScoreSnapshot);
+			}
+		}
+	}
+
+	/**
+	 * Reads a snapshot written by {@link #writeBinaryDelta(BinaryWriter, RobotSnapshot)}.
+	 *
+	 * @param reader the reader to read from.
+	 * @param base   the snapshot the delta was written against, or null if there was none.
+	 * @return the snapshot.
+	 * @since 1.8.3.0
+	 */
+	public static RobotSnapshot readBinaryDelta(BinaryReader reader, RobotSnapshot base) {
+		if (base == null) {
+			base = EMPTY;
+		}
+		final RobotSnapshot snapshot = new RobotSnapshot();
+		final int mask = reader.readVarInt();
+
+		if ((mask & DELTA_NAMES) != 0) {
+			snapshot.name = reader.readSharedString();
+			snapshot.shortName = reader.readSharedString();
+			snapshot.veryShortName = reader.readSharedString();
+			snapshot.teamName = reader.readSharedString();
+		} else {
+			snapshot.name = base.name;
+			snapshot.shortName = base.shortName;
+			snapshot.veryShortName = base.veryShortName;
+			snapshot.teamName = base.teamName;
+		}
+		if ((mask & DELTA_INDEXES) != 0) {
+			snapshot.robotIndex = reader.readVarInt();
+			snapshot.teamIndex = reader.readVarInt();
+		} else {
+			snapshot.robotIndex = base.robotIndex;
+			snapshot.teamIndex = base.teamIndex;
+		}
+		snapshot.state = (mask & DELTA_STATE) != 0 ? RobotState.toState(reader.readByte()) : base.state;
+		snapshot.energy = (mask & DELTA_ENERGY) != 0 ? reader.readDoubleDelta(base.energy) : base.energy;
+		snapshot.velocity = (mask & DELTA_VELOCITY) != 0 ? reader.readDoubleDelta(base.velocity) : base.velocity;
+		snapshot.gunHeat = (mask & DELTA_GUN_HEAT) != 0 ? reader.readDoubleDelta(base.gunHeat) : base.gunHeat;
+		snapshot.bodyHeading = (mask & DELTA_BODY_HEADING) != 0 ? reader.readDoubleDelta(base.bodyHeading) : base.bodyHeading;
+		snapshot.gunHeading = (mask & DELTA_GUN_HEADING) != 0 ? reader.readDoubleDelta(base.gunHeading) : base.gunHeading;
+		snapshot.radarHeading = (mask & DELTA_RADAR_HEADING) != 0 ? reader.readDoubleDelta(base.radarHeading) : base.radarHeading;
+		snapshot.x = (mask & DELTA_X) != 0 ? reader.readDoubleDelta(base.x) : base.x;
+		snapshot.y = (mask & DELTA_Y) != 0 ? reader.readDoubleDelta(base.y) : base.y;
+		if ((mask & DELTA_COLORS) != 0) {
+			snapshot.bodyColor = reader.readInt();
+			snapshot.gunColor = reader.readInt();
+			snapshot.radarColor = reader.readInt();
+			snapshot.scanColor = reader.readInt();
+		} else {
+			snapshot.bodyColor = base.bodyColor;
+			snapshot.gunColor = base.gunColor;
+			snapshot.radarColor = base.radarColor;
+			snapshot.scanColor = base.scanColor;
+		}
+		snapshot.setFlags((mask & DELTA_FLAGS) != 0 ? reader.readByte() : base.getFlags());
+		snapshot.scanArc = (mask & DELTA_SCAN_ARC) != 0 ? readScanArcDelta(reader, base.scanArc) : base.scanArc;
+		if ((mask & DELTA_GRAPHICS_CALLS) != 0) {
+			snapshot.graphicsCalls = reader.readBytes();
+		}
+		if ((mask & DELTA_DEBUG_PROPERTIES) != 0) {
+			snapshot.debugProperties = readDebugProperties(reader);
+		}
+		if ((mask & DELTA_OUTPUT) != 0) {
+			snapshot.outputStreamSnapshot = reader.readString();
+		}
+		if ((mask & DELTA_SCORE) == 0) {
+			snapshot.robotScoreSnapshot = base.robotScoreSnapshot;
+		} else if (reader.readBoolean()) {
+			snapshot.robotScoreSnapshot = ScoreSnapshot.readBinaryDelta(reader, (ScoreSnapshot) base.robotScoreSnapshot);
+		}
+		return snapshot;
+	}
+
+	private int getFlags() {
+		return (isDroid ? 1 : 0) | (isPaintRobot ? 2 : 0) | (isPaintEnabled ? 4 : 0) | (isSGPaintEnabled ? 8 : 0);
+	}
+
+	private void setFlags(int flags) {
+		isDroid = (flags & 1) != 0;
+		isPaintRobot = (flags & 2) != 0;
+		isPaintEnabled = (flags & 4) != 0;
+		isSGPaintEnabled = (flags & 8) != 0;
+	}
+
+	// The graphics calls are serialized into a byte array or a paint buffer by the robot proxies
+	private void writeGraphicsCalls(BinaryWriter writer) {
+		if (graphicsCalls instanceof PaintBuffer) {
+			final PaintBuffer calls = (PaintBuffer) graphicsCalls;
+
+			writer.writeBytes(calls.getData(), calls.getLength());
+		} else {
+			writer.writeBytes((byte[]) graphicsCalls);
+		}
+	}
+
+	private void writeScanArc(BinaryWriter writer) {
+		writer.writeBoolean(scanArc != null);
+		if (scanArc != null) {
+			writer.writeDouble(scanArc.x);
+			writer.writeDouble(scanArc.y);
+			writer.writeDouble(scanArc.w);
+			writer.writeDouble(scanArc.h);
+			writer.writeDouble(scanArc.start);
+			writer.writeDouble(scanArc.extent);
+			writer.writeByte(scanArc.type);
+		}
+	}
+
+	private static SerializableArc readScanArc(BinaryReader reader) {
+		if (!reader.readBoolean()) {
+			return null;
+		}
+		return new SerializableArc(new Arc2D.Double(reader.readDouble(), reader.readDouble(), reader.readDouble(),
+				reader.readDouble(), reader.readDouble(), reader.readDouble(), reader.readByte()));
+	}
+
+	private void writeScanArcDelta(BinaryWriter writer, SerializableArc base) {
+		writer.writeBoolean(scanArc != null);
+		if (scanArc != null) {
+			if (base == null) {
+				base = EMPTY_ARC;
+			}
+			writer.writeDoubleDelta(scanArc.x, base.x);
+			writer.writeDoubleDelta(scanArc.y, base.y);
+			writer.writeDoubleDelta(scanArc.w, base.w);
+			writer.writeDoubleDelta(scanArc.h, base.h);
+			writer.writeDoubleDelta(scanArc.start, base.start);
+			writer.writeDoubleDelta(scanArc.extent, base.extent);
+			writer.writeByte(scanArc.type);
+		}
+	}
+
+	private static SerializableArc readScanArcDelta(BinaryReader reader, SerializableArc base) {
+		if (!reader.readBoolean()) {
+			return null;
+		}
+		if (base == null) {
+			base = EMPTY_ARC;
+		}
+		return new SerializableArc(
+				new Arc2D.Double(reader.readDoubleDelta(base.x), reader.readDoubleDelta(base.y),
+				reader.readDoubleDelta(base.w), reader.readDoubleDelta(base.h), reader.readDoubleDelta(base.start),
+				reader.readDoubleDelta(base.extent), reader.readByte()));
+	}
+
+	private static boolean isSameArc(SerializableArc a, SerializableArc b) {
+		if (a == null || b == null) {
+			return a == b;
+		}
+		return SnapshotDeltas.isSame(a.x, b.x) && SnapshotDeltas.isSame(a.y, b.y) && SnapshotDeltas.isSame(a.w, b.w)
+				&& SnapshotDeltas.isSame(a.h, b.h) && SnapshotDeltas.isSame(a.start, b.start)
+				&& SnapshotDeltas.isSame(a.extent, b.extent) && a.type == b.type;
+	}
+
+	private void writeDebugProperties(BinaryWriter writer) {
+		if (debugProperties == null) {
+			writer.writeInt(-1);
+		} else {
+			writer.writeInt(debugProperties.length);
+			for (DebugProperty property : debugProperties) {
+				writer.writeSharedString(property.getKey());
+				writer.writeString(property.getValue());
+			}
+		}
+	}
+
+	private static DebugProperty[] readDebugProperties(BinaryReader reader) {
+		final int count = reader.readInt();
+
+		if (count < 0) {
+			return null;
+		}
+		final DebugProperty[] properties = new DebugProperty[count];
+
+		for (int i = 0; i < count; i++) {
+			properties[i] = new DebugProperty(reader.readSharedString(), reader.readString());
+		}
+		return properties;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -9,6 +9,8 @@ package net.sf.robocode.battle.snapshot;
 
 
 import net.sf.robocode.battle.peer.RobotStatistics;
+import net.sf.robocode.serialization.BinaryReader;
+import net.sf.robocode.serialization.BinaryWriter;
 import net.sf.robocode.serialization.IXmlSerializable;
 import net.sf.robocode.serialization.XmlReader;
 import net.sf.robocode.serialization.SerializableOptions;
@@ -32,6 +34,9 @@ public final class ScoreSnapshot implements Serializable, IXmlSerializable, ISco
 
 	private static final long serialVersionUID = 1L;
 
+	// Base of deltas written without a previous snapshot
+	private static final ScoreSnapshot EMPTY = new ScoreSnapshot();
+
 	/** The name of the contestant, i.e. a robot or team */
 	private String name;
 
@@ -296,6 +301,233 @@ public final class ScoreSnapshot implements Serializable, IXmlSerializable, ISco
 		return 0;
 	}
 
+	/**
+	 * Writes this snapshot in binary form.
+	 *
+	 * @param writer the writer to write to.
+	 * @since 1.8.3.0
+	 */
+	public void writeBinary(BinaryWriter writer) {
+		writer.writeSharedString(name);
+		writer.writeDouble(totalScore);
+		writer.writeDouble(totalSurvivalScore);
+		writer.writeDouble(totalLastSurvivorBonus);
+		writer.writeDouble(totalBulletDamageScore);
+		writer.writeDouble(totalBulletKillBonus);
+		writer.writeDouble(totalRammingDamageScore);
+		writer.writeDouble(totalRammingKillBonus);
+		writer.writeInt(totalFirsts);
+		writer.writeInt(totalSeconds);
+		writer.writeInt(totalThirds);
+		writer.writeDouble(currentScore);
+		writer.writeDouble(currentSurvivalScore);
+		writer.writeDouble(currentSurvivalBonus);
+		writer.writeDouble(currentBulletDamageScore);
+		writer.writeDouble(currentBulletKillBonus);
+		writer.writeDouble(currentRammingDamageScore);
+		writer.writeDouble(currentRammingKillBonus);
+	}
+
+	/**
+	 * Reads a snapshot written by {@link #writeBinary(BinaryWriter)}.
+	 *
+	 * @param reader the reader to read from.
+	 * @return the snapshot.
+	 * @since 1.8.3.0
+	 */
+	public static ScoreSnapshot readBinary(BinaryReader reader) {
+		final ScoreSnapshot snapshot = new ScoreSnapshot();
+
+		snapshot.name = reader.readSharedString();
+		snapshot.totalScore = reader.readDouble();
+		snapshot.totalSurvivalScore = reader.readDouble();
+		snapshot.totalLastSurvivorBonus = reader.readDouble();
+		snapshot.totalBulletDamageScore = reader.readDouble();
+		snapshot.totalBulletKillBonus = reader.readDouble();
+		snapshot.totalRammingDamageScore = reader.readDouble();
+		snapshot.totalRammingKillBonus = reader.readDouble();
+		snapshot.totalFirsts = reader.readInt();
+		snapshot.totalSeconds = reader.readInt();
+		snapshot.totalThirds = reader.readInt();
+		snapshot.currentScore = reader.readDouble();
+		snapshot.currentSurvivalScore = reader.readDouble();
+		snapshot.currentSurvivalBonus = reader.readDouble();
+		snapshot.currentBulletDamageScore = reader.readDouble();
+		snapshot.currentBulletKillBonus = reader.readDouble();
+		snapshot.currentRammingDamageScore = reader.readDouble();
+		snapshot.currentRammingKillBonus = reader.readDouble();
+		return snapshot;
+	}
+
+	/**
+	 * Writes the fields of this snapshot that differ from the fields of another snapshot.
+	 *
+	 * @param writer the writer to write to.
+	 * @param base   the snapshot to compare with, or null if there is none.
+	 * @since 1.8.3.0
+	 */
+	public void writeBinaryDelta(BinaryWriter writer, ScoreSnapshot base) {
+		if (base == null) {
+			base = EMPTY;
+		}
+		final int mask = getDeltaMask(base);
+
+		writer.writeVarInt(mask);
+		if ((mask & (1 << 0)) != 0) {
+			writer.writeSharedString(name);
+		}
+		if ((mask & (1 << 1)) != 0) {
+			writer.writeDoubleDelta(totalScore, base.totalScore);
+		}
+		if ((mask & (1 << 2)) != 0) {
+			writer.writeDoubleDelta(totalSurvivalScore, base.totalSurvivalScore);
+		}
+		if ((mask & (1 << 3)) != 0) {
+			writer.writeDoubleDelta(totalLastSurvivorBonus, base.totalLastSurvivorBonus);
+		}
+		if ((mask & (1 << 4)) != 0) {
+			writer.writeDoubleDelta(totalBulletDamageScore, base.totalBulletDamageScore);
+		}
+		if ((mask & (1 << 5)) != 0) {
+			writer.writeDoubleDelta(totalBulletKillBonus, base.totalBulletKillBonus);
+		}
+		if ((mask & (1 << 6)) != 0) {
+			writer.writeDoubleDelta(totalRammingDamageScore, base.totalRammingDamageScore);
+		}
+		if ((mask & (1 << 7)) != 0) {
+			writer.writeDoubleDelta(totalRammingKillBonus, base.totalRammingKillBonus);
+		}
+		if ((mask & (1 << 8)) != 0) {
+			writer.writeInt(totalFirsts);
+		}
+		if ((mask & (1 << 9)) != 0) {
+			writer.writeInt(totalSeconds);
+		}
+		if ((mask & (1 << 10)) != 0) {
+			writer.writeInt(totalThirds);
+		}
+		if ((mask & (1 << 11)) != 0) {
+			writer.writeDoubleDelta(currentScore, base.currentScore);
+		}
+		if ((mask & (1 << 12)) != 0) {
+			writer.writeDoubleDelta(currentSurvivalScore, base.currentSurvivalScore);
+		}
+		if ((mask & (1 << 13)) != 0) {
+			writer.writeDoubleDelta(currentSurvivalBonus, base.currentSurvivalBonus);
+		}
+		if ((mask & (1 << 14)) != 0) {
+			writer.writeDoubleDelta(currentBulletDamageScore, base.currentBulletDamageScore);
+		}
+		if ((mask & (1 << 15)) != 0) {
+			writer.writeDoubleDelta(currentBulletKillBonus, base.currentBulletKillBonus);
+		}
+		if ((mask & (1 << 16)) != 0) {
+			writer.writeDoubleDelta(currentRammingDamageScore, base.currentRammingDamageScore);
+		}
+		if ((mask & (1 << 17)) != 0) {
+			writer.writeDoubleDelta(currentRammingKillBonus, base.currentRammingKillBonus);
+		}
+	}
+
+	/**
+	 * Reads a snapshot written by {@link #writeBinaryDelta(BinaryWriter, ScoreSnapshot)}.
+	 *
+	 * @param reader the reader to read from.
+	 * @param base   the snapshot the delta was written against, or null if there was none.
+	 * @return the snapshot.
+	 * @since 1.8.3.0
+	 */
+	public static ScoreSnapshot readBinaryDelta(BinaryReader reader, ScoreSnapshot base) {
+		if (base == null) {
+			base = EMPTY;
+		}
+		final ScoreSnapshot snapshot = new ScoreSnapshot();
+		final int mask = reader.readVarInt();
+
+		snapshot.name = (mask & (1 << 0)) != 0 ? reader.readSharedString() : base.name;
+		snapshot.totalScore = (mask & (1 << 1)) != 0 ? reader.readDoubleDelta(base.totalScore) : base.totalScore;
+		snapshot.totalSurvivalScore = (mask & (1 << 2)) != 0 ? reader.readDoubleDelta(base.totalSurvivalScore) : base.totalSurvivalScore;
+		snapshot.totalLastSurvivorBonus = (mask & (1 << 3)) != 0 ? reader.readDoubleDelta(base.totalLastSurvivorBonus) : base.totalLastSurvivorBonus;
+		snapshot.totalBulletDamageScore = (mask & (1 << 4)) != 0 ? reader.readDoubleDelta(base.totalBulletDamageScore) : base.totalBulletDamageScore;
+		snapshot.totalBulletKillBonus = (mask & (1 << 5)) != 0 ? reader.readDoubleDelta(base.totalBulletKillBonus) : base.totalBulletKillBonus;
+		snapshot.totalRammingDamageScore = (mask & (1 << 6)) != 0 ? reader.readDoubleDelta(base.totalRammingDamageScore) : base.totalRammingDamageScore;
+		snapshot.totalRammingKillBonus = (mask & (1 << 7)) != 0 ? reader.readDoubleDelta(base.totalRammingKillBonus) : base.totalRammingKillBonus;
+		snapshot.totalFirsts = (mask & (1 << 8)) != 0 ? reader.readInt() : base.totalFirsts;
+		snapshot.totalSeconds = (mask & (1 << 9)) != 0 ? reader.readInt() : base.totalSeconds;
+		snapshot.totalThirds = (mask & (1 << 10)) != 0 ? reader.readInt() : base.totalThirds;
+		snapshot.currentScore = (mask & (1 << 11)) != 0 ? reader.readDoubleDelta(base.currentScore) : base.currentScore;
+		snapshot.currentSurvivalScore = (mask & (1 << 12)) != 0 ? reader.readDoubleDelta(base.currentSurvivalScore) : base.currentSurvivalScore;
+		snapshot.currentSurvivalBonus = (mask & (1 << 13)) != 0 ? reader.readDoubleDelta(base.currentSurvivalBonus) : base.currentSurvivalBonus;
+		snapshot.currentBulletDamageScore = (mask & (1 << 14)) != 0 ? reader.readDoubleDelta(base.currentBulletDamageScore) : base.currentBulletDamageScore;
+		snapshot.currentBulletKillBonus = (mask & (1 << 15)) != 0 ? reader.readDoubleDelta(base.currentBulletKillBonus) : base.currentBulletKillBonus;
+		snapshot.currentRammingDamageScore = (mask & (1 << 16)) != 0 ? reader.readDoubleDelta(base.currentRammingDamageScore) : base.currentRammingDamageScore;
+		snapshot.currentRammingKillBonus = (mask & (1 << 17)) != 0 ? reader.readDoubleDelta(base.currentRammingKillBonus) : base.currentRammingKillBonus;
+		return snapshot;
+	}
+
+	/**
+	 * Returns a mask with the bits of the fields that differ from the fields of another snapshot.
+	 */
+	int getDeltaMask(ScoreSnapshot base) {
+		int mask = 0;
+
+		if (!SnapshotDeltas.isSame(name, base.name)) {
+			mask |= 1 << 0;
+		}
+		if (!SnapshotDeltas.isSame(totalScore, base.totalScore)) {
+			mask |= 1 << 1;
+		}
+		if (!SnapshotDeltas.isSame(totalSurvivalScore, base.totalSurvivalScore)) {
+			mask |= 1 << 2;
+		}
+		if (!SnapshotDeltas.isSame(totalLastSurvivorBonus, base.totalLastSurvivorBonus)) {
+			mask |= 1 << 3;
+		}
+		if (!SnapshotDeltas.isSame(totalBulletDamageScore, base.totalBulletDamageScore)) {
+			mask |= 1 << 4;
+		}
+		if (!SnapshotDeltas.isSame(totalBulletKillBonus, base.totalBulletKillBonus)) {
+			mask |= 1 << 5;
+		}
+		if (!SnapshotDeltas.isSame(totalRammingDamageScore, base.totalRammingDamageScore)) {
+			mask |= 1 << 6;
+		}
+		if (!SnapshotDeltas.isSame(totalRammingKillBonus, base.totalRammingKillBonus)) {
+			mask |= 1 << 7;
+		}
+		if (totalFirsts != base.totalFirsts) {
+			mask |= 1 << 8;
+		}
+		if (totalSeconds != base.totalSeconds) {
+			mask |= 1 << 9;
+		}
+		if (totalThirds != base.totalThirds) {
+			mask |= 1 << 10;
+		}
+		if (!SnapshotDeltas.isSame(currentScore, base.currentScore)) {
+			mask |= 1 << 11;
+		}
+		if (!SnapshotDeltas.isSame(currentSurvivalScore, base.currentSurvivalScore)) {
+			mask |= 1 << 12;
+		}
+		if (!SnapshotDeltas.isSame(currentSurvivalBonus, base.currentSurvivalBonus)) {
+			mask |= 1 << 13;
+		}
+		if (!SnapshotDeltas.isSame(currentBulletDamageScore, base.currentBulletDamageScore)) {
+			mask |= 1 << 14;
+		}
+		if (!SnapshotDeltas.isSame(currentBulletKillBonus, base.currentBulletKillBonus)) {
+			mask |= 1 << 15;
+		}
+		if (!SnapshotDeltas.isSame(currentRammingDamageScore, base.currentRammingDamageScore)) {
+			mask |= 1 << 16;
+		}
+		if (!SnapshotDeltas.isSame(currentRammingKillBonus, base.currentRammingKillBonus)) {
+			mask |= 1 << 17;
+		}
+		return mask;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
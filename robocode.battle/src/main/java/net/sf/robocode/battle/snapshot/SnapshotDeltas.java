@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.snapshot;
+
+
+/**
+ * Comparisons used for finding the fields of a snapshot that differ from the fields of the snapshot of
+ * the previous turn, so only these fields are written into a delta.
+ */
+final class SnapshotDeltas {
+
+	private SnapshotDeltas() {}
+
+	/**
+	 * Checks if two doubles have exactly the same bits, so a delta does not even lose the sign of a zero.
+	 */
+	static boolean isSame(double a, double b) {
+		return Double.doubleToRawLongBits(a) == Double.doubleToRawLongBits(b);
+	}
+
+	static boolean isSame(Object a, Object b) {
+		return a == null ? b == null : a.equals(b);
+	}
+}
@@ -11,6 +11,8 @@ package net.sf.robocode.battle.snapshot;
 import net.sf.robocode.battle.Battle;
 import net.sf.robocode.battle.peer.BulletPeer;
 import net.sf.robocode.battle.peer.RobotPeer;
+import net.sf.robocode.serialization.BinaryReader;
+import net.sf.robocode.serialization.BinaryWriter;
 import net.sf.robocode.serialization.IXmlSerializable;
 import net.sf.robocode.serialization.XmlReader;
 import net.sf.robocode.serialization.SerializableOptions;
@@ -80,6 +82,39 @@ public final class TurnSnapshot implements java.io.Serializable, IXmlSerializabl
 		round = battle.getRoundNum();
 	}
 
+	/**
+	 * Creates a summary snapshot of a battle turn, which only contains the turn, round and TPS,
+	 * but no robots and bullets.
+	 *
+	 * @param battle the battle to make a snapshot of.
+	 * @since 1.8.3.0
+	 */
+	public TurnSnapshot(Battle battle) {
+		robots = Collections.emptyList();
+		bullets = Collections.emptyList();
+
+		tps = battle.getTPS();
+		turn = battle.getTime();
+		round = battle.getRoundNum();
+	}
+
+	/**
+	 * Creates a snapshot of another turn in the same round, which shares the robots and bullets of
+	 * an existing snapshot. This is used for holding a turn, e.g. when turns are missing in a record.
+	 *
+	 * @param snapshot the snapshot of the turn to hold.
+	 * @param turn the turn of the new snapshot.
+	 * @since 1.8.3.0
+	 */
+	public TurnSnapshot(TurnSnapshot snapshot, int turn) {
+		robots = snapshot.robots;
+		bullets = snapshot.bullets;
+
+		tps = snapshot.tps;
+		this.turn = turn;
+		round = snapshot.round;
+	}
+
 	@Override
 	public String toString() {
 		return this.round + "/" + turn + " (" + this.robots.size() + ")";
@@ -170,6 +205,194 @@ public final class TurnSnapshot implements java.io.Serializable, IXmlSerializabl
 		}
 	}
 
+	/**
+	 * Holds on to the queued graphics calls of the robots, so they stay valid after the turn ended event has been
+	 * dispatched, until they are released with {@link #releaseGraphicsCalls()}.
+	 *
+	 * @since 1.8.3.0
+	 */
+	public void retainGraphicsCalls() {
+		for (IRobotSnapshot r : robots) {
+			((RobotSnapshot) r).retainGraphicsCalls();
+		}
+	}
+
+	/**
+	 * Releases the queued graphics calls of the robots, which have been retained with {@link #retainGraphicsCalls()}.
+	 *
+	 * @since 1.8.3.0
+	 */
+	public void releaseGraphicsCalls() {
+		for (IRobotSnapshot r : robots) {
+			((RobotSnapshot) r).releaseGraphicsCalls();
+		}
+	}
+
+	/**
+	 * Writes this snapshot in binary form.
+	 *
+	 * @param writer the writer to write to.
+	 * @since 1.8.3.0
+	 */
+	public void writeBinary(BinaryWriter writer) {
+		writer.writeInt(round);
+		writer.writeInt(turn);
+		writer.writeInt(tps);
+
+		// The lists are missing in snapshots read from XML without any robots or bullets
+		if (robots == null) {
+			writer.writeInt(0);
+		} else {
+			writer.writeInt(robots.size());
+			for (IRobotSnapshot robot : robots) {
+				((RobotSnapshot) robot).writeBinary(writer);
+			}
+		}
+		if (bullets == null) {
+			writer.writeInt(0);
+		} else {
+			writer.writeInt(bullets.size());
+			for (IBulletSnapshot bullet : bullets) {
+				((BulletSnapshot) bullet).writeBinary(writer);
+			}
+		}
+	}
+
+	/**
+	 * Reads a snapshot written by {@link #writeBinary(BinaryWriter)}.
+	 *
+	 * @param reader the reader to read from.
+	 * @return the snapshot.
+	 * @since 1.8.3.0
+	 */
+	public static TurnSnapshot readBinary(BinaryReader reader) {
+		final TurnSnapshot snapshot = new TurnSnapshot();
+
+		snapshot.round = reader.readInt();
+		snapshot.turn = reader.readInt();
+		snapshot.tps = reader.readInt();
+
+		final int robotCount = reader.readInt();
+
+		snapshot.robots = new ArrayList<IRobotSnapshot>(robotCount);
+		for (int i = 0; i < robotCount; i++) {
+			snapshot.robots.add(RobotSnapshot.readBinary(reader));
+		}
+
+		final int bulletCount = reader.readInt();
+
+		snapshot.bullets = new ArrayList<IBulletSnapshot>(bulletCount);
+		for (int i = 0; i < bulletCount; i++) {
+			snapshot.bullets.add(BulletSnapshot.readBinary(reader));
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Writes this snapshot as a delta against the snapshot of the previous turn, where only the fields of
+	 * the robots and bullets that have changed are written. The bullets are matched by their owner and id,
+	 * so bullets can be added and removed between the turns.
+	 *
+	 * @param writer the writer to write to.
+	 * @param base   the snapshot of the previous turn, or null if there is none.
+	 * @since 1.8.3.0
+	 */
+	public void writeBinaryDelta(BinaryWriter writer, TurnSnapshot base) {
+		writer.writeVarInt(round);
+		writer.writeVarInt(turn);
+		writer.writeVarInt(tps);
+
+		final List<IRobotSnapshot> baseRobots = (base == null || base.robots == null)
+				? Collections.<IRobotSnapshot>emptyList()
+				: base.robots;
+
+		if (robots == null) {
+			writer.writeVarInt(0);
+		} else {
+			writer.writeVarInt(robots.size());
+			for (int i = 0; i < robots.size(); i++) {
+				final RobotSnapshot baseRobot = i < baseRobots.size() ? (RobotSnapshot) baseRobots.get(i) : null;
+
+				((RobotSnapshot) robots.get(i)).writeBinaryDelta(writer, baseRobot);
+			}
+		}
+
+		final List<IBulletSnapshot> baseBullets = (base == null || base.bullets == null)
+				? Collections.<IBulletSnapshot>emptyList()
+				: base.bullets;
+
+		if (bullets == null) {
+			writer.writeVarInt(0);
+		} else {
+			writer.writeVarInt(bullets.size());
+
+			// The bullets keep their order between turns, so the search continues after the last match
+			int next = 0;
+
+			for (IBulletSnapshot bullet : bullets) {
+				int match = next;
+
+				while (match < baseBullets.size() && !isSameBullet(bullet, baseBullets.get(match))) {
+					match++;
+				}
+				if (match < baseBullets.size()) {
+					writer.writeVarInt(match + 1);
+					((BulletSnapshot) bullet).writeBinaryDelta(writer, (BulletSnapshot) baseBullets.get(match));
+					next = match + 1;
+				} else {
+					writer.writeVarInt(0);
+					((BulletSnapshot) bullet).writeBinaryDelta(writer, null);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads a snapshot written by {@link #writeBinaryDelta(BinaryWriter, TurnSnapshot)}.
+	 *
+	 * @param reader the reader to read from.
+	 * @param base   the snapshot the delta was written against, or null if there was none.
+	 * @return the snapshot.
+	 * @since 1.8.3.0
+	 */
+	public static TurnSnapshot readBinaryDelta(BinaryReader reader, TurnSnapshot base) {
+		final TurnSnapshot snapshot = new TurnSnapshot();
+
+		snapshot.round = reader.readVarInt();
+		snapshot.turn = reader.readVarInt();
+		snapshot.tps = reader.readVarInt();
+
+		final List<IRobotSnapshot> baseRobots = (base == null || base.robots == null)
+				? Collections.<IRobotSnapshot>emptyList()
+				: base.robots;
+		final int robotCount = reader.readVarInt();
+
+		snapshot.robots = new ArrayList<IRobotSnapshot>(robotCount);
+		for (int i = 0; i < robotCount; i++) {
+			final RobotSnapshot baseRobot = i < baseRobots.size() ? (RobotSnapshot) baseRobots.get(i) : null;
+
+			snapshot.robots.add(RobotSnapshot.readBinaryDelta(reader, baseRobot));
+		}
+
+		final List<IBulletSnapshot> baseBullets = (base == null || base.bullets == null)
+				? Collections.<IBulletSnapshot>emptyList()
+				: base.bullets;
+		final int bulletCount = reader.readVarInt();
+
+		snapshot.bullets = new ArrayList<IBulletSnapshot>(bulletCount);
+		for (int i = 0; i < bulletCount; i++) {
+			final int match = reader.readVarInt();
+			final BulletSnapshot baseBullet = match > 0 ? (BulletSnapshot) baseBullets.get(match - 1) : null;
+
+			snapshot.bullets.add(BulletSnapshot.readBinaryDelta(reader, baseBullet));
+		}
+		return snapshot;
+	}
+
+	private static boolean isSameBullet(IBulletSnapshot bullet, IBulletSnapshot other) {
+		return bullet.getBulletId() == other.getBulletId() && bullet.getOwnerIndex() == other.getOwnerIndex();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
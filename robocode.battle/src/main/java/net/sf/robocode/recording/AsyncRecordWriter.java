@@ -0,0 +1,302 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.snapshot.TurnSnapshot;
+import static net.sf.robocode.io.Logger.logError;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+
+/**
+ * Writes the turns of a record on a background thread, so the battle thread does not wait for the turns
+ * to be encoded and written to disk.
+ * <p/>
+ * The battle thread puts the turns into a bounded queue, which is drained by a single writer thread.
+ * The writer thread writes all turns in the queue at once before it flushes the file. The {@link Policy}
+ * decides what the battle thread does when the writer cannot keep up and the queue is full.
+ * <p/>
+ * The methods of this class must only be called by one thread at a time, which is normally the battle thread.
+ */
+final class AsyncRecordWriter implements Runnable {
+
+	/**
+	 * What the battle thread does with a turn when the queue is full.
+	 */
+	enum Policy {
+
+		/**
+		 * Waits until the writer thread has made room in the queue.
+		 */
+		BLOCK,
+
+		/**
+		 * Drops the turn. The record holds the last written turn during the dropped turns, and the writer
+		 * continues with a keyframe. The first turn of a round is never dropped.
+		 */
+		DROP_TO_KEYFRAME,
+
+		/**
+		 * Grows the queue, so the battle thread never waits, but the queued turns can take a lot of memory.
+		 */
+		GROW
+	}
+
+	// Most turns written at once before the file is flushed
+	private static final int MAX_BATCH_SIZE = 256;
+
+	// Tells the writer thread to stop
+	private static final QueuedTurn STOP = new QueuedTurn(null, -1, -1, 0);
+
+	private final IndexedRecordWriter writer;
+	private final Policy policy;
+	private final BlockingQueue<QueuedTurn> queue;
+	private final Thread thread;
+
+	// Used by the calling thread only
+	private long queuedCount;
+	private int lastRound = -1;
+	private int droppedCount;
+	private int nextTurn;
+
+	// Used by the writer thread only
+	private TurnSnapshot lastWrittenTurn;
+	private boolean isFailed;
+
+	// Guarded by this
+	private long writtenCount;
+	private boolean isStopped;
+
+	/**
+	 * Creates a new writer, which must be started.
+	 *
+	 * @param writer   the writer of the record file, which must not be used by others until this writer is closed.
+	 * @param policy   what to do with a turn when the queue is full.
+	 * @param capacity the maximum number of turns in the queue, unless the policy is {@link Policy#GROW}.
+	 */
+	AsyncRecordWriter(IndexedRecordWriter writer, Policy policy, int capacity) {
+		this.writer = writer;
+		this.policy = policy;
+
+		queue = policy == Policy.GROW
+				? new LinkedBlockingQueue<QueuedTurn>()
+				: new ArrayBlockingQueue<QueuedTurn>(Math.max(1, capacity));
+
+		thread = new Thread(this, "Robocode record writer");
+		thread.setDaemon(true);
+	}
+
+	void start() {
+		thread.start();
+	}
+
+	/**
+	 * Queues a turn for writing. The turns of a round must be queued in order.
+	 */
+	void writeTurn(TurnSnapshot turn, int round) {
+		// The robots can reuse the buffers of their graphics calls, when the writer thread is done with them
+		turn.retainGraphicsCalls();
+
+		if (round != lastRound) {
+			queueDroppedTurns();
+			lastRound = round;
+
+			// There is no turn to hold instead of the first turn of a round
+			put(new QueuedTurn(turn, round, turn.getTurn(), 0));
+		} else if (policy != Policy.DROP_TO_KEYFRAME) {
+			put(new QueuedTurn(turn, round, turn.getTurn(), 0));
+		} else if (queue.offer(new QueuedTurn(turn, round, turn.getTurn(), droppedCount))) {
+			queuedCount++;
+			droppedCount = 0;
+		} else {
+			turn.releaseGraphicsCalls();
+			droppedCount++;
+			nextTurn = turn.getTurn() + 1;
+		}
+	}
+
+	/**
+	 * Waits until all queued turns have been written and flushed to the file.
+	 */
+	void flush() {
+		queueDroppedTurns();
+
+		final long count = queuedCount;
+		boolean isInterrupted = false;
+
+		synchronized (this) {
+			while (writtenCount < count && !isStopped) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					isInterrupted = true;
+				}
+			}
+		}
+		if (isInterrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Writes all queued turns and stops the writer thread. The file is not closed.
+	 */
+	void close() {
+		queueDroppedTurns();
+		put(STOP);
+
+		boolean isInterrupted = false;
+
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				isInterrupted = true;
+			}
+		}
+		if (isInterrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public void run() {
+		final List<QueuedTurn> batch = new ArrayList<QueuedTurn>(MAX_BATCH_SIZE);
+		boolean isRunning = true;
+
+		try {
+			while (isRunning) {
+				try {
+					batch.add(queue.take());
+				} catch (InterruptedException e) {
+					// Only stopped by the STOP turn, as the queued turns must be written
+					continue;
+				}
+				queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+
+				int written = 0;
+
+				for (QueuedTurn queued : batch) {
+					if (queued == STOP) {
+						isRunning = false;
+						break;
+					}
+					write(queued);
+					written++;
+				}
+				batch.clear();
+				flushFile();
+
+				synchronized (this) {
+					writtenCount += written;
+					notifyAll();
+				}
+			}
+		} finally {
+			if (lastWrittenTurn != null) {
+				lastWrittenTurn.releaseGraphicsCalls();
+				lastWrittenTurn = null;
+			}
+			synchronized (this) {
+				isStopped = true;
+				notifyAll();
+			}
+		}
+	}
+
+	private void write(QueuedTurn queued) {
+		if (!isFailed) {
+			try {
+				for (int i = queued.droppedCount; i > 0; i--) {
+					writer.writeTurn(new TurnSnapshot(lastWrittenTurn, queued.turnNumber - i), queued.round);
+				}
+				if (queued.turn != null) {
+					writer.writeTurn(queued.turn, queued.round, queued.droppedCount > 0);
+				}
+			} catch (IOException e) {
+				logError(e);
+				isFailed = true;
+			} catch (RuntimeException e) {
+				logError(e);
+				isFailed = true;
+			}
+		}
+		if (queued.turn != null) {
+			// The last written turn is held during dropped turns, so its graphics calls are kept until the next turn
+			if (lastWrittenTurn != null) {
+				lastWrittenTurn.releaseGraphicsCalls();
+			}
+			lastWrittenTurn = queued.turn;
+		}
+	}
+
+	private void flushFile() {
+		if (isFailed) {
+			return;
+		}
+		try {
+			writer.flush();
+		} catch (IOException e) {
+			logError(e);
+			isFailed = true;
+		}
+	}
+
+	private void queueDroppedTurns() {
+		if (droppedCount > 0) {
+			put(new QueuedTurn(null, lastRound, nextTurn, droppedCount));
+			droppedCount = 0;
+		}
+	}
+
+	private void put(QueuedTurn queued) {
+		boolean isInterrupted = false;
+
+		for (;;) {
+			try {
+				queue.put(queued);
+				break;
+			} catch (InterruptedException e) {
+				// The turn must be queued anyway, as the record would be broken without it
+				isInterrupted = true;
+			}
+		}
+		queuedCount++;
+		if (isInterrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * A queued turn, or the turns dropped before it.
+	 */
+	private static final class QueuedTurn {
+		final TurnSnapshot turn;
+		final int round;
+		final int turnNumber;
+		final int droppedCount;
+
+		/**
+		 * @param turn         the turn to write, or null if only dropped turns must be written.
+		 * @param round        the round of the turn.
+		 * @param turnNumber   the number of the turn.
+		 * @param droppedCount the number of dropped turns before the turn, where the last written turn is held.
+		 */
+		QueuedTurn(TurnSnapshot turn, int round, int turnNumber, int droppedCount) {
+			this.turn = turn;
+			this.round = round;
+			this.turnNumber = turnNumber;
+			this.droppedCount = droppedCount;
+		}
+	}
+}
@@ -9,6 +9,7 @@ package net.sf.robocode.recording;
 
 
 import net.sf.robocode.battle.BaseBattle;
+import net.sf.robocode.battle.Command;
 import net.sf.robocode.battle.IBattleManager;
 import net.sf.robocode.battle.events.BattleEventDispatcher;
 import net.sf.robocode.battle.snapshot.RobotSnapshot;
@@ -71,7 +72,7 @@ public final class BattlePlayer extends BaseBattle {
 	protected void initializeRound() {
 		super.initializeRound();
 
-		final ITurnSnapshot snapshot = recordManager.readSnapshot(currentTime);
+		final ITurnSnapshot snapshot = recordManager.readSnapshot(getRoundNum(), currentTime);
 
 		if (snapshot != null) {
 			eventDispatcher.onRoundStarted(new RoundStartedEvent(snapshot, getRoundNum()));
@@ -94,7 +95,13 @@ public final class BattlePlayer extends BaseBattle {
 
 	@Override
 	protected void finalizeTurn() {
-		final ITurnSnapshot snapshot = recordManager.readSnapshot(currentTime);
+		replayTurn();
+
+		super.finalizeTurn();
+	}
+
+	private void replayTurn() {
+		final ITurnSnapshot snapshot = recordManager.readSnapshot(getRoundNum(), currentTime);
 
 		if (snapshot != null) {
 			final IRobotSnapshot[] robots = snapshot.getRobots();
@@ -106,8 +113,6 @@ public final class BattlePlayer extends BaseBattle {
 			}
 			eventDispatcher.onTurnEnded(new TurnEndedEvent(snapshot));
 		}
-
-		super.finalizeTurn();
 	}
 
 	@Override
@@ -133,6 +138,32 @@ public final class BattlePlayer extends BaseBattle {
 		sendCommand(new EnableRobotPaintCommand(robotIndex, enable));
 	}
 
+	/**
+	 * Jumps to a turn in the current round, which is replayed immediately, also when the replay is paused.
+	 *
+	 * @param turn the turn to jump to.
+	 */
+	public void seek(int turn) {
+		sendCommand(new SeekCommand(turn));
+	}
+
+	private class SeekCommand extends Command {
+		final int turn;
+
+		SeekCommand(int turn) {
+			this.turn = turn;
+		}
+
+		public void execute() {
+			final int lastTurn = recordManager.recordInfo.turnsInRounds[getRoundNum()] - 1;
+			final int time = Math.max(0, Math.min(turn, lastTurn));
+
+			totalTurns += time - currentTime;
+			currentTime = time;
+			replayTurn();
+		}
+	}
+
 	private class EnableRobotPaintCommand extends RobotCommand {
 		final boolean enablePaint;
 
@@ -126,7 +126,11 @@ public class BattleRecorder {
 					name.append('-');
 				}
 				name.setLength(name.length() - 1);
-				if (properties.getOptionsCommonAutoRecordingXML()) {
+				if (properties.getOptionsCommonAutoRecordingIndexed()) {
+					name.append(".idx.br");
+					recordmanager.saveRecord(name.toString(), BattleRecordFormat.BINARY_INDEXED,
+							new SerializableOptions(true));
+				} else if (properties.getOptionsCommonAutoRecordingXML()) {
 					name.append(".xml.zip");
 					recordmanager.saveRecord(name.toString(), BattleRecordFormat.XML_ZIP, new SerializableOptions(true));
 				} else {
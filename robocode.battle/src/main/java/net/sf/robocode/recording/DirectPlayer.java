@@ -35,6 +35,11 @@ import static net.sf.robocode.io.Logger.logError;
 public class DirectPlayer {
 
 	public void playRecord(String recordFilename, BattleRecordFormat format, BattleEventDispatcher eventDispatcher) {
+		if (format == BattleRecordFormat.BINARY_INDEXED) {
+			playIndexedRecord(recordFilename, eventDispatcher);
+			return;
+		}
+
 		BattleRecordInfo recordInfo;
 		FileInputStream fis = null;
 		BufferedInputStream bis = null;
@@ -111,6 +116,46 @@ public class DirectPlayer {
 		}
 	}
 
+	private void playIndexedRecord(String recordFilename, BattleEventDispatcher eventDispatcher) {
+		IndexedRecordReader reader = null;
+
+		try {
+			final File recordFile = new File(recordFilename);
+			final IndexedRecordReader.Footer footer = IndexedRecordReader.readFooter(recordFile);
+			final BattleRecordInfo recordInfo = footer.recordInfo;
+
+			reader = new IndexedRecordReader(recordFile, footer.index, footer.sharedStrings, true);
+
+			eventDispatcher.onBattleStarted(new BattleStartedEvent(recordInfo.battleRules, recordInfo.robotCount, true));
+			int totalTurns = 0;
+
+			for (int i = 0; i < recordInfo.turnsInRounds.length; i++) {
+				for (int j = 0; j < recordInfo.turnsInRounds[i]; j++) {
+					ITurnSnapshot turn = reader.readTurn(i, j);
+
+					if (j == 0) {
+						eventDispatcher.onRoundStarted(new RoundStartedEvent(turn, i));
+					}
+					eventDispatcher.onTurnEnded(new TurnEndedEvent(turn));
+				}
+				totalTurns += recordInfo.turnsInRounds[i];
+				eventDispatcher.onRoundEnded(new RoundEndedEvent(i, recordInfo.turnsInRounds[i], totalTurns));
+			}
+			eventDispatcher.onBattleFinished(new BattleFinishedEvent(false));
+			eventDispatcher.onBattleCompleted(
+					new BattleCompletedEvent(recordInfo.battleRules,
+					recordInfo.results.toArray(new BattleResults[recordInfo.results.size()])));
+		} catch (IOException e) {
+			logError(e);
+		} catch (ClassNotFoundException e) {
+			logError(e);
+		} finally {
+			if (reader != null) {
+				reader.close();
+			}
+		}
+	}
+
 	private static class RecordRoot implements IXmlSerializable {
 
 		public RecordRoot(BattleEventDispatcher eventDispatcher) {
@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.snapshot.TurnSnapshot;
+import net.sf.robocode.io.FileUtil;
+import net.sf.robocode.serialization.BinaryReader;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Reads any turn of a battle record written by an {@link IndexedRecordWriter}.
+ * <p/>
+ * A turn is decoded from the keyframe before it, or from the last turn read when reading forward.
+ * The returned turns are the bases for decoding the next turns, so they must not be modified,
+ * except by {@link TurnSnapshot#stripDetails(net.sf.robocode.serialization.SerializableOptions)},
+ * which only changes details that are either written with every turn, or stripped from every turn.
+ * <p/>
+ * A record file is either memory-mapped, or read with positional reads when the file is too large to be
+ * mapped, or when it must be possible to delete it while it is still open, as a mapped file cannot be
+ * deleted on Windows until the mapping is garbage collected.
+ */
+final class IndexedRecordReader {
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final ByteBuffer mapped;
+	private final RecordIndex index;
+	private final List<String> sharedStrings;
+
+	private ByteBuffer buffer;
+
+	// The last turn read, which the following turn can be decoded from
+	private TurnSnapshot lastTurn;
+	private int lastRound = -1;
+	private int lastTurnIndex = -1;
+
+	IndexedRecordReader(File recordFile, RecordIndex index, List<String> sharedStrings, boolean map) throws IOException {
+		this.index = index;
+		this.sharedStrings = sharedStrings;
+
+		file = new RandomAccessFile(recordFile, "r");
+		channel = file.getChannel();
+		mapped = (map && channel.size() <= Integer.MAX_VALUE)
+				? channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+				: null;
+	}
+
+	/**
+	 * Reads the turn at the given round and turn.
+	 *
+	 * @return the turn, or null if the turn is not in the record.
+	 */
+	TurnSnapshot readTurn(int round, int turn) throws IOException {
+		if (index.getOffset(round, turn) < 0) {
+			return null;
+		}
+		if (round == lastRound && turn == lastTurnIndex) {
+			return lastTurn;
+		}
+
+		int start = index.getKeyframe(turn);
+		TurnSnapshot snapshot = null;
+
+		if (round == lastRound && lastTurnIndex >= start && lastTurnIndex < turn) {
+			start = lastTurnIndex + 1;
+			snapshot = lastTurn;
+		}
+		for (int i = start; i <= turn; i++) {
+			snapshot = decodeTurn(index.getOffset(round, i), snapshot);
+		}
+
+		lastTurn = snapshot;
+		lastRound = round;
+		lastTurnIndex = turn;
+		return snapshot;
+	}
+
+	private TurnSnapshot decodeTurn(long offset, TurnSnapshot previousTurn) throws IOException {
+		ByteBuffer turnBuffer;
+
+		if (mapped != null) {
+			turnBuffer = mapped.duplicate();
+			turnBuffer.position((int) offset);
+			turnBuffer.limit((int) offset + 4 + turnBuffer.getInt());
+		} else {
+			turnBuffer = read(offset, 4);
+			turnBuffer = read(offset + 4, turnBuffer.getInt());
+		}
+		final BinaryReader reader = new BinaryReader(turnBuffer, sharedStrings, index.getDecimals());
+
+		switch (reader.readByte()) {
+		case IndexedRecordWriter.KEYFRAME:
+			return TurnSnapshot.readBinaryDelta(reader, null);
+
+		case IndexedRecordWriter.DELTA:
+			if (previousTurn == null) {
+				throw new IOException("Delta turn without a previous turn");
+			}
+			return TurnSnapshot.readBinaryDelta(reader, previousTurn);
+
+		default:
+			throw new IOException("Unknown kind of turn");
+		}
+	}
+
+	void close() {
+		FileUtil.cleanupStream(file);
+	}
+
+	private ByteBuffer read(long offset, int length) throws IOException {
+		if (buffer == null || buffer.capacity() < length) {
+			buffer = ByteBuffer.allocate(Math.max(length, 4096));
+		}
+		buffer.clear();
+		buffer.limit(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, offset + buffer.position()) < 0) {
+				throw new EOFException();
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * The footer of a record file, which is needed for reading the turns of the file.
+	 */
+	static final class Footer {
+		BattleRecordInfo recordInfo;
+		List<String> sharedStrings;
+		RecordIndex index;
+	}
+
+	/**
+	 * Reads the footer of a record file.
+	 */
+	static Footer readFooter(File recordFile) throws IOException, ClassNotFoundException {
+		RandomAccessFile raf = null;
+
+		try {
+			raf = new RandomAccessFile(recordFile, "r");
+
+			if (raf.length() < 8 + IndexedRecordWriter.TRAILER_SIZE || raf.readInt() != IndexedRecordWriter.MAGIC) {
+				throw new IOException("Not an indexed battle record: " + recordFile);
+			}
+			if (raf.readInt() != IndexedRecordWriter.VERSION) {
+				throw new IOException("Unsupported version of indexed battle record: " + recordFile);
+			}
+			raf.seek(raf.length() - IndexedRecordWriter.TRAILER_SIZE);
+
+			final long footerOffset = raf.readLong();
+
+			if (raf.readInt() != IndexedRecordWriter.MAGIC) {
+				throw new IOException("Incomplete indexed battle record: " + recordFile);
+			}
+			raf.seek(footerOffset);
+
+			final DataInputStream in = new DataInputStream(
+					new BufferedInputStream(new FileInputStream(raf.getFD()), 64 * 1024));
+			final Footer footer = new Footer();
+
+			final byte[] info = new byte[in.readInt()];
+
+			in.readFully(info);
+			footer.recordInfo = (BattleRecordInfo) new ObjectInputStream(new ByteArrayInputStream(info)).readObject();
+
+			final int stringCount = in.readInt();
+
+			footer.sharedStrings = new ArrayList<String>(stringCount);
+			for (int i = 0; i < stringCount; i++) {
+				footer.sharedStrings.add(in.readUTF());
+			}
+
+			final int keyframeInterval = in.readInt();
+			final int decimals = in.readInt();
+
+			footer.index = new RecordIndex(in.readInt(), keyframeInterval, decimals);
+			for (int round = 0; round < footer.index.getRoundCount(); round++) {
+				final int turnCount = in.readInt();
+
+				for (int turn = 0; turn < turnCount; turn++) {
+					footer.index.addTurn(round, in.readLong());
+				}
+			}
+			return footer;
+		} finally {
+			FileUtil.cleanupStream(raf);
+		}
+	}
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.snapshot.TurnSnapshot;
+import net.sf.robocode.io.FileUtil;
+import net.sf.robocode.serialization.BinaryWriter;
+
+import java.io.*;
+import java.util.List;
+
+
+/**
+ * Writes a battle record in the {@link BattleRecordFormat#BINARY_INDEXED} format.
+ * <p/>
+ * The file starts with a header of a magic number and version, which is followed by the turns.
+ * Each turn is the length of the turn in bytes followed by its kind and the binary form of its {@link TurnSnapshot}.
+ * Every few turns of a round is a keyframe with the complete snapshot, and the other turns are deltas with only
+ * what has changed since the previous turn.
+ * The footer contains the serialized {@link BattleRecordInfo}, the shared strings used by the turns, the keyframe
+ * interval, the number of decimals the doubles are rounded to, and the file offset of every turn by round. The file ends with the offset of the footer and the magic
+ * number, so a reader can find the footer and then read any turn by decoding it from the keyframe before it.
+ */
+final class IndexedRecordWriter {
+	static final int MAGIC = 0x52424958; // "RBIX"
+	static final int VERSION = 2;
+
+	// Footer offset and magic number at the end of the file
+	static final int TRAILER_SIZE = 8 + 4;
+
+	// Kinds of turns
+	static final int KEYFRAME = 0;
+	static final int DELTA = 1;
+
+	private final BinaryWriter turnWriter;
+	private final RecordIndex index;
+
+	private FileOutputStream fos;
+	private DataOutputStream out;
+	private long position;
+
+	// The previous turn, which the next turn is written as a delta against
+	private TurnSnapshot previousTurn;
+	private int previousRound = -1;
+
+	IndexedRecordWriter(File file, int numRounds, int keyframeInterval, int decimals) throws IOException {
+		index = new RecordIndex(numRounds, keyframeInterval, decimals);
+		turnWriter = new BinaryWriter(decimals);
+
+		fos = new FileOutputStream(file);
+		out = new DataOutputStream(new BufferedOutputStream(fos, 1024 * 1024));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		position = 8;
+	}
+
+	RecordIndex getIndex() {
+		return index;
+	}
+
+	List<String> getSharedStrings() {
+		return turnWriter.getSharedStrings();
+	}
+
+	/**
+	 * Appends a turn to a round.
+	 */
+	void writeTurn(TurnSnapshot turn, int round) throws IOException {
+		writeTurn(turn, round, false);
+	}
+
+	/**
+	 * Appends a turn to a round.
+	 *
+	 * @param keyframe true if the turn must be a keyframe, even when it is not its turn.
+	 */
+	void writeTurn(TurnSnapshot turn, int round, boolean keyframe) throws IOException {
+		final int turnIndex = index.getTurnCount(round);
+
+		turnWriter.reset();
+		if (keyframe || round != previousRound || index.getKeyframe(turnIndex) == turnIndex) {
+			// A keyframe is a delta against nothing, where unset fields and rounded values take less space
+			turnWriter.writeByte(KEYFRAME);
+			turn.writeBinaryDelta(turnWriter, null);
+		} else {
+			turnWriter.writeByte(DELTA);
+			turn.writeBinaryDelta(turnWriter, previousTurn);
+		}
+		previousTurn = turn;
+		previousRound = round;
+
+		index.addTurn(round, position);
+		out.writeInt(turnWriter.size());
+		turnWriter.writeTo(out);
+		position += 4 + turnWriter.size();
+	}
+
+	void flush() throws IOException {
+		out.flush();
+	}
+
+	/**
+	 * Writes the footer and closes the file.
+	 */
+	void finish(BattleRecordInfo recordInfo) throws IOException {
+		final long footerOffset = position;
+
+		ByteArrayOutputStream info = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(info);
+
+		oos.writeObject(recordInfo);
+		oos.close();
+		out.writeInt(info.size());
+		info.writeTo(out);
+
+		final List<String> strings = turnWriter.getSharedStrings();
+
+		out.writeInt(strings.size());
+		for (String string : strings) {
+			out.writeUTF(string);
+		}
+
+		out.writeInt(index.getKeyframeInterval());
+		out.writeInt(index.getDecimals());
+		out.writeInt(index.getRoundCount());
+		for (int round = 0; round < index.getRoundCount(); round++) {
+			final int turnCount = index.getTurnCount(round);
+
+			out.writeInt(turnCount);
+			for (int turn = 0; turn < turnCount; turn++) {
+				out.writeLong(index.getOffset(round, turn));
+			}
+		}
+
+		out.writeLong(footerOffset);
+		out.writeInt(MAGIC);
+		close();
+	}
+
+	void close() {
+		FileUtil.cleanupStream(out);
+		out = null;
+		FileUtil.cleanupStream(fos);
+		fos = null;
+	}
+}
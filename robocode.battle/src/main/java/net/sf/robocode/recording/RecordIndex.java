@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.recording;
+
+
+import java.util.Arrays;
+
+
+/**
+ * The file offsets of the turns in an indexed battle record, by round and turn, and the turns
+ * that are keyframes, i.e. written completely and not as a delta against the previous turn.
+ */
+final class RecordIndex {
+	private final long[][] offsets;
+	private final int[] turnCounts;
+	private final int keyframeInterval;
+	private final int decimals;
+
+	RecordIndex(int numRounds, int keyframeInterval, int decimals) {
+		this.keyframeInterval = Math.max(1, keyframeInterval);
+		this.decimals = decimals;
+		offsets = new long[numRounds][];
+		turnCounts = new int[numRounds];
+		for (int i = 0; i < numRounds; i++) {
+			offsets[i] = new long[16];
+		}
+	}
+
+	int getRoundCount() {
+		return offsets.length;
+	}
+
+	int getTurnCount(int round) {
+		return turnCounts[round];
+	}
+
+	int getKeyframeInterval() {
+		return keyframeInterval;
+	}
+
+	/**
+	 * Returns the number of decimals the doubles of the turns are rounded to,
+	 * or {@link net.sf.robocode.serialization.BinaryWriter#FULL_PRECISION}.
+	 */
+	int getDecimals() {
+		return decimals;
+	}
+
+	/**
+	 * Returns the last keyframe at or before a turn, where decoding of the turn must start.
+	 */
+	int getKeyframe(int turn) {
+		return turn - turn % keyframeInterval;
+	}
+
+	/**
+	 * Returns the file offset of a turn.
+	 *
+	 * @return the file offset, or -1 if the turn is not in the record.
+	 */
+	long getOffset(int round, int turn) {
+		if (round < 0 || round >= offsets.length || turn < 0 || turn >= turnCounts[round]) {
+			return -1;
+		}
+		return offsets[round][turn];
+	}
+
+	/**
+	 * Adds the file offset of the next turn of a round.
+	 */
+	void addTurn(int round, long offset) {
+		final int count = turnCounts[round];
+
+		if (count == offsets[round].length) {
+			offsets[round] = Arrays.copyOf(offsets[round], count * 2);
+		}
+		offsets[round][count] = offset;
+		turnCounts[round] = count + 1;
+	}
+}
@@ -13,6 +13,7 @@ import net.sf.robocode.battle.snapshot.TurnSnapshot;
 import net.sf.robocode.io.FileUtil;
 import net.sf.robocode.io.Logger;
 import static net.sf.robocode.io.Logger.logError;
+import net.sf.robocode.serialization.BinaryWriter;
 import net.sf.robocode.serialization.IXmlSerializable;
 import net.sf.robocode.serialization.SerializableOptions;
 import net.sf.robocode.serialization.XmlReader;
@@ -38,22 +39,49 @@ import java.util.zip.ZipOutputStream;
 public class RecordManager implements IRecordManager {
 	private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd-HHmmss");
 
+	// Turns from one keyframe to the next in the turns of a record, where the turns in between are deltas
+	private static final int DEFAULT_KEYFRAME_INTERVAL = 32;
+
+	// Decimals of saved indexed records with trimmed precision, like the XML records
+	private static final int TRIMMED_DECIMALS = 4;
+
+	// Turns waiting to be written by the background writer when the battle is recorded
+	private static final int DEFAULT_QUEUE_SIZE = 256;
+
 	private final ISettingsManager properties;
+	private final int keyframeInterval;
+	private final AsyncRecordWriter.Policy queuePolicy;
+	private final int queueSize;
 
 	private File tempFile;
 	private BattleRecorder recorder;
 
 	public BattleRecordInfo recordInfo;
-	private FileOutputStream fileWriteStream;
-	private BufferedOutputStream bufferedWriteStream;
-	private ObjectOutputStream objectWriteStream;
 
-	private FileInputStream fileReadStream;
-	private BufferedInputStream bufferedReadStream;
-	private ObjectInputStream objectReadStream;
+	// The file with the turns of the current record, which is the temp file or a loaded indexed record
+	private File recordFile;
+	private boolean isRecordFileMapped;
+	private RecordIndex recordIndex;
+	private List<String> sharedStrings;
+
+	private IndexedRecordWriter recordWriter;
+	private AsyncRecordWriter asyncWriter;
+	private IndexedRecordReader recordReader;
 
 	public RecordManager(ISettingsManager properties) {
 		this.properties = properties;
+		keyframeInterval = Integer.getInteger("RECORDKEYFRAMEINTERVAL", DEFAULT_KEYFRAME_INTERVAL);
+
+		final String policy = System.getProperty("RECORDQUEUE", "block");
+
+		if (policy.equals("drop")) {
+			queuePolicy = AsyncRecordWriter.Policy.DROP_TO_KEYFRAME;
+		} else if (policy.equals("grow")) {
+			queuePolicy = AsyncRecordWriter.Policy.GROW;
+		} else {
+			queuePolicy = AsyncRecordWriter.Policy.BLOCK;
+		}
+		queueSize = Integer.getInteger("RECORDQUEUESIZE", DEFAULT_QUEUE_SIZE);
 		recorder = new BattleRecorder(this, properties);
 	}
 
@@ -74,22 +102,22 @@ public class RecordManager implements IRecordManager {
 			tempFile = null;
 		}
 		recordInfo = null;
+		recordFile = null;
 	}
 
 	public void cleanupStreams() {
-		FileUtil.cleanupStream(objectWriteStream);
-		objectWriteStream = null;
-		FileUtil.cleanupStream(bufferedWriteStream);
-		bufferedWriteStream = null;
-		FileUtil.cleanupStream(fileWriteStream);
-		fileWriteStream = null;
-
-		FileUtil.cleanupStream(objectReadStream);
-		objectReadStream = null;
-		FileUtil.cleanupStream(bufferedReadStream);
-		bufferedReadStream = null;
-		FileUtil.cleanupStream(fileReadStream);
-		fileReadStream = null;
+		if (asyncWriter != null) {
+			asyncWriter.close();
+			asyncWriter = null;
+		}
+		if (recordWriter != null) {
+			recordWriter.close();
+			recordWriter = null;
+		}
+		if (recordReader != null) {
+			recordReader.close();
+			recordReader = null;
+		}
 	}
 
 	public void attachRecorder(BattleEventDispatcher battleEventDispatcher) {
@@ -119,53 +147,65 @@ public class RecordManager implements IRecordManager {
 		}
 	}
 
+	private void createTempRecord(int numRounds) throws IOException {
+		createTempFile();
+
+		recordWriter = new IndexedRecordWriter(tempFile, numRounds, keyframeInterval, BinaryWriter.FULL_PRECISION);
+		recordFile = tempFile;
+		isRecordFileMapped = false; // otherwise the temp file could not be deleted on Windows
+		recordIndex = recordWriter.getIndex();
+		sharedStrings = recordWriter.getSharedStrings();
+	}
+
+	/**
+	 * Waits until all turns of the recorded battle have been written to the record file.
+	 */
+	private void flushRecord() {
+		if (asyncWriter != null) {
+			asyncWriter.flush();
+		}
+	}
+
 	public void prepareInputStream() {
+		flushRecord();
 		try {
-			fileReadStream = new FileInputStream(tempFile);
-			bufferedReadStream = new BufferedInputStream(fileReadStream);
-			objectReadStream = new ObjectInputStream(bufferedReadStream);
-		} catch (FileNotFoundException e) {
-			logError(e);
-			fileReadStream = null;
-			bufferedReadStream = null;
-			objectReadStream = null;
+			recordReader = new IndexedRecordReader(recordFile, recordIndex, sharedStrings, isRecordFileMapped);
 		} catch (IOException e) {
 			logError(e);
-			fileReadStream = null;
-			bufferedReadStream = null;
-			objectReadStream = null;
+			recordReader = null;
 		}
 	}
 
-	public ITurnSnapshot readSnapshot(int currentTime) {
-		if (objectReadStream == null) {
+	public ITurnSnapshot readSnapshot(int round, int time) {
+		if (recordReader == null) {
 			return null;
 		}
 		try {
-			// TODO implement seek to currentTime, warn you. turns don't have same size in bytes
-			return (ITurnSnapshot) objectReadStream.readObject();
-		} catch (EOFException e) {
+			return recordReader.readTurn(round, time);
+		} catch (IOException e) {
 			logError(e);
 			return null;
-		} catch (Exception e) {
+		} catch (RuntimeException e) {
 			logError(e);
 			return null;
 		}
 	}
 
 	public void loadRecord(String recordFilename, BattleRecordFormat format) {
+		cleanupStreams();
+
+		if (format == BattleRecordFormat.BINARY_INDEXED) {
+			loadIndexedRecord(recordFilename);
+			return;
+		}
+
 		FileInputStream fis = null;
 		BufferedInputStream bis = null;
 		ZipInputStream zis = null;
 		ObjectInputStream ois = null;
 		InputStream xis = null;
 
-		FileOutputStream fos = null;
-		BufferedOutputStream bos = null;
-		ObjectOutputStream oos = null;
-
 		try {
-			createTempFile();
 			fis = new FileInputStream(recordFilename);
 			bis = new BufferedInputStream(fis, 1024 * 1024);
 
@@ -184,17 +224,14 @@ public class RecordManager implements IRecordManager {
 			}
 			if (format == BattleRecordFormat.BINARY || format == BattleRecordFormat.BINARY_ZIP) {
 				recordInfo = (BattleRecordInfo) ois.readObject();
+				createTempRecord(recordInfo.turnsInRounds != null ? recordInfo.turnsInRounds.length : 0);
 				if (recordInfo.turnsInRounds != null) {
-					fos = new FileOutputStream(tempFile);
-					bos = new BufferedOutputStream(fos, 1024 * 1024);
-					oos = new ObjectOutputStream(bos);
-
 					for (int i = 0; i < recordInfo.turnsInRounds.length; i++) {
 						for (int j = recordInfo.turnsInRounds[i] - 1; j >= 0; j--) {
 							try {
-								ITurnSnapshot turn = (ITurnSnapshot) ois.readObject();
+								TurnSnapshot turn = (TurnSnapshot) ois.readObject();
 
-								oos.writeObject(turn);
+								recordWriter.writeTurn(turn, i);
 							} catch (ClassNotFoundException e) {
 								logError(e);
 							}
@@ -204,9 +241,6 @@ public class RecordManager implements IRecordManager {
 			} else {
 				final RecordRoot root = new RecordRoot();
 
-				fos = new FileOutputStream(tempFile);
-				bos = new BufferedOutputStream(fos, 1024 * 1024);
-				root.oos = new ObjectOutputStream(bos);
 				XmlReader.deserialize(xis, root);
 				if (root.lastException != null) {
 					logError(root.lastException);
@@ -226,9 +260,7 @@ public class RecordManager implements IRecordManager {
 			createTempFile();
 			recordInfo = null;
 		} finally {
-			FileUtil.cleanupStream(oos);
-			FileUtil.cleanupStream(bos);
-			FileUtil.cleanupStream(fos);
+			cleanupStreams();
 			FileUtil.cleanupStream(ois);
 			FileUtil.cleanupStream(zis);
 			FileUtil.cleanupStream(bis);
@@ -236,13 +268,33 @@ public class RecordManager implements IRecordManager {
 		}
 	}
 
-	private static class RecordRoot implements IXmlSerializable {
+	private void loadIndexedRecord(String recordFilename) {
+		try {
+			final IndexedRecordReader.Footer footer = IndexedRecordReader.readFooter(new File(recordFilename));
+
+			// The turns are read directly from the loaded file
+			recordFile = new File(recordFilename);
+			isRecordFileMapped = true;
+			recordIndex = footer.index;
+			sharedStrings = footer.sharedStrings;
+			recordInfo = footer.recordInfo;
+		} catch (IOException e) {
+			logError(e);
+			recordFile = null;
+			recordInfo = null;
+		} catch (ClassNotFoundException e) {
+			logError(e);
+			recordFile = null;
+			recordInfo = null;
+		}
+	}
+
+	private class RecordRoot implements IXmlSerializable {
 
 		public RecordRoot() {
 			me = this;
 		}
 
-		public ObjectOutputStream oos;
 		public IOException lastException;
 		public final RecordRoot me;
 		public BattleRecordInfo recordInfo;
@@ -263,6 +315,11 @@ public class RecordManager implements IRecordManager {
 
 						public void close() {
 							reader.getContext().put("robots", recordInfo.robotCount);
+							try {
+								createTempRecord(recordInfo.turnsInRounds.length);
+							} catch (IOException e) {
+								me.lastException = e;
+							}
 						}
 					});
 
@@ -273,8 +330,10 @@ public class RecordManager implements IRecordManager {
 						}
 
 						public void add(IXmlSerializable child) {
+							final TurnSnapshot turn = (TurnSnapshot) child;
+
 							try {
-								me.oos.writeObject(child);
+								recordWriter.writeTurn(turn, turn.getRound());
 							} catch (IOException e) {
 								me.lastException = e;
 							}
@@ -297,17 +356,31 @@ public class RecordManager implements IRecordManager {
 		OutputStreamWriter osw = null;
 		XmlWriter xwr = null;
 
-		FileInputStream fis = null;
-		BufferedInputStream bis = null;
-		ObjectInputStream ois = null;
+		IndexedRecordWriter indexedWriter = null;
+		IndexedRecordReader reader = null;
 
 		final boolean isbin = format == BattleRecordFormat.BINARY || format == BattleRecordFormat.BINARY_ZIP;
 		final boolean isxml = format == BattleRecordFormat.XML || format == BattleRecordFormat.XML_ZIP;
+		final boolean isindexed = format == BattleRecordFormat.BINARY_INDEXED;
 		Calendar calendar = Calendar.getInstance();
 
 		try {
-			fos = new FileOutputStream(recordFilename);
-			bos = new BufferedOutputStream(fos, 1024 * 1024);
+			if (recordFile != null && new File(recordFilename).getCanonicalFile().equals(recordFile.getCanonicalFile())) {
+				Logger.logError("Cannot save the record into the file it is read from: " + recordFilename);
+				return;
+			}
+			flushRecord();
+			if (recordWriter != null) {
+				recordWriter.flush();
+			}
+
+			if (isindexed) {
+				indexedWriter = new IndexedRecordWriter(new File(recordFilename), recordInfo.turnsInRounds.length,
+						keyframeInterval, options.trimPrecision ? TRIMMED_DECIMALS : BinaryWriter.FULL_PRECISION);
+			} else {
+				fos = new FileOutputStream(recordFilename);
+				bos = new BufferedOutputStream(fos, 1024 * 1024);
+			}
 
 			if (format == BattleRecordFormat.BINARY) {
 				oos = new ObjectOutputStream(bos);
@@ -346,28 +419,25 @@ public class RecordManager implements IRecordManager {
 			}
 
 			if (recordInfo.turnsInRounds != null) {
-				fis = new FileInputStream(tempFile);
-				bis = new BufferedInputStream(fis, 1024 * 1024);
-				ois = new ObjectInputStream(bis);
+				reader = new IndexedRecordReader(recordFile, recordIndex, sharedStrings, isRecordFileMapped);
 
 				for (int i = 0; i < recordInfo.turnsInRounds.length; i++) {
 					if (recordInfo.turnsInRounds[i] > 0) {
 						for (int j = 0; j <= recordInfo.turnsInRounds[i] - 1; j++) {
-							try {
-								TurnSnapshot turn = (TurnSnapshot) ois.readObject();
+							TurnSnapshot turn = reader.readTurn(i, j);
 
-								if (j != turn.getTurn()) {
-									throw new Error("Something rotten");
-								}
+							if (turn == null || j != turn.getTurn()) {
+								throw new Error("Something rotten");
+							}
 
-								if (isbin) {
-									turn.stripDetails(options);
-									oos.writeObject(turn);
-								} else if (isxml) {
-									turn.writeXml(xwr, options);
-								}
-							} catch (ClassNotFoundException e) {
-								logError(e);
+							if (isbin) {
+								turn.stripDetails(options);
+								oos.writeObject(turn);
+							} else if (isindexed) {
+								turn.stripDetails(options);
+								indexedWriter.writeTurn(turn, i);
+							} else if (isxml) {
+								turn.writeXml(xwr, options);
 							}
 						}
 						if (isbin) {
@@ -375,8 +445,10 @@ public class RecordManager implements IRecordManager {
 						} else if (isxml) {
 							osw.flush();
 						}
-						bos.flush();
-						fos.flush();
+						if (bos != null) {
+							bos.flush();
+							fos.flush();
+						}
 					}
 				}
 				if (isxml) {
@@ -385,15 +457,21 @@ public class RecordManager implements IRecordManager {
 					osw.flush();
 				}
 			}
+			if (isindexed) {
+				indexedWriter.finish(recordInfo);
+			}
 
 		} catch (IOException e) {
 			logError(e);
 			recorder = new BattleRecorder(this, properties);
 			createTempFile();
 		} finally {
-			FileUtil.cleanupStream(ois);
-			FileUtil.cleanupStream(bis);
-			FileUtil.cleanupStream(fis);
+			if (reader != null) {
+				reader.close();
+			}
+			if (indexedWriter != null) {
+				indexedWriter.close();
+			}
 			FileUtil.cleanupStream(oos);
 			FileUtil.cleanupStream(zos);
 			FileUtil.cleanupStream(bos);
@@ -408,11 +486,11 @@ public class RecordManager implements IRecordManager {
 
 	public void createRecordInfo(BattleRules rules, int numRobots) {
 		try {
-			createTempFile();
+			createTempRecord(rules.getNumRounds());
 
-			fileWriteStream = new FileOutputStream(tempFile);
-			bufferedWriteStream = new BufferedOutputStream(fileWriteStream, 1024 * 1024);
-			objectWriteStream = new ObjectOutputStream(bufferedWriteStream);
+			// The turns of the battle are written by a background thread, not the battle thread
+			asyncWriter = new AsyncRecordWriter(recordWriter, queuePolicy, queueSize);
+			asyncWriter.start();
 		} catch (IOException e) {
 			logError(e);
 		}
@@ -431,18 +509,11 @@ public class RecordManager implements IRecordManager {
 	}
 
 	public void writeTurn(ITurnSnapshot turn, int round, int time) {
-		try {
-			if (time != recordInfo.turnsInRounds[round]) {
-				throw new Error("Something rotten");
-			}
-			if (time == 0) {
-				objectWriteStream.reset();
-			}
-			recordInfo.turnsInRounds[round]++;
-			recordInfo.roundsCount = round + 1;
-			objectWriteStream.writeObject(turn);
-		} catch (IOException e) {
-			logError(e);
+		if (time != recordInfo.turnsInRounds[round]) {
+			throw new Error("Something rotten");
 		}
+		recordInfo.turnsInRounds[round]++;
+		recordInfo.roundsCount = round + 1;
+		asyncWriter.writeTurn((TurnSnapshot) turn, round);
 	}
 }
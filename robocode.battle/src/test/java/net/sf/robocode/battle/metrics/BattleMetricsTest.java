@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.metrics;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+import robocode.control.metrics.IRobotMetrics;
+import robocode.control.metrics.TurnPhase;
+
+
+public class BattleMetricsTest {
+
+	@Test
+	public void histogramBuckets() {
+		Histogram histogram = new Histogram();
+
+		histogram.add(0);
+		histogram.add(1);
+		histogram.add(5);
+		histogram.add(7);
+		histogram.add(1000);
+
+		long[] buckets = histogram.getBuckets();
+
+		Assert.assertEquals(1, buckets[0]);
+		Assert.assertEquals(1, buckets[1]);
+		Assert.assertEquals(2, buckets[3]);
+		Assert.assertEquals(1, buckets[10]);
+		Assert.assertEquals(5, histogram.getCount());
+		Assert.assertEquals(1013, histogram.getTotal());
+		Assert.assertEquals(1000, histogram.getMax());
+
+		Assert.assertEquals(0, histogram.getPercentile(20));
+		Assert.assertEquals(7, histogram.getPercentile(60));
+		Assert.assertEquals(1000, histogram.getPercentile(99));
+		Assert.assertEquals(0, new Histogram().getPercentile(50));
+	}
+
+	@Test
+	public void phasesAreSummedPerTurn() {
+		BattleMetrics metrics = new BattleMetrics(new String[] { "a", "b" });
+
+		for (int turn = 0; turn < 10; turn++) {
+			long start = System.nanoTime();
+
+			metrics.endPhase(TurnPhase.DISPATCH_EVENTS, start);
+			metrics.endPhase(TurnPhase.DISPATCH_EVENTS, start);
+			metrics.setEventQueueSize(1, turn);
+			metrics.addRobotWait(1, 100);
+			metrics.addRobotWait(1, 50);
+			metrics.endTurn(start, 30);
+		}
+		Assert.assertEquals(10, metrics.getTurns());
+		Assert.assertEquals(30, metrics.getTPS());
+		Assert.assertEquals(10, metrics.getPhaseNanos(TurnPhase.DISPATCH_EVENTS).getCount());
+		Assert.assertEquals(10, metrics.getPhaseNanos(TurnPhase.TPS_DELAY).getCount());
+		Assert.assertEquals(0, metrics.getPhaseNanos(TurnPhase.TPS_DELAY).getMax());
+
+		IRobotMetrics[] robots = metrics.getRobotMetrics();
+
+		// Robot a was never woken up
+		Assert.assertEquals("a", robots[0].getName());
+		Assert.assertEquals(0, robots[0].getWaitNanos().getCount());
+		Assert.assertEquals(10, robots[1].getWaitNanos().getCount());
+		Assert.assertEquals(150, robots[1].getWaitNanos().getMax());
+		Assert.assertEquals(9, robots[1].getEventQueueSizes().getMax());
+	}
+
+	@Test
+	public void copyIsNotChangedByLaterTurns() {
+		BattleMetrics metrics = new BattleMetrics(new String[] { "a" });
+
+		metrics.endTurn(System.nanoTime(), 10);
+		BattleMetrics copy = metrics.copy();
+
+		metrics.endTurn(System.nanoTime(), 20);
+
+		Assert.assertEquals(1, copy.getTurns());
+		Assert.assertEquals(10, copy.getTPS());
+		Assert.assertEquals(2, metrics.getTurns());
+	}
+}
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.peer;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class CpuTimeHistogramTest {
+
+	@Test
+	public void emptyHistogram() {
+		CpuTimeHistogram histogram = new CpuTimeHistogram();
+
+		Assert.assertEquals(0, histogram.getCount());
+		Assert.assertEquals(0, histogram.getMeanNanos());
+		Assert.assertEquals(0, histogram.getPercentileNanos(50));
+	}
+
+	@Test
+	public void percentilesAreBucketUpperBounds() {
+		CpuTimeHistogram histogram = new CpuTimeHistogram();
+
+		// 99 turns of 100 us and 1 turn of 10 ms
+		for (int i = 0; i < 99; i++) {
+			histogram.add(100000);
+		}
+		histogram.add(10000000);
+
+		Assert.assertEquals(100, histogram.getCount());
+		Assert.assertEquals((99 * 100000 + 10000000) / 100, histogram.getMeanNanos());
+		Assert.assertEquals(10000000, histogram.getMaxNanos());
+
+		// 100 us is in the bucket below 128 us
+		Assert.assertEquals(128000, histogram.getPercentileNanos(50));
+		Assert.assertEquals(128000, histogram.getPercentileNanos(99));
+
+		// The top bucket is capped by the highest time
+		Assert.assertEquals(10000000, histogram.getPercentileNanos(100));
+	}
+
+	@Test
+	public void negativeTimesCountAsZero() {
+		CpuTimeHistogram histogram = new CpuTimeHistogram();
+
+		histogram.add(-5);
+
+		Assert.assertEquals(1, histogram.getCount());
+		Assert.assertEquals(0, histogram.getMaxNanos());
+		Assert.assertEquals(1, histogram.getBuckets()[0]);
+	}
+}
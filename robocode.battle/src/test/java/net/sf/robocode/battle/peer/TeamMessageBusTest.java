@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.peer;
+
+
+import net.sf.robocode.peer.TeamMessage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class TeamMessageBusTest {
+
+	@Test
+	public void broadcastIsSharedByRecipients() {
+		TeamMessageBus bus = createBus(3, 0);
+		TeamMessage message = new TeamMessage("leader", null, new byte[10]);
+
+		Assert.assertTrue(bus.post(0, message, 1));
+		bus.addRecipient(1);
+		bus.addRecipient(2);
+
+		Assert.assertTrue(readout(bus, 0).isEmpty());
+
+		List<TeamMessage> messages1 = readout(bus, 1);
+		List<TeamMessage> messages2 = readout(bus, 2);
+
+		Assert.assertEquals(1, messages1.size());
+		Assert.assertSame(message, messages1.get(0));
+		Assert.assertSame(message, messages2.get(0));
+
+		// All members have read the message
+		Assert.assertEquals(0, bus.getPendingCount());
+		Assert.assertTrue(readout(bus, 1).isEmpty());
+
+		Assert.assertEquals(1, bus.getMessagesSent(0));
+		Assert.assertEquals(10, bus.getBytesSent(0));
+		Assert.assertEquals(1, bus.getMessagesReceived(2));
+		Assert.assertEquals(10, bus.getBytesReceived(2));
+	}
+
+	@Test
+	public void messagesWaitForSlowRecipients() {
+		TeamMessageBus bus = createBus(2, 0);
+
+		for (int turn = 1; turn <= 100; turn++) {
+			Assert.assertTrue(bus.post(0, new TeamMessage("leader", "droid", new byte[] { (byte) turn }), turn));
+			bus.addRecipient(1);
+			readout(bus, 0);
+		}
+		Assert.assertEquals(100, bus.getPendingCount());
+
+		List<TeamMessage> messages = readout(bus, 1);
+
+		Assert.assertEquals(100, messages.size());
+		for (int i = 0; i < 100; i++) {
+			Assert.assertEquals(i + 1, messages.get(i).message[0]);
+		}
+		Assert.assertEquals(0, bus.getPendingCount());
+	}
+
+	@Test
+	public void messagesAreNotKeptForMembersThatLeft() {
+		TeamMessageBus bus = createBus(3, 0);
+
+		// Member 2 has died, so it never reads again
+		bus.leave(2);
+
+		for (int turn = 1; turn <= 1000; turn++) {
+			Assert.assertTrue(bus.post(0, new TeamMessage("leader", null, new byte[1]), turn));
+			bus.addRecipient(1);
+			bus.addRecipient(2);
+			readout(bus, 0);
+			readout(bus, 1);
+			Assert.assertEquals(0, bus.getPendingCount());
+		}
+		Assert.assertEquals(0, bus.getMessagesReceived(2));
+	}
+
+	@Test
+	public void membersThatJoinOnlyReceiveNewMessages() {
+		TeamMessageBus bus = createBus(2, 0);
+
+		bus.leave(1);
+		bus.post(0, new TeamMessage("leader", null, new byte[1]), 1);
+		bus.addRecipient(1);
+		readout(bus, 0);
+
+		// A new round starts
+		bus.join(0);
+		bus.join(1);
+		Assert.assertTrue(readout(bus, 1).isEmpty());
+
+		bus.post(0, new TeamMessage("leader", null, new byte[2]), 2);
+		bus.addRecipient(1);
+		readout(bus, 0);
+
+		Assert.assertEquals(1, bus.getPendingCount());
+		Assert.assertEquals(2, readout(bus, 1).get(0).message.length);
+		Assert.assertEquals(0, bus.getPendingCount());
+	}
+
+	@Test
+	public void discardedMessagesAreNotReceived() {
+		TeamMessageBus bus = createBus(2, 0);
+
+		bus.post(0, new TeamMessage("leader", null, new byte[5]), 1);
+		bus.addRecipient(1);
+		bus.discard(1);
+
+		Assert.assertTrue(readout(bus, 1).isEmpty());
+		Assert.assertEquals(0, bus.getMessagesReceived(1));
+	}
+
+	@Test
+	public void quotaIsPerTurn() {
+		TeamMessageBus bus = createBus(2, 100);
+
+		Assert.assertTrue(bus.post(0, new TeamMessage("leader", null, new byte[60]), 1));
+		Assert.assertFalse(bus.post(0, new TeamMessage("leader", null, new byte[60]), 1));
+		Assert.assertTrue(bus.post(1, new TeamMessage("droid", null, new byte[60]), 1));
+		Assert.assertTrue(bus.post(0, new TeamMessage("leader", null, new byte[60]), 2));
+
+		Assert.assertEquals(2, bus.getMessagesSent(0));
+		Assert.assertEquals(1, bus.getMessagesDropped(0));
+		Assert.assertEquals(0, bus.getMessagesDropped(1));
+	}
+
+	@Test
+	public void teamsWithMoreThan64Members() {
+		TeamMessageBus bus = createBus(70, 0);
+
+		// Member 67 has the same bit as member 3, but in the second word of the recipients
+		bus.post(0, new TeamMessage("leader", "droid", new byte[1]), 1);
+		bus.addRecipient(67);
+
+		Assert.assertTrue(readout(bus, 3).isEmpty());
+		Assert.assertEquals(1, readout(bus, 67).size());
+	}
+
+	private static List<TeamMessage> readout(TeamMessageBus bus, int recipient) {
+		List<TeamMessage> messages = new ArrayList<TeamMessage>();
+
+		bus.readout(recipient, messages);
+		return messages;
+	}
+
+	private static TeamMessageBus createBus(int members, int quotaPerTurn) {
+		TeamMessageBus bus = new TeamMessageBus(quotaPerTurn);
+
+		for (int i = 0; i < members; i++) {
+			Assert.assertEquals(i, bus.addMember());
+		}
+		return bus;
+	}
+}
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.peer;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+public class TurnSyncTest {
+
+	private static final int TURNS = 1000;
+
+	// Generous, so the tests do not fail on a slow machine
+	private static final long TIMEOUT_MILLIS = 5000;
+
+	@Test
+	public void turnsAreHandedOverInOrderWithMonitor() throws InterruptedException {
+		assertTurnsAreHandedOverInOrder(new MonitorTurnSync(new AtomicBoolean(true)));
+	}
+
+	@Test
+	public void turnsAreHandedOverInOrderWithParking() throws InterruptedException {
+		assertTurnsAreHandedOverInOrder(new ParkingTurnSync(new AtomicBoolean(true), 0));
+	}
+
+	@Test
+	public void turnsAreHandedOverInOrderWithSpinning() throws InterruptedException {
+		assertTurnsAreHandedOverInOrder(new ParkingTurnSync(new AtomicBoolean(true), 20000));
+	}
+
+	@Test
+	public void interruptEndsSleepWithMonitor() throws InterruptedException {
+		assertInterruptEndsSleep(new MonitorTurnSync(new AtomicBoolean(true)));
+	}
+
+	@Test
+	public void interruptEndsSleepWithParking() throws InterruptedException {
+		assertInterruptEndsSleep(new ParkingTurnSync(new AtomicBoolean(true), 0));
+	}
+
+	@Test
+	public void wakeupNoWaitWakesSleepingRobot() throws InterruptedException {
+		final ParkingTurnSync sync = new ParkingTurnSync(new AtomicBoolean(true), 0);
+		final Thread robot = startRobot(sync, 0, new AtomicInteger(), new AtomicInteger());
+
+		sync.waitStarted(TIMEOUT_MILLIS, 0);
+		Assert.assertTrue(sync.isSleeping());
+
+		sync.wakeupNoWait();
+		robot.join(TIMEOUT_MILLIS);
+		Assert.assertFalse(robot.isAlive());
+		Assert.assertFalse(sync.isSleeping());
+	}
+
+	@Test
+	public void waitSleepingTimesOutForBusyRobot() throws InterruptedException {
+		final ParkingTurnSync sync = new ParkingTurnSync(new AtomicBoolean(true), 0);
+		final long start = System.nanoTime();
+
+		// The robot never goes to sleep, so the battle waits the whole time
+		sync.waitSleeping(20, 500000);
+
+		Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MICROSECONDS.toNanos(20500));
+		Assert.assertFalse(sync.isSleeping());
+	}
+
+	@Test
+	public void waitSleepingEndsWhenRobotStops() throws InterruptedException {
+		final AtomicBoolean isRunning = new AtomicBoolean(true);
+		final ParkingTurnSync sync = new ParkingTurnSync(isRunning, 0);
+		final Thread stopper = new Thread(new Runnable() {
+			public void run() {
+				sleepQuietly(20);
+				isRunning.set(false);
+			}
+		});
+
+		stopper.start();
+		final long start = System.nanoTime();
+
+		sync.waitSleeping(TIMEOUT_MILLIS, 0);
+
+		Assert.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS));
+		stopper.join();
+	}
+
+	// The battle wakes up the robot for each turn, and the robot takes exactly that turn before the battle continues
+	private static void assertTurnsAreHandedOverInOrder(ITurnSync sync) throws InterruptedException {
+		final AtomicInteger battleTurn = new AtomicInteger();
+		final AtomicInteger robotTurn = new AtomicInteger();
+		final Thread robot = startRobot(sync, TURNS, battleTurn, robotTurn);
+
+		sync.waitStarted(TIMEOUT_MILLIS, 0);
+		Assert.assertTrue(sync.isSleeping());
+		Assert.assertEquals(0, robotTurn.get());
+
+		for (int turn = 1; turn <= TURNS; turn++) {
+			battleTurn.set(turn);
+			sync.wakeup(TIMEOUT_MILLIS);
+			sync.waitSleeping(TIMEOUT_MILLIS, 0);
+
+			Assert.assertTrue(sync.isSleeping());
+			Assert.assertEquals(turn, robotTurn.get());
+		}
+		sync.wakeup(TIMEOUT_MILLIS);
+		robot.join(TIMEOUT_MILLIS);
+		Assert.assertFalse(robot.isAlive());
+	}
+
+	private static void assertInterruptEndsSleep(final ITurnSync sync) throws InterruptedException {
+		final AtomicReference<Boolean> isInterrupted = new AtomicReference<Boolean>();
+		final Thread robot = new Thread(new Runnable() {
+			public void run() {
+				sync.sleep();
+				isInterrupted.set(Thread.currentThread().isInterrupted());
+			}
+		});
+
+		robot.start();
+		sync.waitStarted(TIMEOUT_MILLIS, 0);
+		Assert.assertTrue(sync.isSleeping());
+
+		robot.interrupt();
+		robot.join(TIMEOUT_MILLIS);
+		Assert.assertFalse(robot.isAlive());
+		Assert.assertEquals(Boolean.TRUE, isInterrupted.get());
+	}
+
+	// Starts a robot, which sleeps first and then takes the given turns, and ends when it is woken up after the last turn
+	private static Thread startRobot(final ITurnSync sync, final int turns, final AtomicInteger battleTurn,
+			final AtomicInteger robotTurn) {
+		final Thread robot = new Thread(new Runnable() {
+			public void run() {
+				sync.sleep();
+				for (int turn = 1; turn <= turns; turn++) {
+					if (battleTurn.get() == turn) {
+						robotTurn.set(turn);
+					}
+					sync.sleep();
+				}
+			}
+		});
+
+		robot.setDaemon(true);
+		robot.start();
+		return robot;
+	}
+
+	private static void sleepQuietly(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
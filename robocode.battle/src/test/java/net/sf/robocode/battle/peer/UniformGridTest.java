@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.peer;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+public class UniformGridTest {
+
+	private static final double WIDTH = 800;
+	private static final double HEIGHT = 600;
+
+	@Test
+	public void candidatePairsContainAllOverlappingPairs() {
+		final Random random = new Random(42);
+		final UniformGrid<Box> grid = createGrid(64);
+		final List<Box> boxes = createBoxes(random, 200);
+
+		for (Box box : boxes) {
+			box.update(grid);
+		}
+		assertCandidatesMatchBruteForce(grid, boxes, 1);
+	}
+
+	@Test
+	public void candidatesFollowMovedAndRemovedPeers() {
+		final Random random = new Random(7);
+		final UniformGrid<Box> grid = createGrid(100);
+		final List<Box> boxes = createBoxes(random, 100);
+		int stamp = 1000;
+
+		for (Box box : boxes) {
+			box.update(grid);
+		}
+		for (int turn = 0; turn < 50; turn++) {
+			for (Box box : boxes) {
+				box.moveBy(random.nextDouble() * 40 - 20, random.nextDouble() * 40 - 20);
+				box.update(grid);
+			}
+			// Removes a box now and then, which is no longer a candidate of any query
+			if (turn % 10 == 0) {
+				final Box removed = boxes.remove(random.nextInt(boxes.size()));
+
+				grid.remove(removed);
+				grid.mark(-1000, -1000, WIDTH + 1000, HEIGHT + 1000, ++stamp);
+				Assert.assertTrue(removed.entry.stamp != stamp);
+			}
+			stamp = assertCandidatesMatchBruteForce(grid, boxes, stamp + 1);
+		}
+	}
+
+	@Test
+	public void peersOutsideTheBattlefieldAreInTheNearestCells() {
+		final UniformGrid<Box> grid = createGrid(64);
+		final Box outside = new Box(-50, -50, -40, -40);
+		final Box farAway = new Box(WIDTH + 100, HEIGHT + 100, WIDTH + 120, HEIGHT + 120);
+
+		outside.update(grid);
+		farAway.update(grid);
+
+		grid.mark(0, 0, 1, 1, 1);
+		Assert.assertEquals(1, outside.entry.stamp);
+		Assert.assertTrue(farAway.entry.stamp != 1);
+
+		grid.mark(WIDTH - 1, HEIGHT - 1, WIDTH, HEIGHT, 2);
+		Assert.assertEquals(2, farAway.entry.stamp);
+	}
+
+	@Test
+	public void clearRemovesAllPeers() {
+		final UniformGrid<Box> grid = createGrid(64);
+		final List<Box> boxes = createBoxes(new Random(1), 50);
+
+		for (Box box : boxes) {
+			box.update(grid);
+		}
+		grid.clear();
+		grid.mark(0, 0, WIDTH, HEIGHT, 1);
+
+		for (Box box : boxes) {
+			Assert.assertFalse(box.entry.inGrid);
+			Assert.assertTrue(box.entry.stamp != 1);
+		}
+	}
+
+	// Checks that the marked candidates of each box contain all boxes overlapping it, and returns the next stamp
+	private static int assertCandidatesMatchBruteForce(UniformGrid<Box> grid, List<Box> boxes, int stamp) {
+		for (Box query : boxes) {
+			grid.mark(query.minX, query.minY, query.maxX, query.maxY, stamp);
+
+			for (Box other : boxes) {
+				if (query.overlaps(other)) {
+					Assert.assertEquals("Overlapping box was not a candidate", stamp, other.entry.stamp);
+				}
+			}
+			stamp++;
+		}
+		return stamp;
+	}
+
+	private static UniformGrid<Box> createGrid(double cellSize) {
+		return new UniformGrid<Box>(WIDTH, HEIGHT, cellSize) {
+			@Override
+			protected GridEntry getEntry(Box box) {
+				return box.entry;
+			}
+		};
+	}
+
+	private static List<Box> createBoxes(Random random, int count) {
+		final List<Box> boxes = new ArrayList<Box>();
+
+		for (int i = 0; i < count; i++) {
+			final double x = random.nextDouble() * WIDTH;
+			final double y = random.nextDouble() * HEIGHT;
+			final double size = 1 + random.nextDouble() * 80;
+
+			boxes.add(new Box(x, y, x + size, y + size));
+		}
+		return boxes;
+	}
+
+	private static class Box {
+		final GridEntry entry = new GridEntry();
+		double minX;
+		double minY;
+		double maxX;
+		double maxY;
+
+		Box(double minX, double minY, double maxX, double maxY) {
+			this.minX = minX;
+			this.minY = minY;
+			this.maxX = maxX;
+			this.maxY = maxY;
+		}
+
+		void update(UniformGrid<Box> grid) {
+			grid.update(this, minX, minY, maxX, maxY);
+		}
+
+		void moveBy(double dx, double dy) {
+			minX += dx;
+			maxX += dx;
+			minY += dy;
+			maxY += dy;
+		}
+
+		boolean overlaps(Box other) {
+			return minX <= other.maxX && other.minX <= maxX && minY <= other.maxY && other.minY <= maxY;
+		}
+	}
+}
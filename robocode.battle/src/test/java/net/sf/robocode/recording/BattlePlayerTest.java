@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.events.BattleEventDispatcher;
+import net.sf.robocode.security.HiddenAccess;
+import net.sf.robocode.serialization.SerializableOptions;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.TurnEndedEvent;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Tests that the player jumps to the turns of a recorded battle, backwards and forwards.
+ */
+public class BattlePlayerTest {
+
+	private static final int[] TURNS_IN_ROUNDS = RecordManagerTest.TURNS_IN_ROUNDS;
+
+	private final BlockingQueue<ITurnSnapshot> replayedTurns = new LinkedBlockingQueue<ITurnSnapshot>();
+
+	private File xmlFile;
+	private File indexedFile;
+	private BattlePlayer player;
+	private Thread playerThread;
+
+	@BeforeClass
+	public static void init() {
+		// we need to switch off engine classloader for this test
+		System.setProperty("NOSECURITY", "true");
+		System.setProperty("WORKINGDIRECTORY", "target//test-classes");
+		System.setProperty("TESTING", "true");
+		HiddenAccess.initContainer();
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		xmlFile = File.createTempFile("robocode-player-test", ".xml");
+		indexedFile = File.createTempFile("robocode-player-test", ".idx.br");
+		RecordManagerTest.writeXmlRecord(xmlFile);
+
+		RecordManager recordManager = new RecordManager(null);
+
+		recordManager.loadRecord(xmlFile.getPath(), BattleRecordFormat.XML);
+		recordManager.saveRecord(indexedFile.getPath(), BattleRecordFormat.BINARY_INDEXED, new SerializableOptions(false));
+		recordManager.loadRecord(indexedFile.getPath(), BattleRecordFormat.BINARY_INDEXED);
+		recordManager.recordInfo.battleRules = HiddenAccess.createRules(800, 600, TURNS_IN_ROUNDS.length, 0.1, 450,
+				false);
+
+		BattleEventDispatcher eventDispatcher = new BattleEventDispatcher();
+
+		eventDispatcher.addListener(new BattleAdaptor() {
+			@Override
+			public void onTurnEnded(TurnEndedEvent event) {
+				replayedTurns.add(event.getTurnSnapshot());
+			}
+		});
+
+		player = new BattlePlayer(null, null, recordManager, eventDispatcher);
+		player.pause();
+
+		playerThread = new Thread(player);
+		player.setBattleThread(playerThread);
+		playerThread.start();
+		player.waitTillStarted();
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		player.stop(true);
+		playerThread.join();
+		xmlFile.delete();
+		indexedFile.delete();
+	}
+
+	@Test
+	public void seeksBackwardsAndForwards() throws InterruptedException {
+		assertSeek(5, 5);
+		assertSeek(2, 2);
+		assertSeek(6, 6);
+		assertSeek(0, 0);
+		assertSeek(3, 3);
+		Assert.assertNull(replayedTurns.poll(100, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void seekIsClampedToTheRound() throws InterruptedException {
+		assertSeek(TURNS_IN_ROUNDS[0] + 10, TURNS_IN_ROUNDS[0] - 1);
+		assertSeek(-1, 0);
+	}
+
+	@Test
+	public void stepContinuesFromTheSoughtTurn() throws InterruptedException {
+		assertSeek(4, 4);
+
+		player.step();
+		assertReplayed(5);
+
+		player.stepBack();
+		assertReplayed(4);
+
+		assertSeek(1, 1);
+		player.step();
+		assertReplayed(2);
+	}
+
+	private void assertSeek(int turn, int expectedTurn) throws InterruptedException {
+		player.seek(turn);
+		assertReplayed(expectedTurn);
+	}
+
+	private void assertReplayed(int expectedTurn) throws InterruptedException {
+		ITurnSnapshot snapshot = replayedTurns.poll(5, TimeUnit.SECONDS);
+
+		Assert.assertNotNull("turn " + expectedTurn + " was not replayed", snapshot);
+		Assert.assertEquals(0, snapshot.getRound());
+		Assert.assertEquals(expectedTurn, snapshot.getTurn());
+	}
+}
@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.recording;
+
+
+import net.sf.robocode.battle.snapshot.TurnSnapshot;
+import net.sf.robocode.security.HiddenAccess;
+import net.sf.robocode.serialization.BinaryWriter;
+import net.sf.robocode.serialization.SerializableOptions;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import robocode.control.snapshot.IBulletSnapshot;
+import robocode.control.snapshot.IRobotSnapshot;
+import robocode.control.snapshot.ITurnSnapshot;
+import robocode.control.snapshot.RobotState;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Tests that records keep their turns when converted between the formats, and that the turns of an
+ * indexed record can be read in any order.
+ */
+public class RecordManagerTest {
+
+	static final int[] TURNS_IN_ROUNDS = { 7, 5, 9 };
+	private static final int ROBOT_COUNT = 2;
+
+	private final SerializableOptions options = new SerializableOptions(false);
+
+	private File xmlFile;
+	private File indexedFile;
+	private File zipFile;
+
+	@BeforeClass
+	public static void init() {
+		// we need to switch off engine classloader for this test
+		System.setProperty("NOSECURITY", "true");
+		System.setProperty("WORKINGDIRECTORY", "target//test-classes");
+		System.setProperty("TESTING", "true");
+		// a keyframe every 4 turns, so most turns are decoded from deltas
+		System.setProperty("RECORDKEYFRAMEINTERVAL", "4");
+		HiddenAccess.initContainer();
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		xmlFile = File.createTempFile("robocode-record-test", ".xml");
+		indexedFile = File.createTempFile("robocode-record-test", ".idx.br");
+		zipFile = File.createTempFile("robocode-record-test", ".br");
+		writeXmlRecord(xmlFile);
+	}
+
+	@After
+	public void tearDown() {
+		xmlFile.delete();
+		indexedFile.delete();
+		zipFile.delete();
+	}
+
+	@Test
+	public void indexedRecordReadsTurnsInAnyOrder() {
+		RecordManager manager = loadAndSave(xmlFile, BattleRecordFormat.XML, indexedFile, BattleRecordFormat.BINARY_INDEXED);
+
+		manager.loadRecord(indexedFile.getPath(), BattleRecordFormat.BINARY_INDEXED);
+		Assert.assertTrue(manager.hasRecord());
+		Assert.assertEquals(ROBOT_COUNT, manager.recordInfo.robotCount);
+		Assert.assertEquals(TURNS_IN_ROUNDS.length, manager.recordInfo.turnsInRounds.length);
+
+		manager.prepareInputStream();
+		try {
+			// backwards, as when stepping back in the player
+			for (int round = TURNS_IN_ROUNDS.length - 1; round >= 0; round--) {
+				for (int turn = TURNS_IN_ROUNDS[round] - 1; turn >= 0; turn--) {
+					assertTurn(manager.readSnapshot(round, turn), round, turn);
+				}
+			}
+			// jumping between rounds
+			assertTurn(manager.readSnapshot(2, 8), 2, 8);
+			assertTurn(manager.readSnapshot(0, 3), 0, 3);
+			assertTurn(manager.readSnapshot(1, 0), 1, 0);
+
+			Assert.assertNull(manager.readSnapshot(1, TURNS_IN_ROUNDS[1]));
+			Assert.assertNull(manager.readSnapshot(TURNS_IN_ROUNDS.length, 0));
+		} finally {
+			manager.cleanupStreams();
+		}
+	}
+
+	@Test
+	public void binaryZipRecordSurvivesRoundTrip() {
+		loadAndSave(xmlFile, BattleRecordFormat.XML, zipFile, BattleRecordFormat.BINARY_ZIP);
+
+		RecordManager manager = loadAndSave(zipFile, BattleRecordFormat.BINARY_ZIP, indexedFile,
+				BattleRecordFormat.BINARY_INDEXED);
+
+		manager.loadRecord(indexedFile.getPath(), BattleRecordFormat.BINARY_INDEXED);
+		manager.prepareInputStream();
+		try {
+			for (int round = 0; round < TURNS_IN_ROUNDS.length; round++) {
+				for (int turn = 0; turn < TURNS_IN_ROUNDS[round]; turn++) {
+					assertTurn(manager.readSnapshot(round, turn), round, turn);
+				}
+			}
+		} finally {
+			manager.cleanupStreams();
+		}
+	}
+
+	@Test
+	public void loadedIndexedRecordIsNotOverwritten() {
+		RecordManager manager = loadAndSave(xmlFile, BattleRecordFormat.XML, indexedFile, BattleRecordFormat.BINARY_INDEXED);
+
+		manager.loadRecord(indexedFile.getPath(), BattleRecordFormat.BINARY_INDEXED);
+
+		final long length = indexedFile.length();
+
+		manager.saveRecord(indexedFile.getPath(), BattleRecordFormat.BINARY_INDEXED, options);
+		Assert.assertEquals(length, indexedFile.length());
+
+		manager.prepareInputStream();
+		try {
+			assertTurn(manager.readSnapshot(2, 4), 2, 4);
+		} finally {
+			manager.cleanupStreams();
+		}
+	}
+
+	@Test
+	public void trimmedIndexedRecordIsRoundedToFourDecimals() {
+		RecordManager manager = new RecordManager(null);
+
+		manager.loadRecord(xmlFile.getPath(), BattleRecordFormat.XML);
+		manager.saveRecord(indexedFile.getPath(), BattleRecordFormat.BINARY_INDEXED, new SerializableOptions(true));
+
+		manager.loadRecord(indexedFile.getPath(), BattleRecordFormat.BINARY_INDEXED);
+		manager.prepareInputStream();
+		try {
+			for (int round = 0; round < TURNS_IN_ROUNDS.length; round++) {
+				for (int turn = 0; turn < TURNS_IN_ROUNDS[round]; turn++) {
+					ITurnSnapshot snapshot = manager.readSnapshot(round, turn);
+
+					Assert.assertEquals(robotX(round, turn, 1), snapshot.getRobots()[1].getX(), 0);
+					Assert.assertEquals(turn * 10, snapshot.getBullets()[0].getX(), 0);
+					// 0.30000000000000004 and the like lose their rounding errors
+					Assert.assertEquals(Math.round(turn * 0.1 * 10000) / 10000.0, snapshot.getBullets()[1].getPower(), 0);
+				}
+			}
+		} finally {
+			manager.cleanupStreams();
+		}
+	}
+
+	@Test
+	public void droppedTurnsHoldTheLastWrittenTurn() throws IOException {
+		RecordManager manager = new RecordManager(null);
+		List<TurnSnapshot> turns = new ArrayList<TurnSnapshot>();
+
+		manager.loadRecord(xmlFile.getPath(), BattleRecordFormat.XML);
+		manager.prepareInputStream();
+		try {
+			for (int turn = 0; turn < TURNS_IN_ROUNDS[0]; turn++) {
+				turns.add((TurnSnapshot) manager.readSnapshot(0, turn));
+			}
+		} finally {
+			manager.cleanupStreams();
+		}
+
+		IndexedRecordWriter writer = new IndexedRecordWriter(indexedFile, 1, 4, BinaryWriter.FULL_PRECISION);
+		AsyncRecordWriter asyncWriter = new AsyncRecordWriter(writer, AsyncRecordWriter.Policy.DROP_TO_KEYFRAME, 2);
+
+		// the writer thread is not running yet, so the queue is full after the first 2 turns
+		for (TurnSnapshot turn : turns) {
+			asyncWriter.writeTurn(turn, 0);
+		}
+		asyncWriter.start();
+		asyncWriter.close();
+
+		IndexedRecordReader reader = new IndexedRecordReader(indexedFile, writer.getIndex(), writer.getSharedStrings(),
+				false);
+
+		try {
+			Assert.assertEquals(TURNS_IN_ROUNDS[0], writer.getIndex().getTurnCount(0));
+			for (int turn = TURNS_IN_ROUNDS[0] - 1; turn >= 0; turn--) {
+				ITurnSnapshot snapshot = reader.readTurn(0, turn);
+				int heldTurn = Math.min(turn, 1);
+
+				Assert.assertEquals(turn, snapshot.getTurn());
+				Assert.assertEquals(robotX(0, heldTurn, 0), snapshot.getRobots()[0].getX(), 0);
+				Assert.assertEquals(heldTurn, snapshot.getBullets()[1].getBulletId());
+			}
+		} finally {
+			reader.close();
+			writer.close();
+		}
+	}
+
+	private RecordManager loadAndSave(File from, BattleRecordFormat fromFormat, File to, BattleRecordFormat toFormat) {
+		RecordManager manager = new RecordManager(null);
+
+		manager.loadRecord(from.getPath(), fromFormat);
+		Assert.assertTrue(manager.hasRecord());
+		manager.saveRecord(to.getPath(), toFormat, options);
+		return manager;
+	}
+
+	private static void assertTurn(ITurnSnapshot snapshot, int round, int turn) {
+		Assert.assertNotNull(snapshot);
+		Assert.assertEquals(round, snapshot.getRound());
+		Assert.assertEquals(turn, snapshot.getTurn());
+
+		IRobotSnapshot[] robots = snapshot.getRobots();
+
+		Assert.assertEquals(ROBOT_COUNT, robots.length);
+		for (int i = 0; i < ROBOT_COUNT; i++) {
+			Assert.assertEquals(i, robots[i].getRobotIndex());
+			Assert.assertEquals("sample.Robot" + i, robots[i].getName());
+			Assert.assertEquals(RobotState.ACTIVE, robots[i].getState());
+			Assert.assertEquals(robotX(round, turn, i), robots[i].getX(), 0);
+			Assert.assertEquals(100 - turn * 0.5, robots[i].getEnergy(), 0);
+		}
+		Assert.assertEquals(turn / 3, robots[0].getScoreSnapshot().getCurrentScore(), 0);
+		Assert.assertNull(robots[1].getScoreSnapshot());
+
+		IBulletSnapshot[] bullets = snapshot.getBullets();
+
+		Assert.assertEquals(2, bullets.length);
+		// a bullet flying through all turns
+		Assert.assertEquals(1000, bullets[0].getBulletId());
+		Assert.assertEquals(turn * 10, bullets[0].getX(), 0);
+		// a new bullet in every turn
+		Assert.assertEquals(turn, bullets[1].getBulletId());
+		Assert.assertEquals(turn % ROBOT_COUNT, bullets[1].getOwnerIndex());
+		Assert.assertEquals(turn * 0.1, bullets[1].getPower(), 0);
+	}
+
+	private static double robotX(int round, int turn, int robot) {
+		return 100 + round * 10 + turn + robot * 0.25;
+	}
+
+	static void writeXmlRecord(File file) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+
+		try {
+			writer.write("<record>\n");
+			writer.write("<recordInfo robotCount=\"" + ROBOT_COUNT + "\" roundsCount=\"" + TURNS_IN_ROUNDS.length + "\">\n");
+			writer.write("<rounds>\n");
+			for (int turns : TURNS_IN_ROUNDS) {
+				writer.write("<turns value=\"" + turns + "\"/>\n");
+			}
+			writer.write("</rounds>\n");
+			writer.write("</recordInfo>\n");
+			writer.write("<turns>\n");
+			for (int round = 0; round < TURNS_IN_ROUNDS.length; round++) {
+				for (int turn = 0; turn < TURNS_IN_ROUNDS[round]; turn++) {
+					writer.write("<turn round=\"" + round + "\" turn=\"" + turn + "\">\n");
+					writer.write("<robots>\n");
+					for (int i = 0; i < ROBOT_COUNT; i++) {
+						writer.write(
+								"<robot id=\"" + i + "\" name=\"sample.Robot" + i + "\" state=\"ACTIVE\" energy=\""
+								+ (100 - turn * 0.5) + "\" x=\"" + robotX(round, turn, i) + "\" y=\"200.0\">\n");
+						if (i == 0) {
+							writer.write("<score name=\"sample.Robot0\" currentScore=\"" + (turn / 3) + "\"/>\n");
+						}
+						writer.write("</robot>\n");
+					}
+					writer.write("</robots>\n");
+					writer.write("<bullets>\n");
+					writer.write("<bullet id=\"0-1000\" state=\"MOVING\" power=\"3.0\" x=\"" + (turn * 10.0)
+							+ "\" y=\"60.0\"/>\n");
+					writer.write(
+							"<bullet id=\"" + (turn % ROBOT_COUNT) + "-" + turn + "\" state=\"MOVING\" power=\"" + (turn * 0.1)
+							+ "\" x=\"50.0\" y=\"60.0\"/>\n");
+					writer.write("</bullets>\n");
+					writer.write("</turn>\n");
+				}
+			}
+			writer.write("</turns>\n");
+			writer.write("</record>\n");
+		} finally {
+			writer.close();
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.benchmarks;
+
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import robocode.control.BattleSpecification;
+import robocode.control.RandomFactory;
+import robocode.control.RobocodeEngine;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.RoundEndedEvent;
+import robocode.control.events.TurnEndedEvent;
+import robocode.control.metrics.IBattleMetrics;
+import robocode.control.metrics.TurnPhase;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+
+/**
+ * Measures the number of turns per second of 1v1 and 10 robot melee battles with sample robots, and the time
+ * per turn of each phase of the battle engine, which is taken from the battle metrics of the engine.
+ * <p/>
+ * The time of updating the robots is mostly spent in RobotPeer.performMove() and performScan(), the time of
+ * updating the bullets in BulletPeer.update(), and the time of the turn snapshot in creating the TurnSnapshot
+ * for a battle listener, which handles the TurnEndedEvents like the battle view and recorder do.
+ * Run from the root directory with:
+ * <pre>
+ * mvn -pl robocode.benchmarks -am verify -DskipTests -Dbenchmark -Djmh.args="BattleTurnBenchmark"
+ * </pre>
+ * The memory allocated per battle, including the memory allocated by the robot threads, is shown as
+ * gc.churn.*.norm with -Djmh.args="BattleTurnBenchmark -prof gc:churn=true". Dividing it by the turns per battle
+ * gives the allocation per turn.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BattleTurnBenchmark {
+
+	@Param({ "2", "10"})
+	public int robotCount;
+
+	private RobocodeEngine engine;
+	private BattleSpecification battleSpecification;
+	private TurnCounter turnCounter;
+	private long seed;
+
+	/**
+	 * The mean time per turn of the phases of the battles in an iteration, in nanoseconds.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class PhaseNanos {
+		public long loadCommandsNanos;
+		public long updateBulletsNanos;
+		public long updateRobotsNanos;
+		public long handleDeadRobotsNanos;
+		public long publishStatusesNanos;
+		public long wakeupRobotsNanos;
+		public long turnSnapshotNanos;
+
+		private final long[] totals = new long[TurnPhase.values().length];
+		private long turns;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			Arrays.fill(totals, 0);
+			turns = 0;
+		}
+
+		void add(IBattleMetrics metrics) {
+			for (TurnPhase phase : TurnPhase.values()) {
+				totals[phase.ordinal()] += metrics.getPhaseNanos(phase).getTotal();
+			}
+			turns += metrics.getTurns();
+
+			loadCommandsNanos = mean(TurnPhase.LOAD_COMMANDS);
+			updateBulletsNanos = mean(TurnPhase.UPDATE_BULLETS);
+			updateRobotsNanos = mean(TurnPhase.UPDATE_ROBOTS);
+			handleDeadRobotsNanos = mean(TurnPhase.HANDLE_DEAD_ROBOTS);
+			publishStatusesNanos = mean(TurnPhase.PUBLISH_STATUSES);
+			wakeupRobotsNanos = mean(TurnPhase.WAKEUP_ROBOTS);
+			turnSnapshotNanos = mean(TurnPhase.TURN_SNAPSHOT);
+		}
+
+		private long mean(TurnPhase phase) {
+			return turns == 0 ? 0 : totals[phase.ordinal()] / turns;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		BenchmarkBattles.initSystemProperties();
+
+		engine = new RobocodeEngine(new BattleAdaptor() {
+			@Override
+			public void onRoundEnded(RoundEndedEvent event) {
+				if (turnCounter != null) {
+					turnCounter.turns += event.getTurns();
+				}
+			}
+
+			@Override
+			public void onTurnEnded(TurnEndedEvent event) {// Makes the battle create full turn snapshots
+			}
+		});
+		battleSpecification = BenchmarkBattles.createMelee(engine, robotCount);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		engine.close();
+	}
+
+	@Benchmark
+	public void battle(TurnCounter counter, PhaseNanos phaseNanos) {
+		turnCounter = counter;
+
+		// Every battle is different, but the sequence of battles is the same in every run
+		RandomFactory.resetDeterministic(seed++);
+		engine.runBattle(battleSpecification, true);
+
+		phaseNanos.add(engine.getBattleMetrics());
+	}
+}
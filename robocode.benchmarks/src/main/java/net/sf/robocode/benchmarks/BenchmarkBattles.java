@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.benchmarks;
+
+
+import robocode.control.BattleSpecification;
+import robocode.control.BattlefieldSpecification;
+import robocode.control.RobocodeEngine;
+import robocode.control.RobotSpecification;
+
+import java.io.File;
+import java.io.IOException;
+
+
+/**
+ * Setup of the engine and battles shared by the benchmarks.
+ */
+final class BenchmarkBattles {
+
+	private static final String SAMPLE_ROBOTS = "sample.Corners,sample.Crazy,sample.Fire,sample.MyFirstRobot,"
+			+ "sample.RamFire,sample.SpinBot,sample.Target,sample.Tracker,sample.TrackFire,sample.Walls";
+
+	private BenchmarkBattles() {}
+
+	/**
+	 * Sets the system properties needed before creating a RobocodeEngine. The robots are read from the
+	 * robocode.tests.robots module, so the benchmarks must be run from the robocode.benchmarks directory.
+	 */
+	static void initSystemProperties() throws IOException {
+		System.setProperty("TESTING", "true");
+		System.setProperty("WORKINGDIRECTORY", "target");
+		System.setProperty("ROBOTPATH", new File("../robocode.tests.robots/target/classes").getCanonicalPath());
+	}
+
+	/**
+	 * Creates a one round melee battle, where the sample robots are repeated until there are enough robots.
+	 * The battlefield is scaled to keep the same density of robots as a 10 robot melee on the default battlefield,
+	 * and smaller battles use the default battlefield.
+	 */
+	static BattleSpecification createMelee(RobocodeEngine engine, int robotCount) {
+		return createMelee(engine, robotCount, 1);
+	}
+
+	/**
+	 * Creates a melee battle like {@link #createMelee(RobocodeEngine, int)} with the given number of rounds.
+	 */
+	static BattleSpecification createMelee(RobocodeEngine engine, int robotCount, int numRounds) {
+		RobotSpecification[] samples = engine.getLocalRepository(SAMPLE_ROBOTS);
+
+		if (samples.length == 0) {
+			throw new IllegalStateException("The sample robots were not found in " + System.getProperty("ROBOTPATH"));
+		}
+		RobotSpecification[] robots = new RobotSpecification[robotCount];
+
+		for (int i = 0; i < robotCount; i++) {
+			robots[i] = samples[i % samples.length];
+		}
+
+		double scale = Math.sqrt(Math.max(robotCount, 10) / 10.0);
+		BattlefieldSpecification battlefield = new BattlefieldSpecification(Math.min(5000, (int) (800 * scale)),
+				Math.min(5000, (int) (600 * scale)));
+
+		return new BattleSpecification(numRounds, battlefield, robots);
+	}
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.benchmarks;
+
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Compares the results of two benchmark runs, which JMH has written as CSV files, and prints the change of
+ * each score from the baseline run to the current run.
+ * <p/>
+ * A change is only reported as better or worse when it is larger than the sum of the score errors of the two
+ * runs. The benchmark profile writes the results into target/jmh-result.csv, so a baseline can be saved with:
+ * <pre>
+ * mvn -pl robocode.benchmarks -am verify -DskipTests -Dbenchmark -Djmh.args="MeleeBattleBenchmark"
+ * cp robocode.benchmarks/target/jmh-result.csv baseline.csv
+ * </pre>
+ * and a change can be measured against it with (the path is relative to robocode.benchmarks):
+ * <pre>
+ * mvn -pl robocode.benchmarks -am verify -DskipTests -Dbenchmark -Djmh.args="MeleeBattleBenchmark"
+ *     -Dbenchmark.baseline=../baseline.csv
+ * </pre>
+ */
+public final class BenchmarkComparison {
+
+	// Removed from the names of the benchmarks
+	private static final String PACKAGE_PREFIX = BenchmarkComparison.class.getPackage().getName() + '.';
+
+	private BenchmarkComparison() {}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: BenchmarkComparison <baseline.csv> <current.csv>");
+			System.exit(1);
+		}
+		final Map<String, Result> baseline = readResults(args[0]);
+		final Map<String, Result> current = readResults(args[1]);
+
+		System.out.println("Comparison of " + args[1] + " with the baseline " + args[0] + ":");
+		System.out.println();
+		for (Map.Entry<String, Result> entry : current.entrySet()) {
+			final Result result = entry.getValue();
+			final Result base = baseline.get(entry.getKey());
+
+			if (base == null) {
+				System.out.println(String.format("%-60s %14.3f %-10s (no baseline)", entry.getKey(), result.score,
+						result.unit));
+				continue;
+			}
+			System.out.println(String.format("%-60s %14.3f -> %14.3f %-10s %+7.1f%% %s", entry.getKey(), base.score,
+					result.score, result.unit, 100 * (result.score - base.score) / base.score, compare(base, result)));
+		}
+	}
+
+	private static String compare(Result base, Result result) {
+		final double difference = result.score - base.score;
+
+		if (Double.isNaN(base.error) || Double.isNaN(result.error) || Math.abs(difference) <= base.error + result.error) {
+			return "";
+		}
+		// Lower scores are better for times per operation, and higher scores for operations per time.
+		// Other counters are only compared by their change.
+		if (result.unit.endsWith("/op")) {
+			return (difference < 0) ? "better" : "WORSE";
+		}
+		if (result.unit.contains("/")) {
+			return (difference > 0) ? "better" : "WORSE";
+		}
+		return "";
+	}
+
+	// Reads the results by the name of the benchmark and its parameters
+	private static Map<String, Result> readResults(String fileName) throws IOException {
+		final Map<String, Result> results = new LinkedHashMap<String, Result>();
+		final BufferedReader reader = new BufferedReader(new FileReader(fileName));
+
+		try {
+			String line = reader.readLine();
+
+			if (line == null) {
+				return results;
+			}
+			final List<String> header = parseLine(line);
+
+
+			while ((line = reader.readLine()) != null) {
+				final List<String> values = parseLine(line);
+
+				if (values.size() != header.size()) {
+					continue;
+				}
+				final StringBuilder key = new StringBuilder(values.get(0).replace(PACKAGE_PREFIX, ""));
+
+				for (int i = 0; i < header.size(); i++) {
+					if (header.get(i).startsWith("Param: ")) {
+						key.append(' ').append(header.get(i).substring(7)).append('=').append(values.get(i));
+					}
+				}
+				final Result result = new Result();
+
+				result.score = parseNumber(values.get(header.indexOf("Score")));
+				result.error = parseNumber(values.get(header.indexOf("Score Error (99.9%)")));
+				result.unit = values.get(header.indexOf("Unit"));
+				results.put(key.toString(), result);
+			}
+		} finally {
+			reader.close();
+		}
+		return results;
+	}
+
+	private static double parseNumber(String value) {
+		try {
+			return Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+
+	// Splits a line of a CSV file into its values, which can be quoted
+	private static List<String> parseLine(String line) {
+		final List<String> values = new ArrayList<String>();
+		final StringBuilder value = new StringBuilder();
+		boolean quoted = false;
+
+		for (int i = 0; i < line.length(); i++) {
+			final char c = line.charAt(i);
+
+			if (c == '"') {
+				if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					value.append(c);
+					i++;
+				} else {
+					quoted = !quoted;
+				}
+			} else if (c == ',' && !quoted) {
+				values.add(value.toString());
+				value.setLength(0);
+			} else {
+				value.append(c);
+			}
+		}
+		values.add(value.toString());
+		return values;
+	}
+
+	private static class Result {
+		double score;
+		double error;
+		String unit;
+	}
+}
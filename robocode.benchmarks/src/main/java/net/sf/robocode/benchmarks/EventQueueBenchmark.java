@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.benchmarks;
+
+
+import net.sf.robocode.host.events.EventManager;
+import net.sf.robocode.host.events.EventQueue;
+import net.sf.robocode.host.events.PriorityEventQueue;
+import net.sf.robocode.security.HiddenAccess;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import robocode.BulletMissedEvent;
+import robocode.Event;
+import robocode.HitByBulletEvent;
+import robocode.HitRobotEvent;
+import robocode.HitWallEvent;
+import robocode.ScannedRobotEvent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the time a robot spends on its event queue in a turn, when EventManager.processEvents() removes the
+ * old events, sorts the queue, and takes the events from it in order of priority, and the time of looking for
+ * the events of a class that is not in the queue, e.g. with AdvancedRobot.getHitRobotEvents().
+ * <p/>
+ * The PriorityEventQueue of the event manager is compared with the list that was used before. Most events of
+ * a turn in a melee battle are ScannedRobotEvents, and 256 events is the most a robot can get in a turn.
+ * The events are created once with a fixed seed and only get a new time in each turn.
+ * Run from the root directory with:
+ * <pre>
+ * mvn -pl robocode.benchmarks -am verify -DskipTests -Dbenchmark -Djmh.args="EventQueueBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EventQueueBenchmark {
+
+	// Number of events added to the queue in each turn
+	@Param({ "4", "16", "64", "256"})
+	public int eventCount;
+
+	@Param({ "EventQueue", "PriorityEventQueue"})
+	public String queueType;
+
+	private final EventQueue list = new EventQueue();
+	private final PriorityEventQueue queue = new PriorityEventQueue();
+	private boolean isList;
+	private Event[] events;
+	private long time;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		BenchmarkBattles.initSystemProperties();
+
+		// Loads the classes of the modules with the system class loader like this benchmark
+		System.setProperty("NOSECURITY", "true");
+		HiddenAccess.initContainer();
+
+		isList = queueType.equals("EventQueue");
+
+		final Random random = new Random(0);
+
+		events = new Event[eventCount];
+		for (int i = 0; i < eventCount; i++) {
+			switch (i % 8) {
+			case 1:
+				events[i] = createEvent(new HitByBulletEvent(random.nextDouble(), null), 20);
+				break;
+
+			case 3:
+				events[i] = createEvent(new BulletMissedEvent(null), 60);
+				break;
+
+			case 5:
+				events[i] = createEvent(new HitWallEvent(random.nextDouble()), 30);
+				break;
+
+			default:
+				events[i] = createEvent(
+						new ScannedRobotEvent("sample.Target (" + i + ")", 100 * random.nextDouble(), random.nextDouble(),
+						random.nextInt(5000), random.nextDouble(), 8 * random.nextDouble()),
+						10);
+			}
+		}
+		final List<Event> shuffled = Arrays.asList(events);
+
+		Collections.shuffle(shuffled, random);
+		events = shuffled.toArray(new Event[eventCount]);
+	}
+
+	@Benchmark
+	public int processEvents() {
+		time++;
+		for (Event event : events) {
+			HiddenAccess.setEventTime(event, time);
+			if (isList) {
+				list.add(event);
+			} else {
+				queue.add(event);
+			}
+		}
+
+		// The same steps as EventManager.processEvents() without dispatching the events to a robot
+		int priorities = 0;
+		Event event;
+
+		if (isList) {
+			list.clear(time - EventManager.MAX_EVENT_STACK);
+			list.sort();
+			while ((event = (list.size() > 0) ? list.get(0) : null) != null) {
+				list.remove(event);
+				priorities += event.getPriority();
+			}
+		} else {
+			queue.clear(time - EventManager.MAX_EVENT_STACK);
+			queue.sort();
+			while ((event = queue.peek()) != null) {
+				queue.poll();
+				priorities += event.getPriority();
+			}
+		}
+		return priorities;
+	}
+
+	@Benchmark
+	public int findMissingEvents() {
+		if (isList) {
+			if (list.isEmpty()) {
+				list.addAll(Arrays.asList(events));
+			}
+
+			// The way EventManager looked for the events of a class before
+			final List<HitRobotEvent> result = new ArrayList<HitRobotEvent>();
+
+			synchronized (list) {
+				for (Event event : list) {
+					if (event instanceof HitRobotEvent) {
+						result.add((HitRobotEvent) event);
+					}
+				}
+			}
+			return result.size();
+		}
+		if (queue.size() == 0) {
+			for (Event event : events) {
+				queue.add(event);
+			}
+		}
+		return queue.getEvents(HitRobotEvent.class).size();
+	}
+
+	private static Event createEvent(Event event, int priority) {
+		HiddenAccess.setEventPriority(event, priority);
+		return event;
+	}
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.benchmarks;
+
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import robocode.control.BattleSpecification;
+import robocode.control.RandomFactory;
+import robocode.control.RobocodeEngine;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.RoundEndedEvent;
+
+import java.io.IOException;
+
+
+/**
+ * Measures the number of turns per second of whole melee battles with sample robots.
+ * <p/>
+ * Run from the root directory with:
+ * <pre>
+ * mvn -pl robocode.benchmarks -am verify -DskipTests -Dbenchmark -Djmh.args="MeleeBattleBenchmark"
+ * </pre>
+ * Add "-jvmArgs -DFASTSHUFFLE=true" to the JMH arguments to measure with fast shuffling, and
+ * "-jvmArgs -DTURNSYNCSPIN=20" to let the parking turn synchronization spin for 20 microseconds.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MeleeBattleBenchmark {
+
+	@Param({ "10", "50", "200"})
+	public int robotCount;
+
+	// Synchronization of the battle thread with the robot threads
+	@Param({ "monitor", "park"})
+	public String turnSync;
+
+	private RobocodeEngine engine;
+	private BattleSpecification battleSpecification;
+	private TurnCounter turnCounter;
+	private long seed;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		BenchmarkBattles.initSystemProperties();
+		System.setProperty("TURNSYNC", turnSync);
+
+		engine = new RobocodeEngine(new BattleAdaptor() {
+			@Override
+			public void onRoundEnded(RoundEndedEvent event) {
+				if (turnCounter != null) {
+					turnCounter.turns += event.getTurns();
+				}
+			}
+		});
+		battleSpecification = BenchmarkBattles.createMelee(engine, robotCount);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		engine.close();
+	}
+
+	@Benchmark
+	public void melee(TurnCounter counter) {
+		turnCounter = counter;
+
+		// Every battle is different, but the sequence of battles is the same in every run
+		RandomFactory.resetDeterministic(seed++);
+		engine.runBattle(battleSpecification, true);
+	}
+}
@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.benchmarks;
+
+
+import net.sf.robocode.recording.BattleRecordFormat;
+import net.sf.robocode.recording.RecordManager;
+import net.sf.robocode.serialization.SerializableOptions;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import robocode.BattleResults;
+import robocode.BattleRules;
+import robocode.control.RandomFactory;
+import robocode.control.RobocodeEngine;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.BattleCompletedEvent;
+import robocode.control.events.BattleStartedEvent;
+import robocode.control.events.RoundStartedEvent;
+import robocode.control.events.TurnEndedEvent;
+import robocode.control.snapshot.ITurnSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Compares the battle record formats by the turns per second of recording and replaying a 10 robot melee
+ * battle, and by the size of the record file.
+ * <p/>
+ * Recording writes the turns into the temp record of the record manager, as during a battle, and saves the
+ * record like auto-recording does. Replaying loads the saved record and reads all turns, as the battle player does.
+ * Run from the root directory with:
+ * <pre>
+ * mvn -pl robocode.benchmarks -am verify -DskipTests -Dbenchmark -Djmh.args="RecordFormatBenchmark"
+ * </pre>
+ * Add "-p keyframeInterval=1" to the JMH arguments to write every turn of the indexed format as a keyframe,
+ * i.e. without any deltas.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordFormatBenchmark {
+
+	@Param({ "BINARY_ZIP", "XML_ZIP", "BINARY_INDEXED"})
+	public String format;
+
+	// Turns from one keyframe to the next in the indexed format and the temp record
+	@Param({ "32"})
+	public String keyframeInterval;
+
+	private final List<ITurnSnapshot> turns = new ArrayList<ITurnSnapshot>();
+	private final List<Integer> turnRounds = new ArrayList<Integer>();
+	private BattleRules battleRules;
+	private int robotCount;
+	private List<BattleResults> results;
+
+	private BattleRecordFormat recordFormat;
+	private final SerializableOptions options = new SerializableOptions(true);
+	private RecordManager recordManager;
+	private File recordFile;
+	private File replayFile;
+
+	/**
+	 * The size of the record file in bytes.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class RecordSize {
+		public long recordBytes;
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		BenchmarkBattles.initSystemProperties();
+
+		// The snapshots of the battle are written by the record manager of the benchmark, so the engine must be
+		// loaded by the same class loader as the benchmark
+		System.setProperty("NOSECURITY", "true");
+		System.setProperty("RECORDKEYFRAMEINTERVAL", keyframeInterval);
+
+		recordTurns();
+
+		recordFormat = BattleRecordFormat.valueOf(format);
+		recordManager = new RecordManager(null);
+		recordFile = File.createTempFile("robocode-benchmark", ".record");
+		replayFile = File.createTempFile("robocode-benchmark", ".replay");
+
+		writeRecord(recordManager, replayFile);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		recordManager.cleanupStreams();
+		recordFile.delete();
+		replayFile.delete();
+	}
+
+	@Benchmark
+	public void record(TurnCounter counter, RecordSize size) {
+		writeRecord(recordManager, recordFile);
+
+		counter.turns += turns.size();
+		size.recordBytes = recordFile.length();
+	}
+
+	@Benchmark
+	public int replay(TurnCounter counter, RecordSize size) {
+		recordManager.loadRecord(replayFile.getPath(), recordFormat);
+		recordManager.prepareInputStream();
+
+		int count = 0;
+		final Integer[] turnsInRounds = recordManager.recordInfo.turnsInRounds;
+
+		for (int round = 0; round < turnsInRounds.length; round++) {
+			for (int turn = 0; turn < turnsInRounds[round]; turn++) {
+				if (recordManager.readSnapshot(round, turn) != null) {
+					count++;
+				}
+			}
+		}
+		recordManager.cleanupStreams();
+
+		counter.turns += count;
+		size.recordBytes = replayFile.length();
+		return count;
+	}
+
+	private void writeRecord(RecordManager manager, File file) {
+		manager.createRecordInfo(battleRules, robotCount);
+
+		for (int i = 0; i < turns.size(); i++) {
+			final ITurnSnapshot turn = turns.get(i);
+
+			manager.writeTurn(turn, turnRounds.get(i), turn.getTurn());
+		}
+		manager.updateRecordInfoResults(results);
+		manager.saveRecord(file.getPath(), recordFormat, options);
+	}
+
+	/**
+	 * Runs a 3 round melee battle and keeps the snapshots of its turns, as the battle recorder gets them.
+	 */
+	private void recordTurns() {
+		final RobocodeEngine engine = new RobocodeEngine(new BattleAdaptor() {
+			@Override
+			public void onBattleStarted(BattleStartedEvent event) {
+				battleRules = event.getBattleRules();
+				robotCount = event.getRobotsCount();
+			}
+
+			@Override
+			public void onBattleCompleted(BattleCompletedEvent event) {
+				results = Arrays.asList(event.getIndexedResults());
+			}
+
+			@Override
+			public void onRoundStarted(RoundStartedEvent event) {
+				turns.add(event.getStartSnapshot());
+				turnRounds.add(event.getRound());
+			}
+
+			@Override
+			public void onTurnEnded(TurnEndedEvent event) {
+				turns.add(event.getTurnSnapshot());
+				turnRounds.add(event.getTurnSnapshot().getRound());
+			}
+		});
+
+		try {
+			RandomFactory.resetDeterministic(0);
+			engine.runBattle(BenchmarkBattles.createMelee(engine, 10, 3), true);
+		} finally {
+			engine.close();
+		}
+	}
+}
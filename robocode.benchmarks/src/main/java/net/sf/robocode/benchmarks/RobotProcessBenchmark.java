@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.benchmarks;
+
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import robocode.control.BattleSpecification;
+import robocode.control.RandomFactory;
+import robocode.control.RobocodeEngine;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.RoundEndedEvent;
+
+import java.io.IOException;
+
+
+/**
+ * Measures the turns per second of battles, where the robots are hosted by threads in the battle process,
+ * or in their own processes with -DROBOTPROCESS=true.
+ * <p/>
+ * Each battle has several rounds, so the start of the robot processes is spread over many turns.
+ * Run from the root directory with:
+ * <pre>
+ * mvn -pl robocode.benchmarks -am verify -DskipTests -Dbenchmark -Djmh.args="RobotProcessBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RobotProcessBenchmark {
+
+	private static final int NUM_ROUNDS = 10;
+
+	@Param({ "thread", "process"})
+	public String hosting;
+
+	@Param({ "2", "10"})
+	public int robotCount;
+
+	// Microseconds the robot processes spin before they park, which has no effect on thread hosting
+	@Param({ "0", "50"})
+	public String processSpin;
+
+	private RobocodeEngine engine;
+	private BattleSpecification battleSpecification;
+	private TurnCounter turnCounter;
+	private long seed;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		BenchmarkBattles.initSystemProperties();
+		System.setProperty("ROBOTPROCESS", Boolean.toString(hosting.equals("process")));
+		System.setProperty("ROBOTPROCESSSPIN", processSpin);
+
+		engine = new RobocodeEngine(new BattleAdaptor() {
+			@Override
+			public void onRoundEnded(RoundEndedEvent event) {
+				if (turnCounter != null) {
+					turnCounter.turns += event.getTurns();
+				}
+			}
+		});
+		battleSpecification = BenchmarkBattles.createMelee(engine, robotCount, NUM_ROUNDS);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		engine.close();
+	}
+
+	@Benchmark
+	public void battle(TurnCounter counter) {
+		turnCounter = counter;
+
+		RandomFactory.resetDeterministic(seed++);
+		engine.runBattle(battleSpecification, true);
+	}
+}
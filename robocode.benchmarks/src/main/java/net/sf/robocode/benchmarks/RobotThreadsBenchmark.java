@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.benchmarks;
+
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import robocode.control.BattleSpecification;
+import robocode.control.RandomFactory;
+import robocode.control.RobocodeEngine;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.RoundEndedEvent;
+import robocode.control.events.RoundStartedEvent;
+import robocode.control.events.TurnEndedEvent;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+
+
+/**
+ * Measures the turns per second and the memory used by the process for large melee battles, where the
+ * robot threads have the default stack size of the JVM or a smaller stack size set with -DROBOTSTACKSIZE.
+ * <p/>
+ * The memory is the resident set size of the process, which is only available on Linux.
+ * Run from the root directory with:
+ * <pre>
+ * mvn -pl robocode.benchmarks -am verify -DskipTests -Dbenchmark -Djmh.args="RobotThreadsBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RobotThreadsBenchmark {
+
+	// Turn of each round where the memory is sampled, when all robot threads are running and have used their stacks
+	private static final int SAMPLED_TURN = 10;
+
+	@Param({ "50", "200"})
+	public int robotCount;
+
+	// Stack size of the robot threads in kilobytes, where 0 means the default stack size
+	@Param({ "0", "256"})
+	public String robotStackSize;
+
+	private RobocodeEngine engine;
+	private BattleSpecification battleSpecification;
+	private TurnCounter turnCounter;
+	private long seed;
+
+	// Written by the battle thread
+	private int roundTurns;
+	private volatile long residentKilobytes;
+
+	/**
+	 * The highest resident set size of the process during the battles in a measurement iteration.
+	 * JMH sums the counter over the iterations, so the size is read from the output of each iteration.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class MemoryCounter {
+		public long residentKilobytes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			residentKilobytes = 0;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		BenchmarkBattles.initSystemProperties();
+		System.setProperty("ROBOTSTACKSIZE", robotStackSize);
+
+		engine = new RobocodeEngine(new BattleAdaptor() {
+			@Override
+			public void onRoundStarted(RoundStartedEvent event) {
+				roundTurns = 0;
+			}
+
+			@Override
+			public void onTurnEnded(TurnEndedEvent event) {
+				if (++roundTurns == SAMPLED_TURN) {
+					residentKilobytes = Math.max(residentKilobytes, getResidentKilobytes());
+				}
+			}
+
+			@Override
+			public void onRoundEnded(RoundEndedEvent event) {
+				if (turnCounter != null) {
+					turnCounter.turns += event.getTurns();
+				}
+			}
+		});
+		battleSpecification = BenchmarkBattles.createMelee(engine, robotCount);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		engine.close();
+	}
+
+	@Benchmark
+	public void melee(TurnCounter counter, MemoryCounter memory) {
+		turnCounter = counter;
+
+		RandomFactory.resetDeterministic(seed++);
+
+		// The memory is sampled by the battle thread during each round, while the robot threads are running
+		residentKilobytes = 0;
+		engine.runBattle(battleSpecification, true);
+		memory.residentKilobytes = Math.max(memory.residentKilobytes, residentKilobytes);
+	}
+
+	private static long getResidentKilobytes() {
+		BufferedReader reader = null;
+
+		try {
+			reader = new BufferedReader(new FileReader("/proc/self/status"));
+
+			String line;
+
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("VmRSS:")) {
+					return Long.parseLong(line.replaceAll("[^0-9]", ""));
+				}
+			}
+			return -1;
+		} catch (IOException e) {
+			return -1;
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (IOException ignored) {}
+			}
+		}
+	}
+}
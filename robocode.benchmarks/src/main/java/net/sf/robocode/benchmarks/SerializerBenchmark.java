@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.benchmarks;
+
+
+import net.sf.robocode.peer.BulletCommand;
+import net.sf.robocode.peer.BulletStatus;
+import net.sf.robocode.peer.DebugProperty;
+import net.sf.robocode.peer.ExecCommands;
+import net.sf.robocode.peer.ExecResults;
+import net.sf.robocode.peer.TeamMessage;
+import net.sf.robocode.security.HiddenAccess;
+import net.sf.robocode.serialization.RbSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import robocode.Bullet;
+import robocode.Event;
+import robocode.HitByBulletEvent;
+import robocode.RobotStatus;
+import robocode.ScannedRobotEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the time of serializing and deserializing the objects exchanged between the battle and a robot in
+ * each turn, i.e. the commands of the robot, the results of the turn, and a single event.
+ * <p/>
+ * The results have the events of a turn in a 10 robot melee battle. Add "-prof gc" to the JMH arguments to
+ * see the garbage created by each way of serializing. Run from the root directory with:
+ * <pre>
+ * mvn -pl robocode.benchmarks -am verify -DskipTests -Dbenchmark -Djmh.args="SerializerBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializerBenchmark {
+
+	@Param({ "ExecCommands", "ExecResults", "ScannedRobotEvent"})
+	public String payload;
+
+	private RbSerializer serializer;
+	private byte type;
+	private Object object;
+
+	private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+	private final ByteArrayOutputStream stream = new ByteArrayOutputStream(64 * 1024);
+	private ByteBuffer serialized;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		BenchmarkBattles.initSystemProperties();
+
+		// Loads the classes of the modules with the system class loader like this benchmark
+		System.setProperty("NOSECURITY", "true");
+		HiddenAccess.initContainer();
+
+		serializer = new RbSerializer();
+
+		if (payload.equals("ExecCommands")) {
+			type = RbSerializer.ExecCommands_TYPE;
+			object = createCommands();
+		} else if (payload.equals("ExecResults")) {
+			type = RbSerializer.ExecResults_TYPE;
+			object = createResults();
+		} else {
+			type = RbSerializer.ScannedRobotEvent_TYPE;
+			object = new ScannedRobotEvent("sample.SpinBot (2)", 87.5, 1.2, 345.6, 2.3, -8);
+		}
+		serialized = ByteBuffer.allocate(64 * 1024);
+		serializer.serializeToBuffer(serialized, type, object);
+		serialized.flip();
+	}
+
+	@Benchmark
+	public ByteBuffer serializeWithSizeOf() throws IOException {
+		buffer.clear();
+		return serializer.serializeToBuffer(buffer, type, object);
+	}
+
+	@Benchmark
+	public ByteBuffer serializeStreaming() {
+		buffer.clear();
+		return serializer.serializeStreaming(buffer, type, object);
+	}
+
+	@Benchmark
+	public ByteBuffer serializeToReusedBuffer() {
+		return serializer.serializeToReusedBuffer(type, object);
+	}
+
+	@Benchmark
+	public int serializeToStream() throws IOException {
+		stream.reset();
+		serializer.serialize(stream, type, object);
+		return stream.size();
+	}
+
+	@Benchmark
+	public Object deserialize() throws IOException {
+		serialized.position(0);
+		return serializer.deserialize(serialized);
+	}
+
+	private static ExecCommands createCommands() {
+		final ExecCommands commands = new ExecCommands();
+
+		commands.setBodyTurnRemaining(0.25);
+		commands.setGunTurnRemaining(-0.1);
+		commands.setRadarTurnRemaining(Double.POSITIVE_INFINITY);
+		commands.setDistanceRemaining(100);
+		commands.getBullets().add(new BulletCommand(1.9, true, 0.75, 17));
+		commands.getTeamMessages().add(new TeamMessage("sampleteam.MyFirstLeader (1)", null, new byte[64]));
+		commands.getDebugProperties().add(new DebugProperty("target", "sample.SpinBot (2)"));
+		return commands;
+	}
+
+	private static ExecResults createResults() {
+		final RobotStatus status = HiddenAccess.createStatus(87.5, 400, 300, 1.2, 1.1, 5.4, 8, 0.25, 0, -0.1, 100, 0.4,
+				9, 2, 10, 1234);
+		final List<Event> events = new ArrayList<Event>();
+		final List<BulletStatus> bulletUpdates = new ArrayList<BulletStatus>();
+
+		for (int i = 0; i < 9; i++) {
+			events.add(new ScannedRobotEvent("sample.SpinBot (" + i + ")", 80 + i, 0.1 * i, 100 + 10 * i, 0.2 * i, 8));
+		}
+		events.add(
+				new HitByBulletEvent(0.5, new Bullet(2.1, 410, 290, 1.5, "sample.Tracker (3)", "sample.Crazy (1)", false, 7)));
+
+		for (int i = 0; i < 3; i++) {
+			bulletUpdates.add(new BulletStatus(i, 100 + i, 200 + i, null, true));
+		}
+		return new ExecResults(createCommands(), status, events, new ArrayList<TeamMessage>(), bulletUpdates, false,
+				false, true);
+	}
+}
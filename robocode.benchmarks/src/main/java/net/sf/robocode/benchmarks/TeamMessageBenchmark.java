@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.benchmarks;
+
+
+import net.sf.robocode.host.serialization.RobocodeObjectInputStream;
+import net.sf.robocode.host.serialization.TeamMessageCodec;
+import net.sf.robocode.security.HiddenAccess;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import robocode.ScannedRobotEvent;
+
+import java.awt.Point;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures the time of sending a team message to a teammate, i.e. encoding it in the sender and
+ * decoding it in the recipient, with the compact encoding and with Java serialization as it was used before.
+ * Run from the root directory with:
+ * <pre>
+ * mvn -pl robocode.benchmarks -am verify -DskipTests -Dbenchmark -Djmh.args="TeamMessageBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TeamMessageBenchmark {
+
+	@Param({ "String", "double[]", "ScannedRobotEvent", "Point"})
+	public String message;
+
+	private Serializable payload;
+	private TeamMessageCodec codec;
+	private final ByteArrayOutputStream byteStreamWriter = new ByteArrayOutputStream(32768);
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		BenchmarkBattles.initSystemProperties();
+
+		// Loads the classes of the modules with the system class loader like this benchmark
+		System.setProperty("NOSECURITY", "true");
+		HiddenAccess.initContainer();
+
+		codec = new TeamMessageCodec(32768);
+
+		if (message.equals("String")) {
+			payload = "sample.SpinBot (2)";
+		} else if (message.equals("double[]")) {
+			payload = new double[] { 412.5, 300.25, 1.5, -8};
+		} else if (message.equals("ScannedRobotEvent")) {
+			payload = new ScannedRobotEvent("sample.SpinBot (2)", 87.5, 1.2, 345.6, 2.3, -8);
+		} else {
+			payload = new Point(412, 300);
+		}
+	}
+
+	@Benchmark
+	public Object codec() throws Exception {
+		return codec.decode(codec.encode(payload), getClass().getClassLoader());
+	}
+
+	@Benchmark
+	public Object javaSerialization() throws Exception {
+		byteStreamWriter.reset();
+		ObjectOutputStream objectStreamWriter = new ObjectOutputStream(byteStreamWriter);
+
+		objectStreamWriter.writeObject(payload);
+		objectStreamWriter.flush();
+
+		final byte[] bytes = byteStreamWriter.toByteArray();
+		RobocodeObjectInputStream objectStreamReader = new RobocodeObjectInputStream(new ByteArrayInputStream(bytes),
+				getClass().getClassLoader());
+
+		try {
+			return objectStreamReader.readObject();
+		} finally {
+			objectStreamReader.close();
+		}
+	}
+}
@@ -58,6 +58,8 @@ public interface IBattleManager extends IBattleManagerBase {
 
 	void prevTurn();
 
+	void seekTurn(int turn);
+
 	void pauseBattle();
 
 	void resumeBattle();
@@ -29,17 +29,80 @@ public class BattleEventDispatcher implements IBattleListener {
 	// then ConcurentModificationExceptions will occur from time to time.
 	private final List<IBattleListener> listeners = new CopyOnWriteArrayList<IBattleListener>();
 
+	// The parts of the turn snapshots used by the current listeners, updated when listeners are added or removed
+	private volatile TurnSnapshotUsage turnSnapshotUsage = TurnSnapshotUsage.NONE;
+
+	/**
+	 * The parts of the turn snapshots in TurnEndedEvents that are used by the listeners.
+	 *
+	 * @since 1.8.3.0
+	 */
+	public enum TurnSnapshotUsage {
+		/** No listener handles TurnEndedEvents, so these events need not be sent */
+		NONE,
+		/** The listeners only use the turn, round and TPS of the turn snapshots */
+		SUMMARY,
+		/** The listeners use the robots and bullets of the turn snapshots */
+		FULL
+	}
+
 	public BattleEventDispatcher() {}
 
 	public void addListener(IBattleListener listener) {
 		assert (listener != null);
 
 		listeners.add(listener);
+		updateTurnSnapshotUsage();
 	}
 
 	public void removeListener(IBattleListener listener) {
 		assert (listener != null);
 		listeners.remove(listener);
+		updateTurnSnapshotUsage();
+	}
+
+	/**
+	 * Returns the parts of the turn snapshots used by the listeners of this dispatcher, so the battle
+	 * can avoid building snapshots that nobody reads.
+	 * <p/>
+	 * A listener extending {@link BattleAdaptor} without overriding onTurnEnded() uses nothing, and an
+	 * {@link ITurnSummaryListener} only uses the summary. All other listeners use full snapshots.
+	 *
+	 * @return the turn snapshot usage of the listeners.
+	 * @since 1.8.3.0
+	 */
+	public TurnSnapshotUsage getTurnSnapshotUsage() {
+		return turnSnapshotUsage;
+	}
+
+	private synchronized void updateTurnSnapshotUsage() {
+		TurnSnapshotUsage usage = TurnSnapshotUsage.NONE;
+
+		for (IBattleListener listener : listeners) {
+			final TurnSnapshotUsage listenerUsage = getTurnSnapshotUsage(listener);
+
+			if (listenerUsage.compareTo(usage) > 0) {
+				usage = listenerUsage;
+			}
+		}
+		turnSnapshotUsage = usage;
+	}
+
+	private static TurnSnapshotUsage getTurnSnapshotUsage(IBattleListener listener) {
+		if (listener instanceof ITurnSummaryListener) {
+			return TurnSnapshotUsage.SUMMARY;
+		}
+		if (listener instanceof BattleAdaptor) {
+			try {
+				if (listener.getClass().getMethod("onTurnEnded", TurnEndedEvent.class).getDeclaringClass()
+						== BattleAdaptor.class) {
+					return TurnSnapshotUsage.NONE;
+				}
+			} catch (NoSuchMethodException e) {
+				logError(e);
+			}
+		}
+		return TurnSnapshotUsage.FULL;
 	}
 
 	public void onBattleStarted(BattleStartedEvent event) {
@@ -0,0 +1,23 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.events;
+
+
+import robocode.control.events.IBattleListener;
+
+
+/**
+ * Marks a battle listener that only reads the turn, round and TPS of the turn snapshots it receives
+ * in onTurnEnded(). When all listeners of a battle are like this, the battle sends summary snapshots
+ * without any robots and bullets, which are much cheaper to build.
+ *
+ * @see BattleEventDispatcher#getTurnSnapshotUsage()
+ *
+ * @since 1.8.3.0
+ */
+public interface ITurnSummaryListener extends IBattleListener {}
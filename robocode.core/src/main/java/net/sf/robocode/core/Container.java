@@ -40,10 +40,15 @@ import java.net.MalformedURLException;
  * 1) Container.cache is containing singletons
  * 2) Container.factory will create always new instance of component 
  *
+ * Headless mode
+ * When the JVM runs with -Djava.awt.headless=true, the GUI, sound and robot editor modules are not loaded, and the AWT is
+ * not initialized. The AWT is then only loaded when it is used, e.g. when a robot paints.
+ *
  * @author Pavel Savara (original)
  */
 public final class Container extends ContainerBase {
 	public static final boolean isSecutityOn = !System.getProperty("NOSECURITY", "false").equals("true");
+	public static final boolean isHeadless = System.getProperty("java.awt.headless", "false").equals("true");
 	private static final String classPath = System.getProperties().getProperty("robocode.class.path", null);
 
 	public static final MutablePicoContainer cache;
@@ -51,6 +56,8 @@ public final class Container extends ContainerBase {
 	public static final ClassLoader systemLoader;
 	public static final ClassLoader engineLoader;
 	private static Set<String> known = new HashSet<String>();
+	private static final Set<String> guiModules = new HashSet<String>(
+			Arrays.asList("net.sf.robocode.ui", "net.sf.robocode.ui.editor", "net.sf.robocode.sound"));
 	public static final List<IModule> modules = new ArrayList<IModule>();
 
 	static {
@@ -63,7 +70,9 @@ public final class Container extends ContainerBase {
 		currentThread.setName("Application Thread");
 
 		// make sure we have AWT before we init security
-		Toolkit.getDefaultToolkit();
+		if (!isHeadless) {
+			Toolkit.getDefaultToolkit();
+		}
 
 		cache = new DefaultClassLoadingPicoContainer(engineLoader, new Caching(), null);
 		factory = new DefaultClassLoadingPicoContainer(engineLoader, new OptInCaching(), cache);
@@ -146,6 +155,9 @@ public final class Container extends ContainerBase {
 				// Logger.logMessage("already loaded " + module);
 				return false;
 			}
+			if (isHeadless && guiModules.contains(module)) {
+				return false;
+			}
 			Class<?> modClass = loader.loadClass(module + ".Module");
 
 			final Object moduleInstance = modClass.newInstance();
@@ -63,6 +63,7 @@ public final class RobocodeMain extends RobocodeMainBase {
 		String recordXmlFilename;
 		String replayFilename;
 		String resultsFilename;
+		String robotProcessFilename;
 		int tps;
 	}
 
@@ -114,6 +115,12 @@ public final class RobocodeMain extends RobocodeMainBase {
 		try {
 			hostManager.initSecurity();
 
+			// This process only hosts a robot for the battle in another process
+			if (setup.robotProcessFilename != null) {
+				hostManager.runRobotProcess(setup.robotProcessFilename);
+				System.exit(0);
+			}
+
 			// Set the Look and Feel (LAF)
 			if (windowManager != null && windowManager.isGUIEnabled()) {
 				windowManager.init();
@@ -159,6 +166,8 @@ public final class RobocodeMain extends RobocodeMainBase {
 				setup.exitOnComplete = true;
 				if (setup.replayFilename.toLowerCase().endsWith("xml.zip")) {
 					recordManager.loadRecord(setup.replayFilename, BattleRecordFormat.XML_ZIP);
+				} else if (setup.replayFilename.toLowerCase().endsWith(".idx.br")) {
+					recordManager.loadRecord(setup.replayFilename, BattleRecordFormat.BINARY_INDEXED);
 				} else {
 					recordManager.loadRecord(setup.replayFilename, BattleRecordFormat.BINARY_ZIP);
 				}
@@ -208,9 +217,12 @@ public final class RobocodeMain extends RobocodeMainBase {
 		// Initialize the system property so the AWT does not use headless mode meaning that the
 		// GUI (Awt and Swing) is enabled per default when running starting Robocode.
 		// It might be set to true later, if the -nodisplay option is set (in the setEnableGUI method).
+		// The container has been started in headless mode, if the -nodisplay option was set already.
 		// Read more about headless mode here:
 		// http://java.sun.com/developer/technicalArticles/J2SE/Desktop/headless/
-		System.setProperty("java.awt.headless", "false");
+		if (!Container.isHeadless) {
+			System.setProperty("java.awt.headless", "false");
+		}
 
 		for (int i = 0; i < args.length; i++) {
 			String currentArg = args[i];
@@ -232,6 +244,9 @@ public final class RobocodeMain extends RobocodeMainBase {
 			} else if (currentArg.equalsIgnoreCase("-results") && (i < args.length + 1)) {
 				setup.resultsFilename = args[i + 1];
 				i++;
+			} else if (currentArg.equalsIgnoreCase("-robotprocess") && (i < args.length + 1)) {
+				setup.robotProcessFilename = args[i + 1];
+				i++;
 			} else if (currentArg.equalsIgnoreCase("-tps") && (i < args.length + 1)) {
 				setup.tps = Integer.parseInt(args[i + 1]);
 				if (setup.tps < 1) {
@@ -277,7 +292,9 @@ public final class RobocodeMain extends RobocodeMainBase {
 		// from this point, a HeadlessException will be thrown if we access a AWT/Swing component.
 		// Read more about headless mode here:
 		// http://java.sun.com/developer/technicalArticles/J2SE/Desktop/headless/
-		Toolkit.getDefaultToolkit();
+		if (!Container.isHeadless) {
+			Toolkit.getDefaultToolkit();
+		}
 	}
 
 	private void changeDirectory(String robocodeDir) {
@@ -299,6 +316,7 @@ public final class RobocodeMain extends RobocodeMainBase {
 						+ "  -battle <battle file>      Run the battle specified in a battle file\n"
 						+ "  -results <results file>    Save results to the specified text file\n"
 						+ "  -record <bin record file>  Record the battle into the specified file as binary\n"
+						+ "                             (seekable indexed binary, if the file name ends with .idx.br)\n"
 						+ "  -recordXML <xml rec file>  Record the battle into the specified file as XML\n"
 						+ "  -replay <record file>      Replay the specified battle record\n"
 						+ "  -tps <tps>                 Set the TPS > 0 (Turns Per Second)\n"
@@ -322,7 +340,7 @@ public final class RobocodeMain extends RobocodeMainBase {
 
 	private void printResultsData(BattleCompletedEvent event) {
 		// Do not print out if no result file has been specified and the GUI is enabled
-		if ((setup.resultsFilename == null && (!setup.exitOnComplete || windowManager.isGUIEnabled()))) {
+		if ((setup.resultsFilename == null && (!setup.exitOnComplete || (windowManager != null && windowManager.isGUIEnabled())))) {
 			return;
 		}
 
@@ -371,8 +389,11 @@ public final class RobocodeMain extends RobocodeMainBase {
 				printResultsData(event);
 			}
 			if (setup.recordFilename != null) {
-				recordManager.saveRecord(setup.recordFilename, BattleRecordFormat.BINARY_ZIP,
-						new SerializableOptions(false));
+				final BattleRecordFormat format = setup.recordFilename.toLowerCase().endsWith(".idx.br")
+						? BattleRecordFormat.BINARY_INDEXED
+						: BattleRecordFormat.BINARY_ZIP;
+
+				recordManager.saveRecord(setup.recordFilename, format, new SerializableOptions(false));
 			}
 			if (setup.recordXmlFilename != null) {
 				recordManager.saveRecord(setup.recordXmlFilename, BattleRecordFormat.XML, new SerializableOptions(false));
@@ -35,6 +35,13 @@ public abstract class RobocodeMainBase implements Runnable {
 	// -----------
 
 	public static void robocodeMain(Object args) {
+		// Without a display, the container is started in headless mode, where the GUI modules are not loaded
+		for (String arg : (String[]) args) {
+			if (arg.equalsIgnoreCase("-nodisplay")) {
+				System.setProperty("java.awt.headless", "true");
+			}
+		}
+
 		// here we cross transition to EngineClassLoader classes using interface which is defined in system classLoader
 		RobocodeMainBase main = Container.getComponent(RobocodeMainBase.class);
 
@@ -15,4 +15,12 @@ public interface ICpuManager {
 	long getCpuConstant();
 
 	void calculateCpuConstant();
+
+	/**
+	 * Calibrates the CPU constant on a background thread, while battles might be running.
+	 * The new CPU constant is used by the battles started after the calibration has finished.
+	 *
+	 * @since 1.8.3.0
+	 */
+	void calculateCpuConstantInBackground();
 }
@@ -35,6 +35,13 @@ public interface IHostManager {
 
 	Object createRobotProxy(RobotSpecification robotSpecification, RobotStatics statics, IRobotPeer peer);
 
+	/**
+	 * Hosts the robot of another Robocode process, which runs the battle, until the battle is over.
+	 *
+	 * @param channelFilename the file shared with the battle process.
+	 */
+	void runRobotProcess(String channelFilename);
+
 	void cleanup();
 
 	String[] getReferencedClasses(IRobotItem robotItem);
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.io;
+
+
+/**
+ * A ring buffer with the console text of a robot, which takes a fixed amount of memory.
+ * <p/>
+ * The text is appended by one thread and read by another thread without locking, and the thread appending
+ * the text never waits for the reader. When the reader falls behind, so the buffer has no room for the
+ * appended text, the text is dropped, and a line telling that text has been dropped is appended when there
+ * is room again. The characters are allocated when the first text is appended.
+ */
+public final class ConsoleBuffer {
+
+	static final String DROPPED_TEXT_MSG = "SYSTEM: Text has been dropped, as the console could not keep up\n";
+
+	private final int capacity;
+	private final int mask;
+
+	private char[] chars;
+
+	// Number of characters ever appended, which is only changed by the writer after the characters are written
+	private volatile long written;
+
+	// Number of characters ever read, which is only changed by the reader after the characters are read
+	private volatile long read;
+
+	// Used by the writer thread only
+	private boolean isDropping;
+
+	/**
+	 * Creates a new buffer.
+	 *
+	 * @param capacity the number of characters the buffer can hold, which is rounded up to a power of two.
+	 */
+	public ConsoleBuffer(int capacity) {
+		this.capacity = Integer.highestOneBit(Math.max(capacity, DROPPED_TEXT_MSG.length()) * 2 - 1);
+		mask = this.capacity - 1;
+	}
+
+	/**
+	 * Appends text, or drops it if the buffer is full. Must only be called by the writer thread.
+	 *
+	 * @param text the text.
+	 */
+	public void append(String text) {
+		final int length = text.length();
+
+		if (length == 0) {
+			return;
+		}
+		if (chars == null) {
+			chars = new char[capacity];
+		}
+		long position = written;
+		final long free = capacity - (position - read);
+
+		if (length + (isDropping ? DROPPED_TEXT_MSG.length() : 0) > free) {
+			isDropping = true;
+			return;
+		}
+		if (isDropping) {
+			position = put(DROPPED_TEXT_MSG, position);
+			isDropping = false;
+		}
+		written = put(text, position);
+	}
+
+	/**
+	 * Reads the text appended since the last time. Must only be called by the reader thread.
+	 *
+	 * @return the text, or null if no text has been appended.
+	 */
+	public String read() {
+		final long end = written;
+		final long start = read;
+
+		if (start == end) {
+			return null;
+		}
+		final int count = (int) (end - start);
+		final int from = (int) (start & mask);
+		final String text;
+
+		if (from + count <= capacity) {
+			text = new String(chars, from, count);
+		} else {
+			final int first = capacity - from;
+
+			text = new StringBuilder(count).append(chars, from, first).append(chars, 0, count - first).toString();
+		}
+		read = end;
+		return text;
+	}
+
+	/**
+	 * Returns the number of characters the buffer can hold.
+	 *
+	 * @return the number of characters.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	// Copies text into the characters from a position, which can wrap around the end
+	private long put(String text, long position) {
+		final int length = text.length();
+		final int start = (int) (position & mask);
+		final int first = Math.min(length, capacity - start);
+
+		text.getChars(0, first, chars, start);
+		text.getChars(first, length, chars, 0);
+		return position + length;
+	}
+}
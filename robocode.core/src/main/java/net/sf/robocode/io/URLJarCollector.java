@@ -35,6 +35,7 @@ public class URLJarCollector {
 	static Field jarFileURL;
 	static final boolean sunJVM;
 	static boolean enabled;
+	static int suspendCount;
 	static Set<URL> urlsToClean = new HashSet<URL>();
 
 	static {
@@ -94,10 +95,24 @@ public class URLJarCollector {
 		URLJarCollector.enabled = enabled;
 	}
 
+	/**
+	 * Postpones the closing of jar files until {@link #resumeGc()} has been called the same number of times.
+	 * Used while battles are running, as several battles can run at the same time.
+	 */
+	public static synchronized void suspendGc() {
+		suspendCount++;
+	}
+
+	public static synchronized void resumeGc() {
+		if (suspendCount > 0 && --suspendCount == 0) {
+			enabled = true;
+		}
+	}
+
 	public static synchronized void gc() {
 		if (sunJVM) {
 			// Close all JarURLConnections if garbage collection is enabled
-			if (enabled) {
+			if (enabled && suspendCount == 0) {
 				synchronized (urlsToClean) {
 					for (URL url : urlsToClean) {
 						closeJarURLConnection(url);
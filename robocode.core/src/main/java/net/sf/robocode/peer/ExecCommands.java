@@ -8,6 +8,7 @@
 package net.sf.robocode.peer;
 
 
+import net.sf.robocode.robotpaint.PaintBuffer;
 import net.sf.robocode.serialization.ISerializableHelper;
 import net.sf.robocode.serialization.RbSerializer;
 import robocode.Rules;
@@ -64,6 +65,76 @@ public final class ExecCommands implements Serializable {
 	}
 
 	public ExecCommands(ExecCommands origin, boolean fromRobot) {
+		copyState(origin);
+		if (fromRobot) {
+			debugProperties = origin.debugProperties; 
+			bullets = origin.bullets;
+			scan = origin.scan;
+			moved = origin.moved;
+			graphicsCalls = origin.graphicsCalls;
+			outputText = origin.outputText;
+			teamMessages = origin.teamMessages;
+			isTryingToPaint = origin.isTryingToPaint; 
+		}
+	}
+
+	/**
+	 * Takes over the commands of a robot for the battle, like {@link #ExecCommands(ExecCommands, boolean)} with
+	 * fromRobot set to true, but without creating new objects. The lists of bullets, team messages and debug
+	 * properties are swapped with the lists of the origin, which are cleared, so the origin can be reused by the robot.
+	 * The graphics calls are moved from the origin to these commands.
+	 *
+	 * @param origin the commands of the robot.
+	 */
+	public void takeFromRobot(ExecCommands origin) {
+		copyState(origin);
+
+		final List<DebugProperty> oldDebugProperties = debugProperties;
+		final List<BulletCommand> oldBullets = bullets;
+		final List<TeamMessage> oldTeamMessages = teamMessages;
+
+		debugProperties = origin.debugProperties;
+		bullets = origin.bullets;
+		teamMessages = origin.teamMessages;
+		origin.debugProperties = oldDebugProperties;
+		origin.bullets = oldBullets;
+		origin.teamMessages = oldTeamMessages;
+		oldDebugProperties.clear();
+		oldBullets.clear();
+		oldTeamMessages.clear();
+
+		scan = origin.scan;
+		moved = origin.moved;
+		graphicsCalls = origin.graphicsCalls;
+		origin.graphicsCalls = null;
+		outputText = origin.outputText;
+		isTryingToPaint = origin.isTryingToPaint;
+		isIORobot = false;
+	}
+
+	/**
+	 * Copies the commands of the battle for the next turn of a robot, like {@link #ExecCommands(ExecCommands, boolean)}
+	 * with fromRobot set to false, but without creating new objects. The bullets, team messages, debug properties,
+	 * graphics calls and output text of these commands are cleared.
+	 *
+	 * @param origin the commands of the battle.
+	 */
+	public void resetFromBattle(ExecCommands origin) {
+		copyState(origin);
+
+		debugProperties.clear();
+		bullets.clear();
+		teamMessages.clear();
+
+		scan = false;
+		moved = false;
+		graphicsCalls = null;
+		outputText = null;
+		isTryingToPaint = false;
+		isIORobot = false;
+	}
+
+	private void copyState(ExecCommands origin) {
 		bodyTurnRemaining = origin.bodyTurnRemaining;
 		radarTurnRemaining = origin.radarTurnRemaining;
 		gunTurnRemaining = origin.gunTurnRemaining;
@@ -75,16 +146,6 @@ public final class ExecCommands implements Serializable {
 		maxTurnRate = origin.maxTurnRate;
 		maxVelocity = origin.maxVelocity;
 		copyColors(origin);
-		if (fromRobot) {
-			debugProperties = origin.debugProperties; 
-			bullets = origin.bullets;
-			scan = origin.scan;
-			moved = origin.moved;
-			graphicsCalls = origin.graphicsCalls;
-			outputText = origin.outputText;
-			teamMessages = origin.teamMessages;
-			isTryingToPaint = origin.isTryingToPaint; 
-		}
 	}
 
 	public void copyColors(ExecCommands origin) {
@@ -302,7 +363,11 @@ public final class ExecCommands implements Serializable {
 			size += 4 * RbSerializer.SIZEOF_BOOL;
 			size += serializer.sizeOf(obj.outputText);
 
-			size += serializer.sizeOf((byte[]) obj.graphicsCalls);
+			if (obj.graphicsCalls instanceof PaintBuffer) {
+				size += RbSerializer.SIZEOF_INT + ((PaintBuffer) obj.graphicsCalls).getLength();
+			} else {
+				size += serializer.sizeOf((byte[]) obj.graphicsCalls);
+			}
 
 			// bullets
 			size += obj.bullets.size() * serializer.sizeOf(RbSerializer.BulletCommand_TYPE, null);
@@ -352,7 +417,14 @@ public final class ExecCommands implements Serializable {
 
 			serializer.serialize(buffer, obj.outputText);
 
-			serializer.serialize(buffer, (byte[]) obj.graphicsCalls);
+			if (obj.graphicsCalls instanceof PaintBuffer) {
+				final PaintBuffer calls = (PaintBuffer) obj.graphicsCalls;
+
+				buffer.putInt(calls.getLength());
+				buffer.put(calls.getData(), 0, calls.getLength());
+			} else {
+				serializer.serialize(buffer, (byte[]) obj.graphicsCalls);
+			}
 
 			for (BulletCommand bullet : obj.bullets) {
 				serializer.serialize(buffer, RbSerializer.BulletCommand_TYPE, bullet);
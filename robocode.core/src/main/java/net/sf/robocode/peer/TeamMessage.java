@@ -21,6 +21,20 @@ import java.nio.ByteBuffer;
 public class TeamMessage implements Serializable {
 	private static final long serialVersionUID = 1L;
 
+	// The default number of message bytes a robot can send to its teammates in a turn
+	private static final int DEFAULT_QUOTA_PER_TURN = 256 * 1024;
+
+	/**
+	 * Returns the number of message bytes a robot can send to its teammates in a turn, which is set
+	 * with -DTEAMMESSAGEQUOTA=<bytes>.
+	 *
+	 * @return the number of bytes, or 0 if there is no limit.
+	 * @since 1.8.3.0
+	 */
+	public static int getQuotaPerTurn() {
+		return Math.max(0, Integer.getInteger("TEAMMESSAGEQUOTA", DEFAULT_QUOTA_PER_TURN));
+	}
+
 	public TeamMessage(String sender, String recipient, byte[] message) {
 		this.sender = sender;
 		this.recipient = recipient;
@@ -15,5 +15,13 @@ public enum BattleRecordFormat {
 	BINARY,
 	BINARY_ZIP,
 	XML,
-	XML_ZIP
+	XML_ZIP,
+
+	/**
+	 * Binary turns with an index of the turns in the footer, which allows replaying the record
+	 * directly from the file, and seeking to any turn.
+	 *
+	 * @since 1.8.3.0
+	 */
+	BINARY_INDEXED
 }
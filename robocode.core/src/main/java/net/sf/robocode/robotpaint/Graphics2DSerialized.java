@@ -141,6 +141,15 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 	// Byte buffer that works as a stack of method calls to this proxy
 	private ByteBuffer calls;
 
+	// Paint buffer the method calls are written into, when painting is enabled, and which is handed over each turn
+	private PaintBuffer buffer;
+
+	// Pool of the paint buffers, which have been handed over and released again
+	private PaintBuffer.Pool pool;
+
+	// Expected number of bytes of the method calls in a turn, which follows the painting of the last turns
+	private int expectedSize = INITIAL_BUFFER_SIZE;
+
 	// Serializer for this proxy
 	private final RbSerializer serializer = new RbSerializer();
 
@@ -1326,8 +1335,12 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 
 	public void setPaintingEnabled(boolean enabled) {
 		if (enabled && !isPaintingEnabled) {
-			calls = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
-			calls.put(calls.order() == ByteOrder.BIG_ENDIAN ? (byte) 1 : (byte) 0);
+			if (buffer == null) {
+				takeBuffer();
+			} else {
+				calls = buffer.startWriting();
+				calls.put(calls.order() == ByteOrder.BIG_ENDIAN ? (byte) 1 : (byte) 0);
+			}
 		}
 		isPaintingEnabled = enabled;
 	}
@@ -1367,49 +1380,75 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 	}
 
 	public void processTo(Graphics2D g, Object graphicsCalls) {
-		calls.clear();
+		final ByteBuffer queuedCalls = calls;
 
-		calls.mark(); // Mark for rollback
+		// The calls are read where they are, instead of being copied into the buffer of this proxy
+		if (graphicsCalls instanceof PaintBuffer) {
+			final PaintBuffer paintBuffer = (PaintBuffer) graphicsCalls;
+
+			calls = ByteBuffer.wrap(paintBuffer.getData(), 0, paintBuffer.getLength());
+		} else {
+			calls = ByteBuffer.wrap((byte[]) graphicsCalls);
+		}
 		try {
-			calls.put((byte[]) graphicsCalls);
-		} catch (BufferOverflowException e) {
-			calls.reset(); // Rollback buffer
-			if (reallocBuffer()) {
-				processTo(g, graphicsCalls);
-				return; // must exit here
+			if (calls.remaining() == 0) {
+				return;
 			}
-			calls.clear();
-		}
-
-		calls.flip();
-		calls.order(calls.get() == 1 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
-
-		while (calls.remaining() > 0) {
-			try {
-				processQueuedCall(g);
-			} catch (Exception e) {
-				e.printStackTrace();
-				// FOR-DEBUG } catch (Error e) {
-				// FOR-DEBUG 	calls.position(lastPos - 4);
+			calls.order(calls.get() == 1 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+
+			while (calls.remaining() > 0) {
+				try {
+					processQueuedCall(g);
+				} catch (Exception e) {
+					e.printStackTrace();
+					// FOR-DEBUG } catch (Error e) {
+					// FOR-DEBUG 	calls.position(lastPos - 4);
+				}
 			}
+		} finally {
+			calls = queuedCalls;
 		}
 	}
 
-	public byte[] readoutQueuedCalls() {
-		if (calls == null || calls.position() == 0) {
+	/**
+	 * Hands over the method calls queued since the last time, without copying them.
+	 *
+	 * @return a {@link PaintBuffer} with the queued calls and one reference, which the receiver must release,
+	 *         or {@code null} if nothing has been painted.
+	 */
+	public PaintBuffer readoutQueuedCalls() {
+		// Only the byte order has been written, when nothing has been painted
+		if (buffer == null || calls.position() <= 1) {
 			return null;
 		}
-		byte[] res = new byte[calls.position()];
+		final PaintBuffer res = buffer;
 
-		calls.flip();
-		calls.get(res);
+		res.endWriting();
 
-		calls.clear();
-		calls.put(calls.order() == ByteOrder.BIG_ENDIAN ? (byte) 1 : (byte) 0);
+		// The expected size follows a robot that paints more at once, and slowly one that paints less again
+		expectedSize = Math.max(res.getLength(), expectedSize - expectedSize / 16);
+
+		takeBuffer();
 
 		return res;
 	}
 
+	// Takes a buffer for the method calls of the next turn, with room for the expected size
+	private void takeBuffer() {
+		if (pool == null) {
+			pool = new PaintBuffer.Pool();
+		}
+		int capacity = Math.max(INITIAL_BUFFER_SIZE, expectedSize + expectedSize / 4);
+
+		if (!isDebugging) {
+			capacity = Math.min(capacity, MAX_BUFFER_SIZE);
+		}
+		buffer = pool.take(capacity);
+
+		calls = buffer.startWriting();
+		calls.put(calls.order() == ByteOrder.BIG_ENDIAN ? (byte) 1 : (byte) 0);
+	}
+
 	private void processQueuedCall(Graphics2D g) {
 		Method m = readMethod();
 
@@ -1879,46 +1918,27 @@ public class Graphics2DSerialized extends Graphics2D implements IGraphicsProxy {
 	}
 
 	/**
-	 * Reallocates the calls buffer by replacing it with a new one with doubled capacity
-	 * and copying the old one.
+	 * Reallocates the calls buffer by replacing it with a new one with doubled capacity, but not more
+	 * than the max. capacity, and copying the old one.
 	 *
 	 * @return {@code true} if the buffer was reallocated;
 	 *         {@code false} if the max. capacity has been reached meaning that the reallocation
 	 *         was not performed. 
 	 */
 	private boolean reallocBuffer() {
-		int bufferSize;
-
-		if (calls == null) {
-			// No buffer -> Use initial buffer size
-			bufferSize = INITIAL_BUFFER_SIZE;
-		} else {
-			// Otherwise, double up capacity
-			bufferSize = 2 * calls.capacity();
-		}
+		int bufferSize = 2 * calls.capacity();
 
 		// Check if the max. buffer size has been reached
-		if (!isDebugging && bufferSize > MAX_BUFFER_SIZE) {			
-			return false; // not reallocated!
+		if (!isDebugging) {
+			if (calls.capacity() >= MAX_BUFFER_SIZE) {
+				return false; // not reallocated!
+			}
+			bufferSize = Math.min(bufferSize, MAX_BUFFER_SIZE);
 		}
 
-		// Allocate new buffer
-		ByteBuffer newBuffer = ByteBuffer.allocate(bufferSize);
-
-		if (calls != null) {
-			// Copy all bytes contained in the current buffer to the new buffer
-
-			byte[] copiedBytes = new byte[calls.position()];
-
-			calls.clear();
-			calls.get(copiedBytes);
-
-			newBuffer.put(copiedBytes);
-		}
+		// Switch to the new buffer, which contains all bytes of the current buffer
+		calls = buffer.grow(bufferSize);
 
-		// Switch to the new buffer
-		calls = newBuffer;
-		
 		return true; // buffer was reallocated
 	}
 
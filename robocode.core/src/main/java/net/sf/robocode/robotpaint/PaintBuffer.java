@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.robotpaint;
+
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * The queued paint calls of a robot for a turn, which are handed from the robot to the battle and the
+ * renderers without being copied.
+ * <p/>
+ * A paint buffer is reference counted. It is handed over with one reference, which is owned by the commands
+ * of the robot, and is released by the battle when it is finished with the commands. Everyone else, who keeps
+ * the buffer after the turn has ended, e.g. a view or a recorder holding on to the snapshot of the turn, must
+ * {@link #retain()} it and {@link #release()} it again afterwards. When the last reference is released, the
+ * buffer goes back to the pool of the robot, which reuses it for the paint calls of a later turn.
+ * <p/>
+ * A buffer is serialized as a byte array with its paint calls.
+ */
+public final class PaintBuffer implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final transient Pool pool;
+	private final transient AtomicInteger references = new AtomicInteger();
+
+	private transient byte[] data;
+	private transient int length;
+
+	// Buffer the robot writes the paint calls through, which wraps the data
+	private transient ByteBuffer calls;
+
+	private PaintBuffer(Pool pool, int capacity) {
+		this.pool = pool;
+		allocate(capacity);
+	}
+
+	/**
+	 * Returns the bytes of the paint calls, which are the first {@link #getLength()} bytes.
+	 * The bytes must not be changed.
+	 *
+	 * @return the bytes.
+	 */
+	public byte[] getData() {
+		return data;
+	}
+
+	/**
+	 * Returns the number of bytes of the paint calls.
+	 *
+	 * @return the number of bytes.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns a copy of the bytes of the paint calls.
+	 *
+	 * @return new bytes.
+	 */
+	public byte[] toByteArray() {
+		return Arrays.copyOf(data, length);
+	}
+
+	/**
+	 * Adds a reference to this buffer, so it is not reused before the reference is released.
+	 *
+	 * @throws IllegalStateException if the buffer has already been given back to the pool.
+	 */
+	public void retain() {
+		if (references.getAndIncrement() <= 0) {
+			references.decrementAndGet();
+			throw new IllegalStateException("The paint buffer has been released");
+		}
+	}
+
+	/**
+	 * Releases a reference to this buffer. The buffer goes back to the pool, when the last reference is released.
+	 *
+	 * @throws IllegalStateException if the buffer has already been given back to the pool.
+	 */
+	public void release() {
+		final int count = references.decrementAndGet();
+
+		if (count == 0) {
+			pool.put(this);
+		} else if (count < 0) {
+			references.incrementAndGet();
+			throw new IllegalStateException("The paint buffer has been released");
+		}
+	}
+
+	/**
+	 * Adds a reference to queued graphics calls, if they are held by a paint buffer.
+	 *
+	 * @param graphicsCalls the graphics calls, which are a paint buffer, a byte array, or null.
+	 */
+	public static void retainCalls(Object graphicsCalls) {
+		if (graphicsCalls instanceof PaintBuffer) {
+			((PaintBuffer) graphicsCalls).retain();
+		}
+	}
+
+	/**
+	 * Releases a reference to queued graphics calls, if they are held by a paint buffer.
+	 *
+	 * @param graphicsCalls the graphics calls, which are a paint buffer, a byte array, or null.
+	 */
+	public static void releaseCalls(Object graphicsCalls) {
+		if (graphicsCalls instanceof PaintBuffer) {
+			((PaintBuffer) graphicsCalls).release();
+		}
+	}
+
+	// Returns the buffer for writing paint calls from the start of the data
+	ByteBuffer startWriting() {
+		length = 0;
+		calls.clear();
+		return calls;
+	}
+
+	// Ends writing the paint calls, which are the bytes before the position of the writing buffer
+	void endWriting() {
+		length = calls.position();
+	}
+
+	// Moves the written bytes into bigger data, and returns the new buffer for writing the rest
+	ByteBuffer grow(int capacity) {
+		final int position = calls.position();
+
+		data = Arrays.copyOf(data, capacity);
+		calls = ByteBuffer.wrap(data);
+		calls.position(position);
+		return calls;
+	}
+
+	int getCapacity() {
+		return data.length;
+	}
+
+	int getReferenceCount() {
+		return references.get();
+	}
+
+	private void allocate(int capacity) {
+		data = new byte[capacity];
+		calls = ByteBuffer.wrap(data);
+	}
+
+	private Object writeReplace() {
+		return toByteArray();
+	}
+
+	/**
+	 * The pool of the paint buffers of a robot. The buffers are taken by the robot, and are put back by
+	 * whichever thread releases the last reference.
+	 */
+	static final class Pool {
+
+		// Buffers held by a view and a recorder, and the buffers of the last turns of the robot
+		private static final int MAX_POOLED = 4;
+
+		private final PaintBuffer[] buffers = new PaintBuffer[MAX_POOLED];
+		private int count;
+
+		/**
+		 * Takes a buffer with one reference for writing paint calls.
+		 *
+		 * @param capacity the number of bytes the buffer should have room for. A pooled buffer, which is smaller,
+		 *                 or much bigger, gets new data with this capacity.
+		 * @return the buffer.
+		 */
+		PaintBuffer take(int capacity) {
+			PaintBuffer buffer = null;
+
+			synchronized (this) {
+				if (count > 0) {
+					buffer = buffers[--count];
+					buffers[count] = null;
+				}
+			}
+			if (buffer == null) {
+				buffer = new PaintBuffer(this, capacity);
+			} else if (buffer.data.length < capacity || buffer.data.length > 4 * capacity) {
+				buffer.allocate(capacity);
+			}
+			buffer.references.set(1);
+			return buffer;
+		}
+
+		synchronized void put(PaintBuffer buffer) {
+			if (count < MAX_POOLED) {
+				buffers[count++] = buffer;
+			}
+		}
+
+		synchronized int size() {
+			return count;
+		}
+	}
+}
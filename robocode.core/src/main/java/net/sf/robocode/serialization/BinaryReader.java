@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.serialization;
+
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+
+/**
+ * Reads objects written by a {@link BinaryWriter} from a buffer.
+ *
+ * @since 1.8.3.0
+ */
+public final class BinaryReader {
+	private final List<String> sharedStrings;
+	private final ByteBuffer buffer;
+	private final int decimals;
+	private final double scale;
+
+	/**
+	 * Creates a reader for a writer with full precision.
+	 *
+	 * @param buffer        the buffer to read from, starting at its current position.
+	 * @param sharedStrings the shared strings of the writer.
+	 */
+	public BinaryReader(ByteBuffer buffer, List<String> sharedStrings) {
+		this(buffer, sharedStrings, BinaryWriter.FULL_PRECISION);
+	}
+
+	/**
+	 * Creates a reader.
+	 *
+	 * @param buffer        the buffer to read from, starting at its current position.
+	 * @param sharedStrings the shared strings of the writer.
+	 * @param decimals      the number of decimals of the writer.
+	 */
+	public BinaryReader(ByteBuffer buffer, List<String> sharedStrings, int decimals) {
+		this.buffer = buffer;
+		this.sharedStrings = sharedStrings;
+		this.decimals = decimals;
+		scale = Math.pow(10, decimals);
+	}
+
+	public byte readByte() {
+		return buffer.get();
+	}
+
+	public boolean readBoolean() {
+		return buffer.get() != 0;
+	}
+
+	public int readInt() {
+		return buffer.getInt();
+	}
+
+	public int readVarInt() {
+		int value = 0;
+		int shift = 0;
+		byte b;
+
+		do {
+			b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+
+	public long readLong() {
+		return buffer.getLong();
+	}
+
+	public double readDouble() {
+		return buffer.getDouble();
+	}
+
+	public double readDoubleDelta(double base) {
+		if (decimals == BinaryWriter.FULL_PRECISION) {
+			return buffer.getDouble();
+		}
+		final long encoded = readVarLong();
+		final long delta = (encoded >>> 1) ^ -(encoded & 1);
+
+		return (Math.round(base * scale) + delta) / scale;
+	}
+
+	private long readVarLong() {
+		long value = 0;
+		int shift = 0;
+		byte b;
+
+		do {
+			b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+
+	public byte[] readBytes() {
+		final int length = buffer.getInt();
+
+		if (length < 0) {
+			return null;
+		}
+		byte[] value = new byte[length];
+
+		buffer.get(value);
+		return value;
+	}
+
+	public String readString() {
+		final byte[] bytes = readBytes();
+
+		return bytes == null ? null : new String(bytes, BinaryWriter.UTF8);
+	}
+
+	public String readSharedString() {
+		final int index = buffer.getInt();
+
+		return index < 0 ? null : sharedStrings.get(index);
+	}
+}
@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.serialization;
+
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Writes objects in a compact binary form into a growing buffer, which is read back by a {@link BinaryReader}.
+ * <p/>
+ * Strings that are repeated in many objects, like robot names, can be written as shared strings,
+ * which are only written once into a string table, and referred to by their index in the table.
+ * The table is kept when the buffer is reset, so it is shared by all objects written by this writer.
+ * <p/>
+ * Doubles are written with full precision, unless the writer is created with a number of decimals,
+ * where the doubles are rounded to the decimals. The differences between rounded doubles are written
+ * as small integers.
+ *
+ * @since 1.8.3.0
+ */
+public final class BinaryWriter {
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * The number of decimals that means that doubles are written with full precision.
+	 */
+	public static final int FULL_PRECISION = -1;
+
+	private final List<String> sharedStrings = new ArrayList<String>();
+	private final Map<String, Integer> sharedStringIndexes = new HashMap<String, Integer>();
+
+	private final int decimals;
+	private final double scale;
+
+	private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+	/**
+	 * Creates a writer, which writes doubles with full precision.
+	 */
+	public BinaryWriter() {
+		this(FULL_PRECISION);
+	}
+
+	/**
+	 * Creates a writer.
+	 *
+	 * @param decimals the number of decimals doubles are rounded to, or {@link #FULL_PRECISION}.
+	 */
+	public BinaryWriter(int decimals) {
+		this.decimals = decimals;
+		scale = Math.pow(10, decimals);
+	}
+
+	/**
+	 * Returns the number of decimals doubles are rounded to.
+	 *
+	 * @return the number of decimals, or {@link #FULL_PRECISION}.
+	 */
+	public int getDecimals() {
+		return decimals;
+	}
+
+	/**
+	 * Empties the buffer, but keeps the shared strings.
+	 */
+	public void reset() {
+		buffer.clear();
+	}
+
+	/**
+	 * Returns the number of bytes written into the buffer.
+	 *
+	 * @return the number of bytes written into the buffer.
+	 */
+	public int size() {
+		return buffer.position();
+	}
+
+	/**
+	 * Writes the content of the buffer to an output stream.
+	 *
+	 * @param out the output stream.
+	 * @throws IOException if the content could not be written.
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		out.write(buffer.array(), 0, buffer.position());
+	}
+
+	/**
+	 * Returns the shared strings written so far, where the index of a string in the list is the index
+	 * written by {@link #writeSharedString(String)}.
+	 *
+	 * @return the shared strings.
+	 */
+	public List<String> getSharedStrings() {
+		return sharedStrings;
+	}
+
+	public void writeByte(int value) {
+		ensureCapacity(1);
+		buffer.put((byte) value);
+	}
+
+	public void writeBoolean(boolean value) {
+		writeByte(value ? 1 : 0);
+	}
+
+	public void writeInt(int value) {
+		ensureCapacity(4);
+		buffer.putInt(value);
+	}
+
+	/**
+	 * Writes an int in 1 to 5 bytes, where small non-negative values take the fewest bytes.
+	 *
+	 * @param value the value to write.
+	 */
+	public void writeVarInt(int value) {
+		ensureCapacity(5);
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	private void writeVarLong(long value) {
+		ensureCapacity(10);
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	public void writeLong(long value) {
+		ensureCapacity(8);
+		buffer.putLong(value);
+	}
+
+	public void writeDouble(double value) {
+		ensureCapacity(8);
+		buffer.putDouble(decimals == FULL_PRECISION ? value : Math.round(value * scale) / scale);
+	}
+
+	/**
+	 * Writes a double that is read back by {@link BinaryReader#readDoubleDelta(double)} with the same base.
+	 * Rounded doubles are written as the difference from the base, which takes few bytes when the double
+	 * is close to the base.
+	 *
+	 * @param value the value to write.
+	 * @param base  the value the reader already has.
+	 */
+	public void writeDoubleDelta(double value, double base) {
+		if (decimals == FULL_PRECISION) {
+			writeDouble(value);
+		} else {
+			final long delta = Math.round(value * scale) - Math.round(base * scale);
+
+			writeVarLong((delta << 1) ^ (delta >> 63));
+		}
+	}
+
+	public void writeBytes(byte[] value) {
+		if (value == null) {
+			writeInt(-1);
+		} else {
+			writeInt(value.length);
+			ensureCapacity(value.length);
+			buffer.put(value);
+		}
+	}
+
+	/**
+	 * Writes the first bytes of an array, which are read back as an array with these bytes.
+	 *
+	 * @param value the array.
+	 * @param length the number of bytes to write.
+	 */
+	public void writeBytes(byte[] value, int length) {
+		writeInt(length);
+		ensureCapacity(length);
+		buffer.put(value, 0, length);
+	}
+
+	public void writeString(String value) {
+		writeBytes(value == null ? null : value.getBytes(UTF8));
+	}
+
+	public void writeSharedString(String value) {
+		if (value == null) {
+			writeInt(-1);
+			return;
+		}
+		Integer index = sharedStringIndexes.get(value);
+
+		if (index == null) {
+			index = sharedStrings.size();
+			sharedStrings.add(value);
+			sharedStringIndexes.put(value, index);
+		}
+		writeInt(index);
+	}
+
+	private void ensureCapacity(int bytes) {
+		if (buffer.remaining() < bytes) {
+			ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+
+			buffer.flip();
+			newBuffer.put(buffer);
+			buffer = newBuffer;
+		}
+	}
+}
@@ -162,6 +162,25 @@ public interface ISettingsManager {
 
 	void setCpuConstant(long cpuConstant);
 
+	/**
+	 * Returns the CPU constant calibrated on a given host and JVM.
+	 *
+	 * @param key the key of the host and JVM.
+	 * @return the CPU constant in nanoseconds, or -1 if it has not been calibrated.
+	 * @since 1.8.3.0
+	 */
+	long getCpuConstant(String key);
+
+	/**
+	 * Sets the CPU constant calibrated on a given host and JVM, which also becomes the CPU constant
+	 * returned by {@link #getCpuConstant()}.
+	 *
+	 * @param key the key of the host and JVM.
+	 * @param cpuConstant the CPU constant in nanoseconds.
+	 * @since 1.8.3.0
+	 */
+	void setCpuConstant(String key, long cpuConstant);
+
 	Collection<String> getOptionsDevelopmentPaths();
 
 	void setOptionsDevelopmentPaths(Collection<String> paths);
@@ -190,12 +209,16 @@ public interface ISettingsManager {
 
 	boolean getOptionsCommonAutoRecordingXML();
 
+	boolean getOptionsCommonAutoRecordingIndexed();
+
 	void setOptionsCommonEnableReplayRecording(boolean enable);
 
 	void setOptionsCommonEnableAutoRecording(boolean enable);
 
 	void setOptionsCommonEnableAutoRecordingXML(boolean enable);
 
+	void setOptionsCommonEnableAutoRecordingIndexed(boolean enable);
+
 	void setOptionsCommonNotifyAboutNewBetaVersions(boolean enable);
 
 	boolean getOptionsCommonNotifyAboutNewBetaVersions();
@@ -275,6 +298,7 @@ public interface ISettingsManager {
 			OPTIONS_COMMON_ENABLE_REPLAY_RECORDING = "robocode.options.common.enableReplayRecording",
 			OPTIONS_COMMON_ENABLE_AUTO_RECORDING = "robocode.options.common.enableAutoRecording",
 			OPTIONS_COMMON_AUTO_RECORDING_XML = "robocode.options.common.autoRecordingXML",
+			OPTIONS_COMMON_AUTO_RECORDING_INDEXED = "robocode.options.common.autoRecordingIndexed",
 
 			OPTIONS_TEAM_SHOWTEAMROBOTS = "robocode.options.team.showTeamRobots",
 
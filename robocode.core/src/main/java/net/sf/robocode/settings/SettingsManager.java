@@ -97,6 +97,7 @@ public class SettingsManager implements ISettingsManager {
 			optionsCommonDontHideRankings = true,
 			optionsCommonEnableAutoRecording = false,
 			optionsCommonAutoRecordingXML = false,
+			optionsCommonAutoRecordingIndexed = false,
 			optionsCommonEnableReplayRecording = false;
 
 	// Team Options
@@ -537,6 +538,19 @@ public class SettingsManager implements ISettingsManager {
 		props.setProperty(CPU_CONSTANT, "" + cpuConstant);
 	}
 
+	public long getCpuConstant(String key) {
+		try {
+			return Long.parseLong(props.getProperty(CPU_CONSTANT + '.' + key, "-1"));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	public void setCpuConstant(String key, long cpuConstant) {
+		setCpuConstant(cpuConstant);
+		props.setProperty(CPU_CONSTANT + '.' + key, "" + cpuConstant);
+	}
+
 	public Collection<String> getOptionsDevelopmentPaths() {
 		return new HashSet<String>(optionsDevelopmentPaths);
 	}
@@ -608,6 +622,10 @@ public class SettingsManager implements ISettingsManager {
 		return optionsCommonAutoRecordingXML;
 	}
 
+	public boolean getOptionsCommonAutoRecordingIndexed() {
+		return optionsCommonAutoRecordingIndexed;
+	}
+
 	public void setOptionsCommonEnableAutoRecording(boolean enable) {
 		this.optionsCommonEnableAutoRecording = enable;
 		props.setProperty(OPTIONS_COMMON_ENABLE_AUTO_RECORDING, "" + enable);
@@ -618,6 +636,11 @@ public class SettingsManager implements ISettingsManager {
 		props.setProperty(OPTIONS_COMMON_AUTO_RECORDING_XML, "" + enable);
 	}
 
+	public void setOptionsCommonEnableAutoRecordingIndexed(boolean enable) {
+		this.optionsCommonAutoRecordingIndexed = enable;
+		props.setProperty(OPTIONS_COMMON_AUTO_RECORDING_INDEXED, "" + enable);
+	}
+
 	public void setOptionsCommonNotifyAboutNewBetaVersions(boolean enable) {
 		this.optionsCommonNotifyAboutNewBetaVersions = enable;
 		props.setProperty(OPTIONS_COMMON_NOTIFY_ABOUT_NEW_BETA_VERSIONS, "" + enable);
@@ -738,6 +761,8 @@ public class SettingsManager implements ISettingsManager {
 		optionsCommonEnableAutoRecording = Boolean.valueOf(
 				props.getProperty(OPTIONS_COMMON_ENABLE_AUTO_RECORDING, "false"));
 		optionsCommonAutoRecordingXML = Boolean.valueOf(props.getProperty(OPTIONS_COMMON_AUTO_RECORDING_XML, "false"));
+		optionsCommonAutoRecordingIndexed = Boolean.valueOf(
+				props.getProperty(OPTIONS_COMMON_AUTO_RECORDING_INDEXED, "false"));
 
 		optionsTeamShowTeamRobots = Boolean.valueOf(props.getProperty(OPTIONS_TEAM_SHOWTEAMROBOTS, "false"));
 
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.battle.events;
+
+
+import net.sf.robocode.battle.events.BattleEventDispatcher.TurnSnapshotUsage;
+import org.junit.Assert;
+import org.junit.Test;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.BattleCompletedEvent;
+import robocode.control.events.TurnEndedEvent;
+
+
+public class BattleEventDispatcherTest {
+
+	@Test
+	public void noListeners() {
+		Assert.assertEquals(TurnSnapshotUsage.NONE, new BattleEventDispatcher().getTurnSnapshotUsage());
+	}
+
+	@Test
+	public void adaptorWithoutTurnEnded() {
+		final BattleEventDispatcher dispatcher = new BattleEventDispatcher();
+
+		dispatcher.addListener(new BattleAdaptor() {
+			@Override
+			public void onBattleCompleted(BattleCompletedEvent event) {}
+		});
+		Assert.assertEquals(TurnSnapshotUsage.NONE, dispatcher.getTurnSnapshotUsage());
+	}
+
+	@Test
+	public void summaryListener() {
+		final BattleEventDispatcher dispatcher = new BattleEventDispatcher();
+
+		dispatcher.addListener(new SummaryListener());
+		Assert.assertEquals(TurnSnapshotUsage.SUMMARY, dispatcher.getTurnSnapshotUsage());
+	}
+
+	@Test
+	public void fullListenerWins() {
+		final BattleEventDispatcher dispatcher = new BattleEventDispatcher();
+		final BattleAdaptor fullListener = new BattleAdaptor() {
+			@Override
+			public void onTurnEnded(TurnEndedEvent event) {}
+		};
+
+		dispatcher.addListener(new SummaryListener());
+		dispatcher.addListener(fullListener);
+		Assert.assertEquals(TurnSnapshotUsage.FULL, dispatcher.getTurnSnapshotUsage());
+
+		dispatcher.removeListener(fullListener);
+		Assert.assertEquals(TurnSnapshotUsage.SUMMARY, dispatcher.getTurnSnapshotUsage());
+	}
+
+	@Test
+	public void nestedDispatcher() {
+		final BattleEventDispatcher dispatcher = new BattleEventDispatcher();
+
+		dispatcher.addListener(new BattleEventDispatcher());
+		Assert.assertEquals(TurnSnapshotUsage.FULL, dispatcher.getTurnSnapshotUsage());
+	}
+
+	private static class SummaryListener extends BattleAdaptor implements ITurnSummaryListener {
+		@Override
+		public void onTurnEnded(TurnEndedEvent event) {}
+	}
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.io;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class ConsoleBufferTest {
+
+	@Test
+	public void readsTextAppendedSinceLastRead() {
+		final ConsoleBuffer console = new ConsoleBuffer(100);
+
+		Assert.assertEquals(128, console.getCapacity());
+		Assert.assertNull(console.read());
+
+		console.append("Hello ");
+		console.append("");
+		console.append("world\n");
+		Assert.assertEquals("Hello world\n", console.read());
+		Assert.assertNull(console.read());
+
+		console.append("again\n");
+		Assert.assertEquals("again\n", console.read());
+	}
+
+	@Test
+	public void textWrapsAroundTheEnd() {
+		final ConsoleBuffer console = new ConsoleBuffer(128);
+
+		for (int i = 0; i < 100; i++) {
+			final String line = "Line " + i + " of the text\n";
+
+			console.append(line);
+			Assert.assertEquals(line, console.read());
+		}
+	}
+
+	@Test
+	public void textIsDroppedWhenNotRead() {
+		final ConsoleBuffer console = new ConsoleBuffer(128);
+		final String line = "0123456789012345678901234567890123456789\n";
+
+		console.append(line);
+		console.append(line);
+		console.append(line);
+		console.append(line);
+		console.append("dropped\n");
+
+		Assert.assertEquals(line + line + line, console.read());
+
+		console.append("kept\n");
+		Assert.assertEquals(ConsoleBuffer.DROPPED_TEXT_MSG + "kept\n", console.read());
+		Assert.assertNull(console.read());
+	}
+
+	@Test
+	public void readerGetsTextInOrder() throws InterruptedException {
+		final ConsoleBuffer console = new ConsoleBuffer(256);
+		final int lines = 100000;
+
+		final Thread writer = new Thread(new Runnable() {
+			public void run() {
+				for (int i = 0; i < lines; i++) {
+					console.append(i + "\n");
+				}
+			}
+		});
+
+		writer.start();
+
+		final StringBuilder text = new StringBuilder();
+
+		while (writer.isAlive()) {
+			append(text, console.read());
+		}
+		writer.join();
+		append(text, console.read());
+
+		// The last line is appended when the reader has caught up, so it is not dropped
+		console.append(lines + "\n");
+		append(text, console.read());
+
+		// The lines are in order, but some of them can have been dropped
+		int last = -1;
+
+		for (String line : text.toString().split("\n")) {
+			if (line.startsWith("SYSTEM:")) {
+				continue;
+			}
+			final int number = Integer.parseInt(line);
+
+			Assert.assertTrue(number > last);
+			last = number;
+		}
+		Assert.assertEquals(lines, last);
+	}
+
+	private static void append(StringBuilder text, String read) {
+		if (read != null) {
+			text.append(read);
+		}
+	}
+}
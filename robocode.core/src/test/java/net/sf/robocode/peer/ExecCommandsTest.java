@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.peer;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+
+public class ExecCommandsTest {
+
+	@Test
+	public void takeFromRobotSwapsLists() {
+		ExecCommands robot = createRobotCommands();
+		ExecCommands battle = new ExecCommands();
+		List<BulletCommand> robotBullets = robot.getBullets();
+		List<BulletCommand> battleBullets = battle.getBullets();
+
+		battleBullets.add(new BulletCommand(1, false, 0, 1));
+		battle.takeFromRobot(robot);
+
+		assertSameAsCopy(new ExecCommands(createRobotCommands(), true), battle);
+		Assert.assertSame(robotBullets, battle.getBullets());
+		Assert.assertSame(battleBullets, robot.getBullets());
+		Assert.assertTrue(robot.getBullets().isEmpty());
+		Assert.assertTrue(robot.getTeamMessages().isEmpty());
+		Assert.assertTrue(robot.getDebugProperties().isEmpty());
+		Assert.assertNull(robot.getGraphicsCalls());
+	}
+
+	@Test
+	public void resetFromBattleLikeCopy() {
+		ExecCommands battle = createRobotCommands();
+		ExecCommands robot = createRobotCommands();
+
+		battle.setDistanceRemaining(42);
+		robot.resetFromBattle(battle);
+
+		assertSameAsCopy(new ExecCommands(battle, false), robot);
+		Assert.assertEquals("", robot.getOutputText());
+	}
+
+	private static ExecCommands createRobotCommands() {
+		ExecCommands commands = new ExecCommands();
+
+		commands.setBodyTurnRemaining(1);
+		commands.setRadarTurnRemaining(2);
+		commands.setGunTurnRemaining(3);
+		commands.setDistanceRemaining(4);
+		commands.setAdjustGunForBodyTurn(true);
+		commands.setAdjustRadarForBodyTurnSet(true);
+		commands.setMaxVelocity(5);
+		commands.setMaxTurnRate(0.1);
+		commands.setBodyColor(0x123456);
+		commands.setScanColor(0x654321);
+		commands.setMoved(true);
+		commands.setScan(true);
+		commands.setTryingToPaint(true);
+		commands.setGraphicsCalls(new byte[] { 1, 2});
+		commands.setOutputText("text");
+		commands.setDebugProperty("key", "value");
+		commands.getBullets().add(new BulletCommand(3, true, 0.5, 7));
+		commands.getTeamMessages().add(new TeamMessage("a", "b", new byte[] { 3}));
+		return commands;
+	}
+
+	private static void assertSameAsCopy(ExecCommands expected, ExecCommands actual) {
+		Assert.assertEquals(expected.getBodyTurnRemaining(), actual.getBodyTurnRemaining(), 0);
+		Assert.assertEquals(expected.getRadarTurnRemaining(), actual.getRadarTurnRemaining(), 0);
+		Assert.assertEquals(expected.getGunTurnRemaining(), actual.getGunTurnRemaining(), 0);
+		Assert.assertEquals(expected.getDistanceRemaining(), actual.getDistanceRemaining(), 0);
+		Assert.assertEquals(expected.isAdjustGunForBodyTurn(), actual.isAdjustGunForBodyTurn());
+		Assert.assertEquals(expected.isAdjustRadarForGunTurn(), actual.isAdjustRadarForGunTurn());
+		Assert.assertEquals(expected.isAdjustRadarForBodyTurn(), actual.isAdjustRadarForBodyTurn());
+		Assert.assertEquals(expected.isAdjustRadarForBodyTurnSet(), actual.isAdjustRadarForBodyTurnSet());
+		Assert.assertEquals(expected.getMaxVelocity(), actual.getMaxVelocity(), 0);
+		Assert.assertEquals(expected.getMaxTurnRate(), actual.getMaxTurnRate(), 0);
+		Assert.assertEquals(expected.getBodyColor(), actual.getBodyColor());
+		Assert.assertEquals(expected.getGunColor(), actual.getGunColor());
+		Assert.assertEquals(expected.getRadarColor(), actual.getRadarColor());
+		Assert.assertEquals(expected.getScanColor(), actual.getScanColor());
+		Assert.assertEquals(expected.getBulletColor(), actual.getBulletColor());
+		Assert.assertEquals(expected.isMoved(), actual.isMoved());
+		Assert.assertEquals(expected.isScan(), actual.isScan());
+		Assert.assertEquals(expected.isIORobot(), actual.isIORobot());
+		Assert.assertEquals(expected.isTryingToPaint(), actual.isTryingToPaint());
+		Assert.assertArrayEquals((byte[]) expected.getGraphicsCalls(), (byte[]) actual.getGraphicsCalls());
+		Assert.assertEquals(expected.getOutputText(), actual.getOutputText());
+		Assert.assertEquals(expected.getBullets().size(), actual.getBullets().size());
+		Assert.assertEquals(expected.getTeamMessages().size(), actual.getTeamMessages().size());
+		Assert.assertEquals(expected.getDebugProperties().size(), actual.getDebugProperties().size());
+	}
+}
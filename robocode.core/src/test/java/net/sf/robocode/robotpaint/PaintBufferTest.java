@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.robotpaint;
+
+
+import net.sf.robocode.security.HiddenAccess;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+
+public class PaintBufferTest {
+
+	@BeforeClass
+	public static void init() {
+		// The serializer of the graphics proxy needs the container
+		System.setProperty("NOSECURITY", "true");
+		System.setProperty("WORKINGDIRECTORY", "target//test-classes");
+		System.setProperty("TESTING", "true");
+		HiddenAccess.initContainer();
+	}
+
+	@Test
+	public void nothingPaintedIsNotHandedOver() {
+		final Graphics2DSerialized robot = createRobotGraphics();
+
+		Assert.assertNull(robot.readoutQueuedCalls());
+
+		robot.setPaintingEnabled(false);
+		robot.fillRect(0, 0, 1, 1);
+		Assert.assertNull(robot.readoutQueuedCalls());
+	}
+
+	@Test
+	public void bufferIsReusedWhenReleased() {
+		final Graphics2DSerialized robot = createRobotGraphics();
+
+		final PaintBuffer first = paintTurn(robot);
+
+		Assert.assertEquals(1, first.getReferenceCount());
+
+		first.retain();
+		first.release();
+
+		// The second buffer was taken when the first was handed over, so the first is reused for the third turn
+		final PaintBuffer second = paintTurn(robot);
+
+		first.release();
+		Assert.assertNotSame(first, second);
+		Assert.assertNotSame(first, paintTurn(robot));
+		Assert.assertSame(first, paintTurn(robot));
+	}
+
+	@Test
+	public void retainedBufferIsNotReused() {
+		final Graphics2DSerialized robot = createRobotGraphics();
+		final PaintBuffer first = paintTurn(robot);
+
+		first.retain();
+		first.release();
+
+		for (int i = 0; i < 4; i++) {
+			final PaintBuffer next = paintTurn(robot);
+
+			Assert.assertNotSame(first, next);
+			next.release();
+		}
+		Assert.assertEquals(1, first.getReferenceCount());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void releasedBufferCannotBeRetained() {
+		final PaintBuffer buffer = paintTurn(createRobotGraphics());
+
+		buffer.release();
+		buffer.retain();
+	}
+
+	@Test
+	public void bufferAdaptsToPainting() {
+		final Graphics2DSerialized robot = createRobotGraphics();
+
+		for (int i = 0; i < 2000; i++) {
+			robot.drawLine(i, i, i + 1, i + 1);
+		}
+		final PaintBuffer heavy = robot.readoutQueuedCalls();
+
+		Assert.assertTrue(heavy.getLength() > 4 * 2048);
+
+		// The next buffer has room for the painting of the last turn without growing
+		robot.drawLine(0, 0, 1, 1);
+		final PaintBuffer next = robot.readoutQueuedCalls();
+
+		Assert.assertTrue(next.getCapacity() >= heavy.getLength());
+	}
+
+	@Test
+	public void processesBufferAndBytesAlike() {
+		final Graphics2DSerialized robot = createRobotGraphics();
+
+		robot.setColor(Color.RED);
+		robot.fillRect(2, 2, 4, 4);
+		final PaintBuffer calls = robot.readoutQueuedCalls();
+
+		final BufferedImage fromBuffer = render(calls);
+		final BufferedImage fromBytes = render(calls.toByteArray());
+
+		Assert.assertEquals(Color.RED.getRGB(), fromBuffer.getRGB(3, 3));
+		Assert.assertEquals(Color.RED.getRGB(), fromBytes.getRGB(3, 3));
+		Assert.assertEquals(0, fromBuffer.getRGB(8, 8));
+	}
+
+	private static Graphics2DSerialized createRobotGraphics() {
+		final Graphics2DSerialized robot = new Graphics2DSerialized();
+
+		robot.setPaintingEnabled(true);
+		return robot;
+	}
+
+	private static PaintBuffer paintTurn(Graphics2DSerialized robot) {
+		robot.fillRect(0, 0, 1, 1);
+		return robot.readoutQueuedCalls();
+	}
+
+	private static BufferedImage render(Object graphicsCalls) {
+		final BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+		final Graphics2D g = image.createGraphics();
+
+		try {
+			final Graphics2DSerialized renderer = new Graphics2DSerialized();
+
+			renderer.processTo(g, graphicsCalls);
+		} finally {
+			g.dispose();
+		}
+		return image;
+	}
+}
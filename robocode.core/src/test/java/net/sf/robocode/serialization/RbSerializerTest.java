@@ -25,6 +25,7 @@ import java.awt.geom.*;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 
 /**
@@ -132,6 +133,84 @@ public class RbSerializerTest {
 		Assert.assertEquals(ec2.getDebugProperties().get(0).getValue(), "Pli lu?ouk k pl belsk dy");
 	}
 
+	@Test
+	public void streaming() throws IOException {
+		ExecCommands ec = new ExecCommands();
+
+		ec.setBodyTurnRemaining(150.123);
+		ec.getBullets().add(new BulletCommand(1.0, true, 0.9354, 11));
+		ec.getTeamMessages().add(new TeamMessage("Foo", "Bar", new byte[20]));
+		ec.getDebugProperties().add(new DebugProperty("Native", "P\u0159\u00edli\u0161 \u017elu\u0165ou\u010dk\u00fd"));
+
+		RbSerializer rbs = new RbSerializer();
+		ByteBuffer sized = rbs.serializeToBuffer(ByteBuffer.allocate(4096), RbSerializer.ExecCommands_TYPE, ec);
+		ByteBuffer streamed = rbs.serializeStreaming(ByteBuffer.allocate(4096), RbSerializer.ExecCommands_TYPE, ec);
+
+		sized.flip();
+		streamed.flip();
+		Assert.assertEquals(sized, streamed);
+		Assert.assertEquals(sized, rbs.serializeToReusedBuffer(RbSerializer.ExecCommands_TYPE, ec));
+
+		ExecCommands ec2 = (ExecCommands) rbs.deserialize(streamed);
+
+		assertNear(ec2.getBodyTurnRemaining(), ec.getBodyTurnRemaining());
+		Assert.assertEquals(ec2.getTeamMessages().get(0).sender, "Foo");
+		Assert.assertEquals(ec2.getDebugProperties().get(0).getValue(), ec.getDebugProperties().get(0).getValue());
+	}
+
+	@Test
+	public void reusedBuffer() throws IOException {
+		ExecCommands ec = new ExecCommands();
+		RbSerializer rbs = new RbSerializer();
+
+		ByteBuffer first = rbs.serializeToReusedBuffer(RbSerializer.ExecCommands_TYPE, ec);
+
+		Assert.assertSame(first, rbs.serializeToReusedBuffer(RbSerializer.ExecCommands_TYPE, ec));
+
+		// A message larger than the initial buffer makes it grow
+		ec.getTeamMessages().add(new TeamMessage("Foo", "Bar", new byte[100000]));
+		ExecCommands ec2 = (ExecCommands) rbs.deserialize(rbs.serializeToReusedBuffer(RbSerializer.ExecCommands_TYPE, ec));
+
+		Assert.assertEquals(ec2.getTeamMessages().get(0).message.length, 100000);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+
+		rbs.serialize(out, RbSerializer.ExecCommands_TYPE, ec);
+		ec2 = (ExecCommands) rbs.deserialize(new ByteArrayInputStream(out.toByteArray()));
+		Assert.assertEquals(ec2.getTeamMessages().get(0).message.length, 100000);
+	}
+
+	@Test
+	public void strings() {
+		StringBuilder longString = new StringBuilder();
+
+		for (int i = 0; i < 2000; i++) {
+			longString.append((char) ('a' + i % 26));
+		}
+		String[] strings = {
+			"", "sample.Crazy", "\u010cesk\u00fd robot", "\u010cesk\u00fd robot", longString.toString(),
+			longString + "\u20ac"
+		};
+		RbSerializer rbs = new RbSerializer();
+		ByteBuffer buffer = ByteBuffer.allocate(16384);
+
+		for (String string : strings) {
+			rbs.serialize(buffer, string);
+		}
+		buffer.flip();
+		for (String string : strings) {
+			Assert.assertEquals(string, rbs.deserializeString(buffer));
+		}
+		Assert.assertEquals(0, buffer.remaining());
+
+		int size = 0;
+
+		for (String string : strings) {
+			size += rbs.sizeOf(string);
+		}
+		Assert.assertEquals(buffer.limit(), size);
+	}
+
 	// @Test
 	// 14 seconds for 1000 000,
 	// 15x faster
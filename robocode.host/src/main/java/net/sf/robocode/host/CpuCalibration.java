@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.host;
+
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Calibration of the CPU constant, which is the time a robot is allowed to use in each turn.
+ * <p/>
+ * The workload is warmed up first, so it has been compiled by the JIT, and then timed in several short
+ * trials. The CPU constant is the median of the trials, and the dispersion is the median absolute
+ * deviation of the trials relative to the median.
+ * <p/>
+ * The workload uses its own random generator, so a calibration never changes the random numbers that
+ * the battles get, even when it runs at the same time.
+ */
+public final class CpuCalibration {
+
+	// Number of workload iterations a robot is allowed per turn
+	private static final int APPROXIMATE_CYCLES_ALLOWED = 6250;
+
+	private static final long WARMUP_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+	private static final long TRIAL_NANOS = TimeUnit.MILLISECONDS.toNanos(30);
+	private static final int TRIALS = 9;
+
+	// Number of workload iterations between reading the clock
+	private static final int BATCH_SIZE = 1000;
+
+	private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+	// Key of the host and JVM, which is built when it is first asked for
+	private static String hostKey;
+
+	// Keeps the JIT from removing the workload
+	private static volatile double sink;
+
+	private final long cpuConstant;
+	private final double dispersion;
+	private final int trials;
+
+	private CpuCalibration(long cpuConstant, double dispersion, int trials) {
+		this.cpuConstant = cpuConstant;
+		this.dispersion = dispersion;
+		this.trials = trials;
+	}
+
+	/**
+	 * Runs a calibration on the current thread.
+	 *
+	 * @param isCpuTimed true if the trials must be timed by the CPU time of the current thread, so other
+	 *                   threads using the CPU at the same time do not slow down the trials; false if they are
+	 *                   timed by the wall-clock time.
+	 * @return the calibration.
+	 */
+	public static CpuCalibration run(boolean isCpuTimed) {
+		final boolean useCpuTime = isCpuTimed && isThreadCpuTimeSupported();
+		final Random random = new Random();
+
+		final long warmupStart = System.nanoTime();
+
+		while (System.nanoTime() - warmupStart < WARMUP_NANOS) {
+			runTrial(random, TRIAL_NANOS, false);
+		}
+
+		final long[] trialConstants = new long[TRIALS];
+
+		for (int i = 0; i < TRIALS; i++) {
+			trialConstants[i] = runTrial(random, TRIAL_NANOS, useCpuTime);
+		}
+		return fromTrials(trialConstants);
+	}
+
+	/**
+	 * Returns the calibration given by the CPU constants measured in the trials.
+	 */
+	static CpuCalibration fromTrials(long[] trialConstants) {
+		final long median = median(trialConstants);
+		final long[] deviations = new long[trialConstants.length];
+
+		for (int i = 0; i < trialConstants.length; i++) {
+			deviations[i] = Math.abs(trialConstants[i] - median);
+		}
+		final double dispersion = median > 0 ? (double) median(deviations) / median : 0;
+
+		return new CpuCalibration(Math.max(1, median), dispersion, trialConstants.length);
+	}
+
+	/**
+	 * Returns a key for the host and JVM the calibration runs on, which can be used in a property name.
+	 * <p/>
+	 * The host is taken from the environment, as resolving the name of the local host can block for seconds
+	 * when it is not known by the name service. The key is built once per JVM.
+	 */
+	public static synchronized String getHostKey() {
+		if (hostKey == null) {
+			String host = getEnv("COMPUTERNAME");
+
+			if (host == null) {
+				host = getEnv("HOSTNAME");
+			}
+			if (host == null) {
+				host = "localhost";
+			}
+			final String key = host + '.' + System.getProperty("os.arch") + '.'
+					+ Runtime.getRuntime().availableProcessors() + '.' + System.getProperty("java.vm.name") + '.'
+					+ System.getProperty("java.version");
+
+			hostKey = key.replaceAll("[^A-Za-z0-9._-]", "_");
+		}
+		return hostKey;
+	}
+
+	// Returns the value of an environment variable, or null if it is not set or cannot be read
+	private static String getEnv(String name) {
+		try {
+			final String value = System.getenv(name);
+
+			return (value == null || value.length() == 0) ? null : value;
+		} catch (SecurityException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the CPU constant, which is the median of the trials.
+	 *
+	 * @return the CPU constant in nanoseconds.
+	 */
+	public long getCpuConstant() {
+		return cpuConstant;
+	}
+
+	/**
+	 * Returns the median absolute deviation of the trials relative to the CPU constant.
+	 *
+	 * @return the dispersion, e.g. 0.05 when the trials typically differ 5% from the CPU constant.
+	 */
+	public double getDispersion() {
+		return dispersion;
+	}
+
+	/**
+	 * Returns the number of timed trials.
+	 */
+	public int getTrials() {
+		return trials;
+	}
+
+	@Override
+	public String toString() {
+		return cpuConstant + " ns (median of " + trials + " trials, dispersion "
+				+ String.format("%.1f", dispersion * 100) + "%)";
+	}
+
+	private static long runTrial(Random random, long trialNanos, boolean useCpuTime) {
+		final long start = now(useCpuTime);
+		long elapsed;
+		long count = 0;
+		double d = 0;
+
+		do {
+			for (int i = 0; i < BATCH_SIZE; i++) {
+				d += Math.hypot(Math.sqrt(Math.abs(Math.log(Math.atan(random.nextDouble())))),
+						Math.cbrt(Math.abs(random.nextDouble() * 10)))
+						/ Math.exp(random.nextDouble());
+			}
+			count += BATCH_SIZE;
+			elapsed = now(useCpuTime) - start;
+		} while (elapsed < trialNanos);
+
+		sink += d;
+
+		return APPROXIMATE_CYCLES_ALLOWED * elapsed / count;
+	}
+
+	private static long now(boolean useCpuTime) {
+		return useCpuTime ? threadMXBean.getCurrentThreadCpuTime() : System.nanoTime();
+	}
+
+	private static boolean isThreadCpuTimeSupported() {
+		try {
+			return threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+		} catch (SecurityException e) {
+			return false;
+		}
+	}
+
+	private static long median(long[] values) {
+		final long[] sorted = values.clone();
+
+		Arrays.sort(sorted);
+
+		final int middle = sorted.length / 2;
+
+		return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+	}
+}
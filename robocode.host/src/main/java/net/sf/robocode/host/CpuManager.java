@@ -21,21 +21,29 @@ import net.sf.robocode.ui.IWindowManager;
  * @author Pavel Savara (contributor)
  */
 public class CpuManager implements ICpuManager {
-	private final static int APPROXIMATE_CYCLES_ALLOWED = 6250;
-	private final static int TEST_PERIOD_MILLIS = 5000;
+	// Calibrations with a higher dispersion are reported as inaccurate
+	private final static double MAX_DISPERSION = 0.1;
 
-	private long cpuConstant = -1;
+	private volatile long cpuConstant = -1;
 	private final ISettingsManager properties;
 
+	private Thread backgroundCalibration;
+
 	public CpuManager(ISettingsManager properties) {
 		this.properties = properties;
 	}
 
 	public long getCpuConstant() {
 		if (cpuConstant == -1) {
-			cpuConstant = properties.getCpuConstant();
+			cpuConstant = properties.getCpuConstant(CpuCalibration.getHostKey());
 			if (cpuConstant == -1) {
-				calculateCpuConstant();
+				cpuConstant = properties.getCpuConstant();
+				if (cpuConstant == -1) {
+					calculateCpuConstant();
+				} else {
+					// Calibrated on another host or JVM, so it is only used until it has been calibrated on this one
+					calculateCpuConstantInBackground();
+				}
 			}
 		}
 		return cpuConstant;
@@ -44,35 +52,38 @@ public class CpuManager implements ICpuManager {
 	public void calculateCpuConstant() {
 		setStatus("Estimating CPU speed, please wait...");
 
-		setCpuConstant();
-		Logger.logMessage(
-				"Each robot will be allowed a maximum of " + cpuConstant + " nanoseconds per turn on this system.");
-
-		properties.setCpuConstant(cpuConstant);
-		properties.saveProperties();
+		setCpuConstant(CpuCalibration.run(false));
 
 		setStatus("");
 	}
 
-	private void setCpuConstant() {
-		long count = 0;
-		double d = 0;
-
-		long start = System.currentTimeMillis();
-
-		while (System.currentTimeMillis() - start < TEST_PERIOD_MILLIS) {
-			d += Math.hypot(Math.sqrt(Math.abs(Math.log(Math.atan(Math.random())))),
-					Math.cbrt(Math.abs(Math.random() * 10)))
-					/ Math.exp(Math.random());
-			count++;
+	public synchronized void calculateCpuConstantInBackground() {
+		if (backgroundCalibration != null && backgroundCalibration.isAlive()) {
+			return;
 		}
+		backgroundCalibration = new Thread(new Runnable() {
+			public void run() {
+				// Timed by the CPU time of this thread, as battles might be running at the same time
+				setCpuConstant(CpuCalibration.run(true));
+			}
+		}, "CPU calibration");
+		backgroundCalibration.setDaemon(true);
+		backgroundCalibration.setPriority(Thread.MIN_PRIORITY);
+		backgroundCalibration.start();
+	}
+
+	private synchronized void setCpuConstant(CpuCalibration calibration) {
+		cpuConstant = calibration.getCpuConstant();
 
-		// to cheat optimizer, almost never happen
-		if (d == 0.0) {
-			Logger.logMessage("bingo!");
+		Logger.logMessage(
+				"Each robot will be allowed a maximum of " + cpuConstant + " nanoseconds per turn on this system.");
+		Logger.logMessage("CPU constant: " + calibration);
+		if (calibration.getDispersion() > MAX_DISPERSION) {
+			Logger.logMessage("The CPU constant might be inaccurate, as the CPU speed varied during the calibration.");
 		}
 
-		cpuConstant = Math.max(1, (long) (1000000.0 * APPROXIMATE_CYCLES_ALLOWED * TEST_PERIOD_MILLIS / count));
+		properties.setCpuConstant(CpuCalibration.getHostKey(), cpuConstant);
+		properties.saveProperties();
 	}
 
 	private void setStatus(String message) {
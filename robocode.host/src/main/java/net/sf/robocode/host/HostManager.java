@@ -8,6 +8,8 @@
 package net.sf.robocode.host;
 
 
+import net.sf.robocode.host.process.ProcessRobotProxy;
+import net.sf.robocode.host.process.RobotProcess;
 import net.sf.robocode.host.proxies.*;
 import net.sf.robocode.host.security.*;
 import net.sf.robocode.host.jarjar.JarJarURLConnection;
@@ -20,6 +22,8 @@ import net.sf.robocode.settings.ISettingsManager;
 import net.sf.robocode.core.Container;
 import robocode.control.RobotSpecification;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
 
@@ -89,9 +93,22 @@ public class HostManager implements IHostManager {
 
 	public IHostingRobotProxy createRobotProxy(RobotSpecification robotSpecification, RobotStatics statics, IRobotPeer peer) {
 		IRobotItem specification = (IRobotItem) HiddenAccess.getFileSpecification(robotSpecification);
+
+		// Read for each robot, so it can be changed between battles
+		if (System.getProperty("ROBOTPROCESS", "false").equals("true") && specification.getPlatform().equalsIgnoreCase("Java")) {
+			return new ProcessRobotProxy(robotSpecification, statics, peer);
+		}
 		return getHost(specification).createRobotProxy(this, robotSpecification, statics, peer);
 	}
 
+	public void runRobotProcess(String channelFilename) {
+		try {
+			new RobotProcess(this, new File(channelFilename)).run();
+		} catch (IOException e) {
+			Logger.logError(e);
+		}
+	}
+
 	private IHost getHost(IRobotItem robotItem) {
 		return (IHost) Container.cache.getComponent("robocode.host." + robotItem.getPlatform().toLowerCase());
 	}
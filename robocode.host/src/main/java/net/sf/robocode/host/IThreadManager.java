@@ -19,6 +19,8 @@ import java.io.PrintStream;
 public interface IThreadManager extends IThreadManagerBase {
 	void addThreadGroup(ThreadGroup g, IHostedThread robotProxy);
 
+	void removeThreadGroup(ThreadGroup g);
+
 	IHostedThread getLoadingRobot();
 
 	IHostedThread getLoadingRobotProxy(Thread t);
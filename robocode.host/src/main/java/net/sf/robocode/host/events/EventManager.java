@@ -37,7 +37,7 @@ public final class EventManager implements IEventManager {
 	public final static int MAX_QUEUE_SIZE = 256;
 
 	private final List<Condition> customEvents = new CopyOnWriteArrayList<Condition>();
-	private final EventQueue eventQueue;
+	private final PriorityEventQueue eventQueue;
 
 	private final boolean[] interruptible = new boolean[MAX_PRIORITY + 1];
 	private Event currentTopEvent;
@@ -45,6 +45,9 @@ public final class EventManager implements IEventManager {
 	private ScannedRobotEvent dummyScannedRobotEvent;
 	private Map<String, Event> eventNames;
 
+	// The registered event classes with an event holding the priority of each class
+	private Map<Class<?>, Event> eventClasses;
+
 	private IBasicRobot robot;
 	private BasicRobotProxy robotProxy;
 
@@ -55,7 +58,7 @@ public final class EventManager implements IEventManager {
 	 */
 	public EventManager(BasicRobotProxy robotProxy) {
 		this.robotProxy = robotProxy;
-		eventQueue = new EventQueue();
+		eventQueue = new PriorityEventQueue();
 
 		registerEventNames();
 		reset();
@@ -67,8 +70,8 @@ public final class EventManager implements IEventManager {
 	 */
 	public void add(Event event) {
 		if (!HiddenAccess.isCriticalEvent(event)) {
-			final int priority = getEventPriority(event.getClass().getName());
-			HiddenAccess.setEventPriority(event, priority);
+			final Event registered = eventClasses.get(event.getClass());
+			HiddenAccess.setEventPriority(event, registered != null ? registered.getPriority() : -1);
 		}
 		addImpl(event);
 	}
@@ -127,164 +130,77 @@ public final class EventManager implements IEventManager {
 	 * Returns a list containing all events currently in the robot's queue.
 	 */
 	public List<Event> getAllEvents() {
-		List<Event> events = new ArrayList<Event>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				events.add(e);
-			}
-		}
-		return events;
+		return eventQueue.getEvents();
 	}
 
 	/**
 	 * Returns a list containing all BulletHitBulletEvents currently in the robot's queue.
 	 */
 	public List<BulletHitBulletEvent> getBulletHitBulletEvents() {
-		List<BulletHitBulletEvent> events = new ArrayList<BulletHitBulletEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof BulletHitBulletEvent) {
-					events.add((BulletHitBulletEvent) e);
-				}
-			}
-		}
-		return events;
+		return eventQueue.getEvents(BulletHitBulletEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all BulletHitEvents currently in the robot's queue.
 	 */
 	public List<BulletHitEvent> getBulletHitEvents() {
-		List<BulletHitEvent> events = new ArrayList<BulletHitEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof BulletHitEvent) {
-					events.add((BulletHitEvent) e);
-				}
-			}
-		}
-		return events;
+		return eventQueue.getEvents(BulletHitEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all BulletMissedEvents currently in the robot's queue.
 	 */
 	public List<BulletMissedEvent> getBulletMissedEvents() {
-		List<BulletMissedEvent> events = new ArrayList<BulletMissedEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof BulletMissedEvent) {
-					events.add((BulletMissedEvent) e);
-				}
-			}
-		}
-		return events;
+		return eventQueue.getEvents(BulletMissedEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all HitByBulletEvents currently in the robot's queue.
 	 */
 	public List<HitByBulletEvent> getHitByBulletEvents() {
-		List<HitByBulletEvent> events = new ArrayList<HitByBulletEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof HitByBulletEvent) {
-					events.add((HitByBulletEvent) e);
-				}
-			}
-		}
-		return events;
+		return eventQueue.getEvents(HitByBulletEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all HitRobotEvents currently in the robot's queue.
 	 */
 	public List<HitRobotEvent> getHitRobotEvents() {
-		List<HitRobotEvent> events = new ArrayList<HitRobotEvent>();
-
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof HitRobotEvent) {
-					events.add((HitRobotEvent) e);
-				}
-			}
-		}
-		return events;
+		return eventQueue.getEvents(HitRobotEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all HitWallEvents currently in the robot's queue.
 	 */
 	public List<HitWallEvent> getHitWallEvents() {
-		List<HitWallEvent> events = new ArrayList<HitWallEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof HitWallEvent) {
-					events.add((HitWallEvent) e);
-				}
-			}
-		}
-		return events;
+		return eventQueue.getEvents(HitWallEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all RobotDeathEvents currently in the robot's queue.
 	 */
 	public List<RobotDeathEvent> getRobotDeathEvents() {
-		List<RobotDeathEvent> events = new ArrayList<RobotDeathEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof RobotDeathEvent) {
-					events.add((RobotDeathEvent) e);
-				}
-			}
-		}
-		return events;
+		return eventQueue.getEvents(RobotDeathEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all ScannedRobotEvents currently in the robot's queue.
 	 */
 	public List<ScannedRobotEvent> getScannedRobotEvents() {
-		List<ScannedRobotEvent> events = new ArrayList<ScannedRobotEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof ScannedRobotEvent) {
-					events.add((ScannedRobotEvent) e);
-				}
-			}
-		}
-		return events;
+		return eventQueue.getEvents(ScannedRobotEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all MessageEvents currently in the robot's queue.
 	 */
 	public List<MessageEvent> getMessageEvents() {
-		List<MessageEvent> events = new ArrayList<MessageEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof MessageEvent) {
-					events.add((MessageEvent) e);
-				}
-			}
-		}
-		return events;
+		return eventQueue.getEvents(MessageEvent.class);
 	}
 
 	/**
 	 * Returns a list containing all StatusEvents currently in the robot's queue.
 	 */
 	public List<StatusEvent> getStatusEvents() {
-		List<StatusEvent> events = new ArrayList<StatusEvent>();
-		synchronized (eventQueue) {
-			for (Event e : eventQueue) {
-				if (e instanceof StatusEvent) {
-					events.add((StatusEvent) e);
-				}
-			}
-		}
-		return events;
+		return eventQueue.getEvents(StatusEvent.class);
 	}
 
 	/**
@@ -352,8 +268,7 @@ public final class EventManager implements IEventManager {
 
 		// Process event queue here
 		Event currentEvent;
-		while ((currentEvent = (eventQueue.size() > 0) ? eventQueue.get(0) : null) != null
-				&& currentEvent.getPriority() >= currentTopEventPriority) {
+		while ((currentEvent = eventQueue.peek()) != null && currentEvent.getPriority() >= currentTopEventPriority) {
 
 			if (currentEvent.getPriority() == currentTopEventPriority) {
 				if (currentTopEventPriority > Integer.MIN_VALUE && isInterruptible(currentTopEventPriority)) {
@@ -371,7 +286,7 @@ public final class EventManager implements IEventManager {
 			currentTopEventPriority = currentEvent.getPriority();
 			currentTopEvent = currentEvent;
 
-			eventQueue.remove(currentEvent);
+			eventQueue.poll();
 			try {
 				dispatch(currentEvent);
 
@@ -419,7 +334,9 @@ public final class EventManager implements IEventManager {
 			try {
 				// skip too old events
 				if ((event.getTime() > getTime() - MAX_EVENT_STACK) || HiddenAccess.isCriticalEvent(event)) {
-					HiddenAccess.dispatch(event, robot, robotProxy.getStatics(), robotProxy.getGraphicsImpl());
+					// only paint events use the graphics, which is created when it is used the first time
+					HiddenAccess.dispatch(event, robot, robotProxy.getStatics(),
+							event instanceof PaintEvent ? robotProxy.getGraphicsImpl() : null);
 				}
 			} catch (Exception ex) {
 				robotProxy.println("SYSTEM: Exception occurred on " + event.getClass().getName());
@@ -511,6 +428,7 @@ public final class EventManager implements IEventManager {
 	 */
 	private void registerEventNames() {
 		eventNames = new HashMap<String, Event>();
+		eventClasses = new IdentityHashMap<Class<?>, Event>();
 		dummyScannedRobotEvent = new ScannedRobotEvent(null, 0, 0, 0, 0, 0);
 		registerEventNames(new BattleEndedEvent(false, null));
 		registerEventNames(new BulletHitBulletEvent(null, null));
@@ -544,6 +462,7 @@ public final class EventManager implements IEventManager {
 		final DummyCustomEvent customEvent = new DummyCustomEvent();
 		eventNames.put("robocode.CustomEvent", customEvent); // full name with package name
 		eventNames.put("CustomEvent", customEvent); // only the class name
+		eventClasses.put(CustomEvent.class, customEvent);
 	}
 
 	/**
@@ -556,6 +475,7 @@ public final class EventManager implements IEventManager {
 			HiddenAccess.setDefaultPriority(event);
 		}
 		final Class<?> type = event.getClass();
+		eventClasses.put(type, event);
 		eventNames.put(type.getName(), event); // full name with package name
 		eventNames.put(type.getSimpleName(), event); // only the class name
 	}
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.host.events;
+
+
+import net.sf.robocode.security.HiddenAccess;
+import robocode.Event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * The event queue of a robot, from which the event manager takes the events in the order of their time and priority.
+ * <p/>
+ * The events are kept in an array, where the first event is removed by moving the start of the queue instead of
+ * moving all other events. The events are sorted in place with the same sort as a list of the same events. The
+ * order of events with the same time and priority is given by their compareTo() methods, which is not transitive
+ * for the distances of ScannedRobotEvents, so any other way of ordering the events would change the order in which
+ * they are dispatched in some turns.
+ * <p/>
+ * The queue counts the events of each class, so looking for the events of a class is fast when there are none,
+ * which is the common case.
+ * <p/>
+ * The queue is only used by the robot thread, and is not thread-safe.
+ */
+public final class PriorityEventQueue {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private Event[] events = new Event[INITIAL_CAPACITY];
+	private int head;
+	private int tail;
+
+	private final Map<Class<?>, Counter> classCounters = new IdentityHashMap<Class<?>, Counter>();
+
+	/**
+	 * Returns the number of events in the queue.
+	 *
+	 * @return the number of events.
+	 */
+	public int size() {
+		return tail - head;
+	}
+
+	/**
+	 * Adds an event to the end of the queue.
+	 *
+	 * @param event the event.
+	 */
+	public void add(Event event) {
+		if (tail == events.length) {
+			grow();
+		}
+		events[tail++] = event;
+
+		final Class<?> eventClass = event.getClass();
+		Counter counter = classCounters.get(eventClass);
+
+		if (counter == null) {
+			counter = new Counter();
+			classCounters.put(eventClass, counter);
+		}
+		counter.count++;
+	}
+
+	/**
+	 * Returns the first event of the queue without removing it.
+	 *
+	 * @return the first event, or null if the queue is empty.
+	 */
+	public Event peek() {
+		return (head < tail) ? events[head] : null;
+	}
+
+	/**
+	 * Removes the first event of the queue.
+	 *
+	 * @return the removed event, or null if the queue is empty.
+	 */
+	public Event poll() {
+		if (head == tail) {
+			return null;
+		}
+		final Event event = events[head];
+
+		events[head++] = null;
+		if (head == tail) {
+			head = tail = 0;
+		}
+		classCounters.get(event.getClass()).count--;
+		return event;
+	}
+
+	/**
+	 * Sorts the events by their time and priority, where the events with the highest priority come first.
+	 */
+	public void sort() {
+		Arrays.sort(events, head, tail);
+	}
+
+	/**
+	 * Removes all events, or all events except the critical ones, which are never removed because of their age.
+	 *
+	 * @param includingSystemEvents true if the critical events must be removed as well.
+	 */
+	public void clear(boolean includingSystemEvents) {
+		if (includingSystemEvents) {
+			Arrays.fill(events, head, tail, null);
+			head = tail = 0;
+			classCounters.clear();
+			return;
+		}
+		removeIf(Long.MAX_VALUE);
+	}
+
+	/**
+	 * Removes the events that are not critical, and that occurred at or before a given time.
+	 *
+	 * @param clearTime the time of the newest event to remove.
+	 */
+	public void clear(long clearTime) {
+		removeIf(clearTime);
+	}
+
+	/**
+	 * Returns the events of the queue in their current order.
+	 *
+	 * @return a new list with the events.
+	 */
+	public List<Event> getEvents() {
+		final List<Event> result = new ArrayList<Event>(size());
+
+		for (int i = head; i < tail; i++) {
+			result.add(events[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the events of the queue, which are instances of a given class, in their current order.
+	 *
+	 * @param type the class of the events, which can be a super class of the events.
+	 * @return a new list with the events.
+	 */
+	public <T extends Event> List<T> getEvents(Class<T> type) {
+		final List<T> result = new ArrayList<T>();
+
+		if (contains(type)) {
+			for (int i = head; i < tail; i++) {
+				if (type.isInstance(events[i])) {
+					result.add(type.cast(events[i]));
+				}
+			}
+		}
+		return result;
+	}
+
+	// Checks the counters of the event classes to avoid looking through the queue
+	private boolean contains(Class<?> type) {
+		for (Map.Entry<Class<?>, Counter> entry : classCounters.entrySet()) {
+			if (entry.getValue().count > 0 && type.isAssignableFrom(entry.getKey())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// Removes the events that are not critical and not newer than a given time, keeping the order of the rest
+	private void removeIf(long clearTime) {
+		int kept = head;
+
+		for (int i = head; i < tail; i++) {
+			final Event event = events[i];
+
+			if (event.getTime() <= clearTime && !HiddenAccess.isCriticalEvent(event)) {
+				classCounters.get(event.getClass()).count--;
+			} else {
+				events[kept++] = event;
+			}
+		}
+		Arrays.fill(events, kept, tail, null);
+		tail = kept;
+	}
+
+	private void grow() {
+		final int size = size();
+
+		if (head > 0 && size < events.length / 2) {
+			// Moves the events to the start of the array, when the removed events have freed enough of it
+			System.arraycopy(events, head, events, 0, size);
+			Arrays.fill(events, size, tail, null);
+		} else {
+			final Event[] grown = new Event[events.length * 2];
+
+			System.arraycopy(events, head, grown, 0, size);
+			events = grown;
+		}
+		head = 0;
+		tail = size;
+	}
+
+	private static final class Counter {
+		int count;
+	}
+}
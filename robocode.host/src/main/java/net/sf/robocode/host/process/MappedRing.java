@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.host.process;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * A ring buffer in shared memory, which passes messages from one writing thread to one reading thread,
+ * where the two threads are usually in different processes.
+ * <p/>
+ * A message has a header with the size, kind and sequence number of the message, and a body, which is
+ * written and read in place. A message is never split at the end of the ring; instead the writer marks
+ * the rest of the ring as padding, and continues from the start of the ring.
+ * <p/>
+ * The write and read positions are counters in the shared memory. There is no way to wake up a thread
+ * in another process from Java, so a waiting thread spins for a short time, and then parks for increasing
+ * periods of time while it polls the counter.
+ */
+final class MappedRing {
+
+	// The counters are kept on separate cache lines
+	private static final int WRITE_POSITION = 0;
+	private static final int READ_POSITION = 64;
+	static final int COUNTERS_SIZE = 128;
+
+	// Message header with the size of the body, the kind and the sequence number
+	private static final int HEADER_SIZE = 16;
+	private static final int PADDING_KIND = -1;
+
+	private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+	private static final long MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+	private final ByteBuffer counters;
+	private final ByteBuffer data;
+	private final int capacity;
+	private final long spinNanos;
+
+	// Used for memory barriers around the accesses of the shared memory
+	private volatile int barrier;
+
+	// Positions owned by the writing and reading thread
+	private long writePosition;
+	private long readPosition;
+
+	private int writeSize;
+	private int readSize;
+	private int readKind;
+	private int readSequence;
+	private ByteBuffer readBody;
+
+	/**
+	 * Creates a ring on a region of shared memory, which starts with the counters.
+	 * The region must be zeroed before it is used by the first side.
+	 *
+	 * @param region    the shared memory, where the size after the counters must be a multiple of 8.
+	 * @param spinNanos the time a waiting thread spins before it parks, or 0 for no spinning.
+	 */
+	MappedRing(ByteBuffer region, long spinNanos) {
+		region.position(0).limit(COUNTERS_SIZE);
+		counters = region.slice();
+		region.limit(region.capacity()).position(COUNTERS_SIZE);
+		data = region.slice();
+		capacity = data.capacity();
+		this.spinNanos = spinNanos;
+
+		writePosition = counters.getLong(WRITE_POSITION);
+		readPosition = counters.getLong(READ_POSITION);
+	}
+
+	/**
+	 * Called by the writing thread: Reserves space for a message, and returns the buffer for the body of the
+	 * message, which is published by {@link #endWrite()}.
+	 *
+	 * @param kind         the kind of message, which must not be negative.
+	 * @param sequence     the sequence number of the message.
+	 * @param size         the size of the message body.
+	 * @param timeoutNanos the maximum time to wait for the reader to free enough space.
+	 * @return the buffer for the body, which must be filled from position 0 up to the given size.
+	 * @throws IOException if the message is too large, or the time is up.
+	 */
+	ByteBuffer beginWrite(int kind, int sequence, int size, long timeoutNanos) throws IOException {
+		final int messageSize = align(HEADER_SIZE + size);
+
+		if (messageSize > capacity / 2) {
+			throw new IOException("The message size of " + size + " bytes is too large");
+		}
+		int offset = (int) (writePosition % capacity);
+		final int padding = (offset + messageSize > capacity) ? capacity - offset : 0;
+
+		if (!waitForSpace(padding + messageSize, timeoutNanos)) {
+			throw new IOException("Timed out waiting for the reader");
+		}
+		if (padding > 0) {
+			data.putInt(offset + 4, PADDING_KIND);
+			writePosition += padding;
+			offset = 0;
+		}
+		data.putInt(offset, size);
+		data.putInt(offset + 4, kind);
+		data.putInt(offset + 8, sequence);
+
+		writeSize = messageSize;
+		return slice(offset + HEADER_SIZE, size);
+	}
+
+	/**
+	 * Called by the writing thread: Publishes the message started by {@link #beginWrite}.
+	 */
+	void endWrite() {
+		writePosition += writeSize;
+
+		memoryBarrier();
+		counters.putLong(WRITE_POSITION, writePosition);
+		memoryBarrier();
+	}
+
+	/**
+	 * Called by the reading thread: Waits for the next message, which is released again by {@link #endRead()}.
+	 *
+	 * @param timeoutNanos the maximum time to wait for a message.
+	 * @return true if there is a message; false if the time is up.
+	 */
+	boolean beginRead(long timeoutNanos) {
+		while (waitForMessage(timeoutNanos)) {
+			final int offset = (int) (readPosition % capacity);
+			final int kind = data.getInt(offset + 4);
+
+			if (kind == PADDING_KIND) {
+				readPosition += capacity - offset;
+				continue;
+			}
+			final int size = data.getInt(offset);
+
+			readKind = kind;
+			readSequence = data.getInt(offset + 8);
+			readSize = align(HEADER_SIZE + size);
+			readBody = slice(offset + HEADER_SIZE, size);
+			return true;
+		}
+		return false;
+	}
+
+	int getKind() {
+		return readKind;
+	}
+
+	int getSequence() {
+		return readSequence;
+	}
+
+	/**
+	 * Returns the body of the current message, which may only be used until {@link #endRead()} is called.
+	 *
+	 * @return the body of the current message.
+	 */
+	ByteBuffer getBody() {
+		return readBody;
+	}
+
+	/**
+	 * Called by the reading thread: Releases the space of the message returned by {@link #beginRead}.
+	 */
+	void endRead() {
+		readPosition += readSize;
+		readBody = null;
+
+		memoryBarrier();
+		counters.putLong(READ_POSITION, readPosition);
+		memoryBarrier();
+	}
+
+	private boolean waitForSpace(int size, long timeoutNanos) {
+		return await(true, capacity - size, timeoutNanos);
+	}
+
+	private boolean waitForMessage(long timeoutNanos) {
+		return await(false, 0, timeoutNanos);
+	}
+
+	// Waits until the write position is ahead of the read position, or when waiting for space, that
+	// the writer is no more than the given number of bytes ahead
+	private boolean await(boolean isWriter, long maxAhead, long timeoutNanos) {
+		final long start = System.nanoTime();
+		long parkNanos = MIN_PARK_NANOS;
+		boolean isInterrupted = false;
+
+		try {
+			while (true) {
+				memoryBarrier();
+				if (isWriter
+						? writePosition - counters.getLong(READ_POSITION) <= maxAhead
+						: counters.getLong(WRITE_POSITION) != readPosition) {
+					memoryBarrier();
+					return true;
+				}
+				final long elapsed = System.nanoTime() - start;
+
+				if (elapsed >= timeoutNanos) {
+					return false;
+				}
+				if (elapsed >= spinNanos) {
+					LockSupport.parkNanos(this, Math.min(parkNanos, timeoutNanos - elapsed));
+					parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+
+					// An interrupt would end every park immediately
+					isInterrupted |= Thread.interrupted();
+				}
+			}
+		} finally {
+			if (isInterrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	// A volatile write followed by a volatile read keeps the accesses of the shared memory before and after
+	// this call in order, also between processes
+	private int memoryBarrier() {
+		barrier = 0;
+		return barrier;
+	}
+
+	private ByteBuffer slice(int offset, int size) {
+		final ByteBuffer buffer = data.duplicate();
+
+		buffer.limit(offset + size).position(offset);
+		return buffer.slice();
+	}
+
+	private static int align(int size) {
+		return (size + 7) & ~7;
+	}
+}
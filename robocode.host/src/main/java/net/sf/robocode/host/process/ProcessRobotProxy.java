@@ -0,0 +1,437 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.host.process;
+
+
+import net.sf.robocode.host.RobotStatics;
+import net.sf.robocode.host.proxies.IHostingRobotProxy;
+import net.sf.robocode.io.FileUtil;
+import static net.sf.robocode.io.Logger.logError;
+import static net.sf.robocode.io.Logger.logMessage;
+import net.sf.robocode.peer.BadBehavior;
+import net.sf.robocode.peer.ExecCommands;
+import net.sf.robocode.peer.ExecResults;
+import net.sf.robocode.peer.IRobotPeer;
+import net.sf.robocode.serialization.RbSerializer;
+import robocode.RobotStatus;
+import robocode.control.RobotSpecification;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Hosts a robot in its own JVM process, which is enabled with -DROBOTPROCESS=true.
+ * <p/>
+ * The robot process runs the usual robot proxy, but its peer forwards the turns of the robot to this side
+ * through a {@link RobotChannel}. A pump thread on this side executes the turns on the real peer, so the
+ * battle sees the pump thread as the robot thread.
+ * <p/>
+ * With -DROBOTPROCESSPIN=true, each robot process is pinned to a CPU core with taskset on Linux.
+ * More JVM arguments for the robot processes can be given with -DROBOTPROCESSJVMARGS.
+ */
+public final class ProcessRobotProxy implements IHostingRobotProxy, Runnable {
+
+	// System properties passed on to the robot process
+	private static final String[] PASSED_PROPERTIES = {
+		"NOSECURITY", "EXPERIMENTAL", "debug", "logMessages", "logErrors", "TESTING", "ROBOTSTACKSIZE",
+		"ROBOTCLASSCACHESIZE", "ROBOTPROCESSSPIN", "TEAMMESSAGEQUOTA"
+	};
+
+	private static final long READY_TIMEOUT_MILLIS = 30000;
+	private static final long STOP_TIMEOUT_MILLIS = 10000;
+	private static final long EXIT_TIMEOUT_MILLIS = 2000;
+
+	// Time between the checks if the robot process is still alive while the pump is waiting
+	private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private final IRobotPeer peer;
+	private final String name;
+
+	private File channelFile;
+	private RobotChannel channel;
+	private Process process;
+	private Thread pumpThread;
+
+	private final Object stateLock = new Object();
+	private boolean isReady;
+	private boolean isFailed;
+	private int stoppedCount;
+
+	private volatile boolean isInPeerCall;
+	private volatile boolean isClosed;
+
+	public ProcessRobotProxy(RobotSpecification robotSpecification, RobotStatics statics, IRobotPeer peer) {
+		this.peer = peer;
+		this.name = statics.getName();
+
+		try {
+			channelFile = RobotChannel.createFile();
+			channel = new RobotChannel(channelFile, getSpinNanos());
+			process = startProcess(statics.getRobotIndex());
+
+			startThread(new OutputReader(), name + " output");
+			pumpThread = startThread(this, name + " pump");
+
+			RobotChannel.write(channel.control, RobotChannel.INIT, 0,
+					RobotChannel.toBytes(robotSpecification.getNameAndVersion(), statics));
+		} catch (IOException e) {
+			logError("Could not start the process of " + name + ": " + e);
+			fail();
+		}
+	}
+
+	/**
+	 * Returns the time a waiting thread spins before it parks, which is given with -DROBOTPROCESSSPIN
+	 * in microseconds. Spinning should only be enabled when there are more CPU cores than robots.
+	 *
+	 * @return the spin time in nanoseconds.
+	 */
+	static long getSpinNanos() {
+		return TimeUnit.MICROSECONDS.toNanos(Long.getLong("ROBOTPROCESSSPIN", 0));
+	}
+
+	private Process startProcess(int robotIndex) throws IOException {
+		final List<String> command = new ArrayList<String>();
+
+		if (System.getProperty("ROBOTPROCESSPIN", "false").equals("true") && new File("/usr/bin/taskset").exists()) {
+			final int core = (robotIndex + 1) % Runtime.getRuntime().availableProcessors();
+
+			command.add("/usr/bin/taskset");
+			command.add("-c");
+			command.add(Integer.toString(core));
+		}
+		command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+		command.add("-cp");
+		command.add(System.getProperty("robocode.class.path", System.getProperty("java.class.path")));
+		command.add("-Djava.awt.headless=true");
+		command.add("-DWORKINGDIRECTORY=" + FileUtil.getCwd().getAbsolutePath());
+		command.add("-DROBOTPATH=" + FileUtil.getRobotsDir().getAbsolutePath());
+
+		for (String property : PASSED_PROPERTIES) {
+			final String value = System.getProperty(property);
+
+			if (value != null) {
+				command.add("-D" + property + '=' + value);
+			}
+		}
+		final String jvmArgs = System.getProperty("ROBOTPROCESSJVMARGS", "").trim();
+
+		if (jvmArgs.length() > 0) {
+			for (String arg : jvmArgs.split("\\s+")) {
+				command.add(arg);
+			}
+		}
+		command.add("robocode.Robocode");
+		command.add("-nodisplay");
+		command.add("-robotprocess");
+		command.add(channelFile.getAbsolutePath());
+
+		final ProcessBuilder builder = new ProcessBuilder(command);
+
+		builder.redirectErrorStream(true);
+		return builder.start();
+	}
+
+	private static Thread startThread(Runnable runnable, String threadName) {
+		final Thread thread = new Thread(runnable, threadName);
+
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	// -----------
+	// battle driven methods
+	// -----------
+
+	public void startRound(ExecCommands commands, RobotStatus status) {
+		if (!awaitReady()) {
+			peer.drainEnergy();
+			return;
+		}
+		try {
+			RobotChannel.write(channel.control, RobotChannel.START_ROUND, 0, RobotChannel.toBytes(commands, status));
+		} catch (IOException e) {
+			logError("Could not start the round of " + name + ": " + e);
+			fail();
+			peer.drainEnergy();
+		}
+	}
+
+	public void forceStopThread() {
+		stop(RobotChannel.FORCE_STOP);
+	}
+
+	public void waitForStopThread() {
+		stop(RobotChannel.WAIT_FOR_STOP);
+	}
+
+	public void cleanup() {
+		isClosed = true;
+
+		if (process != null) {
+			try {
+				RobotChannel.write(channel.control, RobotChannel.CLEANUP, 0, null);
+				waitForExit();
+			} catch (IOException e) {// Do nothing, as the process is destroyed below
+			}
+			process.destroy();
+		}
+		if (pumpThread != null) {
+			pumpThread.interrupt();
+			try {
+				pumpThread.join(EXIT_TIMEOUT_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (channel != null) {
+			channel.close();
+		}
+		if (channelFile != null && !channelFile.delete()) {
+			channelFile.deleteOnExit();
+		}
+	}
+
+	private boolean awaitReady() {
+		final long deadline = System.currentTimeMillis() + READY_TIMEOUT_MILLIS;
+
+		synchronized (stateLock) {
+			while (!isReady && !isFailed) {
+				final long remaining = deadline - System.currentTimeMillis();
+
+				if (remaining <= 0) {
+					logError("The process of " + name + " did not start in time");
+					isFailed = true;
+					break;
+				}
+				try {
+					stateLock.wait(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+			return isReady && !isFailed;
+		}
+	}
+
+	private void stop(int kind) {
+		final int expectedCount;
+
+		synchronized (stateLock) {
+			if (isFailed || !isReady) {
+				return;
+			}
+			expectedCount = stoppedCount + 1;
+		}
+		try {
+			RobotChannel.write(channel.control, kind, 0, null);
+		} catch (IOException e) {
+			logError("Could not stop " + name + ": " + e);
+			fail();
+			return;
+		}
+		final long deadline = System.currentTimeMillis() + STOP_TIMEOUT_MILLIS;
+
+		synchronized (stateLock) {
+			while (stoppedCount < expectedCount && !isFailed) {
+				// The robot thread would be interrupted if it was in this process
+				if (isInPeerCall) {
+					pumpThread.interrupt();
+				}
+				final long remaining = deadline - System.currentTimeMillis();
+
+				if (remaining <= 0) {
+					peer.punishBadBehavior(BadBehavior.UNSTOPPABLE);
+					peer.setRunning(false);
+					break;
+				}
+				try {
+					stateLock.wait(Math.min(remaining, 10));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+	}
+
+	private void waitForExit() {
+		final long deadline = System.currentTimeMillis() + EXIT_TIMEOUT_MILLIS;
+
+		while (isProcessAlive() && System.currentTimeMillis() < deadline) {
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private boolean isProcessAlive() {
+		try {
+			process.exitValue();
+			return false;
+		} catch (IllegalThreadStateException e) {
+			return true;
+		}
+	}
+
+	private void fail() {
+		synchronized (stateLock) {
+			isFailed = true;
+			stateLock.notifyAll();
+		}
+	}
+
+	// -----------
+	// pump thread
+	// -----------
+
+	/**
+	 * Executes the requests of the robot process on the peer.
+	 */
+	public void run() {
+		final RbSerializer pumpSerializer = new RbSerializer();
+		final MappedRing requests = channel.requests;
+
+		try {
+			while (!isClosed) {
+				// Interrupts are only used for ending the wait for the next turn
+				Thread.interrupted();
+
+				if (!requests.beginRead(POLL_NANOS)) {
+					if (!isProcessAlive()) {
+						if (!isClosed) {
+							processEnded();
+						}
+						return;
+					}
+					continue;
+				}
+				final int sequence = requests.getSequence();
+
+				switch (requests.getKind()) {
+				case RobotChannel.EXECUTE:
+				case RobotChannel.WAIT_FOR_BATTLE_END:
+					final boolean isBattleEnd = requests.getKind() == RobotChannel.WAIT_FOR_BATTLE_END;
+					final ExecCommands commands = (ExecCommands) pumpSerializer.deserialize(requests.getBody());
+
+					requests.endRead();
+					execute(pumpSerializer, sequence, commands, isBattleEnd);
+					break;
+
+				case RobotChannel.SET_RUNNING:
+					final boolean isRunning = requests.getBody().getInt() != 0;
+
+					requests.endRead();
+					peer.setRunning(isRunning);
+					break;
+
+				case RobotChannel.DRAIN_ENERGY:
+					requests.endRead();
+					peer.drainEnergy();
+					break;
+
+				case RobotChannel.PUNISH:
+					final BadBehavior badBehavior = BadBehavior.values()[requests.getBody().getInt()];
+
+					requests.endRead();
+					peer.punishBadBehavior(badBehavior);
+					break;
+
+				case RobotChannel.READY:
+					requests.endRead();
+					synchronized (stateLock) {
+						isReady = true;
+						stateLock.notifyAll();
+					}
+					break;
+
+				case RobotChannel.STOPPED:
+					requests.endRead();
+					synchronized (stateLock) {
+						stoppedCount++;
+						stateLock.notifyAll();
+					}
+					break;
+
+				default:
+					requests.endRead();
+					logError("Unknown request from " + name + ": " + requests.getKind());
+				}
+			}
+		} catch (IOException e) {
+			if (!isClosed) {
+				logError("Lost the connection to the process of " + name + ": " + e);
+				process.destroy();
+				processEnded();
+			}
+		}
+	}
+
+	private void execute(RbSerializer pumpSerializer, int sequence, ExecCommands commands, boolean isBattleEnd) throws IOException {
+		ExecResults results = null;
+		Throwable exception = null;
+
+		isInPeerCall = true;
+		try {
+			results = isBattleEnd ? peer.waitForBattleEndImpl(commands) : peer.executeImpl(commands);
+		} catch (RuntimeException e) {
+			exception = e;
+		} catch (Error e) {
+			// E.g. a DeathException, which is rethrown in the robot process
+			exception = e;
+		} finally {
+			isInPeerCall = false;
+		}
+		if (exception == null) {
+			RobotChannel.write(channel.results, RobotChannel.RESULTS, sequence, pumpSerializer,
+					RbSerializer.ExecResults_TYPE, results);
+		} else {
+			RobotChannel.write(channel.results, RobotChannel.EXCEPTION, sequence,
+					RobotChannel.toBytes(exception.getClass().getName(), exception.getMessage()));
+		}
+	}
+
+	private void processEnded() {
+		logError("The process of " + name + " has ended unexpectedly");
+		fail();
+		peer.drainEnergy();
+		peer.setRunning(false);
+	}
+
+	// Passes the output of the robot process on to the log
+	private class OutputReader implements Runnable {
+		public void run() {
+			final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+
+			try {
+				String line;
+
+				while ((line = reader.readLine()) != null) {
+					logMessage(name + ": " + line);
+				}
+			} catch (IOException e) {// Do nothing, as the process has ended
+			} finally {
+				try {
+					reader.close();
+				} catch (IOException e) {// Do nothing
+				}
+			}
+		}
+	}
+}
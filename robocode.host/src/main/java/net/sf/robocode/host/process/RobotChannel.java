@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.host.process;
+
+
+import net.sf.robocode.serialization.RbSerializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The memory-mapped file shared by the battle and a robot process.
+ * <p/>
+ * The file holds three rings: control messages from the battle, the results of the turns from the
+ * battle, and the requests from the robot. Turns are exchanged in the same wire format as
+ * {@link net.sf.robocode.peer.IRobotPeer#executeImplSerial()}, i.e. {@link RbSerializer} with its header.
+ * The rare control messages use Java serialization, as the {@link RbSerializer} format of
+ * {@link net.sf.robocode.host.RobotStatics} leaves out some of the battle rules.
+ */
+final class RobotChannel {
+
+	// Control messages from the battle
+	static final int INIT = 1;
+	static final int START_ROUND = 2;
+	static final int FORCE_STOP = 3;
+	static final int WAIT_FOR_STOP = 4;
+	static final int CLEANUP = 5;
+
+	// Results from the battle
+	static final int RESULTS = 10;
+	static final int EXCEPTION = 11;
+
+	// Requests from the robot
+	static final int READY = 20;
+	static final int EXECUTE = 21;
+	static final int WAIT_FOR_BATTLE_END = 22;
+	static final int SET_RUNNING = 23;
+	static final int DRAIN_ENERGY = 24;
+	static final int PUNISH = 25;
+	static final int STOPPED = 26;
+
+	// The rings are large enough for the turn of a robot that paints a lot or sends many team messages
+	private static final int CONTROL_SIZE = 64 * 1024;
+	private static final int RING_SIZE = 2 * 1024 * 1024;
+
+	// Maximum time to wait for space in a ring, which only runs full if the other side has stopped reading
+	private static final long WRITE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+	final MappedRing control;
+	final MappedRing results;
+	final MappedRing requests;
+
+	private final RandomAccessFile file;
+
+	/**
+	 * Maps the shared file, which is created with the right size by the battle side.
+	 *
+	 * @param path      the shared file.
+	 * @param spinNanos the time a waiting thread spins before it parks, or 0 for no spinning.
+	 * @throws IOException if the file could not be mapped.
+	 */
+	RobotChannel(File path, long spinNanos) throws IOException {
+		file = new RandomAccessFile(path, "rw");
+
+		final int controlSize = MappedRing.COUNTERS_SIZE + CONTROL_SIZE;
+		final int ringSize = MappedRing.COUNTERS_SIZE + RING_SIZE;
+
+		final MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+				controlSize + 2 * ringSize);
+
+		control = new MappedRing(region(buffer, 0, controlSize), spinNanos);
+		results = new MappedRing(region(buffer, controlSize, ringSize), spinNanos);
+		requests = new MappedRing(region(buffer, controlSize + ringSize, ringSize), spinNanos);
+	}
+
+	/**
+	 * Creates a new shared file, preferably in memory (/dev/shm), which is used on Linux.
+	 *
+	 * @return the new, empty file.
+	 * @throws IOException if the file could not be created.
+	 */
+	static File createFile() throws IOException {
+		File dir = new File("/dev/shm");
+
+		if (!(dir.isDirectory() && dir.canWrite())) {
+			dir = null; // java.io.tmpdir
+		}
+		final File path = File.createTempFile("robocode-robot", ".ring", dir);
+
+		path.deleteOnExit();
+		return path;
+	}
+
+	void close() {
+		try {
+			file.close();
+		} catch (IOException e) {// Do nothing
+		}
+	}
+
+	/**
+	 * Writes a message with an object in the {@link RbSerializer} wire format.
+	 */
+	static void write(MappedRing ring, int kind, int sequence, RbSerializer serializer, byte type, Object object) throws IOException {
+		final int size = RbSerializer.SIZEOF_INT * 3 + serializer.sizeOf(type, object);
+
+		serializer.serializeToBuffer(ring.beginWrite(kind, sequence, size, WRITE_TIMEOUT_NANOS), type, object);
+		ring.endWrite();
+	}
+
+	/**
+	 * Writes a message with an optional body, which is read with {@link #readBytes(MappedRing)}.
+	 */
+	static void write(MappedRing ring, int kind, int sequence, byte[] body) throws IOException {
+		final ByteBuffer buffer = ring.beginWrite(kind, sequence, body == null ? 0 : body.length, WRITE_TIMEOUT_NANOS);
+
+		if (body != null) {
+			buffer.put(body);
+		}
+		ring.endWrite();
+	}
+
+	/**
+	 * Writes a message with an int value as body.
+	 */
+	static void write(MappedRing ring, int kind, int sequence, int value) throws IOException {
+		ring.beginWrite(kind, sequence, RbSerializer.SIZEOF_INT, WRITE_TIMEOUT_NANOS).putInt(value);
+		ring.endWrite();
+	}
+
+	static byte[] toBytes(Object... objects) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ObjectOutputStream out = new ObjectOutputStream(bytes);
+
+		for (Object object : objects) {
+			out.writeObject(object);
+		}
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	static ObjectInputStream readObjects(MappedRing ring) throws IOException {
+		return new ObjectInputStream(new ByteArrayInputStream(readBytes(ring)));
+	}
+
+	static byte[] readBytes(MappedRing ring) {
+		final ByteBuffer body = ring.getBody();
+		final byte[] bytes = new byte[body.remaining()];
+
+		body.get(bytes);
+		return bytes;
+	}
+
+	private static ByteBuffer region(ByteBuffer buffer, int offset, int size) {
+		final ByteBuffer region = buffer.duplicate();
+
+		region.limit(offset + size).position(offset);
+		return region.slice();
+	}
+}
@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.host.process;
+
+
+import net.sf.robocode.core.Container;
+import net.sf.robocode.host.IHostManager;
+import net.sf.robocode.host.RobotStatics;
+import net.sf.robocode.host.proxies.IHostingRobotProxy;
+import net.sf.robocode.peer.BadBehavior;
+import net.sf.robocode.peer.ExecCommands;
+import net.sf.robocode.peer.ExecResults;
+import net.sf.robocode.peer.IRobotPeer;
+import net.sf.robocode.repository.IRepositoryManager;
+import net.sf.robocode.robotpaint.PaintBuffer;
+import net.sf.robocode.serialization.RbSerializer;
+import robocode.RobotStatus;
+import robocode.control.RobotSpecification;
+import robocode.exception.AbortedException;
+import robocode.exception.DeathException;
+import robocode.exception.DisabledException;
+import robocode.exception.RobotException;
+import robocode.exception.WinException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * The robot side of a robot process, which is started by {@link ProcessRobotProxy} with the -robotprocess option.
+ * <p/>
+ * The robot is hosted by the usual robot proxy, but its peer forwards the turns to the battle through
+ * the {@link RobotChannel}. The process exits when the battle process has ended.
+ */
+public final class RobotProcess {
+
+	// Time between the checks of the control ring and the results ring
+	private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private final IHostManager hostManager;
+	private final RobotChannel channel;
+	private final RemotePeer peer = new RemotePeer();
+
+	private IHostingRobotProxy proxy;
+	private String name;
+
+	public RobotProcess(IHostManager hostManager, File channelFile) throws IOException {
+		this.hostManager = hostManager;
+		this.channel = new RobotChannel(channelFile, ProcessRobotProxy.getSpinNanos());
+	}
+
+	/**
+	 * Runs the control messages from the battle until the robot is cleaned up.
+	 *
+	 * @throws IOException if the robot could not be loaded, or the connection to the battle is broken.
+	 */
+	public void run() throws IOException {
+		startBattleWatcher();
+
+		final MappedRing control = channel.control;
+
+		while (true) {
+			if (!control.beginRead(POLL_NANOS)) {
+				continue;
+			}
+			final int kind = control.getKind();
+
+			switch (kind) {
+			case RobotChannel.INIT:
+				final ObjectInputStream init = RobotChannel.readObjects(control);
+
+				control.endRead();
+				loadRobot((String) readObject(init), (RobotStatics) readObject(init));
+				peer.send(RobotChannel.READY, 0);
+				break;
+
+			case RobotChannel.START_ROUND:
+				final ObjectInputStream round = RobotChannel.readObjects(control);
+
+				control.endRead();
+				proxy.startRound((ExecCommands) readObject(round), (RobotStatus) readObject(round));
+				break;
+
+			case RobotChannel.FORCE_STOP:
+				control.endRead();
+				proxy.forceStopThread();
+				peer.send(RobotChannel.STOPPED, 0);
+				break;
+
+			case RobotChannel.WAIT_FOR_STOP:
+				control.endRead();
+				proxy.waitForStopThread();
+				peer.send(RobotChannel.STOPPED, 0);
+				break;
+
+			case RobotChannel.CLEANUP:
+				control.endRead();
+				if (proxy != null) {
+					proxy.cleanup();
+				}
+				channel.close();
+				return;
+
+			default:
+				control.endRead();
+				throw new IOException("Unknown control message: " + kind);
+			}
+		}
+	}
+
+	private void loadRobot(String nameAndVersion, RobotStatics statics) throws IOException {
+		final RobotSpecification[] specifications = Container.getComponent(IRepositoryManager.class).loadSelectedRobots(
+				nameAndVersion);
+
+		if (specifications.length == 0) {
+			throw new IOException("Can't find " + nameAndVersion);
+		}
+		name = statics.getName();
+		proxy = (IHostingRobotProxy) hostManager.createRobotProxy(specifications[0], statics, peer);
+	}
+
+	private static Object readObject(ObjectInputStream in) throws IOException {
+		try {
+			return in.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException(e.toString());
+		}
+	}
+
+	// Exits this process when the battle process has ended, which closes our standard input
+	private static void startBattleWatcher() {
+		final Thread thread = new Thread(new Runnable() {
+			public void run() {
+				try {
+					while (System.in.read() >= 0) {// Do nothing
+					}
+				} catch (IOException e) {// Do nothing
+				}
+				System.exit(1);
+			}
+		}, "Battle watcher");
+
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private static Error createException(String className, String message) {
+		if (className.equals(DeathException.class.getName())) {
+			return new DeathException(message);
+		} else if (className.equals(WinException.class.getName())) {
+			return new WinException(message);
+		} else if (className.equals(AbortedException.class.getName())) {
+			return new AbortedException(message);
+		} else if (className.equals(DisabledException.class.getName())) {
+			return new DisabledException(message);
+		}
+		return new RobotException(message == null ? className : className + ": " + message);
+	}
+
+	/**
+	 * The peer of the robot in this process, which forwards the calls to the peer in the battle process.
+	 */
+	private final class RemotePeer implements IRobotPeer {
+
+		private final AtomicBoolean isRunning = new AtomicBoolean(false);
+
+		// The requests can come from the robot thread and the control thread
+		private final Object requestLock = new Object();
+		private final RbSerializer requestSerializer = new RbSerializer();
+
+		// Only one thread waits for its results at a time
+		private final Object executeLock = new Object();
+		private final RbSerializer resultSerializer = new RbSerializer();
+		private int sequence;
+
+		// The buffer of a robot that passes its commands and results serialized, as the .NET robots do
+		private ByteBuffer bidirectionalBuffer;
+		private final RbSerializer bufferSerializer = new RbSerializer();
+
+		public void drainEnergy() {
+			send(RobotChannel.DRAIN_ENERGY, 0);
+		}
+
+		public void punishBadBehavior(BadBehavior badBehavior) {
+			send(RobotChannel.PUNISH, badBehavior.ordinal());
+		}
+
+		public void setRunning(boolean value) {
+			isRunning.set(value);
+			send(RobotChannel.SET_RUNNING, value ? 1 : 0);
+		}
+
+		public boolean isRunning() {
+			return isRunning.get();
+		}
+
+		public ExecResults waitForBattleEndImpl(ExecCommands newCommands) {
+			return execute(RobotChannel.WAIT_FOR_BATTLE_END, newCommands);
+		}
+
+		public ExecResults executeImpl(ExecCommands newCommands) {
+			return execute(RobotChannel.EXECUTE, newCommands);
+		}
+
+		public void setupBuffer(ByteBuffer bidirectionalBuffer) {
+			this.bidirectionalBuffer = bidirectionalBuffer;
+		}
+
+		public void executeImplSerial() throws IOException {
+			ExecCommands commands = (ExecCommands) bufferSerializer.deserialize(bidirectionalBuffer);
+
+			final ExecResults results = executeImpl(commands);
+
+			bidirectionalBuffer.clear();
+			bufferSerializer.serializeStreaming(bidirectionalBuffer, RbSerializer.ExecResults_TYPE, results);
+		}
+
+		public void waitForBattleEndImplSerial() throws IOException {
+			ExecCommands commands = (ExecCommands) bufferSerializer.deserialize(bidirectionalBuffer);
+
+			final ExecResults results = waitForBattleEndImpl(commands);
+
+			bidirectionalBuffer.clear();
+			bufferSerializer.serializeStreaming(bidirectionalBuffer, RbSerializer.ExecResults_TYPE, results);
+		}
+
+		public void setupThread() {
+			Thread.currentThread().setName(name);
+		}
+
+		void send(int kind, int value) {
+			synchronized (requestLock) {
+				try {
+					RobotChannel.write(channel.requests, kind, 0, value);
+				} catch (IOException e) {
+					throw new RobotException("Lost the connection to the battle: " + e);
+				}
+			}
+		}
+
+		private ExecResults execute(int kind, ExecCommands commands) {
+			synchronized (executeLock) {
+				final int expectedSequence = ++sequence;
+
+				try {
+					synchronized (requestLock) {
+						RobotChannel.write(channel.requests, kind, expectedSequence, requestSerializer,
+								RbSerializer.ExecCommands_TYPE, commands);
+					}
+					// The graphics calls have been copied into the request, so the robot can reuse their buffer
+					PaintBuffer.releaseCalls(commands.getGraphicsCalls());
+					commands.setGraphicsCalls(null);
+
+					final MappedRing results = channel.results;
+
+					while (true) {
+						if (!results.beginRead(POLL_NANOS)) {
+							continue;
+						}
+						try {
+							// Skips the answer to a request of a robot thread that was stopped while waiting
+							if (results.getSequence() != expectedSequence) {
+								continue;
+							}
+							if (results.getKind() == RobotChannel.RESULTS) {
+								return (ExecResults) resultSerializer.deserialize(results.getBody());
+							}
+							final ObjectInputStream exception = RobotChannel.readObjects(results);
+
+							throw createException((String) readObject(exception), (String) readObject(exception));
+						} finally {
+							results.endRead();
+						}
+					}
+				} catch (IOException e) {
+					throw new RobotException("Lost the connection to the battle: " + e);
+				}
+			}
+		}
+	}
+}
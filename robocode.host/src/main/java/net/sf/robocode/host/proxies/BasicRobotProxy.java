@@ -45,13 +45,18 @@ public class BasicRobotProxy extends HostingRobotProxy implements IBasicRobotPee
 			MAX_SET_CALL_COUNT = 10000,
 			MAX_GET_CALL_COUNT = 10000;
 
+	// created when the robot gets its graphics, so the AWT is only loaded for robots that paint
 	private IGraphicsProxy graphicsProxy;
+	private boolean isPaintEnabled;
 
 	private RobotStatus status;
 	private boolean isDisabled;
 	protected ExecCommands commands;
 	private ExecResults execResults;
 
+	// Increased with each new status, so it tells the turns apart even though the commands are reused
+	protected int turnCount;
+
 	private final Map<Integer, Bullet> bullets = new ConcurrentHashMap<Integer, Bullet>();
 	private int nextBulletId = 1; // 0 is used for bullet explosions 
 
@@ -68,8 +73,6 @@ public class BasicRobotProxy extends HostingRobotProxy implements IBasicRobotPee
 
 		eventManager = new EventManager(this);
 
-		graphicsProxy = new Graphics2DSerialized();
-
 		// dummy
 		execResults = new ExecResults(null, null, null, null, null, false, false, false);
 
@@ -338,9 +341,20 @@ public class BasicRobotProxy extends HostingRobotProxy implements IBasicRobotPee
 	}
 
 	public Graphics2D getGraphicsImpl() {
+		if (graphicsProxy == null) {
+			graphicsProxy = new Graphics2DSerialized();
+			graphicsProxy.setPaintingEnabled(isPaintEnabled);
+		}
 		return (Graphics2D) graphicsProxy;
 	}
 
+	private void setPaintingEnabled(boolean enabled) {
+		isPaintEnabled = enabled;
+		if (graphicsProxy != null) {
+			graphicsProxy.setPaintingEnabled(enabled);
+		}
+	}
+
 	@Override
 	protected final void executeImpl() {
 		if (execResults == null) {
@@ -367,14 +381,14 @@ public class BasicRobotProxy extends HostingRobotProxy implements IBasicRobotPee
 		}
 
 		commands.setOutputText(out.readAndReset());
-		commands.setGraphicsCalls(graphicsProxy.readoutQueuedCalls());
+		commands.setGraphicsCalls(graphicsProxy != null ? graphicsProxy.readoutQueuedCalls() : null);
 
 		// Call server
 		execResults = peer.executeImpl(commands);
 
 		updateStatus(execResults.getCommands(), execResults.getStatus());
 
-		graphicsProxy.setPaintingEnabled(execResults.isPaintEnabled());
+		setPaintingEnabled(execResults.isPaintEnabled());
 		firedEnergy = 0;
 		firedHeat = 0;
 
@@ -415,7 +429,7 @@ public class BasicRobotProxy extends HostingRobotProxy implements IBasicRobotPee
 	@Override
 	protected final void waitForBattleEndImpl() {
 		eventManager.clearAllEvents(false);
-		graphicsProxy.setPaintingEnabled(false);
+		setPaintingEnabled(false);
 		do {
 			// Make sure remaining system events like e.g. are processed this round
 			try {
@@ -429,7 +443,7 @@ public class BasicRobotProxy extends HostingRobotProxy implements IBasicRobotPee
 			}
 
 			commands.setOutputText(out.readAndReset());
-			commands.setGraphicsCalls(graphicsProxy.readoutQueuedCalls());
+			commands.setGraphicsCalls(graphicsProxy != null ? graphicsProxy.readoutQueuedCalls() : null);
 
 			// Call server
 			execResults = peer.waitForBattleEndImpl(commands);
@@ -451,6 +465,7 @@ public class BasicRobotProxy extends HostingRobotProxy implements IBasicRobotPee
 	private void updateStatus(ExecCommands commands, RobotStatus status) {
 		this.status = status;
 		this.commands = commands;
+		turnCount++;
 	}
 
 	protected void loadTeamMessages(java.util.List<TeamMessage> teamMessages) {}
@@ -199,6 +199,9 @@ public abstract class HostingRobotProxy implements IHostingRobotProxy, IHostedTh
 	protected abstract void executeImpl();
 
 	public void run() {
+		// Gives the robot thread its own random number generator before any robot code is called
+		peer.setupThread();
+
 		// Only initialize AWT if we are not running in headless mode.
 		// Bugfix [2833271] IllegalThreadStateException with the AWT-Shutdown thread.
 		// Read more about headless mode here:
@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.host.security;
+
+
+import java.io.File;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * JVM-wide cache of the class bytes of robots in jar files, and of the classes referenced by them.
+ * <p/>
+ * The classes are cached per robot jar, which is identified by its URL and last modification time, so
+ * a jar that is replaced is read again. The size of the cache is bounded, and the least recently used
+ * jars are removed first. Each robot still gets its own class loader, which defines its classes from
+ * the cached bytes without reading the jar again.
+ * <p/>
+ * The size in megabytes is set with -DROBOTCLASSCACHESIZE=32, where 0 disables the cache.
+ */
+final class RobotClassCache {
+
+	private static final int ENTRY_OVERHEAD = 64;
+
+	private static final RobotClassCache instance = new RobotClassCache(
+			Integer.getInteger("ROBOTCLASSCACHESIZE", 32) * 1024L * 1024L);
+
+	/**
+	 * The cached bytes of a class, and the names of the classes it references.
+	 */
+	static final class CachedClass {
+		final byte[] bytes;
+		final String[] referencedClasses;
+
+		CachedClass(byte[] bytes, String[] referencedClasses) {
+			this.bytes = bytes;
+			this.referencedClasses = referencedClasses;
+		}
+	}
+
+	/**
+	 * Marks a class that is not in the jar.
+	 */
+	static final CachedClass NOT_FOUND = new CachedClass(null, null);
+
+	/**
+	 * The cached classes of one robot jar.
+	 */
+	final class JarClasses {
+		private final long lastModified;
+		private final Map<String, CachedClass> classes = new HashMap<String, CachedClass>();
+		private long size;
+		private boolean isRemoved;
+
+		JarClasses(long lastModified) {
+			this.lastModified = lastModified;
+		}
+
+		/**
+		 * Returns a cached class.
+		 *
+		 * @param className the name of the class.
+		 * @return the cached class, {@link RobotClassCache#NOT_FOUND} if the class is not in the jar,
+		 *         or null if the class has not been cached.
+		 */
+		CachedClass get(String className) {
+			synchronized (RobotClassCache.this) {
+				return classes.get(className);
+			}
+		}
+
+		/**
+		 * Caches a class.
+		 *
+		 * @param className the name of the class.
+		 * @param cachedClass the cached class, or {@link RobotClassCache#NOT_FOUND} if the class is not in the jar.
+		 */
+		void put(String className, CachedClass cachedClass) {
+			synchronized (RobotClassCache.this) {
+				if (isRemoved || classes.containsKey(className)) {
+					return;
+				}
+				classes.put(className, cachedClass);
+
+				final long entrySize = sizeOf(className, cachedClass);
+
+				size += entrySize;
+				totalSize += entrySize;
+				trim();
+			}
+		}
+	}
+
+	private final long maxSize;
+	private final LinkedHashMap<String, JarClasses> jars = new LinkedHashMap<String, JarClasses>(16, 0.75f, true);
+	private long totalSize;
+
+	RobotClassCache(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	static RobotClassCache getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Returns the cached classes of a robot jar.
+	 *
+	 * @param classPath the class path of the robot.
+	 * @return the cached classes, or null if the class path is not a jar file or the cache is disabled.
+	 */
+	synchronized JarClasses getJarClasses(URL classPath) {
+		if (maxSize <= 0) {
+			return null;
+		}
+		final File jarFile = getJarFile(classPath);
+
+		if (jarFile == null) {
+			return null;
+		}
+		final long lastModified = jarFile.lastModified();
+
+		if (lastModified == 0) {
+			return null;
+		}
+		final String key = classPath.toString();
+		JarClasses jarClasses = jars.get(key);
+
+		if (jarClasses == null || jarClasses.lastModified != lastModified) {
+			if (jarClasses != null) {
+				remove(key);
+			}
+			jarClasses = new JarClasses(lastModified);
+			jars.put(key, jarClasses);
+		}
+		return jarClasses;
+	}
+
+	/**
+	 * Returns the total size of the cached classes in bytes.
+	 */
+	synchronized long getSize() {
+		return totalSize;
+	}
+
+	private void trim() {
+		final Iterator<Map.Entry<String, JarClasses>> iterator = jars.entrySet().iterator();
+
+		// The least recently used jars come first
+		while (totalSize > maxSize && iterator.hasNext()) {
+			final JarClasses jarClasses = iterator.next().getValue();
+
+			iterator.remove();
+			jarClasses.isRemoved = true;
+			totalSize -= jarClasses.size;
+		}
+	}
+
+	private void remove(String key) {
+		final JarClasses jarClasses = jars.remove(key);
+
+		jarClasses.isRemoved = true;
+		totalSize -= jarClasses.size;
+	}
+
+	private static long sizeOf(String className, CachedClass cachedClass) {
+		long size = ENTRY_OVERHEAD + 2 * className.length();
+
+		if (cachedClass.bytes != null) {
+			size += cachedClass.bytes.length;
+			for (String referencedClass : cachedClass.referencedClasses) {
+				size += ENTRY_OVERHEAD + 2 * referencedClass.length();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the jar file of a class path like jar:file:/robots/sample.jar!/
+	 */
+	private static File getJarFile(URL classPath) {
+		final String path = classPath.toString();
+
+		if (!path.startsWith("jar:file:") || !path.endsWith("!/")) {
+			return null;
+		}
+		try {
+			return new File(new URI(path.substring("jar:".length(), path.length() - "!/".length())));
+		} catch (URISyntaxException e) {
+			return null;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+}
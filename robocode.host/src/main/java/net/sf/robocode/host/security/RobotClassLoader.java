@@ -64,6 +64,9 @@ public class RobotClassLoader extends URLClassLoader implements IRobotClassLoade
 
 	private Set<String> referencedClasses = new HashSet<String>();
 
+	// the classes of the robot jar that are shared with other class loaders, or null if not cached
+	private final RobotClassCache.JarClasses cachedClasses;
+
 	private String[] staticRobotInstanceWarning; // cached warning messages  
 
 	public RobotClassLoader(URL robotClassPath, String robotFullClassName) {
@@ -71,6 +74,7 @@ public class RobotClassLoader extends URLClassLoader implements IRobotClassLoade
 		fullClassName = robotFullClassName;
 		this.robotClassPath = robotClassPath;
 		parent = getParent();
+		cachedClasses = RobotClassCache.getInstance().getJarClasses(robotClassPath);
 		try {
 			codeSource = new CodeSource(new URL(untrustedURL), (Certificate[]) null);
 		} catch (MalformedURLException ignored) {}
@@ -135,14 +139,51 @@ public class RobotClassLoader extends URLClassLoader implements IRobotClassLoade
 		Class<?> result = findLoadedClass(name);
 
 		if (result == null) {
-			final ByteBuffer resource = findLocalResource(name);
+			final RobotClassCache.CachedClass cachedClass = cachedClasses != null ? cachedClasses.get(name) : null;
 
+			if (cachedClass != null) {
+				if (cachedClass != RobotClassCache.NOT_FOUND) {
+					result = defineClass(name, ByteBuffer.wrap(cachedClass.bytes), codeSource);
+					if (resolve) {
+						resolveClass(result);
+					}
+					for (String referencedClass : cachedClass.referencedClasses) {
+						referencedClasses.add(referencedClass);
+					}
+				}
+				return result;
+			}
+
+			final ByteBuffer resource;
+
+			try {
+				resource = findLocalResource(name);
+			} catch (IOException e) {
+				// not cached, as the class might be readable next time
+				Logger.logError(e);
+				return null;
+			}
 			if (resource != null) {
 				result = defineClass(name, resource, codeSource);
 				if (resolve) {
 					resolveClass(result);
 				}
-				ClassAnalyzer.getReferencedClasses(resource, referencedClasses);
+				if (cachedClasses == null) {
+					ClassAnalyzer.getReferencedClasses(resource, referencedClasses);
+				} else {
+					final Set<String> references = new HashSet<String>();
+
+					ClassAnalyzer.getReferencedClasses(resource, references);
+					referencedClasses.addAll(references);
+
+					final byte[] bytes = new byte[resource.limit()];
+
+					System.arraycopy(resource.array(), 0, bytes, 0, bytes.length);
+					cachedClasses.put(name,
+							new RobotClassCache.CachedClass(bytes, references.toArray(new String[references.size()])));
+				}
+			} else if (cachedClasses != null) {
+				cachedClasses.put(name, RobotClassCache.NOT_FOUND);
 			}
 		}
 		return result;
@@ -150,55 +191,56 @@ public class RobotClassLoader extends URLClassLoader implements IRobotClassLoade
 
 	// this whole fun is there to be able to provide defineClass with bytes
 	// we need to call defineClass to be able to set codeSource to untrustedLocation  
-	private ByteBuffer findLocalResource(final String name) {
-		return AccessController.doPrivileged(new PrivilegedAction<ByteBuffer>() {
-			public ByteBuffer run() {
-				// try to find it in robot's class path
-				// this is URL, don't change to File.pathSeparator
-				String path = name.replace('.', '/').concat(".class");
+	private ByteBuffer findLocalResource(final String name) throws IOException {
+		try {
+			return AccessController.doPrivileged(new PrivilegedExceptionAction<ByteBuffer>() {
+				public ByteBuffer run() throws IOException {
+					// try to find it in robot's class path
+					// this is URL, don't change to File.pathSeparator
+					String path = name.replace('.', '/').concat(".class");
 
-				final URL url = findResource(path);
-				ByteBuffer result = null;
-				InputStream is = null;
-				BufferedInputStream bis = null;
+					final URL url = findResource(path);
+					ByteBuffer result = null;
+					InputStream is = null;
+					BufferedInputStream bis = null;
 
-				if (url != null) {
-					try {
-						final URLConnection connection = URLJarCollector.openConnection(url);
+					if (url != null) {
+						try {
+							final URLConnection connection = URLJarCollector.openConnection(url);
 
-						is = connection.getInputStream();
-						bis = new BufferedInputStream(is);
+							is = connection.getInputStream();
+							bis = new BufferedInputStream(is);
 
-						result = ByteBuffer.allocate(1024 * 8);
-						boolean done = false;
+							result = ByteBuffer.allocate(1024 * 8);
+							boolean done = false;
 
-						do {
 							do {
-								int res = bis.read(result.array(), result.position(), result.remaining());
-
-								if (res == -1) {
-									done = true;
-									break;
+								do {
+									int res = bis.read(result.array(), result.position(), result.remaining());
+
+									if (res == -1) {
+										done = true;
+										break;
+									}
+									result.position(result.position() + res);
+								} while (result.remaining() != 0);
+								result.flip();
+								if (!done) {
+									result = ByteBuffer.allocate(result.capacity() * 2).put(result);
 								}
-								result.position(result.position() + res);
-							} while (result.remaining() != 0);
-							result.flip();
-							if (!done) {
-								result = ByteBuffer.allocate(result.capacity() * 2).put(result);
-							}
-						} while (!done);
-
-					} catch (IOException e) {
-						Logger.logError(e);
-						return null;
-					} finally {
-						FileUtil.cleanupStream(bis);
-						FileUtil.cleanupStream(is);
+							} while (!done);
+
+						} finally {
+							FileUtil.cleanupStream(bis);
+							FileUtil.cleanupStream(is);
+						}
 					}
+					return result;
 				}
-				return result;
-			}
-		});
+			});
+		} catch (PrivilegedActionException e) {
+			throw (IOException) e.getException();
+		}
 	}
 
 	private void punishSecurityViolation(String message) {
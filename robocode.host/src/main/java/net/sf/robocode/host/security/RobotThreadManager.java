@@ -33,6 +33,7 @@ public class RobotThreadManager {
 	private final IHostedThread robotProxy;
 	private Thread runThread;
 	private ThreadGroup runThreadGroup;
+	private IThreadManager threadManager;
 	private Object awtForThreadGroup;
 	private final Map<Thread, Disposal> disposeAppContextThreadMap = new HashMap<Thread, Disposal>();
 
@@ -42,6 +43,7 @@ public class RobotThreadManager {
 	}
 
 	public void cleanup() {
+		unregisterThreadGroup();
 		try {
 			if (runThread == null || !runThread.isAlive()) {
 				if (!discardAWT()) {
@@ -83,9 +85,14 @@ public class RobotThreadManager {
 
 	public void start(IThreadManager threadManager) {
 		try {
+			this.threadManager = threadManager;
 			threadManager.addThreadGroup(runThreadGroup, robotProxy);
 
-			runThread = new Thread(runThreadGroup, robotProxy, robotProxy.getStatics().getName());
+			// A smaller stack size than the default of the JVM allows hosting many more robot threads,
+			// but robots using deep recursion might get a StackOverflowError
+			final long stackSize = Long.getLong("ROBOTSTACKSIZE", 0) * 1024;
+
+			runThread = new Thread(runThreadGroup, robotProxy, robotProxy.getStatics().getName(), stackSize);
 			runThread.setDaemon(true);
 			runThread.setPriority(Thread.NORM_PRIORITY - 1);
 			runThread.setContextClassLoader(this.robotProxy.getRobotClassloader());
@@ -154,6 +161,7 @@ public class RobotThreadManager {
 			robotProxy.println("SYSTEM: This robot has been stopped.  No score will be generated.");
 
 			// recycle thread group
+			unregisterThreadGroup();
 			createThreadGroup();
 		}
 		runThread = null;
@@ -236,6 +244,13 @@ public class RobotThreadManager {
 		runThreadGroup.setMaxPriority(Thread.NORM_PRIORITY - 1);
 	}
 
+	// Only the group of this robot is removed, as robots of other battles might be registered too
+	private void unregisterThreadGroup() {
+		if (threadManager != null) {
+			threadManager.removeThreadGroup(runThreadGroup);
+		}
+	}
+
 	public Object createNewAppContext() {
 		// Add the current thread to our disposeAppContextThreadMap if it does not exit already
 		if (!disposeAppContextThreadMap.containsKey(Thread.currentThread())) {
@@ -19,6 +19,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
@@ -35,12 +38,13 @@ public class ThreadManager implements IThreadManager {
 
 	private final List<Thread> safeThreads = new CopyOnWriteArrayList<Thread>();
 	private final List<ThreadGroup> safeThreadGroups = new CopyOnWriteArrayList<ThreadGroup>();
-	private final List<ThreadGroup> groups = new CopyOnWriteArrayList<ThreadGroup>();
 	private final List<Thread> outputStreamThreads = new CopyOnWriteArrayList<Thread>();
-	private final List<IHostedThread> robots = new CopyOnWriteArrayList<IHostedThread>();
 
-	private Thread robotLoaderThread;
-	private IHostedThread loadingRobot;
+	// Maps the thread group of each robot to its proxy. Robots of several battles can be registered at the same time
+	private final ConcurrentMap<ThreadGroup, IHostedThread> robots = new ConcurrentHashMap<ThreadGroup, IHostedThread>();
+
+	// Maps each thread loading a robot to the robot being loaded
+	private final Map<Thread, IHostedThread> loadingRobots = new ConcurrentHashMap<Thread, IHostedThread>();
 
 	public ThreadManager() {}
 
@@ -57,26 +61,36 @@ public class ThreadManager implements IThreadManager {
 	}
 
 	public void addThreadGroup(ThreadGroup g, IHostedThread robotProxy) {
-		if (!groups.contains(g)) {
-			groups.add(g);
-			robots.add(robotProxy);
+		robots.putIfAbsent(g, robotProxy);
+	}
+
+	public void removeThreadGroup(ThreadGroup g) {
+		if (g != null) {
+			robots.remove(g);
 		}
 	}
 
-	public synchronized IHostedThread getLoadingRobot() {
-		return loadingRobot;
+	public IHostedThread getLoadingRobot() {
+		return loadingRobots.get(Thread.currentThread());
 	}
 
-	public synchronized IHostedThread getLoadingRobotProxy(Thread t) {
-		if (t != null && robotLoaderThread != null
-				&& (t.equals(robotLoaderThread)
-				|| (t.getThreadGroup() != null && t.getThreadGroup().equals(robotLoaderThread.getThreadGroup())))) {
-			return loadingRobot;
+	public IHostedThread getLoadingRobotProxy(Thread t) {
+		if (t == null || loadingRobots.isEmpty()) {
+			return null;
+		}
+		IHostedThread robotProxy = loadingRobots.get(t);
+
+		if (robotProxy == null && t.getThreadGroup() != null) {
+			for (Map.Entry<Thread, IHostedThread> entry : loadingRobots.entrySet()) {
+				if (t.getThreadGroup().equals(entry.getKey().getThreadGroup())) {
+					return entry.getValue();
+				}
+			}
 		}
-		return null;
+		return robotProxy;
 	}
 
-	public synchronized IHostedThread getLoadedOrLoadingRobotProxy(Thread t) {
+	public IHostedThread getLoadedOrLoadingRobotProxy(Thread t) {
 		IHostedThread robotProxy = getRobotProxy(t);
 
 		if (robotProxy == null) {
@@ -91,26 +105,18 @@ public class ThreadManager implements IThreadManager {
 		if (g == null) {
 			return null;
 		}
-		int index = groups.indexOf(g);
-
-		if (index == -1) {
-			return null;
-		}
-		return robots.get(index);
+		return robots.get(g);
 	}
 
 	public void reset() {
-		groups.clear();
 		robots.clear();
 	}
 
-	public synchronized void setLoadingRobot(IHostedThread newLoadingRobotProxy) {
+	public void setLoadingRobot(IHostedThread newLoadingRobotProxy) {
 		if (newLoadingRobotProxy == null) {
-			this.robotLoaderThread = null;
-			loadingRobot = null;
+			loadingRobots.remove(Thread.currentThread());
 		} else {
-			this.robotLoaderThread = Thread.currentThread();
-			loadingRobot = newLoadingRobotProxy;
+			loadingRobots.put(Thread.currentThread(), newLoadingRobotProxy);
 		}
 	}
 
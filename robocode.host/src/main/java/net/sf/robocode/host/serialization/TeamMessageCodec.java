@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.host.serialization;
+
+
+import net.sf.robocode.serialization.RbSerializer;
+import robocode.Event;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+
+/**
+ * Encodes the messages sent between team robots into bytes, and decodes them again.
+ * <p/>
+ * Strings, boxed primitives, arrays of primitives and the objects known by the {@link RbSerializer} are
+ * written in a compact binary form. All other messages are written with Java serialization.
+ * The encoded bytes are never changed, so a message sent to several teammates is decoded by each
+ * teammate from the same bytes, and each teammate gets its own copy of the message.
+ * <p/>
+ * A codec is not thread-safe, and each robot has its own.
+ */
+public final class TeamMessageCodec {
+
+	// The first byte of the encoded message tells how the rest is encoded
+	private static final byte NULL = 0;
+	private static final byte JAVA = 1;
+	private static final byte STRING = 2;
+	private static final byte INTEGER = 3;
+	private static final byte LONG = 4;
+	private static final byte DOUBLE = 5;
+	private static final byte FLOAT = 6;
+	private static final byte BOOLEAN = 7;
+	private static final byte BYTES = 8;
+	private static final byte INTEGERS = 9;
+	private static final byte DOUBLES = 10;
+	private static final byte FLOATS = 11;
+	private static final byte CHARS = 12;
+	private static final byte OBJECT = 13;
+	private static final byte EVENT = 14;
+
+	private static final int SIZEOF_TAG = 1;
+	private static final int SIZEOF_FLOAT = 4;
+
+	private final RbSerializer serializer = new RbSerializer();
+	private final int maxMessageSize;
+	private final ByteBuffer buffer;
+	private ByteArrayOutputStream javaStream;
+
+	/**
+	 * Creates a new codec.
+	 *
+	 * @param maxMessageSize the maximum number of bytes of an encoded message, not counting its first byte.
+	 */
+	public TeamMessageCodec(int maxMessageSize) {
+		this.maxMessageSize = maxMessageSize;
+		buffer = ByteBuffer.allocate(SIZEOF_TAG + maxMessageSize);
+	}
+
+	/**
+	 * Encodes a message.
+	 *
+	 * @param message the message, which can be null.
+	 * @return new bytes with the encoded message.
+	 * @throws IOException if the message cannot be serialized, or is too big.
+	 */
+	public byte[] encode(Serializable message) throws IOException {
+		final int size = sizeOf(message);
+
+		if (size < 0) {
+			return encodeJava(message);
+		}
+		if (size > maxMessageSize) {
+			throw new IOException("Message too big. " + size + ">" + maxMessageSize);
+		}
+		buffer.clear();
+		write(message);
+		return Arrays.copyOf(buffer.array(), buffer.position());
+	}
+
+	/**
+	 * Decodes a message.
+	 *
+	 * @param bytes the encoded message.
+	 * @param classLoader the class loader for the classes of messages written with Java serialization.
+	 * @return the decoded message.
+	 * @throws IOException if the message cannot be decoded.
+	 * @throws ClassNotFoundException if the class of a message written with Java serialization is not found.
+	 */
+	public Serializable decode(byte[] bytes, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+		if (bytes.length > 0 && bytes[0] == JAVA) {
+			RobocodeObjectInputStream objectStreamReader = null;
+
+			try {
+				objectStreamReader = new RobocodeObjectInputStream(
+						new ByteArrayInputStream(bytes, SIZEOF_TAG, bytes.length - SIZEOF_TAG), classLoader);
+				return (Serializable) objectStreamReader.readObject();
+			} finally {
+				if (objectStreamReader != null) {
+					objectStreamReader.close();
+				}
+			}
+		}
+		try {
+			return read(ByteBuffer.wrap(bytes));
+		} catch (RuntimeException e) {
+			throw new IOException("Invalid team message: " + e);
+		}
+	}
+
+	// Returns the size of the message in the compact form without the tag, or -1 if Java serialization is needed
+	private int sizeOf(Serializable message) {
+		if (message == null) {
+			return 0;
+		}
+		final Class<?> messageClass = message.getClass();
+
+		if (messageClass == String.class) {
+			return serializer.sizeOf((String) message);
+		}
+		if (messageClass == Integer.class) {
+			return RbSerializer.SIZEOF_INT;
+		}
+		if (messageClass == Long.class) {
+			return RbSerializer.SIZEOF_LONG;
+		}
+		if (messageClass == Double.class) {
+			return RbSerializer.SIZEOF_DOUBLE;
+		}
+		if (messageClass == Float.class) {
+			return SIZEOF_FLOAT;
+		}
+		if (messageClass == Boolean.class) {
+			return RbSerializer.SIZEOF_BOOL;
+		}
+		if (messageClass == byte[].class) {
+			return serializer.sizeOf((byte[]) message);
+		}
+		if (messageClass == int[].class) {
+			return RbSerializer.SIZEOF_INT + ((int[]) message).length * RbSerializer.SIZEOF_INT;
+		}
+		if (messageClass == double[].class) {
+			return RbSerializer.SIZEOF_INT + ((double[]) message).length * RbSerializer.SIZEOF_DOUBLE;
+		}
+		if (messageClass == float[].class) {
+			return RbSerializer.SIZEOF_INT + ((float[]) message).length * SIZEOF_FLOAT;
+		}
+		if (messageClass == char[].class) {
+			return RbSerializer.SIZEOF_INT + ((char[]) message).length * RbSerializer.SIZEOF_CHAR;
+		}
+		final byte type = RbSerializer.getSerializationType(messageClass);
+
+		if (type == RbSerializer.TERMINATOR_TYPE) {
+			return -1;
+		}
+		final int size = serializer.sizeOf(type, message);
+
+		// Events also need their time and priority, which are not serialized with them
+		return (message instanceof Event) ? size + RbSerializer.SIZEOF_LONG + RbSerializer.SIZEOF_INT : size;
+	}
+
+	private void write(Serializable message) {
+		if (message == null) {
+			buffer.put(NULL);
+			return;
+		}
+		final Class<?> messageClass = message.getClass();
+
+		if (messageClass == String.class) {
+			buffer.put(STRING);
+			serializer.serialize(buffer, (String) message);
+		} else if (messageClass == Integer.class) {
+			buffer.put(INTEGER);
+			buffer.putInt((Integer) message);
+		} else if (messageClass == Long.class) {
+			buffer.put(LONG);
+			buffer.putLong((Long) message);
+		} else if (messageClass == Double.class) {
+			buffer.put(DOUBLE);
+			buffer.putDouble((Double) message);
+		} else if (messageClass == Float.class) {
+			buffer.put(FLOAT);
+			buffer.putFloat((Float) message);
+		} else if (messageClass == Boolean.class) {
+			buffer.put(BOOLEAN);
+			serializer.serialize(buffer, ((Boolean) message).booleanValue());
+		} else if (messageClass == byte[].class) {
+			buffer.put(BYTES);
+			serializer.serialize(buffer, (byte[]) message);
+		} else if (messageClass == int[].class) {
+			buffer.put(INTEGERS);
+			serializer.serialize(buffer, (int[]) message);
+		} else if (messageClass == double[].class) {
+			buffer.put(DOUBLES);
+			serializer.serialize(buffer, (double[]) message);
+		} else if (messageClass == float[].class) {
+			buffer.put(FLOATS);
+			serializer.serialize(buffer, (float[]) message);
+		} else if (messageClass == char[].class) {
+			buffer.put(CHARS);
+			serializer.serialize(buffer, (char[]) message);
+		} else if (message instanceof Event) {
+			final Event event = (Event) message;
+
+			buffer.put(EVENT);
+			serializer.serialize(buffer, RbSerializer.getSerializationType(messageClass), event);
+			buffer.putLong(event.getTime());
+			buffer.putInt(event.getPriority());
+		} else {
+			buffer.put(OBJECT);
+			serializer.serialize(buffer, RbSerializer.getSerializationType(messageClass), message);
+		}
+	}
+
+	private Serializable read(ByteBuffer buffer) throws IOException {
+		final byte tag = buffer.get();
+
+		switch (tag) {
+		case NULL:
+			return null;
+
+		case STRING:
+			return serializer.deserializeString(buffer);
+
+		case INTEGER:
+			return buffer.getInt();
+
+		case LONG:
+			return buffer.getLong();
+
+		case DOUBLE:
+			return buffer.getDouble();
+
+		case FLOAT:
+			return buffer.getFloat();
+
+		case BOOLEAN:
+			return serializer.deserializeBoolean(buffer);
+
+		case BYTES:
+			return serializer.deserializeBytes(buffer);
+
+		case INTEGERS:
+			return serializer.deserializeIntegers(buffer);
+
+		case DOUBLES:
+			return serializer.deserializeDoubles(buffer);
+
+		case FLOATS:
+			return serializer.deserializeFloats(buffer);
+
+		case CHARS:
+			return serializer.deserializeChars(buffer);
+
+		case EVENT:
+			final Event event = (Event) serializer.deserializeAny(buffer);
+
+			// Like with Java serialization, the robot can still change the time and priority of the event
+			event.setTime(buffer.getLong());
+			event.setPriority(buffer.getInt());
+			return event;
+
+		case OBJECT:
+			return (Serializable) serializer.deserializeAny(buffer);
+
+		default:
+			throw new IOException("Unknown team message type: " + tag);
+		}
+	}
+
+	private byte[] encodeJava(Serializable message) throws IOException {
+		if (javaStream == null) {
+			javaStream = new ByteArrayOutputStream(SIZEOF_TAG + maxMessageSize);
+		}
+		javaStream.reset();
+		javaStream.write(JAVA);
+
+		ObjectOutputStream objectStreamWriter = new ObjectOutputStream(javaStream);
+
+		objectStreamWriter.writeObject(message);
+		objectStreamWriter.flush();
+
+		final int size = javaStream.size() - SIZEOF_TAG;
+
+		if (size > maxMessageSize) {
+			throw new IOException("Message too big. " + size + ">" + maxMessageSize);
+		}
+		return javaStream.toByteArray();
+	}
+}
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.host;
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class CpuCalibrationTest {
+
+	@Test
+	public void medianAndDispersionOfTrials() {
+		CpuCalibration calibration = CpuCalibration.fromTrials(new long[] { 1100, 900, 1000, 5000, 1000 });
+
+		// The outlier does not move the median
+		Assert.assertEquals(1000, calibration.getCpuConstant());
+		Assert.assertEquals(5, calibration.getTrials());
+
+		// Deviations are 100, 100, 0, 4000, 0, so the median deviation is 100
+		Assert.assertEquals(0.1, calibration.getDispersion(), 1e-9);
+	}
+
+	@Test
+	public void cpuConstantIsPositive() {
+		CpuCalibration calibration = CpuCalibration.fromTrials(new long[] { 0, 0 });
+
+		Assert.assertEquals(1, calibration.getCpuConstant());
+		Assert.assertEquals(0, calibration.getDispersion(), 0);
+	}
+
+	@Test
+	public void hostKeyIsPropertyName() {
+		Assert.assertTrue(CpuCalibration.getHostKey().matches("[A-Za-z0-9._-]+"));
+	}
+
+	@Test
+	public void hostKeyIsBuiltOnce() {
+		Assert.assertSame(CpuCalibration.getHostKey(), CpuCalibration.getHostKey());
+	}
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.host.events;
+
+
+import net.sf.robocode.security.HiddenAccess;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import robocode.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+
+public class PriorityEventQueueTest {
+
+	@BeforeClass
+	public static void init() {
+		System.setProperty("NOSECURITY", "true");
+		System.setProperty("TESTING", "true");
+		HiddenAccess.initContainer();
+	}
+
+	@Test
+	public void sortsLikeList() {
+		final Random random = new Random(42);
+
+		for (int trial = 0; trial < 1000; trial++) {
+			final PriorityEventQueue queue = new PriorityEventQueue();
+			final List<Event> list = new ArrayList<Event>();
+			final int count = 1 + random.nextInt(64);
+
+			for (int i = 0; i < count; i++) {
+				final Event event = createEvent(random, random.nextInt(3));
+
+				queue.add(event);
+				list.add(event);
+			}
+			queue.sort();
+			Collections.sort(list);
+
+			Assert.assertEquals(list, queue.getEvents());
+			for (Event event : list) {
+				Assert.assertSame(event, queue.poll());
+			}
+			Assert.assertNull(queue.poll());
+			Assert.assertEquals(0, queue.size());
+		}
+	}
+
+	@Test
+	public void pollAndPeek() {
+		final PriorityEventQueue queue = new PriorityEventQueue();
+
+		Assert.assertNull(queue.peek());
+		Assert.assertNull(queue.poll());
+
+		// Adds and removes more events than the initial capacity, so the array is both compacted and grown
+		final List<Event> added = new ArrayList<Event>();
+
+		for (int i = 0; i < 100; i++) {
+			final Event event = new HitWallEvent(i);
+
+			queue.add(event);
+			added.add(event);
+			if (i % 3 == 0) {
+				Assert.assertSame(added.get(0), queue.peek());
+				Assert.assertSame(added.remove(0), queue.poll());
+			}
+		}
+		Assert.assertEquals(added.size(), queue.size());
+		Assert.assertEquals(added, queue.getEvents());
+		Assert.assertEquals(added, queue.getEvents(HitWallEvent.class));
+	}
+
+	@Test
+	public void clearKeepsCriticalEvents() {
+		final PriorityEventQueue queue = new PriorityEventQueue();
+		final Event death = new DeathEvent();
+		final Event newWall = new HitWallEvent(0);
+
+		queue.add(createEvent(new HitWallEvent(0), 1));
+		queue.add(createEvent(death, 1));
+		queue.add(createEvent(new BulletMissedEvent(null), 2));
+		queue.add(createEvent(newWall, 5));
+
+		queue.clear(2);
+		Assert.assertEquals(2, queue.size());
+		Assert.assertSame(death, queue.poll());
+		Assert.assertSame(newWall, queue.poll());
+		Assert.assertTrue(queue.getEvents(BulletMissedEvent.class).isEmpty());
+
+		queue.add(createEvent(new HitWallEvent(0), 1));
+		queue.add(death);
+		queue.clear(false);
+		Assert.assertEquals(1, queue.size());
+		Assert.assertSame(death, queue.peek());
+
+		queue.clear(true);
+		Assert.assertEquals(0, queue.size());
+		Assert.assertTrue(queue.getEvents(DeathEvent.class).isEmpty());
+	}
+
+	@Test
+	public void eventsOfClass() {
+		final PriorityEventQueue queue = new PriorityEventQueue();
+		final Event scanned = new ScannedRobotEvent("a", 100, 0, 100, 0, 0);
+		final Event hit = new HitRobotEvent("a", 0, 100, true);
+
+		Assert.assertTrue(queue.getEvents(ScannedRobotEvent.class).isEmpty());
+
+		queue.add(scanned);
+		queue.add(hit);
+		Assert.assertEquals(Collections.singletonList(scanned), queue.getEvents(ScannedRobotEvent.class));
+		Assert.assertEquals(Collections.singletonList(hit), queue.getEvents(HitRobotEvent.class));
+		Assert.assertEquals(2, queue.getEvents(Event.class).size());
+		Assert.assertTrue(queue.getEvents(HitWallEvent.class).isEmpty());
+
+		queue.poll();
+		Assert.assertTrue(queue.getEvents(ScannedRobotEvent.class).isEmpty());
+		Assert.assertEquals(Collections.singletonList(hit), queue.getEvents(HitRobotEvent.class));
+	}
+
+	// Creates the events of a turn in a melee battle with the default priorities
+	private static Event createEvent(Random random, long time) {
+		final Event event;
+
+		switch (random.nextInt(4)) {
+		case 0:
+			event = new HitRobotEvent("robot", 0, 100, random.nextBoolean());
+			break;
+
+		case 1:
+			event = new HitWallEvent(0);
+			break;
+
+		default:
+			// Distances with fractions, where the order given by compareTo() is not transitive
+			event = new ScannedRobotEvent("robot", 100, 0, random.nextInt(200) * 0.5, 0, 0);
+		}
+		HiddenAccess.setDefaultPriority(event);
+		return createEvent(event, time);
+	}
+
+	private static Event createEvent(Event event, long time) {
+		HiddenAccess.setEventTime(event, time);
+		return event;
+	}
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.host.security;
+
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+
+
+public class RobotClassCacheTest {
+
+	private File jarFile1;
+	private File jarFile2;
+
+	@Before
+	public void createJars() throws IOException {
+		jarFile1 = File.createTempFile("robot1", ".jar");
+		jarFile2 = File.createTempFile("robot2", ".jar");
+	}
+
+	@After
+	public void deleteJars() {
+		jarFile1.delete();
+		jarFile2.delete();
+	}
+
+	@Test
+	public void onlyJarsAreCached() throws IOException {
+		RobotClassCache cache = new RobotClassCache(1024 * 1024);
+
+		Assert.assertNull(cache.getJarClasses(jarFile1.getParentFile().toURI().toURL()));
+		Assert.assertNotNull(cache.getJarClasses(getClassPath(jarFile1)));
+
+		Assert.assertNull(new RobotClassCache(0).getJarClasses(getClassPath(jarFile1)));
+	}
+
+	@Test
+	public void changedJarIsNotCached() throws IOException {
+		RobotClassCache cache = new RobotClassCache(1024 * 1024);
+		RobotClassCache.CachedClass cachedClass = new RobotClassCache.CachedClass(new byte[100], new String[] { "a.B" });
+
+		cache.getJarClasses(getClassPath(jarFile1)).put("a.A", cachedClass);
+		cache.getJarClasses(getClassPath(jarFile1)).put("a.C", RobotClassCache.NOT_FOUND);
+
+		Assert.assertSame(cachedClass, cache.getJarClasses(getClassPath(jarFile1)).get("a.A"));
+		Assert.assertSame(RobotClassCache.NOT_FOUND, cache.getJarClasses(getClassPath(jarFile1)).get("a.C"));
+
+		Assert.assertTrue(jarFile1.setLastModified(jarFile1.lastModified() - 10000));
+
+		Assert.assertNull(cache.getJarClasses(getClassPath(jarFile1)).get("a.A"));
+		Assert.assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	public void leastRecentlyUsedJarIsRemoved() throws IOException {
+		RobotClassCache cache = new RobotClassCache(1500);
+		RobotClassCache.JarClasses jarClasses1 = cache.getJarClasses(getClassPath(jarFile1));
+		RobotClassCache.JarClasses jarClasses2 = cache.getJarClasses(getClassPath(jarFile2));
+
+		jarClasses1.put("a.A", new RobotClassCache.CachedClass(new byte[1000], new String[0]));
+		jarClasses2.put("b.A", new RobotClassCache.CachedClass(new byte[1000], new String[0]));
+
+		Assert.assertNull(cache.getJarClasses(getClassPath(jarFile1)).get("a.A"));
+		Assert.assertNotNull(cache.getJarClasses(getClassPath(jarFile2)).get("b.A"));
+		Assert.assertTrue(cache.getSize() <= 1500);
+	}
+
+	private static URL getClassPath(File jarFile) throws IOException {
+		return new URL("jar:" + jarFile.toURI() + "!/");
+	}
+}
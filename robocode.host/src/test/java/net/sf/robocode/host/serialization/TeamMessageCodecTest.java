@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.host.serialization;
+
+
+import net.sf.robocode.security.HiddenAccess;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import robocode.Bullet;
+import robocode.ScannedRobotEvent;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+public class TeamMessageCodecTest {
+
+	@BeforeClass
+	public static void init() {
+		System.setProperty("NOSECURITY", "true");
+		System.setProperty("TESTING", "true");
+		HiddenAccess.initContainer();
+	}
+
+	@Test
+	public void primitivesAreCompact() throws Exception {
+		TeamMessageCodec codec = new TeamMessageCodec(1000);
+
+		Assert.assertEquals(1, codec.encode(null).length);
+		Assert.assertEquals(5, codec.encode(42).length);
+		Assert.assertEquals(9, codec.encode(4.2).length);
+		Assert.assertEquals(9, codec.encode("abcd").length);
+		Assert.assertEquals(1 + 4 + 3 * 8, codec.encode(new double[] { 1, 2, 3}).length);
+
+		Assert.assertNull(roundTrip(codec, null));
+		Assert.assertEquals(42, roundTrip(codec, 42));
+		Assert.assertEquals(42L, roundTrip(codec, 42L));
+		Assert.assertEquals(4.2, roundTrip(codec, 4.2));
+		Assert.assertEquals(4.2f, roundTrip(codec, 4.2f));
+		Assert.assertEquals(true, roundTrip(codec, true));
+		Assert.assertEquals("abcd", roundTrip(codec, "abcd"));
+		Assert.assertEquals("caf\u00e9 \u20ac", roundTrip(codec, "caf\u00e9 \u20ac"));
+	}
+
+	@Test
+	public void arrays() throws Exception {
+		TeamMessageCodec codec = new TeamMessageCodec(1000);
+
+		Assert.assertArrayEquals(new byte[] { 1, -2, 3}, (byte[]) roundTrip(codec, new byte[] { 1, -2, 3}));
+		Assert.assertArrayEquals(new int[] { 1, -2, 3}, (int[]) roundTrip(codec, new int[] { 1, -2, 3}));
+		Assert.assertArrayEquals(new double[] { 1.5, Double.NaN}, (double[]) roundTrip(codec, new double[] { 1.5, Double.NaN}),
+				0);
+		Assert.assertArrayEquals(new float[] { 1.5f}, (float[]) roundTrip(codec, new float[] { 1.5f}), 0);
+		Assert.assertArrayEquals(new char[] { 'a', '\u20ac'}, (char[]) roundTrip(codec, new char[] { 'a', '\u20ac'}));
+	}
+
+	@Test
+	public void robocodeObjects() throws Exception {
+		TeamMessageCodec codec = new TeamMessageCodec(1000);
+		ScannedRobotEvent event = new ScannedRobotEvent("sample.SpinBot", 87.5, 1.2, 345.6, 2.3, -8);
+
+		event.setTime(17);
+		event.setPriority(42);
+
+		ScannedRobotEvent copy = (ScannedRobotEvent) roundTrip(codec, event);
+
+		Assert.assertNotSame(event, copy);
+		Assert.assertEquals("sample.SpinBot", copy.getName());
+		Assert.assertEquals(345.6, copy.getDistance(), 0);
+		Assert.assertEquals(17, copy.getTime());
+		Assert.assertEquals(42, copy.getPriority());
+
+		// The robot can still change the received event
+		copy.setTime(20);
+		Assert.assertEquals(20, copy.getTime());
+
+		Bullet bullet = (Bullet) roundTrip(codec, new Bullet(1.5, 100, 200, 3, "owner", "victim", true, 7));
+
+		Assert.assertEquals("victim", bullet.getVictim());
+		Assert.assertEquals(200, bullet.getY(), 0);
+	}
+
+	@Test
+	public void otherObjectsUseJavaSerialization() throws Exception {
+		TeamMessageCodec codec = new TeamMessageCodec(1000);
+		List<String> list = new ArrayList<String>(Arrays.asList("a", "b"));
+
+		Assert.assertEquals(list, roundTrip(codec, (Serializable) list));
+		Assert.assertEquals(new java.awt.Point(3, 4), roundTrip(codec, new java.awt.Point(3, 4)));
+	}
+
+	@Test
+	public void sizeIsLimited() throws Exception {
+		TeamMessageCodec codec = new TeamMessageCodec(100);
+
+		codec.encode(new byte[96]);
+		try {
+			codec.encode(new byte[97]);
+			Assert.fail("Message should be too big");
+		} catch (IOException e) {
+			Assert.assertEquals("Message too big. 101>100", e.getMessage());
+		}
+		try {
+			codec.encode(new ArrayList<Object>(Arrays.asList(new Object[] { new byte[200]})));
+			Assert.fail("Message should be too big");
+		} catch (IOException e) {
+			Assert.assertTrue(e.getMessage().startsWith("Message too big."));
+		}
+	}
+
+	@Test
+	public void encodedBytesAreShared() throws Exception {
+		TeamMessageCodec sender = new TeamMessageCodec(1000);
+		TeamMessageCodec receiver1 = new TeamMessageCodec(1000);
+		TeamMessageCodec receiver2 = new TeamMessageCodec(1000);
+		byte[] bytes = sender.encode(new int[] { 1, 2, 3});
+
+		int[] copy1 = (int[]) receiver1.decode(bytes, getClass().getClassLoader());
+		int[] copy2 = (int[]) receiver2.decode(bytes, getClass().getClassLoader());
+
+		copy1[0] = 100;
+		Assert.assertEquals(1, copy2[0]);
+
+		// Encoding the next message does not change the bytes of the previous one
+		sender.encode(new int[] { 4, 5, 6});
+		Assert.assertArrayEquals(new int[] { 1, 2, 3}, (int[]) receiver1.decode(bytes, getClass().getClassLoader()));
+	}
+
+	private static Serializable roundTrip(TeamMessageCodec codec, Serializable message) throws Exception {
+		return codec.decode(codec.encode(message), TeamMessageCodecTest.class.getClassLoader());
+	}
+}
@@ -8,6 +8,8 @@
 package net.sf.robocode.roborumble.battlesengine;
 
 
+import net.sf.robocode.battle.IBattleManagerBase;
+import net.sf.robocode.core.ContainerBase;
 import net.sf.robocode.io.Logger;
 import static net.sf.robocode.roborumble.util.PropertiesUtil.getProperties;
 import robocode.control.*;
@@ -17,12 +19,18 @@ import robocode.control.events.BattleErrorEvent;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 
 /**
  * The BattlesRunner is running battles.
  * Reads a file with the battles to be runned and outputs the results in another file.
  * Controlled by properties files.
+ * <p/>
+ * The battles are run by a {@link BattleFarm} with WORKERS battles at the same time, but the results are
+ * written in the order of the battles file. The number of battles with written results is kept in a progress
+ * file next to the battles file, so the battles can be resumed if the runner is stopped before it is done.
  *
  * @author Albert Prez (original)
  * @author Flemming N. Larsen (contributor)
@@ -35,8 +43,9 @@ public class BattlesRunner {
 	private final int fieldhei;
 	private final String outfile;
 	private final String user;
+	private final int workers;
+	private final File progressfile;
 	private String game;
-	private static RobotResults[] lastResults;
 	private static IRobocodeEngine engine;
 
 	public BattlesRunner(String propertiesfile) {
@@ -49,6 +58,8 @@ public class BattlesRunner {
 		fieldhei = Integer.parseInt(parameters.getProperty("FIELDH", "600"));
 		outfile = parameters.getProperty("OUTPUT", "");
 		user = parameters.getProperty("USER", "");
+		workers = Math.max(1, Integer.parseInt(parameters.getProperty("WORKERS", "1")));
+		progressfile = new File(inputfile + ".progress");
 
 		game = propertiesfile;
 		while (game.indexOf("/") != -1) {
@@ -62,14 +73,36 @@ public class BattlesRunner {
 	private void initialize() {
 		if (engine == null) {
 			engine = new RobocodeEngine();
-			engine.addBattleListener(new BattleObserver());
 		}
 	}
 
 	public String getVersion() {
 		return (engine != null) ? engine.getVersion() : null;
 	}
+
+	/**
+	 * Checks if the battles measure the CPU time of the robot threads, which is needed for running the robots
+	 * in parallel.
+	 *
+	 * @return true if the CPU time of the robot threads is measured; false otherwise.
+	 */
+	public boolean isRobotCpuTimeSupported() {
+		final IBattleManagerBase battleManager = ContainerBase.getComponent(IBattleManagerBase.class);
+
+		return battleManager != null && battleManager.isRobotCpuTimeSupported();
+	}
 	
+	/**
+	 * Checks if the battles of the battles file have been run partly, and the rest of them can be resumed.
+	 *
+	 * @return true if there are unfinished battles; false otherwise.
+	 */
+	public boolean hasUnfinishedBattles() {
+		final long[] progress = readProgress();
+
+		return progress != null && progress[2] == new File(inputfile).length();
+	}
+
 	public void runBattlesImpl(boolean melee) {
 		// Initialize objects
 		BattlefieldSpecification field = new BattlefieldSpecification(fieldlen, fieldhei);
@@ -81,46 +114,176 @@ public class BattlesRunner {
 			return;
 		}
 
+		// Resume from the last battle with written results
+		int index = 0;
+
+		if (hasUnfinishedBattles()) {
+			final long[] progress = readProgress();
+
+			index = (int) progress[0];
+			truncateOutput(progress[1]);
+			System.out.println("Resuming battles from battle " + index);
+		}
+
 		// open output file
 		PrintStream outtxt = getRedirectedOutput();
 		if (outtxt == null) {
 			return;
 		}
 
-		// run battle
-		int index = 0;
-
-		while (index < robots.size()) {
-			String[] param = (robots.get(index)).split(",");
-
-			String enemies = getEnemies(melee, param);
+		// queue the battles, which are run by the workers in any order, and write the results in the order of
+		// the battles. Only a few more battles than workers are queued at a time, so the results are not kept.
+		final BattleFarm farm = new BattleFarm(workers);
+		final BattleObserver observer = new BattleObserver();
+		final LinkedList<Future<BattleCompletedEvent>> results = new LinkedList<Future<BattleCompletedEvent>>();
+		int written = index;
 
-			System.out.println("Fighting battle " + (index) + " ... " + enemies);
+		try {
+			while (written < robots.size()) {
+				while (index < robots.size() && results.size() < 2 * workers) {
+					results.add(submitBattle(farm, observer, battle, melee, robots.get(index), index));
+					index++;
+				}
+				final Future<BattleCompletedEvent> result = results.removeFirst();
 
-			final RobotSpecification[] robotsList = engine.getLocalRepository(enemies);
+				if (result != null) {
+					final BattleCompletedEvent event = getResult(result);
 
-			if (robotsList.length > 1) {
-				final String team0 = robotsList[0].getTeamId();
-				final String teamLast = robotsList[robotsList.length - 1].getTeamId();
+					if (event != null) {
+						final RobotResults[] battleResults = RobotResults.convertResults(event.getSortedResults());
 
-				if (team0 == null || !team0.equals(teamLast)) {
-					final BattleSpecification specification = new BattleSpecification(battle.getNumRounds(),
-							battle.getBattlefield(), robotsList);
+						if (battleResults.length > 1) {
+							String[] param = (robots.get(written)).split(",");
 
-					lastResults = null;
-					engine.runBattle(specification, true);
-					if (lastResults != null && lastResults.length > 1) {
-						dumpResults(outtxt, lastResults, param[param.length - 1], melee);
+							System.out.println("Fought battle " + (written) + " ... " + getEnemies(melee, param));
+							dumpResults(outtxt, battleResults, param[param.length - 1], melee);
+						}
 					}
 				}
-			} else {
-				System.err.println("Skipping battle because can't load robots: " + enemies);
+				outtxt.flush();
+				written++;
+				writeProgress(written, new File(outfile).length(), new File(inputfile).length());
 			}
-			index++;
+		} catch (InterruptedException e) {
+			// Stopped, so the unfinished battles are resumed next time
+			farm.shutdownNow();
+			outtxt.close();
+			Thread.currentThread().interrupt();
+			return;
 		}
 
 		// close
+		farm.shutdown();
 		outtxt.close();
+
+		if (progressfile.exists() && !progressfile.delete()) {
+			System.out.println("Cannot delete: " + progressfile);
+		}
+	}
+
+	/**
+	 * Queues a battle of the battles file.
+	 *
+	 * @return the result of the battle, or null if the battle is skipped.
+	 */
+	private Future<BattleCompletedEvent> submitBattle(BattleFarm farm, BattleObserver observer, BattleSpecification battle, boolean melee, String record, int index) {
+		String enemies = getEnemies(melee, record.split(","));
+
+		final RobotSpecification[] robotsList = engine.getLocalRepository(enemies);
+
+		if (robotsList.length > 1) {
+			final String team0 = robotsList[0].getTeamId();
+			final String teamLast = robotsList[robotsList.length - 1].getTeamId();
+
+			if (team0 == null || !team0.equals(teamLast)) {
+				final BattleSpecification specification = new BattleSpecification(battle.getNumRounds(),
+						battle.getBattlefield(), robotsList);
+
+				System.out.println("Queuing battle " + (index) + " ... " + enemies);
+				return farm.submit(specification, null, observer);
+			}
+		} else {
+			System.err.println("Skipping battle because can't load robots: " + enemies);
+		}
+		return null;
+	}
+
+	private static BattleCompletedEvent getResult(Future<BattleCompletedEvent> result) throws InterruptedException {
+		try {
+			return result.get();
+		} catch (ExecutionException e) {
+			Logger.realErr.println(e.getCause());
+			return null;
+		}
+	}
+
+	/**
+	 * Reads the progress file.
+	 *
+	 * @return the number of battles with written results, the length of the output file with these results,
+	 *         and the length of the battles file, or null if there is no progress file.
+	 */
+	private long[] readProgress() {
+		if (!progressfile.exists()) {
+			return null;
+		}
+		BufferedReader br = null;
+
+		try {
+			br = new BufferedReader(new FileReader(progressfile));
+
+			final String[] values = br.readLine().split(",");
+
+			return new long[] { Long.parseLong(values[0]), Long.parseLong(values[1]), Long.parseLong(values[2]) };
+		} catch (IOException e) {
+			return null;
+		} catch (RuntimeException e) {
+			// Broken progress file
+			return null;
+		} finally {
+			if (br != null) {
+				try {
+					br.close();
+				} catch (IOException ignore) {}
+			}
+		}
+	}
+
+	private void writeProgress(long battles, long outputLength, long inputLength) {
+		PrintStream out = null;
+
+		try {
+			out = new PrintStream(new FileOutputStream(progressfile), false);
+			out.println(battles + "," + outputLength + "," + inputLength);
+		} catch (IOException e) {
+			System.out.println("Not able to write progress file " + progressfile);
+		} finally {
+			if (out != null) {
+				out.close();
+			}
+		}
+	}
+
+	/**
+	 * Removes the results of battles that were written after the last progress was saved.
+	 */
+	private void truncateOutput(long length) {
+		RandomAccessFile raf = null;
+
+		try {
+			raf = new RandomAccessFile(outfile, "rw");
+			if (raf.length() > length) {
+				raf.setLength(length);
+			}
+		} catch (IOException e) {
+			System.out.println("Not able to truncate output file " + outfile);
+		} finally {
+			if (raf != null) {
+				try {
+					raf.close();
+				} catch (IOException ignore) {}
+			}
+		}
 	}
 
 	private String getEnemies(boolean melee, String[] param) {
@@ -226,10 +389,5 @@ public class BattlesRunner {
 		public void onBattleError(final BattleErrorEvent event) {
 			Logger.realErr.println(event.getError());
 		}
-
-		@Override
-		public void onBattleCompleted(final BattleCompletedEvent event) {
-			lastResults = RobotResults.convertResults(event.getSortedResults());
-		}
 	}
 }
@@ -97,7 +97,11 @@ public class RoboRumbleAtHome {
 				boolean ready;
 				PrepareBattles battles = new PrepareBattles(parameters);
 
-				if (isMelee) {
+				if (engine.hasUnfinishedBattles()) {
+					// The rumble was stopped while running the battles, so the rest of them are run first
+					System.out.println("Resuming unfinished battles ...");
+					ready = true;
+				} else if (isMelee) {
 					System.out.println("Preparing melee battles list ...");
 					ready = battles.createMeleeBattlesList();
 				} else {
@@ -112,8 +116,11 @@ public class RoboRumbleAtHome {
 					}
 				}
 
-				// Disable the -DPRARALLEL and -DRANDOMSEED options
-				System.setProperty("PARALLEL", "false"); // TODO: Remove when robot thread CPU time can be measured
+				// Disable the -DPARALLEL option if the CPU time of the robot threads cannot be measured,
+				// and the -DRANDOMSEED option
+				if (!engine.isRobotCpuTimeSupported()) {
+					System.setProperty("PARALLEL", "false");
+				}
 				System.setProperty("RANDOMSEED", "none"); // In tournaments, robots should not be deterministic!
 
 				// Execute battles
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package tested.robots;
+
+
+import robocode.TeamRobot;
+
+import java.io.IOException;
+
+
+/**
+ * Broadcasts a message in each turn, which is within the team message quota of a turn,
+ * while all messages together are far over it.
+ */
+public class TeamMessageQuota extends TeamRobot {
+
+	public void run() {
+		int sent = 0;
+
+		for (int turn = 0; turn < 20; turn++) {
+			try {
+				broadcastMessage(new byte[600]);
+				sent++;
+			} catch (IOException e) {
+				out.println("Message refused in turn " + getTime());
+			}
+			doNothing();
+		}
+		out.println("Messages sent: " + sent);
+	}
+}
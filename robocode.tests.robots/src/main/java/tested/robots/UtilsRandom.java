@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package tested.robots;
+
+
+import robocode.Robot;
+import robocode.util.Utils;
+
+
+/**
+ * Prints the first random number of each round.
+ */
+public class UtilsRandom extends Robot {
+
+	@Override
+	public void run() {
+		out.println("random " + getRoundNum() + ": " + Utils.getRandom().nextLong());
+
+		while (true) {
+			ahead(100);
+			back(100);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.test.robots;
+
+
+import net.sf.robocode.test.helpers.Assert;
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import robocode.BattleResults;
+import robocode.control.BattleFarm;
+import robocode.control.BattleSpecification;
+import robocode.control.RobotSpecification;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.BattleCompletedEvent;
+import robocode.control.events.BattleStartedEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Tests that a battle farm runs several battles at the same time, where each battle
+ * reports its own results and events.
+ */
+public class TestBattleFarm extends RobocodeTestBed {
+
+	private static final int WORKERS = 3;
+	private static final int BATTLES = 5;
+
+	private final List<BattleCompletedEvent> results = new ArrayList<BattleCompletedEvent>();
+	private final AtomicInteger farmBattlesStarted = new AtomicInteger();
+	private int engineBattlesStarted;
+
+	@Override
+	public String getRobotNames() {
+		return "sample.Fire,sample.Crazy";
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 3;
+	}
+
+	@Override
+	public boolean isDeterministic() {
+		return false;
+	}
+
+	@Override
+	public void onBattleStarted(BattleStartedEvent event) {
+		engineBattlesStarted++;
+	}
+
+	@Override
+	protected void runBattle(String robotList, int numRounds, String initialPositions) {
+		final RobotSpecification[] robotSpecifications = engine.getLocalRepository(robotList);
+
+		Assert.assertEquals("Robot were not loaded", getExpectedRobotCount(robotList), robotSpecifications.length);
+
+		final BattleAdaptor farmListener = new BattleAdaptor() {
+			@Override
+			public void onBattleStarted(BattleStartedEvent event) {
+				farmBattlesStarted.incrementAndGet();
+			}
+		};
+
+		BattleFarm farm = new BattleFarm(WORKERS);
+
+		try {
+			List<Future<BattleCompletedEvent>> futures = new ArrayList<Future<BattleCompletedEvent>>();
+
+			for (int i = 0; i < BATTLES; i++) {
+				futures.add(
+						farm.submit(new BattleSpecification(numRounds, battleFieldSpec, robotSpecifications), initialPositions,
+						farmListener));
+			}
+			for (Future<BattleCompletedEvent> future : futures) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			throw new AssertionError(e);
+		} catch (ExecutionException e) {
+			throw new AssertionError(e.getCause());
+		} finally {
+			farm.shutdown();
+		}
+	}
+
+	@Override
+	protected void runTeardown() {
+		Assert.assertEquals(BATTLES, results.size());
+		Assert.assertEquals(BATTLES, farmBattlesStarted.get());
+		Assert.assertEquals("Farm battles must not be reported to the engine listeners", 0, engineBattlesStarted);
+
+		for (BattleCompletedEvent result : results) {
+			Assert.assertNotNull(result);
+
+			BattleResults[] robotResults = result.getIndexedResults();
+
+			Assert.assertEquals(2, robotResults.length);
+			Assert.assertTrue(robotResults[0].getScore() + robotResults[1].getScore() > 0);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.test.robots;
+
+
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Assert;
+import org.junit.Test;
+import robocode.control.events.TurnEndedEvent;
+import robocode.control.metrics.IBattleMetrics;
+import robocode.control.metrics.IRobotMetrics;
+import robocode.control.metrics.TurnPhase;
+
+
+public class TestBattleMetrics extends RobocodeTestBed {
+	private int turns;
+
+	@Test
+	public void run() {
+		super.run();
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 2;
+	}
+
+	@Override
+	public String getRobotNames() {
+		return "sample.Fire,sample.Corners";
+	}
+
+	@Override
+	public void onTurnEnded(TurnEndedEvent event) {
+		super.onTurnEnded(event);
+		turns++;
+	}
+
+	@Override
+	protected void runTeardown() {
+		final IBattleMetrics metrics = engine.getBattleMetrics();
+
+		Assert.assertNotNull(metrics);
+		Assert.assertEquals(turns, metrics.getTurns());
+		for (TurnPhase phase : TurnPhase.values()) {
+			Assert.assertEquals(turns, metrics.getPhaseNanos(phase).getCount());
+		}
+		Assert.assertTrue(metrics.getPhaseNanos(TurnPhase.WAKEUP_ROBOTS).getTotal() > 0);
+
+		final IRobotMetrics[] robots = metrics.getRobotMetrics();
+
+		Assert.assertEquals(2, robots.length);
+		Assert.assertEquals("sample.Fire", robots[0].getName());
+		Assert.assertTrue(robots[0].getWaitNanos().getCount() > 0);
+		Assert.assertTrue(robots[1].getEventQueueSizes().getCount() > 0);
+	}
+}
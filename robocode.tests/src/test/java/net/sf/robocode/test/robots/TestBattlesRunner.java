@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.test.robots;
+
+
+import net.sf.robocode.roborumble.battlesengine.BattlesRunner;
+import net.sf.robocode.test.helpers.Assert;
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Tests that the RoboRumble battles runner runs the battles of a battles file on several workers, and writes
+ * the results in the order of the battles file.
+ */
+public class TestBattlesRunner extends RobocodeTestBed {
+
+	private static final int WORKERS = 2;
+	private static final int BATTLES = 7;
+
+	private File battlesFile;
+	private File resultsFile;
+	private File propertiesFile;
+	private final List<String> results = new ArrayList<String>();
+
+	@Override
+	public String getRobotNames() {
+		return "sample.Fire,sample.Crazy";
+	}
+
+	@Override
+	public boolean isDeterministic() {
+		return false;
+	}
+
+	@Override
+	protected void runSetup() {
+		try {
+			battlesFile = File.createTempFile("robocode-battles", ".txt");
+			resultsFile = File.createTempFile("robocode-results", ".txt");
+			propertiesFile = File.createTempFile("robocode-rumble", ".txt");
+
+			PrintStream battles = new PrintStream(battlesFile);
+
+			for (int i = 0; i < BATTLES; i++) {
+				battles.println(getRobotNames() + ",SERVER" + i);
+			}
+			battles.close();
+
+			PrintStream properties = new PrintStream(propertiesFile);
+
+			properties.println("INPUT=" + battlesFile.getPath().replace('\\', '/'));
+			properties.println("OUTPUT=" + resultsFile.getPath().replace('\\', '/'));
+			properties.println("ROUNDS=" + getNumRounds());
+			properties.println("WORKERS=" + WORKERS);
+			properties.println("USER=test");
+			properties.close();
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	@Override
+	protected void runBattle(String robotList, int numRounds, String initialPositions) {
+		final int repositoryErrors = errors;
+		final BattlesRunner runner = new BattlesRunner(propertiesFile.getPath());
+
+		// The engine created by the runner reloads the robot repository, which reports the invalid test robots again
+		errors = repositoryErrors;
+		errorText.setLength(0);
+
+		runner.runBattlesImpl(false);
+
+		try {
+			BufferedReader reader = new BufferedReader(new FileReader(resultsFile));
+			String line;
+
+			while ((line = reader.readLine()) != null) {
+				results.add(line);
+			}
+			reader.close();
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	@Override
+	protected void runTeardown() {
+		try {
+			// a header line and a line for each of the 2 robots per battle
+			Assert.assertEquals(3 * BATTLES, results.size());
+			for (int i = 0; i < BATTLES; i++) {
+				Assert.assertTrue(results.get(3 * i).endsWith(",SERVER" + i));
+				Assert.assertTrue(results.get(3 * i + 1).startsWith("sample."));
+				Assert.assertTrue(results.get(3 * i + 2).startsWith("sample."));
+			}
+			Assert.assertFalse("The progress file must be deleted when all battles have been run",
+					new File(battlesFile.getPath() + ".progress").exists());
+		} finally {
+			battlesFile.delete();
+			resultsFile.delete();
+			propertiesFile.delete();
+		}
+	}
+}
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.test.robots;
+
+
+import org.junit.After;
+
+
+/**
+ * Repeats the robot position test with each robot hosted in its own process,
+ * which must give the same positions as hosting the robots in the battle process.
+ */
+public class TestRobotProcess extends TestPosition {
+
+	private String robotProcess;
+	private String debug;
+
+	@Override
+	protected void runSetup() {
+		robotProcess = System.setProperty("ROBOTPROCESS", "true");
+
+		// Turn time limits are disabled, as the robot processes start with a cold JVM that may skip turns
+		debug = System.setProperty("debug", "true");
+	}
+
+	@Override
+	@After
+	public void tearDown() {
+		restoreProperty("ROBOTPROCESS", robotProcess);
+		restoreProperty("debug", debug);
+		super.tearDown();
+	}
+
+	private static void restoreProperty(String key, String value) {
+		if (value == null) {
+			System.clearProperty(key);
+		} else {
+			System.setProperty(key, value);
+		}
+	}
+}
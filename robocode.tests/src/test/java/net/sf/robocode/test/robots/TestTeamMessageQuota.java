@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.test.robots;
+
+
+import net.sf.robocode.test.helpers.Assert;
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import robocode.control.events.TurnEndedEvent;
+import robocode.control.snapshot.IRobotSnapshot;
+
+
+/**
+ * Tests that the team message quota is given again in each turn, so a team robot can send messages
+ * in every turn when each turn is within the quota.
+ */
+public class TestTeamMessageQuota extends RobocodeTestBed {
+
+	private String quota;
+	private int robotsDone;
+	private int messagesRefused;
+	private int messagesDropped;
+
+	@Override
+	public String getRobotNames() {
+		return "tested.robots.TeamMessageQuotaTeam,sample.Target";
+	}
+
+	@Override
+	public int getExpectedRobotCount(String robotList) {
+		return 3;
+	}
+
+	@Override
+	protected void runSetup() {
+		// A single message of 600 bytes fits into the quota, but two of them do not
+		quota = System.setProperty("TEAMMESSAGEQUOTA", "1000");
+	}
+
+	@Override
+	public void onTurnEnded(TurnEndedEvent event) {
+		super.onTurnEnded(event);
+
+		for (IRobotSnapshot robot : event.getTurnSnapshot().getRobots()) {
+			final String out = robot.getOutputStreamSnapshot();
+
+			if (out == null) {
+				continue;
+			}
+			if (out.contains("Messages sent: 20")) {
+				robotsDone++;
+			}
+			if (out.contains("Message refused")) {
+				messagesRefused++;
+			}
+			if (out.contains("Team message dropped")) {
+				messagesDropped++;
+			}
+		}
+	}
+
+	@Override
+	protected void runTeardown() {
+		if (quota == null) {
+			System.clearProperty("TEAMMESSAGEQUOTA");
+		} else {
+			System.setProperty("TEAMMESSAGEQUOTA", quota);
+		}
+		Assert.assertEquals("No message may be refused", 0, messagesRefused);
+		Assert.assertEquals("No message may be dropped", 0, messagesDropped);
+		Assert.assertEquals("Both team members must send all their messages", 2, robotsDone);
+	}
+}
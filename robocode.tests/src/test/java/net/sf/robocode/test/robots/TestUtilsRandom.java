@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2001-2013 Mathew A. Nelson and Robocode contributors
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://robocode.sourceforge.net/license/epl-v10.html
+ *******************************************************************************/
+package net.sf.robocode.test.robots;
+
+
+import net.sf.robocode.test.helpers.Assert;
+import net.sf.robocode.test.helpers.RobocodeTestBed;
+import org.junit.Test;
+import robocode.control.events.TurnEndedEvent;
+
+
+/**
+ * Checks that each robot gets its own deterministic random number generator, which does not depend on the
+ * random numbers used by the battle or by the other robots.
+ */
+public class TestUtilsRandom extends RobocodeTestBed {
+
+	private final StringBuffer out1 = new StringBuffer();
+	private final StringBuffer out2 = new StringBuffer();
+
+	@Test
+	public void run() {
+		super.run();
+	}
+
+	public String getRobotNames() {
+		return "tested.robots.UtilsRandom,tested.robots.UtilsRandom";
+	}
+
+	@Override
+	public int getNumRounds() {
+		return 2;
+	}
+
+	@Override
+	public void onTurnEnded(TurnEndedEvent event) {
+		super.onTurnEnded(event);
+
+		out1.append(event.getTurnSnapshot().getRobots()[0].getOutputStreamSnapshot());
+		out2.append(event.getTurnSnapshot().getRobots()[1].getOutputStreamSnapshot());
+	}
+
+	@Override
+	protected void runTeardown() {
+		// The random numbers continue across the rounds, and are different for each robot
+		Assert.assertTrue(out1.toString().contains("random 0: 1727666844205113486"));
+		Assert.assertTrue(out1.toString().contains("random 1: -7457894026353267875"));
+		Assert.assertTrue(out2.toString().contains("random 0: -4696961183500070204"));
+		Assert.assertTrue(out2.toString().contains("random 1: 6868532038131147156"));
+	}
+}
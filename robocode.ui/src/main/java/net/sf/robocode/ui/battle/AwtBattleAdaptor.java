@@ -11,6 +11,8 @@ package net.sf.robocode.ui.battle;
 import net.sf.robocode.battle.IBattleManager;
 import net.sf.robocode.battle.events.BattleEventDispatcher;
 import net.sf.robocode.battle.snapshot.RobotSnapshot;
+import net.sf.robocode.battle.snapshot.TurnSnapshot;
+import net.sf.robocode.io.ConsoleBuffer;
 import net.sf.robocode.io.Logger;
 import robocode.control.events.*;
 import robocode.control.snapshot.IRobotSnapshot;
@@ -29,6 +31,9 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @author Pavel Savara (original)
  */
 public final class AwtBattleAdaptor {
+	// Number of characters of console text kept for each robot, until it is read by the AWT thread
+	private static final int CONSOLE_CAPACITY = 16 * 1024;
+
 	private boolean isEnabled;
 	private final IBattleManager battleManager;
 	private final BattleEventDispatcher battleEventDispatcher = new BattleEventDispatcher();
@@ -41,7 +46,7 @@ public final class AwtBattleAdaptor {
 	private final AtomicInteger majorEvent;
 	private final AtomicInteger lastMajorEvent;
 	private ITurnSnapshot lastSnapshot;
-	private StringBuilder[] outCache;
+	private volatile ConsoleBuffer[] outConsoles = new ConsoleBuffer[0];
 
 	public AwtBattleAdaptor(IBattleManager battleManager, int maxFps, boolean skipSameFrames) {
 		this.battleManager = battleManager;
@@ -92,31 +97,37 @@ public final class AwtBattleAdaptor {
 	// this is always dispatched on AWT thread
 	private void awtOnTurnEnded(boolean forceRepaint, boolean readoutText) {
 		try {
-			ITurnSnapshot current = snapshot.get();
+			final ITurnSnapshot current;
+			final boolean isSameFrame;
+
+			synchronized (snapshot) {
+				current = snapshot.get();
+				isSameFrame = lastSnapshot == current;
+				if (!isSameFrame) {
+					// The graphics calls of the last snapshot are kept, as long as it can be painted again
+					retainGraphicsCalls(current);
+					releaseGraphicsCalls(lastSnapshot);
+					lastSnapshot = current;
+				}
+			}
 
 			if (current == null) { // !isRunning.get() ||
 				// paint logo
-				lastSnapshot = null;
 				battleEventDispatcher.onTurnEnded(new TurnEndedEvent(null));
 			} else {
-				if (lastSnapshot != current || !skipSameFrames || forceRepaint) {
-					lastSnapshot = current;
-
+				if (!isSameFrame || !skipSameFrames || forceRepaint) {
 					IRobotSnapshot[] robots = null;
 
 					if (readoutText) {
-						synchronized (snapshot) {
-							robots = lastSnapshot.getRobots();
+						robots = lastSnapshot.getRobots();
 
-							for (int i = 0; i < robots.length; i++) {
-								RobotSnapshot robot = (RobotSnapshot) robots[i];
+						final ConsoleBuffer[] consoles = outConsoles;
 
-								final StringBuilder cache = outCache[i];
+						for (int i = 0; i < robots.length && i < consoles.length; i++) {
+							final String text = consoles[i].read();
 
-								if (cache.length() > 0) {
-									robot.setOutputStreamSnapshot(cache.toString());
-									outCache[i].setLength(0);
-								}
+							if (text != null) {
+								((RobotSnapshot) robots[i]).setOutputStreamSnapshot(text);
 							}
 						}
 					}
@@ -137,6 +148,26 @@ public final class AwtBattleAdaptor {
 		}
 	}
 
+	// Replaces the snapshot for the next frame, and keeps its graphics calls until it is replaced again
+	private void setSnapshot(ITurnSnapshot turn) {
+		synchronized (snapshot) {
+			retainGraphicsCalls(turn);
+			releaseGraphicsCalls(snapshot.getAndSet(turn));
+		}
+	}
+
+	private static void retainGraphicsCalls(ITurnSnapshot turn) {
+		if (turn instanceof TurnSnapshot) {
+			((TurnSnapshot) turn).retainGraphicsCalls();
+		}
+	}
+
+	private static void releaseGraphicsCalls(ITurnSnapshot turn) {
+		if (turn instanceof TurnSnapshot) {
+			((TurnSnapshot) turn).releaseGraphicsCalls();
+		}
+	}
+
 	public int getFPS() {
 		return fps;
 	}
@@ -177,25 +208,20 @@ public final class AwtBattleAdaptor {
 		public void onTurnEnded(final TurnEndedEvent event) {
 			if (lastMajorEvent.get() == majorEvent.get()) {
 				// snapshot is updated out of order, but always within the same major event
-				snapshot.set(event.getTurnSnapshot());
+				setSnapshot(event.getTurnSnapshot());
 			}
 
 			final IRobotSnapshot[] robots = event.getTurnSnapshot().getRobots();
+			final ConsoleBuffer[] consoles = outConsoles;
 
-			for (int i = 0; i < robots.length; i++) {
+			// The text is read by the AWT thread, when it paints the next frame
+			for (int i = 0; i < robots.length && i < consoles.length; i++) {
 				RobotSnapshot robot = (RobotSnapshot) robots[i];
-				final int r = i;
 				final String text = robot.getOutputStreamSnapshot();
 
 				if (text != null && text.length() != 0) {
 					robot.setOutputStreamSnapshot(null);
-					EventQueue.invokeLater(new Runnable() {
-						public void run() {
-							synchronized (snapshot) {
-								outCache[r].append(text);
-							}
-						}
-					});
+					consoles[i].append(text);
 				}
 			}
 			if (isPaused.get()) {
@@ -210,7 +236,7 @@ public final class AwtBattleAdaptor {
 		@Override
 		public void onRoundStarted(final RoundStartedEvent event) {
 			if (lastMajorEvent.get() == majorEvent.get()) {
-				snapshot.set(event.getStartSnapshot());
+				setSnapshot(event.getStartSnapshot());
 			}
 			majorEvent.incrementAndGet();
 			EventQueue.invokeLater(new Runnable() {
@@ -224,18 +250,19 @@ public final class AwtBattleAdaptor {
 
 		@Override
 		public void onBattleStarted(final BattleStartedEvent event) {
+			final ConsoleBuffer[] consoles = new ConsoleBuffer[event.getRobotsCount()];
+
+			for (int i = 0; i < consoles.length; i++) {
+				consoles[i] = new ConsoleBuffer(CONSOLE_CAPACITY);
+			}
+			outConsoles = consoles;
+
 			majorEvent.incrementAndGet();
 			EventQueue.invokeLater(new Runnable() {
 				public void run() {
 					isRunning.set(true);
 					isPaused.set(false);
-					synchronized (snapshot) {
-						outCache = new StringBuilder[event.getRobotsCount()];
-						for (int i = 0; i < event.getRobotsCount(); i++) {
-							outCache[i] = new StringBuilder(1024);
-						}
-					}
-					snapshot.set(null);
+					setSnapshot(null);
 					battleEventDispatcher.onBattleStarted(event);
 					lastMajorEvent.incrementAndGet();
 					awtOnTurnEnded(true, false);
@@ -257,7 +284,7 @@ public final class AwtBattleAdaptor {
 
 					battleEventDispatcher.onBattleFinished(event);
 					lastMajorEvent.incrementAndGet();
-					snapshot.set(null);
+					setSnapshot(null);
 
 					// paint logo
 					awtOnTurnEnded(true, true);
@@ -9,6 +9,8 @@ package net.sf.robocode.ui.battleview;
 
 
 import net.sf.robocode.battle.snapshot.RobotSnapshot;
+import net.sf.robocode.battle.snapshot.TurnSnapshot;
+import net.sf.robocode.io.Logger;
 import net.sf.robocode.robotpaint.Graphics2DSerialized;
 import net.sf.robocode.robotpaint.IGraphicsProxy;
 import net.sf.robocode.settings.ISettingsManager;
@@ -38,6 +40,12 @@ import java.util.Random;
 
 
 /**
+ * The view of the battle, which is rendered by its own render thread through a buffer strategy.
+ * <p/>
+ * The AWT thread posts the turn snapshots to a mailbox with a single slot, and the render thread renders
+ * the latest one, so a snapshot that is replaced before it is rendered is skipped. The background of the
+ * view with the ground is rendered once into an image, until the view or the battlefield changes.
+ *
  * @author Mathew A. Nelson (original)
  * @author Flemming N. Larsen (original)
  * @author Pavel Savara (contributor)
@@ -53,10 +61,16 @@ public class BattleView extends Canvas {
 
 	private final static int ROBOT_TEXT_Y_OFFSET = 24;
 
+	// Posted to the mailbox instead of a snapshot, when the logo must be painted
+	private final static Object LOGO_FRAME = new Object();
+
 	// The battle and battlefield,
-	private BattleField battleField;
+	private volatile BattleField battleField;
+
+	// Cleared by the AWT thread, when the render thread must initialize the rendering again
+	private volatile boolean initialized;
+	private volatile boolean recreateBufferStrategy;
 
-	private boolean initialized;
 	private double scale = 1.0;
 
 	// Ground
@@ -67,6 +81,9 @@ public class BattleView extends Canvas {
 
 	private Image groundImage;
 
+	// Canvas background with the ground, which is drawn as the first layer of each frame
+	private Image backgroundImage;
+
 	// Draw option related things
 	private boolean drawRobotName;
 	private boolean drawRobotEnergy;
@@ -94,7 +111,26 @@ public class BattleView extends Canvas {
 	private static final MirroredGraphics mirroredGraphics = new MirroredGraphics();
 
 	private final GraphicsState graphicsState = new GraphicsState();
-	private IGraphicsProxy[] robotGraphics;
+	private volatile IGraphicsProxy[] robotGraphics;
+
+	// Held while rendering, as a screenshot can be rendered by the AWT thread
+	private final Object renderLock = new Object();
+
+	// Single slot with the next frame to render, which is a snapshot with retained graphics calls, or the logo
+	private final Object mailbox = new Object();
+	private Object nextFrame;
+	private Thread renderThread;
+
+	// Read from the window manager by the AWT thread, when it posts a frame
+	private volatile boolean iconified;
+
+	// Frame metrics, which are measured by the render thread over the last second
+	private volatile int fps;
+	private volatile double frameTime;
+	private volatile long skippedFrames;
+	private int measuredFrameCounter;
+	private long measuredFrameStartTime;
+	private long measuredRenderTime;
 
 	public BattleView(ISettingsManager properties, IWindowManager windowManager, IImageManager imageManager) {
 		this.properties = properties;
@@ -107,10 +143,11 @@ public class BattleView extends Canvas {
 
 		properties.addPropertyListener(new ISettingsListener() {
 			public void settingChanged(String property) {
-				loadDisplayOptions();
+				// The display options are loaded again by the render thread
 				if (property.startsWith("robocode.options.rendering")) {
-					initialized = false;
 					reinitialize();
+				} else {
+					initialized = false;
 				}
 			}
 		});
@@ -132,51 +169,145 @@ public class BattleView extends Canvas {
 	public void paint(Graphics g) {
 		final ITurnSnapshot lastSnapshot = windowManager.getLastSnapshot();
 		if (lastSnapshot != null) {
-			update(lastSnapshot);
+			postFrame(lastSnapshot);
 		} else {
-			paintRobocodeLogo((Graphics2D) g);
+			postFrame(LOGO_FRAME);
 		}
 	}
 
 	public BufferedImage getScreenshot() {
 		BufferedImage screenshot = getGraphicsConfiguration().createCompatibleImage(getWidth(), getHeight());
 
-		if (windowManager.getLastSnapshot() == null) {
-			paintRobocodeLogo((Graphics2D) screenshot.getGraphics());		
-		} else {
-			drawBattle((Graphics2D) screenshot.getGraphics(), windowManager.getLastSnapshot());
+		synchronized (renderLock) {
+			if (windowManager.getLastSnapshot() == null) {
+				paintRobocodeLogo((Graphics2D) screenshot.getGraphics());
+			} else {
+				drawBattle((Graphics2D) screenshot.getGraphics(), windowManager.getLastSnapshot());
+			}
 		}
 		return screenshot;
 	}
 
-	private void update(ITurnSnapshot snapshot) {
-		if (!initialized) {
-			initialize();
+	/**
+	 * Returns the number of frames rendered in the last second.
+	 *
+	 * @return the frames per second, or 0 if the window is iconified.
+	 */
+	public int getFPS() {
+		return iconified ? 0 : fps;
+	}
+
+	/**
+	 * Returns the average time of rendering a frame in the last second.
+	 *
+	 * @return the time in milliseconds.
+	 */
+	public double getFrameTime() {
+		return frameTime;
+	}
+
+	/**
+	 * Returns the number of snapshots of the current battle, which were replaced by a later snapshot before they
+	 * were rendered.
+	 *
+	 * @return the number of skipped frames.
+	 */
+	public long getSkippedFrames() {
+		return skippedFrames;
+	}
+
+	// Posts a frame for the render thread, which replaces the frame that has not been rendered yet
+	private void postFrame(Object frame) {
+		iconified = windowManager.isIconified();
+
+		if (frame instanceof TurnSnapshot) {
+			// The robots can reuse the buffers of the graphics calls, when the frame has been rendered
+			((TurnSnapshot) frame).retainGraphicsCalls();
+		}
+
+		final Object replaced;
+
+		synchronized (mailbox) {
+			replaced = nextFrame;
+			nextFrame = frame;
+
+			if (renderThread == null) {
+				renderThread = new Thread(new Renderer(), "Robocode battle view renderer");
+				renderThread.setDaemon(true);
+				renderThread.start();
+			}
+			mailbox.notify();
+		}
+		if (replaced != null) {
+			releaseFrame(replaced);
+			skippedFrames++;
+		}
+	}
+
+	private static void releaseFrame(Object frame) {
+		if (frame instanceof TurnSnapshot) {
+			((TurnSnapshot) frame).releaseGraphicsCalls();
 		}
+	}
 
-		if (windowManager.isIconified() || !isDisplayable() || (getWidth() <= 0) || (getHeight() <= 0)) {
+	// Renders a frame on the render thread
+	private void render(Object frame) {
+		if (iconified || !isDisplayable() || (getWidth() <= 0) || (getHeight() <= 0)) {
 			return;
 		}
 
-		if (bufferStrategy != null) {
+		final long startTime = System.nanoTime();
+
+		synchronized (renderLock) {
 			try {
-				Graphics2D g2 = (Graphics2D) bufferStrategy.getDrawGraphics();
+				if (!initialized) {
+					initialize();
+				}
 
-				if (g2 != null) {
+				if (bufferStrategy != null) {
 					do {
+						Graphics2D g2 = (Graphics2D) bufferStrategy.getDrawGraphics();
+
+						if (g2 == null) {
+							return;
+						}
 						try {
-							g2.setRenderingHints(renderingHints);
-	
-							drawBattle(g2, snapshot);
+							if (frame == LOGO_FRAME) {
+								paintRobocodeLogo(g2);
+							} else {
+								g2.setRenderingHints(renderingHints);
+
+								drawBattle(g2, (ITurnSnapshot) frame);
+							}
 						} finally {
 							g2.dispose();
 						}
 						bufferStrategy.show();
 					} while (bufferStrategy.contentsLost());
-	
+
 					Toolkit.getDefaultToolkit().sync(); // Update like... now!
 				}
-			} catch (NullPointerException e) {}
+			} catch (NullPointerException e) {} catch (IllegalStateException e) {
+				// The buffer strategy cannot be created or used, when the canvas is being removed from the window
+				reinitialize();
+			}
+		}
+		calculateFrameMetrics(System.nanoTime() - startTime);
+	}
+
+	private void calculateFrameMetrics(long renderTime) {
+		if (measuredFrameCounter++ == 0) {
+			measuredFrameStartTime = System.nanoTime();
+		}
+		measuredRenderTime += renderTime;
+
+		long deltaTime = System.nanoTime() - measuredFrameStartTime;
+
+		if (deltaTime / 1000000000 >= 1) {
+			fps = (int) (measuredFrameCounter * 1000000000L / deltaTime);
+			frameTime = measuredRenderTime / 1000000.0 / measuredFrameCounter;
+			measuredFrameCounter = 0;
+			measuredRenderTime = 0;
 		}
 	}
 
@@ -195,14 +326,18 @@ public class BattleView extends Canvas {
 	}
 
 	private void reinitialize() {
+		recreateBufferStrategy = true;
 		initialized = false;
-		bufferStrategy = null;
 	}
 
 	private void initialize() {
+		// Set before the options are loaded, so changes made meanwhile initialize the rendering again
+		initialized = true;
+
 		loadDisplayOptions();
 
-		if (bufferStrategy == null) {
+		if (bufferStrategy == null || recreateBufferStrategy) {
+			recreateBufferStrategy = false;
 			createBufferStrategy(numBuffers);
 			bufferStrategy = getBufferStrategy();
 		}
@@ -228,8 +363,7 @@ public class BattleView extends Canvas {
 		} else {
 			groundImage = null;
 		}
-
-		initialized = true;
+		backgroundImage = null;
 	}
 
 	private void createGroundImage() {
@@ -284,26 +418,15 @@ public class BattleView extends Canvas {
 		// Reset clip
 		g.setClip(null);
 
-		// Clear canvas
-		g.setColor(CANVAS_BG_COLOR);
-		g.fillRect(0, 0, getWidth(), getHeight());
-
-		// Calculate border space
-		double dx = (getWidth() - scale * battleField.getWidth()) / 2;
-		double dy = (getHeight() - scale * battleField.getHeight()) / 2;
+		// Clear canvas and draw ground
+		g.drawImage(getBackgroundImage(), 0, 0, null);
 
 		// Scale and translate the graphics
-		AffineTransform at = AffineTransform.getTranslateInstance(dx, dy);
-
-		at.concatenate(AffineTransform.getScaleInstance(scale, scale));
-		g.setTransform(at);
+		g.setTransform(getBattleFieldTransform());
 
 		// Set the clip rectangle
 		g.setClip(0, 0, battleField.getWidth(), battleField.getHeight());
 
-		// Draw ground
-		drawGround(g);
-
 		if (snapShot != null) {
 			// Draw scan arcs
 			drawScanArcs(g, snapShot);
@@ -330,6 +453,44 @@ public class BattleView extends Canvas {
 		graphicsState.restore(g);
 	}
 
+	private AffineTransform getBattleFieldTransform() {
+		// Calculate border space
+		double dx = (getWidth() - scale * battleField.getWidth()) / 2;
+		double dy = (getHeight() - scale * battleField.getHeight()) / 2;
+
+		AffineTransform at = AffineTransform.getTranslateInstance(dx, dy);
+
+		at.concatenate(AffineTransform.getScaleInstance(scale, scale));
+		return at;
+	}
+
+	// Returns the background of the canvas with the ground, which is rendered again when the view has changed
+	private Image getBackgroundImage() {
+		if (backgroundImage == null || backgroundImage.getWidth(null) != getWidth()
+				|| backgroundImage.getHeight(null) != getHeight()) {
+			backgroundImage = getGraphicsConfiguration().createCompatibleImage(getWidth(), getHeight());
+
+			Graphics2D g = (Graphics2D) backgroundImage.getGraphics();
+
+			try {
+				g.setRenderingHints(renderingHints);
+
+				// Clear canvas
+				g.setColor(CANVAS_BG_COLOR);
+				g.fillRect(0, 0, getWidth(), getHeight());
+
+				g.setTransform(getBattleFieldTransform());
+				g.setClip(0, 0, battleField.getWidth(), battleField.getHeight());
+
+				// Draw ground
+				drawGround(g);
+			} finally {
+				g.dispose();
+			}
+		}
+		return backgroundImage;
+	}
+
 	private void drawGround(Graphics2D g) {
 		if (!drawGround) {
 			// Ground should not be drawn
@@ -474,6 +635,11 @@ public class BattleView extends Canvas {
 	}
 
 	private void drawRobotPaint(Graphics2D g, ITurnSnapshot turnSnapshot) {
+		final IGraphicsProxy[] robotGraphics = this.robotGraphics;
+
+		if (robotGraphics == null) {
+			return;
+		}
 
 		int robotIndex = 0;
 
@@ -483,6 +649,10 @@ public class BattleView extends Canvas {
 			if (graphicsCalls == null || !robotSnapshot.isPaintEnabled()) {
 				continue;
 			}
+			// A snapshot of the last battle can be rendered after the next battle has started
+			if (robotIndex >= robotGraphics.length) {
+				break;
+			}
 
 			// Save the graphics state
 			GraphicsState gfxState = new GraphicsState();
@@ -492,7 +662,7 @@ public class BattleView extends Canvas {
 			g.setClip(null);
 			g.setComposite(AlphaComposite.SrcAtop);
 
-			IGraphicsProxy gfxProxy = getRobotGraphics(robotIndex);
+			IGraphicsProxy gfxProxy = getRobotGraphics(robotGraphics, robotIndex);
 
 			if (robotSnapshot.isSGPaintEnabled()) {
 				gfxProxy.processTo(g, graphicsCalls);
@@ -509,7 +679,7 @@ public class BattleView extends Canvas {
 		}
 	}
 
-	private IGraphicsProxy getRobotGraphics(int robotIndex) {
+	private static IGraphicsProxy getRobotGraphics(IGraphicsProxy[] robotGraphics, int robotIndex) {
 		if (robotGraphics[robotIndex] == null) {
 			robotGraphics[robotIndex] = new Graphics2DSerialized();
 			robotGraphics[robotIndex].setPaintingEnabled(true);
@@ -627,7 +797,8 @@ public class BattleView extends Canvas {
 
 	private void paintRobocodeLogo(Graphics2D g) {
 		setBackground(Color.BLACK);
-		g.clearRect(0, 0, getWidth(), getHeight());
+		g.setColor(Color.BLACK);
+		g.fillRect(0, 0, getWidth(), getHeight());
 
 		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
@@ -655,6 +826,7 @@ public class BattleView extends Canvas {
 					event.getBattleRules().getBattlefieldHeight());
 
 			initialized = false;
+			skippedFrames = 0;
 			setVisible(true);
 
 			super.onBattleStarted(event);
@@ -672,7 +844,35 @@ public class BattleView extends Canvas {
 			if (event.getTurnSnapshot() == null) {
 				repaint();
 			} else {
-				update(event.getTurnSnapshot());
+				postFrame(event.getTurnSnapshot());
+			}
+		}
+	}
+
+	// Renders the latest posted frame, and waits for the next frame
+	private class Renderer implements Runnable {
+		public void run() {
+			while (true) {
+				final Object frame;
+
+				synchronized (mailbox) {
+					while (nextFrame == null) {
+						try {
+							mailbox.wait();
+						} catch (InterruptedException e) {
+							return;
+						}
+					}
+					frame = nextFrame;
+					nextFrame = null;
+				}
+				try {
+					render(frame);
+				} catch (Throwable t) {
+					Logger.logError(t);
+				} finally {
+					releaseFrame(frame);
+				}
 			}
 		}
 	}
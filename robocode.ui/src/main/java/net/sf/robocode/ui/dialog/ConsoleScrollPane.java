@@ -8,7 +8,10 @@
 package net.sf.robocode.ui.dialog;
 
 
+import net.sf.robocode.io.Logger;
+
 import javax.swing.*;
+import javax.swing.text.BadLocationException;
 import javax.swing.text.DefaultCaret;
 
 import java.awt.*;
@@ -64,7 +67,7 @@ public class ConsoleScrollPane extends JScrollPane {
 		getTextPane().append(str);
 
 		// Count number of new lines, i.e. lines ended with '\n'
-		int numNewLines = str.replaceAll("[^\\n]", "").length();
+		int numNewLines = countNewLines(str);
 
 		// Increment the current number of lines with the new lines
 		lines += numNewLines;
@@ -80,18 +83,16 @@ public class ConsoleScrollPane extends JScrollPane {
 			// Cut down the number of lines to max. number of lines
 			lines = MAX_ROWS;
 
-			// Find the index where to cut the number of exceeding lines in the beginning of the text
-			String text = getText();
-			int cutIndex = -1;
+			// The lines are found by the line index of the text pane, so the text is not copied
+			try {
+				// Replace the first lines of the contained text till the end of the last exceeding line
+				textArea.replaceRange(null, 0, textArea.getLineEndOffset(linesExceeded - 1));
 
-			for (int c = 0; c < linesExceeded; c++) {
-				cutIndex = text.indexOf('\n', cutIndex + 1);
+				// Replace first line with a message that text has been truncated
+				textArea.replaceRange(TEXT_TRUNCATED_MSG, 0, textArea.getLineEndOffset(0) - 1);
+			} catch (BadLocationException e) {
+				Logger.logError(e);
 			}
-			// Replace the first lines of the contained text till the cut index
-			textArea.replaceRange(null, 0, cutIndex + 1);
-
-			// Replace first line with a message that text has been truncated
-			textArea.replaceRange(TEXT_TRUNCATED_MSG, 0, getText().indexOf('\n'));
 		}
 
 		// Set the max. number of lines text pane
@@ -115,7 +116,7 @@ public class ConsoleScrollPane extends JScrollPane {
 			maxRows = 0;
 		} else {
 			// Calculate and set the new number of lines for the text pane
-			lines = t.replaceAll("[^\\n]", "").length();
+			lines = countNewLines(t);
 	
 			// Calculate number lines exceeded compared to the max. number of lines
 			int linesExceeded = lines - MAX_ROWS;
@@ -166,4 +167,13 @@ public class ConsoleScrollPane extends JScrollPane {
 	public void scrollToBottom() {
 		textArea.setCaretPosition(textArea.getDocument().getLength());
 	}
+
+	private static int countNewLines(String str) {
+		int count = 0;
+
+		for (int index = str.indexOf('\n'); index >= 0; index = str.indexOf('\n', index + 1)) {
+			count++;
+		}
+		return count;
+	}
 }
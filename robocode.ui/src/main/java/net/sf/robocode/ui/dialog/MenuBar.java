@@ -281,7 +281,10 @@ public class MenuBar extends JMenuBar {
 
 				try {
 					robocodeFrame.setBusyPointer(true);
-					recordManager.loadRecord(path, BattleRecordFormat.BINARY_ZIP);
+					recordManager.loadRecord(path,
+							path.toLowerCase().endsWith(".idx.br")
+									? BattleRecordFormat.BINARY_INDEXED
+									: BattleRecordFormat.BINARY_ZIP);
 				} finally {
 					robocodeFrame.setBusyPointer(false);
 				}
@@ -330,7 +333,11 @@ public class MenuBar extends JMenuBar {
 				if (path != null) {
 					try {
 						robocodeFrame.setBusyPointer(true);
-						recordManager.saveRecord(path, BattleRecordFormat.BINARY_ZIP, new SerializableOptions(false));
+						recordManager.saveRecord(path,
+								path.toLowerCase().endsWith(".idx.br")
+										? BattleRecordFormat.BINARY_INDEXED
+										: BattleRecordFormat.BINARY_ZIP,
+										new SerializableOptions(false));
 					} finally {
 						robocodeFrame.setBusyPointer(false);
 					}
@@ -73,6 +73,7 @@ public class RobocodeFrame extends JFrame {
 
 	private JToggleButton pauseButton;
 	private JButton nextTurnButton;
+	private JButton goToTurnButton;
 	private JButton stopButton;
 	private JButton restartButton;
 	private JButton replayButton;
@@ -372,6 +373,24 @@ public class RobocodeFrame extends JFrame {
 		return nextTurnButton;
 	}
 
+	/**
+	 * Return the goToTurnButton
+	 *
+	 * @return JButton
+	 */
+	private JButton getGoToTurnButton() {
+		if (goToTurnButton == null) {
+			goToTurnButton = new JButton("Go to Turn");
+			goToTurnButton.setMnemonic('G');
+			goToTurnButton.setHorizontalTextPosition(SwingConstants.CENTER);
+			goToTurnButton.setVerticalTextPosition(SwingConstants.BOTTOM);
+			goToTurnButton.addActionListener(eventHandler);
+
+			goToTurnButton.setEnabled(false);
+		}
+		return goToTurnButton;
+	}
+
 	/**
 	 * Return the stopButton
 	 *
@@ -512,6 +531,7 @@ public class RobocodeFrame extends JFrame {
 			toolBar = new JToolBar();
 			toolBar.add(getPauseButton());
 			toolBar.add(getNextTurnButton());
+			toolBar.add(getGoToTurnButton());
 			toolBar.add(getStopButton());
 			toolBar.add(getRestartButton());
 			toolBar.add(getReplayButton());
@@ -558,6 +578,7 @@ public class RobocodeFrame extends JFrame {
 			getStopButton().setEnabled(false);
 			getPauseButton().setEnabled(false);
 			getNextTurnButton().setEnabled(false);
+			getGoToTurnButton().setEnabled(false);
 			getRestartButton().setEnabled(false);
 			getReplayButton().setEnabled(false);
 			exitOnClose = false;
@@ -568,6 +589,18 @@ public class RobocodeFrame extends JFrame {
 		battleManager.togglePauseResumeBattle();
 	}
 
+	private void goToTurnButtonActionPerformed() {
+		String turn = JOptionPane.showInputDialog(this, "Turn in this round:", battleObserver.currentTurn);
+
+		if (turn != null) {
+			try {
+				battleManager.seekTurn(Integer.parseInt(turn.trim()));
+			} catch (NumberFormatException e) {
+				Toolkit.getDefaultToolkit().beep();
+			}
+		}
+	}
+
 	/**
 	 * Gets the iconified.
 	 *
@@ -699,6 +732,8 @@ public class RobocodeFrame extends JFrame {
 				battleManager.restart();
 			} else if (source == getNextTurnButton()) {
 				battleManager.nextTurn();
+			} else if (source == getGoToTurnButton()) {
+				goToTurnButtonActionPerformed();
 			} else if (source == getReplayButton()) {
 				battleManager.replay();
 			}
@@ -872,6 +907,7 @@ public class RobocodeFrame extends JFrame {
 			getStopButton().setEnabled(false);
 			getReplayButton().setEnabled(canReplayRecord);
 			getNextTurnButton().setEnabled(false);
+			getGoToTurnButton().setEnabled(false);
 
 			menuBar.getBattleSaveRecordAsMenuItem().setEnabled(enableSaveRecord);
 			menuBar.getBattleExportRecordMenuItem().setEnabled(enableSaveRecord);
@@ -886,6 +922,7 @@ public class RobocodeFrame extends JFrame {
 
 			getPauseButton().setSelected(true);
 			getNextTurnButton().setEnabled(true);
+			getGoToTurnButton().setEnabled(isBattleReplay);
 
 			updateTitle();
 		}
@@ -896,6 +933,7 @@ public class RobocodeFrame extends JFrame {
 
 			getPauseButton().setSelected(false);
 			getNextTurnButton().setEnabled(false);
+			getGoToTurnButton().setEnabled(false);
 
 			// TODO: Refactor?
 			if (getTpsFromSlider() == 0) {
@@ -957,7 +995,10 @@ public class RobocodeFrame extends JFrame {
 								title.append(", ");
 							}
 							if (dispFps) {
-								title.append(windowManager.getFPS()).append(" FPS");
+								// Frames rendered by the battle view, and snapshots it skipped as it could not keep up
+								title.append(battleView.getFPS()).append(" FPS (");
+								title.append(Math.round(battleView.getFrameTime() * 10) / 10.0).append(" ms per frame, ");
+								title.append(battleView.getSkippedFrames()).append(" skipped)");
 							}
 						}
 					}